@@ -0,0 +1,90 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic tweets for benchmarks.
+ * <p>
+ * Output is fully determined by the seed, so every run of a benchmark sees
+ * the same tweets. Texts are ASCII, at most 140 characters, and mix plain
+ * words with @-mentions, #hashtags and email addresses, roughly in the
+ * proportions of the sample server's tweets.
+ */
+public class TweetGenerator {
+
+    private static final Instant EPOCH = Instant.parse("2016-02-17T00:00:00Z");
+    private static final int MAX_LENGTH = 140;
+
+    private static final String[] WORDS = {
+        "rivest", "talk", "in", "30", "minutes", "is", "it", "reasonable", "to",
+        "about", "so", "much", "the", "a", "great", "lecture", "today", "6.005",
+        "code", "review", "spec", "test", "bug", "fixed", "java", "graph", "poem",
+    };
+
+    private final SplittableRandom random;
+
+    /**
+     * Make a generator.
+     *
+     * @param seed seed that determines every tweet generated
+     */
+    public TweetGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Generate tweets.
+     *
+     * @param count number of tweets, requires count >= 0
+     * @return count tweets with distinct ids, in increasing timestamp order,
+     *         written by about count / 20 distinct authors
+     */
+    public List<Tweet> generate(int count) {
+        final int users = Math.max(10, count / 20);
+        final int hashtags = Math.max(5, count / 100);
+        List<Tweet> tweets = new ArrayList<>(count);
+        long seconds = 0;
+        for (int i = 0; i < count; i++) {
+            seconds += random.nextInt(5);
+            String author = username(random.nextInt(users));
+            tweets.add(new Tweet(i, author, text(users, hashtags), EPOCH.plusSeconds(seconds)));
+        }
+        return tweets;
+    }
+
+    private String text(int users, int hashtags) {
+        StringBuilder sb = new StringBuilder(MAX_LENGTH);
+        int words = 3 + random.nextInt(15);
+        for (int i = 0; i < words; i++) {
+            String word;
+            int kind = random.nextInt(20);
+            if (kind < 2) {
+                word = "@" + username(random.nextInt(users));
+            } else if (kind < 4) {
+                word = "#tag" + random.nextInt(hashtags);
+            } else if (kind < 5) {
+                word = username(random.nextInt(users)) + "@mit.edu";
+            } else {
+                word = WORDS[random.nextInt(WORDS.length)];
+            }
+            if (sb.length() + word.length() + 1 > MAX_LENGTH) {
+                break;
+            }
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(word);
+        }
+        return sb.toString();
+    }
+
+    private static String username(int index) {
+        return "user_" + index;
+    }
+}
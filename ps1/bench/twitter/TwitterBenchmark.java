@@ -0,0 +1,152 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks for the hot paths of Extract, Filter and SocialNetwork.
+ * <p>
+ * Every benchmark runs over the same seeded synthetic tweets (see
+ * TweetGenerator), at sizes from 10^3 to 10^7 tweets; the Compact benchmarks
+ * run the CompactTweets overloads over the same tweets stored in a
+ * CompactTweets. Throughput is reported
+ * in operations per second; running through main() also attaches JMH's GC
+ * profiler, which reports the allocation rate (gc.alloc.rate.norm is bytes
+ * allocated per operation).
+ * <p>
+ * The 10^7 size needs a large heap, roughly -Xmx8g. To benchmark only some
+ * sizes, pass e.g. {@code -p size=1000,10000} to the JMH runner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class TwitterBenchmark {
+
+    private static final long SEED = 6005;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private List<Tweet> tweets;
+    private CompactTweets compactTweets;
+    private String author;
+    private Timespan timespan;
+    private List<String> words;
+    private Map<String, Set<String>> followsGraph;
+
+    /**
+     * Generate the tweets, and the inputs derived from them, once per trial.
+     */
+    @Setup
+    public void setUp() {
+        tweets = new TweetGenerator(SEED).generate(size);
+        compactTweets = new CompactTweets();
+        compactTweets.addAll(tweets);
+        author = tweets.get(tweets.size() / 2).getAuthor().toUpperCase();
+
+        // the middle tenth of the time range
+        Timespan all = Extract.getTimespan(tweets);
+        long seconds = all.getEnd().getEpochSecond() - all.getStart().getEpochSecond();
+        Instant start = all.getStart().plusSeconds(seconds * 9 / 20);
+        timespan = new Timespan(start, start.plusSeconds(seconds / 10));
+
+        words = Arrays.asList("Rivest", "#tag0", "nosuchword");
+        followsGraph = SocialNetwork.guessFollowsGraph(tweets);
+    }
+
+    @Benchmark
+    public Set<String> extractGetMentionedUsers() {
+        return Extract.getMentionedUsers(tweets);
+    }
+
+    @Benchmark
+    public Set<String> extractGetMentionedUsersCompact() {
+        return Extract.getMentionedUsers(compactTweets);
+    }
+
+    @Benchmark
+    public Set<String> extractGetHashtags() {
+        return Extract.getHashtags(tweets);
+    }
+
+    @Benchmark
+    public Set<String> extractGetHashtagsCompact() {
+        return Extract.getHashtags(compactTweets);
+    }
+
+    @Benchmark
+    public Timespan extractGetTimespan() {
+        return Extract.getTimespan(tweets);
+    }
+
+    @Benchmark
+    public List<Tweet> filterWrittenBy() {
+        return Filter.writtenBy(tweets, author);
+    }
+
+    @Benchmark
+    public List<Tweet> filterInTimespan() {
+        return Filter.inTimespan(tweets, timespan);
+    }
+
+    @Benchmark
+    public List<Tweet> filterContaining() {
+        return Filter.containing(tweets, words);
+    }
+
+    @Benchmark
+    public List<Tweet> filterContainingCompact() {
+        return Filter.containing(compactTweets, words);
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> socialNetworkGuessFollowsGraph() {
+        return SocialNetwork.guessFollowsGraph(tweets);
+    }
+
+    @Benchmark
+    public List<String> socialNetworkInfluencers() {
+        return SocialNetwork.influencers(followsGraph);
+    }
+
+    /**
+     * Run every benchmark in this class with the GC profiler attached.
+     *
+     * @param args command-line arguments (not used)
+     * @throws RunnerException if JMH fails to run the benchmarks
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TwitterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
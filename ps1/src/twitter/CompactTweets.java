@@ -0,0 +1,155 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A mutable, append-only list of tweets whose texts are kept in a TextArena.
+ * <p>
+ * This is a compact alternative to a List&lt;Tweet&gt; for large tweet
+ * collections: each tweet's text is a view into shared arena bytes rather
+ * than its own String. Extract and Filter provide overloads that scan these
+ * views directly, and only matching tweets are turned back into Tweet objects.
+ */
+public class CompactTweets {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final TextArena arena;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private String[] authors = new String[INITIAL_CAPACITY];
+    private Instant[] timestamps = new Instant[INITIAL_CAPACITY];
+    private CharSequence[] texts = new CharSequence[INITIAL_CAPACITY];
+    private int size = 0;
+
+    // Abstraction function:
+    //   AF(ids, authors, timestamps, texts, size) = the list of tweets
+    //     [Tweet(ids[i], authors[i], texts[i], timestamps[i]) for 0 <= i < size]
+    // Representation invariant:
+    //   the four arrays have the same length, which is >= size
+    //   authors[i], timestamps[i], texts[i] are non-null for 0 <= i < size
+    // Safety from rep exposure:
+    //   arrays are private and never returned; texts are immutable views
+
+    /**
+     * Make an empty tweet list with its own arena.
+     */
+    public CompactTweets() {
+        this(new TextArena());
+    }
+
+    /**
+     * Make an empty tweet list that stores texts in the given arena.
+     *
+     * @param arena arena for tweet texts, which may be shared with other lists
+     */
+    public CompactTweets(TextArena arena) {
+        this.arena = arena;
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert arena != null;
+        assert ids.length == authors.length
+                && ids.length == timestamps.length
+                && ids.length == texts.length;
+        assert 0 <= size && size <= ids.length;
+    }
+
+    /**
+     * Append a tweet to the end of this list.
+     *
+     * @param tweet tweet to append
+     */
+    public void add(Tweet tweet) {
+        if (size == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            authors = Arrays.copyOf(authors, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+        }
+        ids[size] = tweet.getId();
+        authors[size] = tweet.getAuthor();
+        timestamps[size] = tweet.getTimestamp();
+        texts[size] = arena.store(tweet.getText());
+        size++;
+        checkRep();
+    }
+
+    /**
+     * Append tweets to the end of this list, in order.
+     *
+     * @param tweets tweets to append, not modified by this method
+     */
+    public void addAll(List<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+    }
+
+    /**
+     * @return number of tweets in this list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index index of a tweet, requires 0 <= index < size()
+     * @return the text of the tweet at index, as a view that is not decoded
+     */
+    public CharSequence text(int index) {
+        checkIndex(index);
+        return texts[index];
+    }
+
+    /**
+     * @param index index of a tweet, requires 0 <= index < size()
+     * @return author of the tweet at index
+     */
+    public String author(int index) {
+        checkIndex(index);
+        return authors[index];
+    }
+
+    /**
+     * @param index index of a tweet, requires 0 <= index < size()
+     * @return timestamp of the tweet at index
+     */
+    public Instant timestamp(int index) {
+        checkIndex(index);
+        return timestamps[index];
+    }
+
+    /**
+     * @param index index of a tweet, requires 0 <= index < size()
+     * @return the tweet at index, with its text decoded into a String
+     */
+    public Tweet get(int index) {
+        checkIndex(index);
+        return new Tweet(ids[index], authors[index], texts[index].toString(), timestamps[index]);
+    }
+
+    /**
+     * @return all the tweets in this list, in order, with decoded texts
+     */
+    public List<Tweet> toList() {
+        List<Tweet> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(get(i));
+        }
+        return result;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+    }
+}
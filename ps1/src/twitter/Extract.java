@@ -19,6 +19,22 @@ import java.util.regex.Pattern;
  */
 public class Extract {
 
+    // Regular expression to match valid mentions
+    // (?<![A-Za-z0-9_-]) - negative lookbehind: not preceded by valid username char
+    // @ - literal @ symbol
+    // ([A-Za-z0-9_-]+) - capture group: one or more valid username characters
+    // (?![A-Za-z0-9_-]) - negative lookahead: not followed by valid username char
+    private static final Pattern MENTION_PATTERN =
+            Pattern.compile("(?<![A-Za-z0-9_-])@([A-Za-z0-9_-]+)(?![A-Za-z0-9_-])");
+
+    // Regular expression to match hashtags: # followed by word characters
+    private static final Pattern HASHTAG_PATTERN = Pattern.compile("#([A-Za-z0-9_]+)");
+
+    private static final Metrics.Stage MENTIONS_STAGE = Metrics.stage("extract.getMentionedUsers");
+    private static final Metrics.Stage HASHTAGS_STAGE = Metrics.stage("extract.getHashtags");
+    private static final Metrics.Counter MENTION_MATCHES = Metrics.counter("extract.mentions.matches");
+    private static final Metrics.Counter HASHTAG_MATCHES = Metrics.counter("extract.hashtags.matches");
+
     /**
      * Get the time period spanned by tweets.
      * 
@@ -63,27 +79,46 @@ public class Extract {
      *         include a username at most once.
      */
     public static Set<String> getMentionedUsers(List<Tweet> tweets) {
+        final long start = Metrics.start();
         Set<String> mentionedUsers = new HashSet<>();
-
-        // Regular expression to match valid mentions
-        // (?<![A-Za-z0-9_-]) - negative lookbehind: not preceded by valid username char
-        // @ - literal @ symbol
-        // ([A-Za-z0-9_-]+) - capture group: one or more valid username characters
-        // (?![A-Za-z0-9_-]) - negative lookahead: not followed by valid username char
-        Pattern mentionPattern = Pattern.compile("(?<![A-Za-z0-9_-])@([A-Za-z0-9_-]+)(?![A-Za-z0-9_-])");
-
         for (Tweet tweet : tweets) {
-            String text = tweet.getText();
-            Matcher matcher = mentionPattern.matcher(text);
+            addMentions(tweet.getText(), mentionedUsers);
+        }
+        MENTIONS_STAGE.stop(start, tweets.size());
+        return mentionedUsers;
+    }
 
-            while (matcher.find()) {
-                String mentionedUser = matcher.group(1).toLowerCase(); // Normalize to lowercase
-                mentionedUsers.add(mentionedUser);
-            }
+    /**
+     * Get usernames mentioned in a compact list of tweets.
+     * 
+     * @param tweets
+     *            compact list of tweets with distinct ids, not modified by this
+     *            method.
+     * @return the set of usernames who are mentioned in the text of the tweets,
+     *         as defined by getMentionedUsers(List). Tweet texts are scanned in
+     *         place, without decoding them into Strings.
+     */
+    public static Set<String> getMentionedUsers(CompactTweets tweets) {
+        final long start = Metrics.start();
+        Set<String> mentionedUsers = new HashSet<>();
+        for (int i = 0; i < tweets.size(); i++) {
+            addMentions(tweets.text(i), mentionedUsers);
         }
+        MENTIONS_STAGE.stop(start, tweets.size());
         return mentionedUsers;
     }
 
+    /**
+     * Add the usernames mentioned in text, in lowercase, to mentionedUsers.
+     */
+    private static void addMentions(CharSequence text, Set<String> mentionedUsers) {
+        Matcher matcher = MENTION_PATTERN.matcher(text);
+        while (matcher.find()) {
+            mentionedUsers.add(matcher.group(1).toLowerCase()); // Normalize to lowercase
+            MENTION_MATCHES.increment();
+        }
+    }
+
     /**
      * Extract hashtags from a list of tweets.
      *
@@ -95,21 +130,43 @@ public class Extract {
      *         at most once.
      */
     public static Set<String> getHashtags(List<Tweet> tweets) {
+        final long start = Metrics.start();
         Set<String> hashtags = new HashSet<>();
-
-        // Regular expression to match hashtags: # followed by word characters
-        Pattern hashtagPattern = Pattern.compile("#([A-Za-z0-9_]+)");
-
         for (Tweet tweet : tweets) {
-            String text = tweet.getText();
-            Matcher matcher = hashtagPattern.matcher(text);
-
-            while (matcher.find()) {
-                String hashtag = matcher.group(1).toLowerCase(); // Remove # and normalize case
-                hashtags.add(hashtag);
-            }
+            addHashtags(tweet.getText(), hashtags);
         }
+        HASHTAGS_STAGE.stop(start, tweets.size());
+        return hashtags;
+    }
 
+    /**
+     * Extract hashtags from a compact list of tweets.
+     *
+     * @param tweets
+     *            compact list of tweets with distinct ids, not modified by this
+     *            method.
+     * @return the set of hashtags that appear in the text of the tweets, as
+     *         defined by getHashtags(List). Tweet texts are scanned in place,
+     *         without decoding them into Strings.
+     */
+    public static Set<String> getHashtags(CompactTweets tweets) {
+        final long start = Metrics.start();
+        Set<String> hashtags = new HashSet<>();
+        for (int i = 0; i < tweets.size(); i++) {
+            addHashtags(tweets.text(i), hashtags);
+        }
+        HASHTAGS_STAGE.stop(start, tweets.size());
         return hashtags;
     }
+
+    /**
+     * Add the hashtags in text, without "#" and in lowercase, to hashtags.
+     */
+    private static void addHashtags(CharSequence text, Set<String> hashtags) {
+        Matcher matcher = HASHTAG_PATTERN.matcher(text);
+        while (matcher.find()) {
+            hashtags.add(matcher.group(1).toLowerCase()); // Remove # and normalize case
+            HASHTAG_MATCHES.increment();
+        }
+    }
 }
@@ -7,6 +7,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 
 /**
@@ -19,6 +20,10 @@ import java.util.Set;
  */
 public class Filter {
 
+    private static final Metrics.Stage WRITTEN_BY_STAGE = Metrics.stage("filter.writtenBy");
+    private static final Metrics.Stage IN_TIMESPAN_STAGE = Metrics.stage("filter.inTimespan");
+    private static final Metrics.Stage CONTAINING_STAGE = Metrics.stage("filter.containing");
+
     /**
      * Find tweets written by a particular user.
      * 
@@ -31,6 +36,7 @@ public class Filter {
      *         in the same order as in the input list.
      */
     public static List<Tweet> writtenBy(List<Tweet> tweets, String username) {
+        final long start = Metrics.start();
         List<Tweet> result = new ArrayList<Tweet>();
 
         String lowerUsername = username.toLowerCase();
@@ -41,6 +47,7 @@ public class Filter {
             }
         }
 
+        WRITTEN_BY_STAGE.stop(start, tweets.size());
         return result;
     }
 
@@ -55,6 +62,7 @@ public class Filter {
      *         in the same order as in the input list.
      */
     public static List<Tweet> inTimespan(List<Tweet> tweets, Timespan timespan) {
+        final long start = Metrics.start();
         List<Tweet> result = new ArrayList<Tweet>();
 
         for (Tweet tweet : tweets) {
@@ -65,6 +73,7 @@ public class Filter {
             }
         }
 
+        IN_TIMESPAN_STAGE.stop(start, tweets.size());
         return result;
     }
 
@@ -89,41 +98,155 @@ public class Filter {
             return new ArrayList<>();
         }
 
+        final long start = Metrics.start();
         List<Tweet> result = new ArrayList<>();
-
-        // Convert words to lowercase and store in a set for quick lookup
-        Set<String> searchWords = new HashSet<>();
-        for (String word : words) {
-            searchWords.add(word.toLowerCase());
-        }
+        String[] searchWords = toSearchWords(words);
+        boolean asciiCaseFolding = asciiCaseFolding();
 
         for (Tweet tweet : tweets) {
-            if (tweetContainsAnyWord(tweet.getText(), searchWords)) {
+            if (tweetContainsAnyWord(tweet.getText(), searchWords, asciiCaseFolding)) {
                 result.add(tweet);
             }
         }
 
+        CONTAINING_STAGE.stop(start, tweets.size());
+        return result;
+    }
+
+    /**
+     * Find tweets in a compact list that contain certain words.
+     * 
+     * @param tweets
+     *            a compact list of tweets with distinct ids, not modified by
+     *            this method.
+     * @param words
+     *            a list of words to search for in the tweets. 
+     *            A word is a nonempty sequence of nonspace characters.
+     * @return all and only the tweets in the list that include at least one
+     *         of the words, as defined by containing(List, List), in the same
+     *         order as in the input list. Tweet texts are scanned in place,
+     *         and only the matching tweets are decoded.
+     */
+    public static List<Tweet> containing(CompactTweets tweets, List<String> words) {
+        List<Tweet> result = new ArrayList<>();
+        if (words.isEmpty()) {
+            return result;
+        }
+
+        final long start = Metrics.start();
+        String[] searchWords = toSearchWords(words);
+        boolean asciiCaseFolding = asciiCaseFolding();
+        for (int i = 0; i < tweets.size(); i++) {
+            if (tweetContainsAnyWord(tweets.text(i), searchWords, asciiCaseFolding)) {
+                result.add(tweets.get(i));
+            }
+        }
+
+        CONTAINING_STAGE.stop(start, tweets.size());
         return result;
     }
 
     /**
-     * Helper method to check if tweet text contains any of the search words
+     * Convert search words to lowercase and remove duplicates.
+     * @param words nonempty words to search for
+     * @return distinct lowercase search words
+     */
+    private static String[] toSearchWords(List<String> words) {
+        Set<String> searchWords = new HashSet<>();
+        for (String word : words) {
+            searchWords.add(word.toLowerCase());
+        }
+        return searchWords.toArray(new String[0]);
+    }
+
+    /**
+     * Helper method to check if tweet text contains any of the search words.
+     * Words are found by scanning the text in place, so no substrings are
+     * created for words that are plain ASCII.
      * @param tweetText the text of the tweet
-     * @param searchWords set of lowercase search words
+     * @param searchWords distinct search words, lowercased by String.toLowerCase()
+     * @param asciiCaseFolding true iff lowercasing an ASCII string with
+     *        String.toLowerCase() maps only 'A'..'Z' to 'a'..'z'
      * @return true if tweet contains at least one search word
      */
-    private static boolean tweetContainsAnyWord(String tweetText, Set<String> searchWords) {
-        // Split tweet text into words (split on whitespace)
-        // A word is defined as a nonempty sequence of nonspace characters
-        String[] tweetWords = tweetText.trim().split("\\s+");
-
-        for (String tweetWord : tweetWords) {
-            // Skip empty strings (shouldn't happen with split, but defensive)
-            if (!tweetWord.isEmpty() && searchWords.contains(tweetWord.toLowerCase())) {
-                return true;
+    private static boolean tweetContainsAnyWord(CharSequence tweetText, String[] searchWords,
+            boolean asciiCaseFolding) {
+        // Words are the maximal runs of nonspace characters in the trimmed text
+        int i = 0;
+        int length = tweetText.length();
+        while (i < length && tweetText.charAt(i) <= ' ') {
+            i++;
+        }
+        while (length > i && tweetText.charAt(length - 1) <= ' ') {
+            length--;
+        }
+        while (i < length) {
+            while (i < length && isSpace(tweetText.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            boolean ascii = asciiCaseFolding;
+            while (i < length && !isSpace(tweetText.charAt(i))) {
+                ascii &= tweetText.charAt(i) < 0x80;
+                i++;
+            }
+            if (i == start) {
+                continue;
+            }
+            if (ascii) {
+                for (String searchWord : searchWords) {
+                    if (asciiEqualsIgnoreCase(tweetText, start, i, searchWord)) {
+                        return true;
+                    }
+                }
+            } else {
+                // lowercasing may depend on context and change the length
+                String lowerWord = tweetText.subSequence(start, i).toString().toLowerCase();
+                for (String searchWord : searchWords) {
+                    if (lowerWord.equals(searchWord)) {
+                        return true;
+                    }
+                }
             }
         }
 
         return false;
     }
+
+    /**
+     * @return true iff lowercasing an ASCII string with String.toLowerCase()
+     *         in the default locale maps only 'A'..'Z' to 'a'..'z'
+     */
+    private static boolean asciiCaseFolding() {
+        String language = Locale.getDefault().getLanguage();
+        return !(language.equals("tr") || language.equals("az"));
+    }
+
+    /**
+     * @param text contains only ASCII characters in [start..end)
+     * @return true iff text[start..end) lowercased by mapping 'A'..'Z' to
+     *         'a'..'z' equals lowerWord
+     */
+    private static boolean asciiEqualsIgnoreCase(CharSequence text, int start, int end, String lowerWord) {
+        if (end - start != lowerWord.length()) {
+            return false;
+        }
+        for (int i = start, j = 0; i < end; i++, j++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            if (c != lowerWord.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true iff c is a space character, as matched by the regex \s
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
 }
@@ -0,0 +1,231 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A mutable, append-only list of tweets that caches the results of Filter
+ * queries over it.
+ * <p>
+ * Queries are cached under a normalized form, so writtenBy("Alyssa") and
+ * writtenBy("alyssa") share an entry, as do containing() queries with the
+ * same words in any order or case. Each entry remembers the version of the
+ * list it was computed at; since tweets are only ever appended, a stale entry
+ * is brought up to date by filtering just the tweets appended since then.
+ * <p>
+ * The cache holds at most maxWeight worth of entries, where an entry weighs
+ * one plus the number of tweets in its result, and evicts the least recently
+ * used entries first.
+ * <p>
+ * This class is not safe for use by multiple threads.
+ */
+public class FilterCache {
+
+    private final List<Tweet> tweets = new ArrayList<>();
+    private final long maxWeight;
+    private final LinkedHashMap<Query, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    // Abstraction function:
+    //   AF(tweets, maxWeight, entries, ...) = the list of tweets `tweets`, at
+    //     version tweets.size(), where entries[q] is the result of query q
+    //     over tweets[0..entries[q].version), and entries is ordered from
+    //     least to most recently used
+    // Representation invariant:
+    //   maxWeight >= 0
+    //   totalWeight == sum of weight(e) for e in entries.values() <= maxWeight
+    //   for every entry e: 0 <= e.version <= tweets.size()
+    // Safety from rep exposure:
+    //   all fields are private; queries return new lists
+
+    /**
+     * Make an empty tweet list with an empty cache.
+     *
+     * @param maxWeight maximum total weight of cached entries, requires >= 0
+     */
+    public FilterCache(long maxWeight) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("maxWeight must be non-negative");
+        }
+        this.maxWeight = maxWeight;
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert maxWeight >= 0;
+        assert 0 <= totalWeight && totalWeight <= maxWeight;
+    }
+
+    /**
+     * Append a tweet to the end of this list.
+     *
+     * @param tweet tweet to append, whose id is not already in the list
+     */
+    public void append(Tweet tweet) {
+        tweets.add(tweet);
+    }
+
+    /**
+     * Append tweets to the end of this list, in order.
+     *
+     * @param newTweets tweets to append, with distinct ids not already in the
+     *                  list; not modified by this method
+     */
+    public void appendAll(List<Tweet> newTweets) {
+        tweets.addAll(newTweets);
+    }
+
+    /**
+     * @return the version of this list, which increases with every append
+     */
+    public long version() {
+        return tweets.size();
+    }
+
+    /**
+     * @return all the tweets in this list, in order
+     */
+    public List<Tweet> tweets() {
+        return new ArrayList<>(tweets);
+    }
+
+    /**
+     * Find tweets written by a particular user; see Filter.writtenBy().
+     *
+     * @param username Twitter username
+     * @return all and only the tweets in this list whose author is username,
+     *         in order
+     */
+    public List<Tweet> writtenBy(String username) {
+        return query(new Query(Kind.WRITTEN_BY, username.toLowerCase()));
+    }
+
+    /**
+     * Find tweets sent during a particular timespan; see Filter.inTimespan().
+     *
+     * @param timespan timespan
+     * @return all and only the tweets in this list sent during timespan,
+     *         in order
+     */
+    public List<Tweet> inTimespan(Timespan timespan) {
+        return query(new Query(Kind.IN_TIMESPAN, timespan));
+    }
+
+    /**
+     * Find tweets that contain certain words; see Filter.containing().
+     *
+     * @param words words to search for, each a nonempty sequence of nonspace
+     *              characters
+     * @return all and only the tweets in this list that include at least one
+     *         of the words, in order
+     */
+    public List<Tweet> containing(List<String> words) {
+        Set<String> normalized = new HashSet<>();
+        for (String word : words) {
+            normalized.add(word.toLowerCase());
+        }
+        return query(new Query(Kind.CONTAINING, normalized));
+    }
+
+    /**
+     * @return number of queries answered from the cache, including ones that
+     *         only had to filter newly appended tweets
+     */
+    public long hits() {
+        return hits;
+    }
+
+    /**
+     * @return number of queries that had to filter the whole list
+     */
+    public long misses() {
+        return misses;
+    }
+
+    /**
+     * @return number of cached query results
+     */
+    public int cachedQueries() {
+        return entries.size();
+    }
+
+    private List<Tweet> query(Query query) {
+        final int version = tweets.size();
+        Entry entry = entries.get(query);
+        if (entry == null) {
+            misses++;
+            entry = new Entry(query.filter(tweets), version);
+            if (entry.weight() <= maxWeight) {
+                entries.put(query, entry);
+                totalWeight += entry.weight();
+            }
+        } else {
+            hits++;
+            if (entry.version < version) {
+                long oldWeight = entry.weight();
+                entry.result.addAll(query.filter(tweets.subList(entry.version, version)));
+                entry.version = version;
+                totalWeight += entry.weight() - oldWeight;
+            }
+        }
+        List<Tweet> result = new ArrayList<>(entry.result);
+        evict();
+        checkRep();
+        return result;
+    }
+
+    /**
+     * Evict least recently used entries until the total weight fits.
+     */
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (totalWeight > maxWeight && eldest.hasNext()) {
+            totalWeight -= eldest.next().weight();
+            eldest.remove();
+        }
+    }
+
+    /** The Filter methods that can be cached. */
+    private enum Kind { WRITTEN_BY, IN_TIMESPAN, CONTAINING }
+
+    /**
+     * A normalized Filter query: lowercase username for WRITTEN_BY, a Timespan
+     * for IN_TIMESPAN, or a set of lowercase words for CONTAINING.
+     */
+    private record Query(Kind kind, Object argument) {
+
+        @SuppressWarnings("unchecked")
+        List<Tweet> filter(List<Tweet> tweets) {
+            return switch (kind) {
+            case WRITTEN_BY -> Filter.writtenBy(tweets, (String) argument);
+            case IN_TIMESPAN -> Filter.inTimespan(tweets, (Timespan) argument);
+            case CONTAINING -> Filter.containing(tweets, new ArrayList<>((Set<String>) argument));
+            };
+        }
+    }
+
+    /** A cached result over the first version tweets of the list. */
+    private static class Entry {
+        private final List<Tweet> result;
+        private int version;
+
+        Entry(List<Tweet> result, int version) {
+            this.result = result;
+            this.version = version;
+        }
+
+        long weight() {
+            return 1L + result.size();
+        }
+    }
+}
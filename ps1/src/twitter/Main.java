@@ -34,7 +34,8 @@ public class Main {
     
     /**
      * Main method of the program. Fetches a sample of tweets and prints some
-     * facts about it.
+     * facts about it. Run with -Dtwitter.metrics=true to print per-stage
+     * metrics (see Metrics) when the program exits.
      * 
      * @param args command-line arguments (not used)
      */
@@ -45,11 +46,13 @@ public class Main {
         } catch (AssertionError ae) { }
         
         final List<Tweet> tweets;
+        final long readStart = Metrics.start();
         try {
             tweets = TweetReader.readTweetsFromWeb(SAMPLE_SERVER);
         } catch (IOException ioe) {
             throw new RuntimeException(ioe);
         }
+        Metrics.stage("tweetreader.readTweetsFromWeb").stop(readStart, tweets.size());
         
         // display some characteristics about the tweets
         System.err.println("fetched " + tweets.size() + " tweets");
@@ -0,0 +1,249 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process counters and latency histograms for the stages of the twitter
+ * pipeline (reading, Extract, Filter and SocialNetwork).
+ * <p>
+ * Metrics are recorded only when the JVM is started with
+ * {@code -Dtwitter.metrics=true}; otherwise every recording method returns
+ * immediately, and the JIT removes the call entirely. When enabled, a report
+ * of all metrics is printed to System.err when the JVM exits.
+ * <p>
+ * Instruments are thread-safe and are looked up by name, so the same name
+ * always yields the same instrument.
+ */
+public class Metrics {
+
+    /** True iff metrics are being recorded in this JVM. */
+    public static final boolean ENABLED = Boolean.getBoolean("twitter.metrics");
+
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, Stage> stages = new ConcurrentHashMap<>();
+
+    static {
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> dump(System.err)));
+        }
+    }
+
+    private Metrics() {
+        // static methods only
+    }
+
+    /**
+     * Get a counter.
+     *
+     * @param name name of the counter
+     * @return the counter with the given name, created if it did not exist
+     */
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    /**
+     * Get a pipeline stage.
+     *
+     * @param name name of the stage
+     * @return the stage with the given name, created if it did not exist
+     */
+    public static Stage stage(String name) {
+        return stages.computeIfAbsent(name, n -> new Stage());
+    }
+
+    /**
+     * Start timing an operation.
+     *
+     * @return a start time to pass to Stage.stop(), or 0 if metrics are disabled
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * @return a human-readable report of every counter and stage, sorted by name
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(counters).entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+        }
+        for (Map.Entry<String, Stage> entry : new TreeMap<>(stages).entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Print the report of every counter and stage.
+     *
+     * @param out stream to print to
+     */
+    public static void dump(PrintStream out) {
+        out.print(report());
+        out.flush();
+    }
+
+    /**
+     * A monotonically increasing count of events.
+     */
+    public static class Counter {
+
+        private final LongAdder count = new LongAdder();
+
+        Counter() { }
+
+        /**
+         * Count one event, if metrics are enabled.
+         */
+        public void increment() {
+            if (ENABLED) {
+                count.increment();
+            }
+        }
+
+        /**
+         * Count events, if metrics are enabled.
+         *
+         * @param n number of events, requires n >= 0
+         */
+        public void add(long n) {
+            if (ENABLED) {
+                addValue(n);
+            }
+        }
+
+        void addValue(long n) {
+            count.add(n);
+        }
+
+        /**
+         * @return number of events counted so far
+         */
+        public long get() {
+            return count.sum();
+        }
+
+        @Override public String toString() {
+            return String.valueOf(get());
+        }
+    }
+
+    /**
+     * A pipeline stage: a latency histogram of its calls, and a count of the
+     * items (such as tweets) those calls processed.
+     * <p>
+     * Latencies are kept in power-of-two buckets of nanoseconds, so reported
+     * percentiles are upper bounds accurate to within a factor of two.
+     */
+    public static class Stage {
+
+        private static final int BUCKETS = 64;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder items = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        Stage() { }
+
+        /**
+         * Finish timing a call of this stage, if metrics are enabled.
+         *
+         * @param start value returned by Metrics.start() when the call began
+         * @param itemCount number of items the call processed, requires >= 0
+         */
+        public void stop(long start, long itemCount) {
+            if (ENABLED) {
+                record(System.nanoTime() - start, itemCount);
+            }
+        }
+
+        void record(long nanos, long itemCount) {
+            long latency = Math.max(nanos, 0);
+            buckets.incrementAndGet(BUCKETS - 1 - Long.numberOfLeadingZeros(latency | 1));
+            calls.increment();
+            items.add(itemCount);
+            totalNanos.add(latency);
+            maxNanos.accumulate(latency);
+        }
+
+        /**
+         * @return number of calls recorded
+         */
+        public long calls() {
+            return calls.sum();
+        }
+
+        /**
+         * @return number of items processed by all recorded calls
+         */
+        public long items() {
+            return items.sum();
+        }
+
+        /**
+         * @return total time spent in recorded calls, in nanoseconds
+         */
+        public long totalNanos() {
+            return totalNanos.sum();
+        }
+
+        /**
+         * @return longest recorded call, in nanoseconds
+         */
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+
+        /**
+         * @return items processed per second of time spent in this stage,
+         *         or 0 if no time has been recorded
+         */
+        public double itemsPerSecond() {
+            long nanos = totalNanos();
+            return nanos == 0 ? 0 : items() * 1e9 / nanos;
+        }
+
+        /**
+         * @param fraction requires 0 <= fraction <= 1
+         * @return an upper bound, in nanoseconds, on the latency of that
+         *         fraction of the recorded calls, or 0 if none were recorded
+         */
+        public long percentileNanos(double fraction) {
+            if (fraction < 0 || fraction > 1) {
+                throw new IllegalArgumentException("fraction must be in [0, 1]");
+            }
+            long total = calls();
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(fraction * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(i == BUCKETS - 1 ? Long.MAX_VALUE : (2L << i) - 1, maxNanos());
+                }
+            }
+            return maxNanos();
+        }
+
+        @Override public String toString() {
+            return String.format("calls=%d items=%d total=%.3fms items/s=%.0f p50<=%dns p99<=%dns max=%dns",
+                    calls(), items(), totalNanos() / 1e6, itemsPerSecond(),
+                    percentileNanos(0.5), percentileNanos(0.99), maxNanos());
+        }
+    }
+}
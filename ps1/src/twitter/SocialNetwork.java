@@ -23,6 +23,10 @@ import java.util.*;
  */
 public class SocialNetwork {
 
+    private static final Metrics.Stage GUESS_STAGE = Metrics.stage("socialnetwork.guessFollowsGraph");
+    private static final Metrics.Stage INFLUENCERS_SORT_STAGE = Metrics.stage("socialnetwork.influencers.sort");
+    private static final Metrics.Counter EDGES_ADDED = Metrics.counter("socialnetwork.edges.added");
+
     /**
      * Guess who might follow whom, from evidence found in tweets.
      * 
@@ -39,6 +43,7 @@ public class SocialNetwork {
      *         either authors or @-mentions in the list of tweets.
      */
     public static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets) {
+        final long start = Metrics.start();
         Map<String, Set<String>> followsGraph = new HashMap<>();
 
         // First, implement required @-mention evidence
@@ -47,6 +52,7 @@ public class SocialNetwork {
         // Second, add hashtag evidence
         addHashtagEvidence(tweets, followsGraph);
 
+        GUESS_STAGE.stop(start, tweets.size());
         return followsGraph;
     }
 
@@ -69,8 +75,8 @@ public class SocialNetwork {
                 followsGraph.putIfAbsent(mentionedUser, new HashSet<>());
 
                 // Create follow relationship: author follows mentioned user
-                if (!author.equals(mentionedUser)) {
-                    followsGraph.get(author).add(mentionedUser);
+                if (!author.equals(mentionedUser) && followsGraph.get(author).add(mentionedUser)) {
+                    EDGES_ADDED.increment();
                 }
             }
         }
@@ -123,8 +129,12 @@ public class SocialNetwork {
                 followsGraph.putIfAbsent(user2, new HashSet<>());
 
                 // Create mutual follows
-                followsGraph.get(user1).add(user2);
-                followsGraph.get(user2).add(user1);
+                if (followsGraph.get(user1).add(user2)) {
+                    EDGES_ADDED.increment();
+                }
+                if (followsGraph.get(user2).add(user1)) {
+                    EDGES_ADDED.increment();
+                }
             }
         }
     }
@@ -159,6 +169,7 @@ public class SocialNetwork {
         // Create list of users sorted by follower count (descending)
         List<String> users = new ArrayList<>(followsGraph.keySet());
 
+        final long sortStart = Metrics.start();
         users.sort((user1, user2) -> {
             int count1 = followerCounts.get(user1);
             int count2 = followerCounts.get(user2);
@@ -173,6 +184,7 @@ public class SocialNetwork {
 
             return result;
         });
+        INFLUENCERS_SORT_STAGE.stop(sortStart, users.size());
 
         return users;
     }
@@ -0,0 +1,154 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A mutable, append-only store of text, packed into large shared byte chunks.
+ * <p>
+ * Storing a string returns a lightweight CharSequence view of the stored
+ * bytes instead of a separate String object. Texts made only of ASCII
+ * characters take one byte per character and share chunk arrays with every
+ * other stored text; text containing any non-ASCII character is kept as the
+ * original String, so every view reads back exactly the text that was stored.
+ * <p>
+ * Views are immutable: stored bytes are never overwritten.
+ */
+public class TextArena {
+
+    /** Size in bytes of each shared chunk. */
+    static final int CHUNK_SIZE = 1 << 16;
+
+    private byte[] chunk = new byte[CHUNK_SIZE];
+    private int used = 0;
+    private long storedBytes = 0;
+    private int chunkCount = 1;
+
+    // Abstraction function:
+    //   AF(chunk, used, storedBytes, chunkCount) = an arena whose texts live in
+    //     chunkCount chunks of bytes; new texts are appended to chunk[used..]
+    // Representation invariant:
+    //   chunk != null
+    //   0 <= used <= chunk.length
+    //   storedBytes >= 0, chunkCount >= 1
+    // Safety from rep exposure:
+    //   chunks are shared only with AsciiText views, which never write to them
+
+    /**
+     * Make an empty arena.
+     */
+    public TextArena() {
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert chunk != null;
+        assert 0 <= used && used <= chunk.length;
+        assert storedBytes >= 0 && chunkCount >= 1;
+    }
+
+    /**
+     * Store a text in this arena.
+     *
+     * @param text text to store
+     * @return a character sequence with the same characters as text; if text
+     *         is entirely ASCII the result is a view of bytes in this arena,
+     *         otherwise it is text itself
+     */
+    public CharSequence store(String text) {
+        final int length = text.length();
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) >= 0x80) {
+                return text;
+            }
+        }
+
+        final byte[] target;
+        final int offset;
+        if (length > CHUNK_SIZE) {
+            // too large to share a chunk, so give it one of its own
+            target = new byte[length];
+            offset = 0;
+            chunkCount++;
+        } else {
+            if (length > chunk.length - used) {
+                chunk = new byte[CHUNK_SIZE];
+                used = 0;
+                chunkCount++;
+            }
+            target = chunk;
+            offset = used;
+            used += length;
+        }
+        for (int i = 0; i < length; i++) {
+            target[offset + i] = (byte) text.charAt(i);
+        }
+        storedBytes += length;
+        checkRep();
+        return new AsciiText(target, offset, length);
+    }
+
+    /**
+     * @return total number of text bytes stored in this arena
+     */
+    public long storedBytes() {
+        return storedBytes;
+    }
+
+    /**
+     * @return number of chunks allocated by this arena
+     */
+    public int chunkCount() {
+        return chunkCount;
+    }
+}
+
+/**
+ * Immutable view of ASCII text held in a byte array, one byte per character.
+ * This class is internal to the rep of TextArena.
+ */
+final class AsciiText implements CharSequence {
+
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+
+    // Abstraction function:
+    //   AF(bytes, offset, length) = the characters (char) bytes[offset..offset+length)
+    // Representation invariant:
+    //   0 <= offset, 0 <= length, offset + length <= bytes.length
+    //   every byte in the range is in 0..0x7f
+    // Safety from rep exposure:
+    //   bytes is never written after construction, and never returned
+
+    AsciiText(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        assert 0 <= offset && 0 <= length && offset + length <= bytes.length;
+    }
+
+    @Override public int length() {
+        return length;
+    }
+
+    @Override public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return (char) bytes[offset + index];
+    }
+
+    @Override public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("range [" + start + ", " + end + "), length " + length);
+        }
+        return new AsciiText(bytes, offset + start, end - start);
+    }
+
+    @Override public String toString() {
+        return new String(bytes, offset, length, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,243 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mutable per-minute, per-hour and per-day tweet counts, for each author and
+ * for each hashtag, maintained incrementally as tweets are added.
+ * <p>
+ * Time buckets are aligned to UTC minutes, hours and days. A count over a
+ * Timespan includes every tweet whose minute lies in the span's range of
+ * minutes; that is, the span is widened to whole minutes, and the minute
+ * containing its end is always counted in full, even when the end falls on a
+ * minute boundary. So the count agrees with Filter.inTimespan() when the
+ * span starts on a minute boundary and ends at second 59 of a minute, for
+ * tweets with whole-second timestamps. Range counts
+ * are answered by summing the fewest buckets that cover the range (whole
+ * days, then whole hours, then minutes), without scanning tweets.
+ * <p>
+ * Authors and hashtags are case-insensitive. A tweet counts once for each
+ * distinct hashtag in its text, as defined by Extract.getHashtags().
+ */
+public class TweetRollup {
+
+    /**
+     * The size of a time bucket.
+     */
+    public enum Granularity {
+        MINUTE(1), HOUR(60), DAY(24 * 60);
+
+        private final long minutes;
+
+        Granularity(long minutes) {
+            this.minutes = minutes;
+        }
+
+        /**
+         * @return number of minutes in a bucket of this granularity
+         */
+        public long minutes() {
+            return minutes;
+        }
+    }
+
+    private static final int SECONDS_PER_MINUTE = 60;
+
+    private final Map<String, Buckets> authors = new HashMap<>();
+    private final Map<String, Buckets> hashtags = new HashMap<>();
+    private long tweetCount = 0;
+
+    // Abstraction function:
+    //   AF(authors, hashtags, tweetCount) = rollups of tweetCount tweets, where
+    //     authors[a] counts the tweets written by a, and hashtags[h] counts the
+    //     tweets containing hashtag h, both bucketed by time
+    // Representation invariant:
+    //   all keys of authors and hashtags are lowercase
+    //   for every Buckets b: b satisfies its own rep invariant
+    //   sum of all minute counts over authors == tweetCount
+    // Safety from rep exposure:
+    //   all fields are private and Buckets are never returned
+
+    /**
+     * Make empty rollups.
+     */
+    public TweetRollup() {
+    }
+
+    /**
+     * Count a tweet in the rollups of its author and its hashtags.
+     *
+     * @param tweet tweet to add, whose id has not already been added
+     */
+    public void add(Tweet tweet) {
+        final long minute = Math.floorDiv(tweet.getTimestamp().getEpochSecond(), SECONDS_PER_MINUTE);
+        authors.computeIfAbsent(tweet.getAuthor().toLowerCase(), a -> new Buckets()).add(minute);
+        for (String hashtag : Extract.getHashtags(List.of(tweet))) {
+            hashtags.computeIfAbsent(hashtag, h -> new Buckets()).add(minute);
+        }
+        tweetCount++;
+    }
+
+    /**
+     * Count tweets in the rollups of their authors and hashtags.
+     *
+     * @param tweets tweets to add, with distinct ids not already added; not
+     *               modified by this method
+     */
+    public void addAll(List<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+    }
+
+    /**
+     * @return number of tweets added
+     */
+    public long size() {
+        return tweetCount;
+    }
+
+    /**
+     * @param author Twitter username
+     * @param timespan time range, widened to whole minutes
+     * @return number of added tweets written by author during timespan
+     */
+    public long countByAuthor(String author, Timespan timespan) {
+        Buckets buckets = authors.get(author.toLowerCase());
+        return buckets == null ? 0 : buckets.count(firstMinute(timespan), lastMinute(timespan));
+    }
+
+    /**
+     * @param hashtag hashtag, without the leading "#"
+     * @param timespan time range, widened to whole minutes
+     * @return number of added tweets containing hashtag, sent during timespan
+     */
+    public long countByHashtag(String hashtag, Timespan timespan) {
+        Buckets buckets = hashtags.get(hashtag.toLowerCase());
+        return buckets == null ? 0 : buckets.count(firstMinute(timespan), lastMinute(timespan));
+    }
+
+    /**
+     * @param author Twitter username
+     * @param timespan time range
+     * @param granularity size of each bucket in the result
+     * @return tweet counts for author, one per bucket of the given granularity,
+     *         from the bucket containing the start of timespan through the
+     *         bucket containing its end
+     */
+    public long[] seriesByAuthor(String author, Timespan timespan, Granularity granularity) {
+        return series(authors.get(author.toLowerCase()), timespan, granularity);
+    }
+
+    /**
+     * @param hashtag hashtag, without the leading "#"
+     * @param timespan time range
+     * @param granularity size of each bucket in the result
+     * @return tweet counts for hashtag, one per bucket of the given
+     *         granularity, from the bucket containing the start of timespan
+     *         through the bucket containing its end
+     */
+    public long[] seriesByHashtag(String hashtag, Timespan timespan, Granularity granularity) {
+        return series(hashtags.get(hashtag.toLowerCase()), timespan, granularity);
+    }
+
+    private static long[] series(Buckets buckets, Timespan timespan, Granularity granularity) {
+        final long first = Math.floorDiv(firstMinute(timespan), granularity.minutes());
+        final long last = Math.floorDiv(lastMinute(timespan), granularity.minutes());
+        if (last - first + 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many buckets in timespan");
+        }
+        long[] counts = new long[(int) (last - first + 1)];
+        if (buckets != null) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(granularity, first + i);
+            }
+        }
+        return counts;
+    }
+
+    private static long firstMinute(Timespan timespan) {
+        return Math.floorDiv(timespan.getStart().getEpochSecond(), SECONDS_PER_MINUTE);
+    }
+
+    private static long lastMinute(Timespan timespan) {
+        return Math.floorDiv(timespan.getEnd().getEpochSecond(), SECONDS_PER_MINUTE);
+    }
+}
+
+/**
+ * Mutable tweet counts for one author or hashtag, bucketed by minute, hour
+ * and day. This class is internal to the rep of TweetRollup.
+ */
+class Buckets {
+
+    private final Map<Long, Long> minutes = new HashMap<>();
+    private final Map<Long, Long> hours = new HashMap<>();
+    private final Map<Long, Long> days = new HashMap<>();
+
+    // Abstraction function:
+    //   AF(minutes, hours, days) = tweet counts where minutes[m] tweets were
+    //     sent in minute m since the epoch, and hours and days hold the same
+    //     counts summed over each hour and each day
+    // Representation invariant:
+    //   all counts are positive
+    //   hours[h] == sum of minutes[m] for m in hour h, and likewise for days
+    // Safety from rep exposure:
+    //   all fields are private and never returned
+
+    /**
+     * Count a tweet sent in minute.
+     * @param minute index of a UTC minute since the epoch
+     */
+    void add(long minute) {
+        minutes.merge(minute, 1L, Long::sum);
+        hours.merge(Math.floorDiv(minute, TweetRollup.Granularity.HOUR.minutes()), 1L, Long::sum);
+        days.merge(Math.floorDiv(minute, TweetRollup.Granularity.DAY.minutes()), 1L, Long::sum);
+    }
+
+    /**
+     * @param granularity bucket size
+     * @param bucket index of a bucket of that size since the epoch
+     * @return number of tweets counted in that bucket
+     */
+    long get(TweetRollup.Granularity granularity, long bucket) {
+        Map<Long, Long> counts = switch (granularity) {
+        case MINUTE -> minutes;
+        case HOUR -> hours;
+        case DAY -> days;
+        };
+        return counts.getOrDefault(bucket, 0L);
+    }
+
+    /**
+     * Count tweets in a range of minutes, summing whole days and whole hours
+     * wherever the range covers them.
+     * @param first first minute of the range
+     * @param last last minute of the range, inclusive
+     * @return number of tweets counted in minutes first..last
+     */
+    long count(long first, long last) {
+        final long hour = TweetRollup.Granularity.HOUR.minutes();
+        final long day = TweetRollup.Granularity.DAY.minutes();
+        long total = 0;
+        long minute = first;
+        while (minute <= last) {
+            if (Math.floorMod(minute, day) == 0 && last - minute >= day - 1) {
+                total += days.getOrDefault(Math.floorDiv(minute, day), 0L);
+                minute += day;
+            } else if (Math.floorMod(minute, hour) == 0 && last - minute >= hour - 1) {
+                total += hours.getOrDefault(Math.floorDiv(minute, hour), 0L);
+                minute += hour;
+            } else {
+                total += minutes.getOrDefault(minute, 0L);
+                minute++;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,189 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class CompactTweetsTest {
+
+    /*
+     * Testing strategy for TextArena and CompactTweets:
+     *
+     * TextArena.store():
+     * - Text: empty, ASCII, non-ASCII, longer than one chunk
+     * - Arena state: empty chunk, chunk too full for the text
+     * - Views: charAt, subSequence, toString
+     *
+     * CompactTweets:
+     * - Size: empty, one tweet, more tweets than the initial capacity
+     * - get() round-trips every field of the original tweet
+     *
+     * Extract and Filter overloads on CompactTweets:
+     * - Results agree with the List<Tweet> versions
+     * - Texts with mentions, hashtags, mixed case words, non-ASCII characters
+     * - Words whose lowercase form depends on context (Greek final sigma),
+     *   texts with leading and trailing control characters
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about @Rivest so much? #MIT", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest\ttalk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "ccharles", "café with @alyssa #hype", d2);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testStoreAsciiView() {
+        TextArena arena = new TextArena();
+        CharSequence text = arena.store("hello world");
+
+        assertFalse("expected ASCII text to be stored as a view", text instanceof String);
+        assertEquals("expected same length", 11, text.length());
+        assertEquals("expected same characters", 'w', text.charAt(6));
+        assertEquals("expected subSequence view", "world", text.subSequence(6, 11).toString());
+        assertEquals("expected decoded text", "hello world", text.toString());
+        assertEquals("expected bytes counted", 11, arena.storedBytes());
+    }
+
+    @Test
+    public void testStoreEmpty() {
+        TextArena arena = new TextArena();
+        CharSequence text = arena.store("");
+
+        assertEquals("expected empty text", 0, text.length());
+        assertEquals("expected empty string", "", text.toString());
+    }
+
+    @Test
+    public void testStoreNonAsciiKeepsString() {
+        TextArena arena = new TextArena();
+        String original = "café";
+
+        assertSame("expected non-ASCII text to be kept as is", original, arena.store(original));
+        assertEquals("expected no bytes stored", 0, arena.storedBytes());
+    }
+
+    @Test
+    public void testStoreFillsChunks() {
+        TextArena arena = new TextArena();
+        char[] chars = new char[TextArena.CHUNK_SIZE / 2 + 1];
+        Arrays.fill(chars, 'x');
+        String half = new String(chars);
+
+        CharSequence first = arena.store(half);
+        CharSequence second = arena.store(half);
+
+        assertEquals("expected a new chunk when the current one is full", 2, arena.chunkCount());
+        assertEquals("expected first text intact", half, first.toString());
+        assertEquals("expected second text intact", half, second.toString());
+    }
+
+    @Test
+    public void testStoreLargerThanChunk() {
+        TextArena arena = new TextArena();
+        char[] chars = new char[TextArena.CHUNK_SIZE + 1];
+        Arrays.fill(chars, 'y');
+        String big = new String(chars);
+
+        assertEquals("expected oversized text intact", big, arena.store(big).toString());
+        assertEquals("expected small texts to keep sharing", "z", arena.store("z").toString());
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testViewCharAtOutOfRange() {
+        new TextArena().store("abc").charAt(3);
+    }
+
+    @Test
+    public void testCompactTweetsRoundTrip() {
+        CompactTweets tweets = new CompactTweets();
+        List<Tweet> originals = Arrays.asList(tweet1, tweet2, tweet3);
+        for (int i = 0; i < 20; i++) {
+            tweets.addAll(originals);
+        }
+
+        assertEquals("expected all tweets stored", 60, tweets.size());
+        Tweet copy = tweets.get(31);
+        assertEquals("expected same id", tweet2.getId(), copy.getId());
+        assertEquals("expected same author", tweet2.getAuthor(), copy.getAuthor());
+        assertEquals("expected same text", tweet2.getText(), copy.getText());
+        assertEquals("expected same timestamp", tweet2.getTimestamp(), copy.getTimestamp());
+        assertEquals("expected same text view", tweet3.getText(), tweets.text(32).toString());
+    }
+
+    @Test
+    public void testCompactTweetsShareArena() {
+        TextArena arena = new TextArena();
+        CompactTweets first = new CompactTweets(arena);
+        CompactTweets second = new CompactTweets(arena);
+        first.add(tweet1);
+        second.add(tweet2);
+
+        assertEquals("expected both lists to store in one arena",
+                tweet1.getText().length() + tweet2.getText().length(), arena.storedBytes());
+    }
+
+    @Test
+    public void testExtractOnCompactTweets() {
+        List<Tweet> list = Arrays.asList(tweet1, tweet2, tweet3);
+        CompactTweets tweets = new CompactTweets();
+        tweets.addAll(list);
+
+        assertEquals("expected same mentions as List version",
+                Set.of("rivest", "alyssa"), Extract.getMentionedUsers(tweets));
+        assertEquals("expected same hashtags as List version",
+                Extract.getHashtags(list), Extract.getHashtags(tweets));
+    }
+
+    @Test
+    public void testFilterContainingOnCompactTweets() {
+        List<Tweet> list = Arrays.asList(tweet1, tweet2, tweet3);
+        CompactTweets tweets = new CompactTweets();
+        tweets.addAll(list);
+
+        assertEquals("expected tab-separated word to match",
+                Arrays.asList(tweet2), Filter.containing(tweets, Arrays.asList("RIVEST")));
+        assertEquals("expected same result as List version",
+                Filter.containing(list, Arrays.asList("#hype", "CAFÉ")),
+                Filter.containing(tweets, Arrays.asList("#hype", "CAFÉ")));
+        assertTrue("expected no match for partial word",
+                Filter.containing(tweets, Arrays.asList("riv")).isEmpty());
+        assertTrue("expected empty result for no words",
+                Filter.containing(tweets, List.of()).isEmpty());
+    }
+
+    @Test
+    public void testFilterContainingLowercasesWholeWords() {
+        // "ΟΔΟΣ".toLowerCase() ends in final sigma, unlike lowercasing each char
+        Tweet greek = new Tweet(4, "alyssa", "ΟΔΟΣ 6005", d1);
+        Tweet control = new Tweet(5, "bbitdiddle", "\u0001hello\u0002", d2);
+        List<Tweet> list = Arrays.asList(greek, control);
+        CompactTweets tweets = new CompactTweets();
+        tweets.addAll(list);
+
+        for (List<String> words : List.of(List.of("οδοσ"), List.of("οδος"), List.of("ΟΔΟΣ"),
+                List.of("hello"), List.of("\u0001hello"))) {
+            assertEquals("expected same result as List version for " + words,
+                    Filter.containing(list, words), Filter.containing(tweets, words));
+        }
+        assertTrue("expected no match for nonfinal sigma",
+                Filter.containing(tweets, List.of("οδοσ")).isEmpty());
+        assertEquals("expected match for final sigma",
+                List.of(greek), Filter.containing(tweets, List.of("οδος")));
+        assertEquals("expected control characters at the ends to be trimmed",
+                List.of(control), Filter.containing(list, List.of("hello")));
+    }
+}
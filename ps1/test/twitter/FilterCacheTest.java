@@ -0,0 +1,153 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class FilterCacheTest {
+
+    /*
+     * Testing strategy for FilterCache:
+     *
+     * Queries (writtenBy, inTimespan, containing):
+     * - Cache state: miss, hit at current version, hit at older version
+     * - Normalization: different case, different word order
+     * - Results agree with Filter over the whole list, in order
+     *
+     * Eviction:
+     * - maxWeight: 0, smaller than one result, room for some entries
+     * - Least recently used entry is evicted first
+     * - Entry that grows past maxWeight when extended
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "rivest is great", d3);
+    private static final Tweet tweet4 = new Tweet(4, "ccharles", "talk talk talk", d3);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testMissThenHit() {
+        FilterCache cache = new FilterCache(100);
+        cache.appendAll(Arrays.asList(tweet1, tweet2));
+
+        assertEquals("expected first query to filter",
+                Arrays.asList(tweet1), cache.writtenBy("alyssa"));
+        assertEquals("expected same result from cache",
+                Arrays.asList(tweet1), cache.writtenBy("ALYSSA"));
+        assertEquals("expected one miss", 1, cache.misses());
+        assertEquals("expected normalized query to hit", 1, cache.hits());
+    }
+
+    @Test
+    public void testHitExtendsAfterAppend() {
+        FilterCache cache = new FilterCache(100);
+        cache.appendAll(Arrays.asList(tweet1, tweet2));
+        cache.writtenBy("alyssa");
+        long version = cache.version();
+
+        cache.append(tweet3);
+        assertTrue("expected version to increase", cache.version() > version);
+        assertEquals("expected appended tweet in extended result",
+                Arrays.asList(tweet1, tweet3), cache.writtenBy("alyssa"));
+        assertEquals("expected extension to count as a hit", 1, cache.hits());
+        assertEquals("expected only the first query to miss", 1, cache.misses());
+    }
+
+    @Test
+    public void testContainingNormalized() {
+        FilterCache cache = new FilterCache(100);
+        cache.appendAll(Arrays.asList(tweet1, tweet2, tweet4));
+
+        List<Tweet> expected = Filter.containing(cache.tweets(), Arrays.asList("talk", "#HYPE"));
+        assertEquals("expected same result as Filter",
+                expected, cache.containing(Arrays.asList("talk", "#HYPE")));
+        assertEquals("expected same result for reordered words",
+                expected, cache.containing(Arrays.asList("#hype", "TALK")));
+        assertEquals("expected reordered words to hit", 1, cache.hits());
+    }
+
+    @Test
+    public void testInTimespanExtends() {
+        FilterCache cache = new FilterCache(100);
+        Timespan span = new Timespan(d2, d3);
+        cache.append(tweet1);
+        assertTrue("expected no tweets in span yet", cache.inTimespan(span).isEmpty());
+
+        cache.appendAll(Arrays.asList(tweet2, tweet3));
+        assertEquals("expected appended tweets in span",
+                Arrays.asList(tweet2, tweet3), cache.inTimespan(span));
+    }
+
+    @Test
+    public void testResultNotShared() {
+        FilterCache cache = new FilterCache(100);
+        cache.append(tweet1);
+        cache.writtenBy("alyssa").clear();
+
+        assertEquals("expected cached result unaffected by client",
+                Arrays.asList(tweet1), cache.writtenBy("alyssa"));
+    }
+
+    @Test
+    public void testZeroWeightCachesNothing() {
+        FilterCache cache = new FilterCache(0);
+        cache.append(tweet1);
+        cache.writtenBy("alyssa");
+        cache.writtenBy("alyssa");
+
+        assertEquals("expected nothing cached", 0, cache.cachedQueries());
+        assertEquals("expected every query to miss", 2, cache.misses());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        // each of these results has one tweet, so weighs 2
+        FilterCache cache = new FilterCache(4);
+        cache.appendAll(Arrays.asList(tweet1, tweet2, tweet4));
+        cache.writtenBy("alyssa");
+        cache.writtenBy("bbitdiddle");
+        cache.writtenBy("alyssa");          // alyssa is now most recently used
+        cache.writtenBy("ccharles");        // evicts bbitdiddle
+
+        assertEquals("expected two entries to fit", 2, cache.cachedQueries());
+        long misses = cache.misses();
+        cache.writtenBy("alyssa");
+        assertEquals("expected alyssa still cached", misses, cache.misses());
+        cache.writtenBy("bbitdiddle");
+        assertEquals("expected bbitdiddle evicted", misses + 1, cache.misses());
+    }
+
+    @Test
+    public void testEntryOutgrowsCache() {
+        FilterCache cache = new FilterCache(2);
+        cache.append(tweet1);
+        cache.writtenBy("alyssa");
+        assertEquals("expected entry to fit", 1, cache.cachedQueries());
+
+        cache.append(tweet3);
+        assertEquals("expected correct extended result",
+                Arrays.asList(tweet1, tweet3), cache.writtenBy("alyssa"));
+        assertEquals("expected oversized entry evicted", 0, cache.cachedQueries());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeMaxWeight() {
+        new FilterCache(-1);
+    }
+}
@@ -0,0 +1,121 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class MetricsTest {
+
+    /*
+     * Testing strategy for Metrics:
+     *
+     * counter(), stage():
+     * - Name: new, already used
+     *
+     * Counter:
+     * - Counts: none, one, many
+     * - Recording while disabled
+     *
+     * Stage:
+     * - Calls: none, one, many with different latencies
+     * - percentileNanos(): fraction 0, 0.5, 1, out of range
+     * - itemsPerSecond(): no time recorded, some time recorded
+     *
+     * report():
+     * - Contains every registered instrument
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testSameNameSameInstrument() {
+        assertSame("expected same counter for same name",
+                Metrics.counter("test.same"), Metrics.counter("test.same"));
+        assertSame("expected same stage for same name",
+                Metrics.stage("test.same"), Metrics.stage("test.same"));
+        assertNotSame(Metrics.counter("test.a"), Metrics.counter("test.b"));
+    }
+
+    @Test
+    public void testCounterCounts() {
+        Metrics.Counter counter = new Metrics.Counter();
+        assertEquals("expected new counter to be zero", 0, counter.get());
+
+        counter.addValue(1);
+        counter.addValue(41);
+        assertEquals("expected sum of counts", 42, counter.get());
+    }
+
+    @Test
+    public void testDisabledRecordsNothing() {
+        if (Metrics.ENABLED) {
+            return; // only meaningful when metrics are off
+        }
+        Metrics.Counter counter = new Metrics.Counter();
+        Metrics.Stage stage = new Metrics.Stage();
+        counter.increment();
+        counter.add(5);
+        stage.stop(Metrics.start(), 10);
+
+        assertEquals("expected no counts while disabled", 0, counter.get());
+        assertEquals("expected no calls while disabled", 0, stage.calls());
+    }
+
+    @Test
+    public void testStageEmpty() {
+        Metrics.Stage stage = new Metrics.Stage();
+
+        assertEquals("expected no calls", 0, stage.calls());
+        assertEquals("expected zero percentile", 0, stage.percentileNanos(0.5));
+        assertEquals("expected zero throughput", 0.0, stage.itemsPerSecond(), 0.0);
+    }
+
+    @Test
+    public void testStageRecords() {
+        Metrics.Stage stage = new Metrics.Stage();
+        stage.record(1_000, 10);
+        stage.record(2_000, 10);
+        stage.record(1_000_000, 80);
+
+        assertEquals("expected three calls", 3, stage.calls());
+        assertEquals("expected items summed", 100, stage.items());
+        assertEquals("expected total time", 1_003_000, stage.totalNanos());
+        assertEquals("expected max", 1_000_000, stage.maxNanos());
+        assertEquals("expected items per second", 100 * 1e9 / 1_003_000, stage.itemsPerSecond(), 1e-6);
+    }
+
+    @Test
+    public void testStagePercentiles() {
+        Metrics.Stage stage = new Metrics.Stage();
+        for (int i = 0; i < 99; i++) {
+            stage.record(100, 1);
+        }
+        stage.record(1_000_000, 1);
+
+        long p50 = stage.percentileNanos(0.5);
+        assertTrue("expected median bound within a factor of two", 100 <= p50 && p50 < 200);
+        assertEquals("expected p100 to be the max", 1_000_000, stage.percentileNanos(1));
+        assertTrue("expected p0 bound for smallest call", stage.percentileNanos(0) < 200);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testStagePercentileOutOfRange() {
+        new Metrics.Stage().percentileNanos(1.5);
+    }
+
+    @Test
+    public void testReportListsInstruments() {
+        Metrics.counter("test.report.counter");
+        Metrics.stage("test.report.stage");
+        String report = Metrics.report();
+
+        assertTrue("expected counter in report", report.contains("test.report.counter: "));
+        assertTrue("expected stage in report", report.contains("test.report.stage: calls="));
+    }
+}
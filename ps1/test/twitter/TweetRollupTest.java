@@ -0,0 +1,142 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TweetRollupTest {
+
+    /*
+     * Testing strategy for TweetRollup:
+     *
+     * countByAuthor(), countByHashtag():
+     * - Key: never seen, seen with different case
+     * - Timespan: within one minute, across hour and day boundaries,
+     *             covering several whole days, not aligned to minutes
+     * - Results agree with Filter.inTimespan over spans ending at second 59;
+     *   a span ending on a minute boundary counts that whole minute
+     *
+     * seriesByAuthor(), seriesByHashtag():
+     * - Granularity: minute, hour, day
+     * - Buckets with and without tweets
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:30Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T10:59:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-18T00:01:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "#hype #Hype talk", d1);
+    private static final Tweet tweet2 = new Tweet(2, "Alyssa", "rivest talk #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "bbitdiddle", "#mit", d3);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        TweetRollup rollup = new TweetRollup();
+        Timespan span = new Timespan(d1, d3);
+
+        assertEquals("expected no tweets", 0, rollup.size());
+        assertEquals("expected zero count", 0, rollup.countByAuthor("alyssa", span));
+        assertArrayEquals("expected zero series", new long[] {0, 0},
+                rollup.seriesByHashtag("hype", span, TweetRollup.Granularity.DAY));
+    }
+
+    @Test
+    public void testCountByAuthorCaseInsensitive() {
+        TweetRollup rollup = new TweetRollup();
+        rollup.addAll(List.of(tweet1, tweet2, tweet3));
+        Timespan span = new Timespan(d1, d3);
+
+        assertEquals("expected both of alyssa's tweets", 2, rollup.countByAuthor("ALYSSA", span));
+        assertEquals("expected bbitdiddle's tweet", 1, rollup.countByAuthor("bbitdiddle", span));
+        assertEquals("expected unknown author to have none", 0, rollup.countByAuthor("nobody", span));
+    }
+
+    @Test
+    public void testCountByHashtagOncePerTweet() {
+        TweetRollup rollup = new TweetRollup();
+        rollup.addAll(List.of(tweet1, tweet2, tweet3));
+        Timespan span = new Timespan(d1, d3);
+
+        assertEquals("expected repeated hashtag to count once per tweet",
+                2, rollup.countByHashtag("HYPE", span));
+        assertEquals("expected one #mit", 1, rollup.countByHashtag("mit", span));
+    }
+
+    @Test
+    public void testCountWidensToWholeMinutes() {
+        TweetRollup rollup = new TweetRollup();
+        rollup.add(tweet1);
+
+        // tweet1 was sent 30 seconds into its minute
+        Timespan span = new Timespan(Instant.parse("2016-02-17T10:00:00Z"),
+                Instant.parse("2016-02-17T10:00:10Z"));
+        assertEquals("expected tweet in same minute to count", 1, rollup.countByAuthor("alyssa", span));
+    }
+
+    @Test
+    public void testSeriesGranularities() {
+        TweetRollup rollup = new TweetRollup();
+        rollup.addAll(List.of(tweet1, tweet2, tweet3));
+        Timespan span = new Timespan(Instant.parse("2016-02-17T10:00:00Z"),
+                Instant.parse("2016-02-17T11:00:00Z"));
+
+        long[] minutes = rollup.seriesByHashtag("hype", span, TweetRollup.Granularity.MINUTE);
+        assertEquals("expected 61 minute buckets", 61, minutes.length);
+        assertEquals("expected tweet1 in first minute", 1, minutes[0]);
+        assertEquals("expected tweet2 in 59th minute", 1, minutes[59]);
+        assertEquals("expected empty last minute", 0, minutes[60]);
+
+        assertArrayEquals("expected hour buckets", new long[] {2, 0},
+                rollup.seriesByAuthor("alyssa", span, TweetRollup.Granularity.HOUR));
+        assertArrayEquals("expected day buckets", new long[] {0, 1},
+                rollup.seriesByAuthor("bbitdiddle", new Timespan(d1, d3), TweetRollup.Granularity.DAY));
+    }
+
+    @Test
+    public void testCountsMatchFilter() {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        long base = Instant.parse("2016-02-15T00:00:00Z").getEpochSecond();
+        for (int i = 0; i < 2000; i++) {
+            long seconds = base + random.nextInt(5 * 24 * 3600);
+            String author = "user" + random.nextInt(5);
+            tweets.add(new Tweet(i, author, "#tag" + random.nextInt(3), Instant.ofEpochSecond(seconds)));
+        }
+        TweetRollup rollup = new TweetRollup();
+        rollup.addAll(tweets);
+
+        for (int trial = 0; trial < 50; trial++) {
+            long startMinute = random.nextInt(5 * 24 * 60);
+            long endMinute = startMinute + random.nextInt(3 * 24 * 60);
+            Instant start = Instant.ofEpochSecond(base + startMinute * 60);
+            Instant end = Instant.ofEpochSecond(base + endMinute * 60 + 59);
+            Timespan span = new Timespan(start, end);
+            List<Tweet> inSpan = Filter.inTimespan(tweets, span);
+
+            assertEquals("expected author count to match Filter",
+                    Filter.writtenBy(inSpan, "user1").size(), rollup.countByAuthor("user1", span));
+            assertEquals("expected hashtag count to match Filter",
+                    Filter.containing(inSpan, List.of("#tag2")).size(), rollup.countByHashtag("tag2", span));
+
+            // an end on a minute boundary still counts that whole minute
+            Timespan aligned = new Timespan(start, Instant.ofEpochSecond(base + endMinute * 60));
+            assertEquals("expected end minute counted in full",
+                    Filter.writtenBy(inSpan, "user1").size(), rollup.countByAuthor("user1", aligned));
+            assertEquals("expected end minute counted in full",
+                    Filter.containing(inSpan, List.of("#tag2")).size(), rollup.countByHashtag("tag2", aligned));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks measuring ConcurrentGraph write throughput with several
+ * writer threads.
+ * <p>
+ * Each trial builds a seeded sparse graph (see GraphGenerator), then
+ * THREADS threads call increment() on its edges. The edges are split into
+ * THREADS slices, and each thread cycles through its own slice. In the
+ * mixed benchmark, one call in removeEvery instead removes a vertex and
+ * adds it back, so the cost that remove() imposes on concurrent writers
+ * shows in the total throughput.
+ * Throughput is reported in operations per second, summed over threads; to
+ * see how writes scale, run with e.g. {@code -t 1} and {@code -t 8} and
+ * compare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@Threads(ConcurrentGraphBenchmark.THREADS)
+public class ConcurrentGraphBenchmark {
+
+    static final int THREADS = 8;
+    private static final long SEED = 6005;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"1000", "100000"})
+    public int removeEvery;
+
+    private GraphGenerator.Edges edges;
+    private Integer[] labels;
+    private ConcurrentGraph<Integer> graph;
+    private final AtomicInteger nextSlice = new AtomicInteger();
+
+    /**
+     * The slice of the edges that one writer thread cycles through.
+     */
+    @State(Scope.Thread)
+    public static class Writer {
+        private int first;
+        private int count;
+        private int next;
+        private int calls = 0;
+
+        /**
+         * Claim the next slice of the edges, once per trial.
+         *
+         * @param benchmark the shared benchmark state
+         */
+        @Setup
+        public void setUp(ConcurrentGraphBenchmark benchmark) {
+            int slice = benchmark.nextSlice.getAndIncrement() % THREADS;
+            int edgeCount = benchmark.edges.size();
+            first = (int) ((long) edgeCount * slice / THREADS);
+            count = (int) ((long) edgeCount * (slice + 1) / THREADS) - first;
+            next = first;
+        }
+    }
+
+    /**
+     * Generate and build the graph, once per trial.
+     */
+    @Setup
+    public void setUp() {
+        edges = new GraphGenerator(SEED).generate(GraphGenerator.Shape.SPARSE, size);
+        labels = new Integer[size];
+        for (int v = 0; v < size; v++) {
+            labels[v] = v;
+        }
+        graph = new ConcurrentGraph<>(THREADS, size);
+        for (int e = 0; e < edges.size(); e++) {
+            graph.set(labels[edges.sources()[e]], labels[edges.targets()[e]], edges.weights()[e]);
+        }
+    }
+
+    /** Increment the next edge of this thread's slice. */
+    @Benchmark
+    public int increment(Writer writer) {
+        int e = writer.next;
+        writer.next = e + 1 == writer.first + writer.count ? writer.first : e + 1;
+        return graph.increment(labels[edges.sources()[e]], labels[edges.targets()[e]], 1);
+    }
+
+    /**
+     * Increment the next edge of this thread's slice, or once every
+     * removeEvery calls, remove its source vertex and add the vertex back.
+     */
+    @Benchmark
+    public int incrementWithRemoves(Writer writer) {
+        int e = writer.next;
+        writer.next = e + 1 == writer.first + writer.count ? writer.first : e + 1;
+        if (++writer.calls % removeEvery == 0) {
+            Integer vertex = labels[edges.sources()[e]];
+            graph.remove(vertex);
+            graph.add(vertex);
+            return 0;
+        }
+        return graph.increment(labels[edges.sources()[e]], labels[edges.targets()[e]], 1);
+    }
+
+    /**
+     * Run every benchmark in this class.
+     *
+     * @param args command-line arguments (not used)
+     * @throws RunnerException if JMH fails to run the benchmarks
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ConcurrentGraphBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
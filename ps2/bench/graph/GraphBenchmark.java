@@ -0,0 +1,203 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks comparing the in-memory mutable Graph implementations:
+ * ConcreteEdgesGraph, ConcreteVerticesGraph, ConcurrentGraph and
+ * IntGraphAdapter. DiskGraph and PartitionedGraph are not measured here,
+ * since they keep their edges in files or in worker processes that each
+ * graph would have to create and close; PartitionedGraphBenchmark measures
+ * PartitionedGraph, and DiskGraph has no benchmark.
+ * <p>
+ * Every benchmark runs over the same seeded synthetic graphs (see
+ * GraphGenerator), for each implementation, shape and size from 10^2 to
+ * 10^6 vertices. The build benchmarks measure a whole graph construction
+ * per operation; the others measure one call on a prebuilt graph, cycling
+ * through its vertices or edges. Throughput is reported in operations per
+ * second; running through main() also attaches JMH's GC profiler.
+ * <p>
+ * Assertions are disabled, so checkRep() costs are not measured. Dense
+ * graphs at the largest sizes need a very large heap; to benchmark only some
+ * combinations, pass e.g. {@code -p shape=SPARSE -p size=100,10000} to the
+ * JMH runner. To compare a new implementation, add it to newGraph() and to
+ * the implementation parameter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class GraphBenchmark {
+
+    private static final long SEED = 6005;
+
+    @Param({"ConcreteEdgesGraph", "ConcreteVerticesGraph", "ConcurrentGraph", "IntGraphAdapter"})
+    public String implementation;
+
+    @Param({"SPARSE", "DENSE", "POWER_LAW"})
+    public GraphGenerator.Shape shape;
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private Integer[] labels;
+    private GraphGenerator.Edges edges;
+    private Graph<Integer> graph;
+    private int nextVertex = 0;
+    private int nextEdge = 0;
+
+    /**
+     * Generate the graph, and build it with the implementation under test,
+     * once per trial.
+     */
+    @Setup
+    public void setUp() {
+        edges = new GraphGenerator(SEED).generate(shape, size);
+        labels = new Integer[size];
+        for (int v = 0; v < size; v++) {
+            labels[v] = v;
+        }
+        graph = build();
+    }
+
+    /**
+     * @param implementation name of a Graph implementation
+     * @return a new empty graph of that implementation
+     */
+    private static Graph<Integer> newGraph(String implementation) {
+        return switch (implementation) {
+            case "ConcreteEdgesGraph" -> new ConcreteEdgesGraph<>();
+            case "ConcreteVerticesGraph" -> new ConcreteVerticesGraph<>();
+            case "ConcurrentGraph" -> new ConcurrentGraph<>();
+            case "IntGraphAdapter" -> new IntGraphAdapter();
+            default -> throw new IllegalArgumentException("Unknown implementation " + implementation);
+        };
+    }
+
+    private Integer vertex() {
+        Integer vertex = labels[nextVertex];
+        nextVertex = (nextVertex + 1) % labels.length;
+        return vertex;
+    }
+
+    /** Build the graph with one add() per vertex and one set() per edge. */
+    @Benchmark
+    public Graph<Integer> build() {
+        Graph<Integer> built = newGraph(implementation);
+        for (Integer label : labels) {
+            built.add(label);
+        }
+        for (int e = 0; e < edges.size(); e++) {
+            built.set(labels[edges.sources()[e]], labels[edges.targets()[e]], edges.weights()[e]);
+        }
+        return built;
+    }
+
+    /** Build the graph with one addAll() and one setAll(). */
+    @Benchmark
+    public Graph<Integer> buildBulk() {
+        Graph<Integer> built = newGraph(implementation);
+        built.addAll(List.of(labels));
+        EdgeBatch<Integer> batch = new EdgeBatch<>(edges.size());
+        for (int e = 0; e < edges.size(); e++) {
+            batch.add(labels[edges.sources()[e]], labels[edges.targets()[e]], edges.weights()[e]);
+        }
+        built.setAll(batch);
+        return built;
+    }
+
+    /** Change the weight of an existing edge. */
+    @Benchmark
+    public int setExisting() {
+        int e = nextEdge;
+        nextEdge = (nextEdge + 1) % edges.size();
+        return graph.set(labels[edges.sources()[e]], labels[edges.targets()[e]], 1 + (e & 63));
+    }
+
+    /** Remove a vertex, then add it back with its edges. */
+    @Benchmark
+    public boolean removeAndRestore() {
+        Integer vertex = vertex();
+        Map<Integer, Integer> targets = graph.targets(vertex);
+        Map<Integer, Integer> sources = graph.sources(vertex);
+        boolean removed = graph.remove(vertex);
+        graph.add(vertex);
+        for (Map.Entry<Integer, Integer> edge : targets.entrySet()) {
+            graph.set(vertex, edge.getKey(), edge.getValue());
+        }
+        for (Map.Entry<Integer, Integer> edge : sources.entrySet()) {
+            graph.set(edge.getKey(), vertex, edge.getValue());
+        }
+        return removed;
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> targets() {
+        return graph.targets(vertex());
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> sources() {
+        return graph.sources(vertex());
+    }
+
+    /** Sum the weights of a vertex's outgoing edges through the view. */
+    @Benchmark
+    public int targetsView() {
+        int total = 0;
+        for (int weight : graph.targetsView(vertex()).values()) {
+            total += weight;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Set<Integer> vertices() {
+        return graph.vertices();
+    }
+
+    @Benchmark
+    public boolean verticesViewContains() {
+        return graph.verticesView().contains(vertex());
+    }
+
+    /**
+     * Run every benchmark in this class with the GC profiler attached.
+     *
+     * @param args command-line arguments (not used)
+     * @throws RunnerException if JMH fails to run the benchmarks
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(GraphBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
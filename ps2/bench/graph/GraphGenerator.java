@@ -0,0 +1,122 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic graphs for benchmarks.
+ * <p>
+ * Output is fully determined by the seed, so every run of a benchmark sees
+ * the same graph. Vertices are the integers 0..n-1, and edges are distinct,
+ * with weights in 1..100.
+ */
+public class GraphGenerator {
+
+    /** Edges per vertex in sparse and power-law graphs. */
+    static final int SPARSE_DEGREE = 4;
+
+    /** Most edges per vertex in dense graphs. */
+    static final int MAX_DENSE_DEGREE = 64;
+
+    /**
+     * The shape of a generated graph.
+     */
+    public enum Shape {
+        /** SPARSE_DEGREE edges from each vertex, to uniformly random targets. */
+        SPARSE,
+        /**
+         * min(n / 4, MAX_DENSE_DEGREE) edges from each vertex, to uniformly
+         * random targets: a quarter of all possible edges, while that fits in
+         * memory.
+         */
+        DENSE,
+        /**
+         * SPARSE_DEGREE edges from each vertex, to targets whose in-degrees
+         * follow a power law: the probability that vertex k is a target is
+         * roughly proportional to 1 / (k + 1).
+         */
+        POWER_LAW
+    }
+
+    /**
+     * The edges of a generated graph, in parallel arrays.
+     *
+     * @param vertices number of vertices
+     * @param sources source of each edge
+     * @param targets target of each edge
+     * @param weights weight of each edge
+     */
+    public record Edges(int vertices, int[] sources, int[] targets, int[] weights) {
+
+        /**
+         * @return number of edges
+         */
+        public int size() {
+            return sources.length;
+        }
+    }
+
+    private final SplittableRandom random;
+
+    /**
+     * Make a generator.
+     *
+     * @param seed seed that determines every graph generated
+     */
+    public GraphGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Generate a graph.
+     *
+     * @param shape shape of the graph
+     * @param n number of vertices; requires n > SPARSE_DEGREE, so that every
+     *          vertex can be given SPARSE_DEGREE distinct targets (a
+     *          power-law target is never n - 1), and requires the number of
+     *          edges to fit in an int
+     * @return the edges of a graph on vertices 0..n-1 with the given shape
+     * @throws IllegalArgumentException if n does not meet the requirements
+     */
+    public Edges generate(Shape shape, int n) {
+        if (n <= SPARSE_DEGREE) {
+            throw new IllegalArgumentException("Need more than " + SPARSE_DEGREE + " vertices, got " + n);
+        }
+        final int degree = shape == Shape.DENSE ? Math.min(n / 4, MAX_DENSE_DEGREE) : SPARSE_DEGREE;
+        if ((long) n * degree > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many edges for " + n + " vertices");
+        }
+        final int edges = n * degree;
+        int[] sources = new int[edges];
+        int[] targets = new int[edges];
+        int[] weights = new int[edges];
+        // drawnBy[t] == s + 1 iff target t has already been drawn for source s
+        int[] drawnBy = new int[n];
+        int e = 0;
+        for (int source = 0; source < n; source++) {
+            // draw distinct targets for this source, rejecting repeats
+            int first = e;
+            while (e < first + degree) {
+                int target = shape == Shape.POWER_LAW ? powerLaw(n) : random.nextInt(n);
+                if (drawnBy[target] != source + 1) {
+                    drawnBy[target] = source + 1;
+                    sources[e] = source;
+                    targets[e] = target;
+                    weights[e] = 1 + random.nextInt(100);
+                    e++;
+                }
+            }
+        }
+        return new Edges(n, sources, targets, weights);
+    }
+
+    /**
+     * @return a vertex in 0..n-1, where k is drawn with probability roughly
+     *         proportional to 1 / (k + 1)
+     */
+    private int powerLaw(int n) {
+        return (int) Math.pow(n, random.nextDouble()) - 1;
+    }
+}
@@ -0,0 +1,152 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks measuring how PartitionedGraph scales with its number of
+ * worker processes.
+ * <p>
+ * Each trial starts the workers and loads a seeded synthetic graph (see
+ * GraphGenerator) into them. The batch benchmarks re-apply BATCH edges, or
+ * query the targets of BATCH vertices, per operation, and report throughput
+ * in edges or vertices per second; the others measure one call. Worker
+ * processes run with the JVM's default options.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class PartitionedGraphBenchmark {
+
+    private static final long SEED = 6005;
+    private static final int BATCH = 4096;
+
+    @Param({"1", "2", "4", "8"})
+    public int workers;
+
+    @Param({"SPARSE", "POWER_LAW"})
+    public GraphGenerator.Shape shape;
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private GraphGenerator.Edges edges;
+    private PartitionedGraph<Integer> graph;
+    private List<EdgeBatch<Integer>> batches;
+    private List<List<Integer>> vertexBatches;
+    private int nextBatch = 0;
+    private int nextEdge = 0;
+
+    /**
+     * Start the workers and load the graph, once per trial.
+     *
+     * @throws IOException if the workers cannot be started
+     */
+    @Setup
+    public void setUp() throws IOException {
+        edges = new GraphGenerator(SEED).generate(shape, size);
+        graph = PartitionedGraph.start(workers, LabelCodec.integers());
+        batches = new ArrayList<>();
+        for (int first = 0; first < edges.size(); first += BATCH) {
+            EdgeBatch<Integer> batch = new EdgeBatch<>(BATCH);
+            for (int e = first; e < Math.min(first + BATCH, edges.size()); e++) {
+                batch.add(edges.sources()[e], edges.targets()[e], edges.weights()[e]);
+            }
+            graph.setAll(batch);
+            if (batch.size() == BATCH) {
+                batches.add(batch);
+            }
+        }
+        vertexBatches = new ArrayList<>();
+        for (int first = 0; first + BATCH <= size; first += BATCH) {
+            List<Integer> vertices = new ArrayList<>(BATCH);
+            for (int v = first; v < first + BATCH; v++) {
+                vertices.add(v);
+            }
+            vertexBatches.add(vertices);
+        }
+    }
+
+    /**
+     * Stop the workers.
+     *
+     * @throws IOException if a worker cannot be told to stop
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        graph.close();
+    }
+
+    /** Re-apply a batch of existing edges with setAll(). */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void setAllBatch() {
+        graph.setAll(batches.get(nextBatch));
+        nextBatch = (nextBatch + 1) % batches.size();
+    }
+
+    /** Query the targets of a batch of vertices with targetsOf(). */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Map<Integer, Map<Integer, Integer>> targetsOfBatch() {
+        Map<Integer, Map<Integer, Integer>> targets = graph.targetsOf(vertexBatches.get(nextBatch % vertexBatches.size()));
+        nextBatch++;
+        return targets;
+    }
+
+    /** Change the weight of one existing edge. */
+    @Benchmark
+    public int setExisting() {
+        int e = nextEdge;
+        nextEdge = (nextEdge + 1) % edges.size();
+        return graph.set(edges.sources()[e], edges.targets()[e], 1 + (e & 63));
+    }
+
+    /** Query the targets of one vertex. */
+    @Benchmark
+    public Map<Integer, Integer> targets() {
+        int e = nextEdge;
+        nextEdge = (nextEdge + 1) % edges.size();
+        return graph.targets(edges.sources()[e]);
+    }
+
+    /**
+     * Run every benchmark in this class.
+     *
+     * @param args command-line arguments (not used)
+     * @throws RunnerException if JMH fails to run the benchmarks
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PartitionedGraphBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -13,13 +13,24 @@ import java.util.*;
 public class ConcreteEdgesGraph<L> implements Graph<L> {
     
     private final Set<L> vertices = new HashSet<>();
-    private final List<Edge<L>> edges = new ArrayList<>();
+    private final ArrayList<Edge<L>> edges = new ArrayList<>();
+    private final Map<L, Map<L, Integer>> outgoing = new HashMap<>();
+    private final Map<L, Map<L, Integer>> incoming = new HashMap<>();
+    private final Map<Endpoints<L>, Integer> positions = new HashMap<>();
+    private final Set<L> verticesView = Collections.unmodifiableSet(vertices);
+    private final Map<L, Map<L, Integer>> targetsViews = new HashMap<>();
+    private final Map<L, Map<L, Integer>> sourcesViews = new HashMap<>();
 
     // Abstraction function:
-    //   AF(vertices, edges) = a directed graph where:
+    //   AF(vertices, edges, outgoing, incoming, positions) = a directed graph where:
     //     - vertices are the vertex labels in the vertices set
     //     - edges are the directed weighted edges in the edges list
     //     - each edge connects two vertices with a positive weight
+    //   outgoing, incoming and positions index the edges list:
+    //     - outgoing[v] maps each target of an edge from v to its weight
+    //     - incoming[v] maps each source of an edge to v to its weight
+    //     - positions[(s, t)] is the index in the edges list of the edge
+    //       from s to t
 
     // Representation invariant:
     //   vertices != null
@@ -28,14 +39,35 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
     //   all elements in edges are non-null
     //   for all edges e: e.getSource() and e.getTarget() are in vertices
     //   no two edges have the same source and target (at most one edge between any pair)
+    //   outgoing.keySet() == incoming.keySet() == vertices
+    //   for all i: edges[i] = (s, t, w) iff outgoing[s][t] == w and incoming[t][s] == w
+    //     and positions[(s, t)] == i
+    //   positions.size() == edges.size()
+    //   targetsViews[v] and sourcesViews[v] are unmodifiable wrappers of
+    //     outgoing[v] and incoming[v], with the same keys as outgoing
 
     // Safety from rep exposure:
-    //   vertices and edges are private final fields
+    //   all fields are private final
     //   vertices() returns a defensive copy (new HashSet)
     //   sources() and targets() return new HashMap instances
+    //   verticesView(), sourcesView() and targetsView() return unmodifiable
+    //     wrappers, created once per vertex
     //   Edge objects are immutable
     //   clients never get direct references to the internal collections
 
+    /**
+     * The source and target of an edge, as a key of positions. Unlike Edge,
+     * it leaves out the weight, so changing the weight of an edge does not
+     * change its key.
+     */
+    private record Endpoints<L>(L source, L target) {
+        @Override public int hashCode() {
+            // multiply by an odd constant so that (s, t) and (t, s) differ,
+            // and small integer labels spread over the whole table
+            return source.hashCode() * 0x9E3779B9 + target.hashCode();
+        }
+    }
+
     /**
      * Create an empty graph.
      */
@@ -44,29 +76,125 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
     }
 
     /**
-     * Check that the representation invariant holds.
+     * Check that the whole representation invariant holds.
+     * This takes time linear in the size of the graph, so mutators only check
+     * the parts of the rep they touch (see checkVertex and checkEdge); tests
+     * may call this method to validate the entire graph.
      */
-    private void checkRep() {
+    final void checkRep() {
 
-        // Check all vertices are non-null
+        // Check all vertices are non-null and indexed
         for (L vertex : vertices) {
             assert vertex != null;
+            assert outgoing.containsKey(vertex) && incoming.containsKey(vertex);
+            assert targetsViews.containsKey(vertex) && sourcesViews.containsKey(vertex);
         }
+        assert outgoing.size() == vertices.size() && incoming.size() == vertices.size();
 
-        // Check all edges are non-null and their vertices exist
-        for (Edge<L> edge : edges) {
+        // Check all edges are non-null, their vertices exist, and they are indexed
+        for (int i = 0; i < edges.size(); i++) {
+            Edge<L> edge = edges.get(i);
             assert edge != null;
             assert vertices.contains(edge.getSource());
             assert vertices.contains(edge.getTarget());
+            assert Integer.valueOf(i).equals(positions.get(new Endpoints<>(edge.getSource(), edge.getTarget())))
+                    : "Edge position not indexed";
+            assert Integer.valueOf(edge.getWeight()).equals(outgoing.get(edge.getSource()).get(edge.getTarget()));
+            assert Integer.valueOf(edge.getWeight()).equals(incoming.get(edge.getTarget()).get(edge.getSource()));
         }
+        assert positions.size() == edges.size();
 
-        // Check no duplicate edges (same source and target)
-        Set<String> seenEdges = new HashSet<>();
-        for (Edge<L> edge : edges) {
-            String edgeKey = edge.getSource() + "->" + edge.getTarget();
-            assert !seenEdges.contains(edgeKey) : "Duplicate edge found";
-            seenEdges.add(edgeKey);
+        // Check no duplicate edges (same source and target): every edge has
+        // an entry in outgoing, so duplicates would leave fewer entries than edges
+        int adjacencyEntries = 0;
+        for (Map<L, Integer> targets : outgoing.values()) {
+            adjacencyEntries += targets.size();
+        }
+        assert adjacencyEntries == edges.size() : "Duplicate edge found";
+    }
+
+    /**
+     * Check the parts of the representation invariant that concern one
+     * vertex, in O(1) expected time: it is indexed iff it is in vertices.
+     * @param vertex label of a vertex that was just added or removed
+     */
+    private void checkVertex(L vertex) {
+        assert vertex != null;
+        assert vertices.contains(vertex) == outgoing.containsKey(vertex) : "Vertex not indexed";
+        assert vertices.contains(vertex) == incoming.containsKey(vertex) : "Vertex not indexed";
+        checkSizes();
+    }
+
+    /**
+     * Check the parts of the representation invariant that concern the edge
+     * from source to target, in O(1) expected time: both vertices exist, and
+     * the edge (if any) is mirrored in outgoing, incoming, positions and edges.
+     * @param source label of an existing vertex
+     * @param target label of an existing vertex
+     */
+    private void checkEdge(L source, L target) {
+        assert vertices.contains(source) && vertices.contains(target) : "Edge vertex missing";
+        assert isEdgeConsistent(source, target) : "Edge " + source + "->" + target + " not indexed";
+        checkSizes();
+    }
+
+    /**
+     * @return true iff the edge from source to target (or its absence) agrees
+     *         across outgoing, incoming, positions and edges
+     */
+    private boolean isEdgeConsistent(L source, L target) {
+        Integer weight = outgoing.get(source).get(target);
+        if (!Objects.equals(weight, incoming.get(target).get(source))) {
+            return false;
+        }
+        if (weight == null) {
+            return true;
+        }
+        Integer position = positions.get(new Endpoints<>(source, target));
+        return weight > 0 && position != null && edges.get(position).connects(source, target)
+                && edges.get(position).getWeight() == weight;
+    }
+
+    /**
+     * Check that the indexes have the same sizes as the sets they index.
+     */
+    private void checkSizes() {
+        assert outgoing.size() == vertices.size() && incoming.size() == vertices.size();
+        assert targetsViews.size() == vertices.size() && sourcesViews.size() == vertices.size();
+        assert positions.size() == edges.size();
+    }
+
+    /**
+     * Add a vertex, with empty adjacency maps, if it is not already present.
+     * @param vertex label of the vertex
+     * @return true if the vertex was added
+     */
+    private boolean addVertex(L vertex) {
+        if (!vertices.add(vertex)) {
+            return false;
         }
+        Map<L, Integer> targets = new HashMap<>();
+        Map<L, Integer> sources = new HashMap<>();
+        outgoing.put(vertex, targets);
+        incoming.put(vertex, sources);
+        targetsViews.put(vertex, Collections.unmodifiableMap(targets));
+        sourcesViews.put(vertex, Collections.unmodifiableMap(sources));
+        return true;
+    }
+
+    /**
+     * Remove the edge from source to target, which must exist, in O(1)
+     * expected time. The last edge in the list takes its place.
+     */
+    private void removeEdge(L source, L target) {
+        int position = positions.remove(new Endpoints<>(source, target));
+        Edge<L> last = edges.remove(edges.size() - 1);
+        if (position < edges.size()) {
+            edges.set(position, last);
+            positions.put(new Endpoints<>(last.getSource(), last.getTarget()), position);
+        }
+        outgoing.get(source).remove(target);
+        incoming.get(target).remove(source);
     }
 
     @Override public boolean add(L vertex) {
@@ -74,8 +202,8 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
             throw new IllegalArgumentException("Vertex cannot be null");
         }
 
-        boolean added = vertices.add(vertex);
-        checkRep();
+        boolean added = addVertex(vertex);
+        checkVertex(vertex);
         return added;
     }
 
@@ -87,31 +215,99 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
             throw new IllegalArgumentException("Weight cannot be negative");
         }
 
+        int previousWeight = setEdge(source, target, weight);
+        checkEdge(source, target);
+        return previousWeight;
+    }
+
+    /**
+     * Add, change, or remove an edge as specified by set(), without checking
+     * arguments or the rep invariant.
+     * @param source non-null label of the source vertex
+     * @param target non-null label of the target vertex
+     * @param weight non-negative weight of the edge
+     * @return the previous weight of the edge, or zero if there was none
+     */
+    private int setEdge(L source, L target, int weight) {
         // Add vertices if they don't exist
-        vertices.add(source);
-        vertices.add(target);
+        addVertex(source);
+        addVertex(target);
 
         // Find existing edge with same source and target
-        int previousWeight = 0;
-        Iterator<Edge<L>> iterator = edges.iterator();
-        while (iterator.hasNext()) {
-            Edge<L> edge = iterator.next();
-            if (edge.connects(source, target)) {
-                previousWeight = edge.getWeight();
-                iterator.remove();
-                break;
+        Integer previous = outgoing.get(source).get(target);
+        int previousWeight = previous == null ? 0 : previous;
+
+        if (weight == 0) {
+            if (previous != null) {
+                removeEdge(source, target);
             }
+        } else {
+            putEdge(source, target, previousWeight, weight);
         }
+        return previousWeight;
+    }
 
-        // Add new edge if weight > 0
-        if (weight > 0) {
-            edges.add(new Edge<>(source, target, weight));
+    /**
+     * Add an edge from source to target, or replace the existing one in
+     * place, in O(1) expected time. Requires both vertices to exist.
+     * @param previousWeight current weight of the edge, or zero if none
+     * @param weight positive new weight of the edge
+     */
+    private void putEdge(L source, L target, int previousWeight, int weight) {
+        Edge<L> edge = new Edge<>(source, target, weight);
+        if (previousWeight != 0) {
+            // Replace the edge in place; its key in positions is unchanged
+            edges.set(positions.get(new Endpoints<>(source, target)), edge);
+        } else {
+            positions.put(new Endpoints<>(source, target), edges.size());
+            edges.add(edge);
         }
+        outgoing.get(source).put(target, weight);
+        incoming.get(target).put(source, weight);
+    }
 
-        checkRep();
+    @Override public int increment(L source, L target, int amount) {
+        if (source == null || target == null) {
+            throw new IllegalArgumentException("Source and target cannot be null");
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+
+        // an increment can only overflow an existing edge, whose vertices
+        // exist, so the graph is unchanged if it throws
+        addVertex(source);
+        addVertex(target);
+        Integer previous = outgoing.get(source).get(target);
+        int previousWeight = previous == null ? 0 : previous;
+        putEdge(source, target, previousWeight, Math.addExact(previousWeight, amount));
+        checkEdge(source, target);
         return previousWeight;
     }
 
+    @Override public boolean addAll(Collection<? extends L> labels) {
+        for (L label : labels) {
+            if (label == null) {
+                throw new IllegalArgumentException("Vertex cannot be null");
+            }
+        }
+
+        boolean changed = false;
+        for (L label : labels) {
+            changed |= addVertex(label);
+            checkVertex(label);
+        }
+        return changed;
+    }
+
+    @Override public void setAll(EdgeBatch<? extends L> batch) {
+        edges.ensureCapacity(edges.size() + batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            setEdge(batch.source(i), batch.target(i), batch.weight(i));
+            checkEdge(batch.source(i), batch.target(i));
+        }
+    }
+
     @Override public boolean remove(L vertex) {
         if (vertex == null) {
             return false;
@@ -121,13 +317,25 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
             return false;
         }
 
+        // Remove all edges involving this vertex
+        for (Map.Entry<L, Integer> entry : new ArrayList<>(outgoing.get(vertex).entrySet())) {
+            removeEdge(vertex, entry.getKey());
+            checkEdge(vertex, entry.getKey());
+        }
+        for (Map.Entry<L, Integer> entry : new ArrayList<>(incoming.get(vertex).entrySet())) {
+            removeEdge(entry.getKey(), vertex);
+            checkEdge(entry.getKey(), vertex);
+        }
+        assert outgoing.get(vertex).isEmpty() && incoming.get(vertex).isEmpty();
+
         // Remove the vertex
         vertices.remove(vertex);
+        outgoing.remove(vertex);
+        incoming.remove(vertex);
+        targetsViews.remove(vertex);
+        sourcesViews.remove(vertex);
 
-        // Remove all edges involving this vertex
-        edges.removeIf(edge -> edge.involves(vertex));
-
-        checkRep();
+        checkVertex(vertex);
         return true;
     }
 
@@ -136,35 +344,27 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
     }
 
     @Override public Map<L, Integer> sources(L target) {
-        Map<L, Integer> result = new HashMap<>();
-
-        if (target == null) {
-            return result;
-        }
-
-        for (Edge<L> edge : edges) {
-            if (edge.hasTarget(target)) {
-                result.put(edge.getSource(), edge.getWeight());
-            }
-        }
-
-        return result;
+        Map<L, Integer> sources = target == null ? null : incoming.get(target);
+        return sources == null ? new HashMap<>() : new HashMap<>(sources);
     }
 
     @Override public Map<L, Integer> targets(L source) {
-        Map<L, Integer> result = new HashMap<>();
+        Map<L, Integer> targets = source == null ? null : outgoing.get(source);
+        return targets == null ? new HashMap<>() : new HashMap<>(targets);
+    }
 
-        if (source == null) {
-            return result;
-        }
+    @Override public Set<L> verticesView() {
+        return verticesView;
+    }
 
-        for (Edge<L> edge : edges) {
-            if (edge.hasSource(source)) {
-                result.put(edge.getTarget(), edge.getWeight());
-            }
-        }
+    @Override public Map<L, Integer> sourcesView(L target) {
+        Map<L, Integer> sources = target == null ? null : sourcesViews.get(target);
+        return sources == null ? Collections.emptyMap() : sources;
+    }
 
-        return result;
+    @Override public Map<L, Integer> targetsView(L source) {
+        Map<L, Integer> targets = source == null ? null : targetsViews.get(source);
+        return targets == null ? Collections.emptyMap() : targets;
     }
 
     /**
@@ -8,29 +8,42 @@ import java.util.*;
 /**
  * An implementation of Graph.
  * 
- * <p>PS2 instructions: you MUST use the provided rep.
+ * <p>Each vertex is a Vertex object holding its outgoing and incoming edges.
+ * Vertices are kept in a LinkedHashMap keyed by label rather than the list
+ * of the original PS2 rep, so a vertex is found or removed in O(1) expected
+ * time while toString() still lists vertices in the order they were added.
  */
 public class ConcreteVerticesGraph<L> implements Graph<L> {
     
-    private final List<Vertex<L>> vertices = new ArrayList<>();
+    // Smallest initial capacity, so that small graphs grow as they would by default
+    private static final int DEFAULT_VERTICES = 12;
+
+    private final Map<L, Vertex<L>> vertices;
+    private final Set<L> verticesView;
+    private final int expectedDegree;
 
     // Abstraction function:
     //   AF(vertices) = a directed graph where:
-    //     - vertex labels are the labels of Vertex objects in vertices list
-    //     - edges are the outgoing edges stored in each Vertex object
+    //     - vertex labels are the labels of Vertex objects in vertices.values()
+    //     - edges are the outgoing edges stored in each Vertex object; each
+    //       Vertex also stores its incoming edges, mirroring the outgoing ones
     //     - each edge has a source (the vertex it's stored in), target, and positive weight
 
     // Representation invariant:
     //   vertices != null
-    //   all elements in vertices are non-null
-    //   no two vertices have the same label (vertex labels are unique)
+    //   all values in vertices are non-null
+    //   vertices maps each label to the Vertex with that label, so vertex
+    //     labels are unique; it iterates in the order vertices were added
     //   for all vertices v: v satisfies its own rep invariant
-    //   for all edges in any vertex: the target vertex label exists in some vertex in vertices
+    //   for all edges in any vertex: the target vertex label is a key of vertices
+    //   for all vertices u, v: u has target v with weight w iff v has source u with weight w
 
     // Safety from rep exposure:
-    //   vertices is private final field.
+    //   vertices is a private final field; expectedDegree is only
+    //   a sizing hint and is not part of the abstract value
     //   vertices() returns a new HashSet (defensive copy)
     //   sources() and targets() return new HashMap instances
+    //   verticesView(), sourcesView() and targetsView() return unmodifiable wrappers
     //   clients never get direct references to internal Vertex objects.
     //   Vertex objects are mutable but only accessible through this class's methods
 
@@ -38,41 +51,111 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
      * Create an empty graph.
      */
     public ConcreteVerticesGraph() {
+        this(0, 0);
+    }
+
+    /**
+     * Create an empty graph, sized so that it can hold about expectedVertices
+     * vertices and expectedEdges edges before its maps need to grow.
+     *
+     * @param expectedVertices expected number of vertices, requires >= 0
+     * @param expectedEdges expected number of edges, requires >= 0
+     */
+    public ConcreteVerticesGraph(int expectedVertices, int expectedEdges) {
+        if (expectedVertices < 0 || expectedEdges < 0) {
+            throw new IllegalArgumentException("Expected vertices and edges cannot be negative");
+        }
+        this.vertices = LinkedHashMap.newLinkedHashMap(Math.max(expectedVertices, DEFAULT_VERTICES));
+        this.verticesView = Collections.unmodifiableSet(vertices.keySet());
+        this.expectedDegree = expectedVertices == 0 ? 0 : expectedEdges / expectedVertices;
         checkRep();
     }
 
     /**
-     * Check that the representation invariant holds.
+     * @return the number of edges in each direction that the maps of a new
+     *         vertex are sized for, beyond the default
      */
-    private void checkRep() {
-        Set<L> allLabels = new HashSet<>();
-        for (Vertex<L> vertex : vertices) {
-            assert vertex != null;
+    int expectedDegree() {
+        return expectedDegree;
+    }
 
-            L label = vertex.getLabel();
-            assert !allLabels.contains(label) : "Duplicate vertex label: " + label;
-            allLabels.add(label);
+    /**
+     * Check that the whole representation invariant holds.
+     * This takes time linear in the size of the graph, so mutators only check
+     * the parts of the rep they touch (see checkVertex and checkEdge); tests
+     * may call this method to validate the entire graph.
+     */
+    final void checkRep() {
+        for (Map.Entry<L, Vertex<L>> entry : vertices.entrySet()) {
+            Vertex<L> vertex = entry.getValue();
+            assert vertex != null;
+            assert vertex.getLabel().equals(entry.getKey()) : "Vertex " + entry.getKey() + " is misindexed";
+            vertex.checkRep();
         }
 
-        for (Vertex<L> vertex : vertices) {
-            for (L target : vertex.getTargets().keySet()) {
-                assert allLabels.contains(target) : "Edge target " + target + " does not exist as vertex";
+        for (Vertex<L> vertex : vertices.values()) {
+            for (Map.Entry<L, Integer> edge : vertex.targetsView().entrySet()) {
+                L target = edge.getKey();
+                assert vertices.containsKey(target) : "Edge target " + target + " does not exist as vertex";
+                assert vertices.get(target).getSourceWeight(vertex.getLabel()) == edge.getValue()
+                        : "Edge to " + target + " is not mirrored as incoming";
+            }
+            for (L source : vertex.sourcesView().keySet()) {
+                assert vertices.containsKey(source) : "Edge source " + source + " does not exist as vertex";
+                assert vertices.get(source).hasTarget(vertex.getLabel())
+                        : "Edge from " + source + " is not mirrored as outgoing";
             }
         }
     }
 
     /**
-     * Find vertex with given label.
+     * Check the parts of the representation invariant that concern one
+     * vertex label, in O(1) expected time: if the label is a key, it maps
+     * to its own Vertex.
+     * @param label label of a vertex that was just added or removed
+     */
+    private void checkVertex(L label) {
+        assert label != null;
+        assert !vertices.containsKey(label) || vertices.get(label).getLabel().equals(label)
+                : "Vertex " + label + " is misindexed";
+    }
+
+    /**
+     * Check the parts of the representation invariant that concern the edge
+     * from source to target, in O(1) expected time: both vertices exist and
+     * the edge (or its absence) is mirrored at both ends.
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     */
+    private void checkEdge(L source, L target) {
+        checkVertex(source);
+        checkVertex(target);
+        assert vertices.containsKey(source) && vertices.containsKey(target) : "Edge vertex missing";
+        assert vertices.get(source).getTargetWeight(target) == vertices.get(target).getSourceWeight(source)
+                : "Edge " + source + "->" + target + " is not mirrored";
+    }
+
+    /**
+     * Find vertex with given label, in O(1) expected time.
      * @param label the vertex label to find
      * @return the Vertex object with that label, or null if not found
      */
     private Vertex<L> findVertex(L label) {
-        for (Vertex<L> vertex : vertices) {
-            if (vertex.getLabel().equals(label)) {
-                return vertex;
-            }
+        return vertices.get(label);
+    }
+
+    /**
+     * Find vertex with given label, adding a new vertex if there is none.
+     * @param label the vertex label to find
+     * @return the Vertex object with that label
+     */
+    private Vertex<L> findOrAddVertex(L label) {
+        Vertex<L> vertex = vertices.get(label);
+        if (vertex == null) {
+            vertex = new Vertex<>(label, expectedDegree);
+            vertices.put(label, vertex);
         }
-        return null;
+        return vertex;
     }
 
     @Override public boolean add(L vertex) {
@@ -84,8 +167,8 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
             return false; // already exists
         }
 
-        vertices.add(new Vertex<>(vertex));
-        checkRep();
+        findOrAddVertex(vertex);
+        checkVertex(vertex);
         return true;
     }
 
@@ -97,30 +180,110 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
             throw new IllegalArgumentException("Weight cannot be negative");
         }
 
+        int previousWeight = setEdge(source, target, weight);
+        checkEdge(source, target);
+        return previousWeight;
+    }
+
+    /**
+     * Add, change, or remove an edge as specified by set(), without checking
+     * arguments or the rep invariant.
+     * @param source non-null label of the source vertex
+     * @param target non-null label of the target vertex
+     * @param weight non-negative weight of the edge
+     * @return the previous weight of the edge, or zero if there was none
+     */
+    private int setEdge(L source, L target, int weight) {
         // Add vertices if they don't exist
-        if (findVertex(source) == null) {
-            add(source);
-        }
-        if (findVertex(target) == null) {
-            add(target);
-        }
+        Vertex<L> sourceVertex = findOrAddVertex(source);
+        Vertex<L> targetVertex = findOrAddVertex(target);
 
-        Vertex<L> sourceVertex = findVertex(source);
         int previousWeight;
-
-        assert sourceVertex != null;
         if (weight == 0) {
             // Remove edge
             previousWeight = sourceVertex.removeTarget(target);
+            targetVertex.removeSource(source);
         } else {
             // Add or update edge
             previousWeight = sourceVertex.setTarget(target, weight);
+            targetVertex.setSource(source, weight);
         }
+        return previousWeight;
+    }
 
-        checkRep();
+    @Override public int increment(L source, L target, int amount) {
+        if (source == null || target == null) {
+            throw new IllegalArgumentException("Source and target cannot be null");
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+
+        // an increment can only overflow an existing edge, whose vertices
+        // exist, so the graph is unchanged if it throws
+        Vertex<L> sourceVertex = findOrAddVertex(source);
+        Vertex<L> targetVertex = findOrAddVertex(target);
+        int previousWeight = sourceVertex.incrementTarget(target, amount);
+        targetVertex.incrementSource(source, amount);
+        checkEdge(source, target);
         return previousWeight;
     }
 
+    @Override public boolean addAll(Collection<? extends L> labels) {
+        for (L label : labels) {
+            if (label == null) {
+                throw new IllegalArgumentException("Vertex cannot be null");
+            }
+        }
+
+        int before = vertices.size();
+        for (L label : labels) {
+            findOrAddVertex(label);
+            checkVertex(label);
+        }
+        return vertices.size() > before;
+    }
+
+    @Override public void setAll(EdgeBatch<? extends L> batch) {
+        addBatchVertices(batch);
+        for (int i = 0; i < batch.size(); i++) {
+            setEdge(batch.source(i), batch.target(i), batch.weight(i));
+            checkEdge(batch.source(i), batch.target(i));
+        }
+    }
+
+    /**
+     * Add every vertex of batch that is not yet in this graph, in the order
+     * that setEdge() would add them, each with edge maps sized for its
+     * number of targets and sources in the batch. The new vertices are
+     * inserted with one putAll(), which sizes an empty vertex map for all
+     * of them up front; a non-empty vertex map, and the edge maps of
+     * existing vertices, still grow by doubling as needed.
+     * @param batch edges to be set, with non-null labels
+     */
+    private void addBatchVertices(EdgeBatch<? extends L> batch) {
+        Map<L, int[]> degrees = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            int edge = batch.weight(i) > 0 ? 1 : 0;
+            if (!vertices.containsKey(batch.source(i))) {
+                degrees.computeIfAbsent(batch.source(i), label -> new int[2])[0] += edge;
+            }
+            if (!vertices.containsKey(batch.target(i))) {
+                degrees.computeIfAbsent(batch.target(i), label -> new int[2])[1] += edge;
+            }
+        }
+        if (degrees.isEmpty()) {
+            return;
+        }
+        Map<L, Vertex<L>> added = LinkedHashMap.newLinkedHashMap(degrees.size());
+        for (Map.Entry<L, int[]> entry : degrees.entrySet()) {
+            int[] degree = entry.getValue();
+            added.put(entry.getKey(), new Vertex<>(entry.getKey(),
+                    Math.max(degree[0], expectedDegree), Math.max(degree[1], expectedDegree)));
+        }
+        vertices.putAll(added);
+    }
+
     @Override public boolean remove(L vertex) {
         if (vertex == null) {
             return false;
@@ -131,40 +294,45 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
             return false;
         }
 
-        // Remove the vertex from the list
-        vertices.remove(toRemove);
+        vertices.remove(vertex);
 
-        // Remove all edges pointing to this vertex from other vertices
-        for (Vertex<L> v : vertices) {
-            v.removeTarget(vertex);
+        // Remove edges from this vertex from its targets' incoming edges,
+        // and edges to this vertex from its sources' outgoing edges
+        for (L target : toRemove.targetsView().keySet()) {
+            Vertex<L> targetVertex = findVertex(target);
+            if (targetVertex != null) {
+                targetVertex.removeSource(vertex);
+                assert targetVertex.getSourceWeight(vertex) == 0;
+            }
+        }
+        for (L source : toRemove.sourcesView().keySet()) {
+            Vertex<L> sourceVertex = findVertex(source);
+            if (sourceVertex != null) {
+                sourceVertex.removeTarget(vertex);
+                assert !sourceVertex.hasTarget(vertex);
+            }
         }
+        toRemove.clear();
 
-        checkRep();
+        checkVertex(vertex);
         return true;
     }
 
     @Override public Set<L> vertices() {
-        Set<L> result = new HashSet<>();
-        for (Vertex<L> vertex : vertices) {
-            result.add(vertex.getLabel());
-        }
-        return result;
+        return new HashSet<>(vertices.keySet());
     }
 
     @Override public Map<L, Integer> sources(L target) {
-        Map<L, Integer> result = new HashMap<>();
-
         if (target == null) {
-            return result;
+            return new HashMap<>();
         }
 
-        for (Vertex<L> vertex : vertices) {
-            if (vertex.hasTarget(target)) {
-                result.put(vertex.getLabel(), vertex.getTargetWeight(target));
-            }
+        Vertex<L> targetVertex = findVertex(target);
+        if (targetVertex == null) {
+            return new HashMap<>();
         }
 
-        return result;
+        return targetVertex.getSources();
     }
 
     @Override public Map<L, Integer> targets(L source) {
@@ -177,7 +345,21 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
             return new HashMap<>();
         }
 
-        return new HashMap<>(sourceVertex.getTargets());
+        return sourceVertex.getTargets();
+    }
+
+    @Override public Set<L> verticesView() {
+        return verticesView;
+    }
+
+    @Override public Map<L, Integer> sourcesView(L target) {
+        Vertex<L> targetVertex = target == null ? null : findVertex(target);
+        return targetVertex == null ? Collections.emptyMap() : targetVertex.sourcesView();
+    }
+
+    @Override public Map<L, Integer> targetsView(L source) {
+        Vertex<L> sourceVertex = source == null ? null : findVertex(source);
+        return sourceVertex == null ? Collections.emptyMap() : sourceVertex.targetsView();
     }
 
     /**
@@ -187,7 +369,7 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
     @Override public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("ConcreteVerticesGraph{\n");
-        for (Vertex<L> vertex : vertices) {
+        for (Vertex<L> vertex : vertices.values()) {
             sb.append("  ").append(vertex).append("\n");
         }
         sb.append("}");
@@ -197,7 +379,7 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
 }
 
 /**
- * Represents a vertex in a directed graph with outgoing edges.
+ * Represents a vertex in a directed graph with its outgoing and incoming edges.
  * Mutable.
  * This class is internal to the rep of ConcreteVerticesGraph.
  * 
@@ -206,43 +388,82 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
  */
 class Vertex<L> {
 
+    // Entries a default HashMap holds without resizing
+    private static final int DEFAULT_DEGREE = 12;
+
     private final L label;
     private final Map<L, Integer> targets;
+    private final Map<L, Integer> sources;
+    private final Map<L, Integer> targetsView;
+    private final Map<L, Integer> sourcesView;
 
     // Abstraction function:
-    //   AF(label, targets) = a vertex labeled 'label' with outgoing edges
-    //   to each vertex in targets.keySet(), where each edge has weight targets.get(target)
+    //   AF(label, targets, sources) = a vertex labeled 'label' with outgoing edges
+    //   to each vertex in targets.keySet(), where each edge has weight targets.get(target),
+    //   and incoming edges from each vertex in sources.keySet(), where each edge
+    //   has weight sources.get(source)
 
     // Representation invariant:
     //   label != null
     //   targets != null
     //   all keys in targets are non-null
     //   all values in targets are positive (> 0)
+    //   sources != null, all keys in sources are non-null, all values in sources are positive
     //   no key in targets equals label (no self-loops stored redundantly)
 
     // Safety from rep exposure:
     //   label is private final and of type L which must be immutable (per Graph spec)
-    //   targets is private final Map, but the map itself is mutable
-    //   getTargets() returns defensive copy (new HashMap)
-    //   clients cannot directly access or modify the internal targets map
+    //   targets and sources are private final Maps, but the maps themselves are mutable
+    //   getTargets() and getSources() return defensive copies (new HashMap)
+    //   targetsView() and sourcesView() return unmodifiable wrappers
+    //   clients cannot directly access or modify the internal targets or sources maps
 
     /**
      * Create a new vertex with given label and no outgoing edges.
      * @param label the label for this vertex, must be non-null
      */
     public Vertex(L label) {
+        this(label, 0);
+    }
+
+    /**
+     * Create a new vertex with given label and no edges, sized for about
+     * expectedDegree edges in each direction.
+     * @param label the label for this vertex, must be non-null
+     * @param expectedDegree expected number of targets and of sources, requires >= 0
+     */
+    public Vertex(L label, int expectedDegree) {
+        this(label, expectedDegree, expectedDegree);
+    }
+
+    /**
+     * Create a new vertex with given label and no edges, sized for about
+     * expectedTargets outgoing and expectedSources incoming edges.
+     * @param label the label for this vertex, must be non-null
+     * @param expectedTargets expected number of targets, requires >= 0
+     * @param expectedSources expected number of sources, requires >= 0
+     */
+    public Vertex(L label, int expectedTargets, int expectedSources) {
         if (label == null) {
             throw new IllegalArgumentException("Vertex label cannot be null");
         }
+        if (expectedTargets < 0 || expectedSources < 0) {
+            throw new IllegalArgumentException("Expected degree cannot be negative");
+        }
         this.label = label;
-        this.targets = new HashMap<>();
+        // HashMap allocates its table lazily, so vertices without edges stay small
+        this.targets = HashMap.newHashMap(Math.max(expectedTargets, DEFAULT_DEGREE));
+        this.sources = HashMap.newHashMap(Math.max(expectedSources, DEFAULT_DEGREE));
+        this.targetsView = Collections.unmodifiableMap(targets);
+        this.sourcesView = Collections.unmodifiableMap(sources);
         checkRep();
     }
 
     /**
-     * Check that the representation invariant holds.
+     * Check that the whole representation invariant holds, in time linear in
+     * the degree of this vertex. Mutators only check the edge they touch.
      */
-    private void checkRep() {
+    void checkRep() {
         assert label != null;
         assert targets != null;
 
@@ -251,6 +472,23 @@ class Vertex<L> {
             assert entry.getValue() != null : "Target weight cannot be null";
             assert entry.getValue() > 0 : "Target weight must be positive";
         }
+        assert sources != null;
+        for (Map.Entry<L, Integer> entry : sources.entrySet()) {
+            assert entry.getKey() != null : "Source label cannot be null";
+            assert entry.getValue() != null : "Source weight cannot be null";
+            assert entry.getValue() > 0 : "Source weight must be positive";
+        }
+    }
+
+    /**
+     * Check the representation invariant for one entry of targets or sources.
+     * @param edges targets or sources
+     * @param label key of the entry that was just changed
+     */
+    private void checkEdge(Map<L, Integer> edges, L label) {
+        assert label != null : "Edge label cannot be null";
+        Integer weight = edges.get(label);
+        assert weight == null || weight > 0 : "Edge weight must be positive";
     }
 
     /**
@@ -285,10 +523,32 @@ class Vertex<L> {
         }
 
         Integer previousWeight = targets.put(target, weight);
-        checkRep();
+        checkEdge(targets, target);
         return previousWeight == null ? 0 : previousWeight;
     }
 
+    /**
+     * Add to the weight of the edge from this vertex to target, adding the
+     * edge if it does not exist, with one map lookup.
+     * @param target the target vertex label
+     * @param amount the positive amount to add
+     * @return the previous weight of the edge, or 0 if no edge existed
+     * @throws ArithmeticException if the weight would overflow, in which case
+     *         this vertex is not modified
+     */
+    public int incrementTarget(L target, int amount) {
+        if (target == null) {
+            throw new IllegalArgumentException("Target cannot be null");
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+
+        int weight = targets.merge(target, amount, Math::addExact);
+        checkEdge(targets, target);
+        return weight - amount;
+    }
+
     /**
      * Remove the edge from this vertex to target.
      * @param target the target vertex label
@@ -300,7 +560,7 @@ class Vertex<L> {
         }
 
         Integer previousWeight = targets.remove(target);
-        checkRep();
+        checkEdge(targets, target);
         return previousWeight == null ? 0 : previousWeight;
     }
 
@@ -326,6 +586,108 @@ class Vertex<L> {
         return weight == null ? 0 : weight;
     }
 
+    /**
+     * Get a read-only live view of the targets of outgoing edges from this vertex.
+     * @return an unmodifiable map from target vertex labels to edge weights
+     */
+    public Map<L, Integer> targetsView() {
+        return targetsView;
+    }
+
+    /**
+     * Get a read-only live view of the sources of incoming edges to this vertex.
+     * @return an unmodifiable map from source vertex labels to edge weights
+     */
+    public Map<L, Integer> sourcesView() {
+        return sourcesView;
+    }
+
+    /**
+     * Remove all outgoing and incoming edges of this vertex.
+     */
+    public void clear() {
+        targets.clear();
+        sources.clear();
+    }
+
+    /**
+     * Get all sources of incoming edges to this vertex.
+     * @return a map from source vertex labels to edge weights (defensive copy)
+     */
+    public Map<L, Integer> getSources() {
+        return new HashMap<>(sources);
+    }
+
+    /**
+     * Record an incoming edge from source to this vertex.
+     * If the edge is already recorded, updates its weight.
+     * @param source the source vertex label
+     * @param weight the positive weight for the edge
+     * @return the previous weight of the edge, or 0 if no edge was recorded
+     */
+    public int setSource(L source, int weight) {
+        if (source == null) {
+            throw new IllegalArgumentException("Source cannot be null");
+        }
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight must be positive");
+        }
+
+        Integer previousWeight = sources.put(source, weight);
+        checkEdge(sources, source);
+        return previousWeight == null ? 0 : previousWeight;
+    }
+
+    /**
+     * Add to the weight of the incoming edge from source to this vertex,
+     * recording the edge if it is not recorded, with one map lookup.
+     * @param source the source vertex label
+     * @param amount the positive amount to add
+     * @return the previous weight of the edge, or 0 if no edge was recorded
+     * @throws ArithmeticException if the weight would overflow, in which case
+     *         this vertex is not modified
+     */
+    public int incrementSource(L source, int amount) {
+        if (source == null) {
+            throw new IllegalArgumentException("Source cannot be null");
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+
+        int weight = sources.merge(source, amount, Math::addExact);
+        checkEdge(sources, source);
+        return weight - amount;
+    }
+
+    /**
+     * Forget the incoming edge from source to this vertex.
+     * @param source the source vertex label
+     * @return the previous weight of the edge, or 0 if no edge was recorded
+     */
+    public int removeSource(L source) {
+        if (source == null) {
+            return 0;
+        }
+
+        Integer previousWeight = sources.remove(source);
+        checkEdge(sources, source);
+        return previousWeight == null ? 0 : previousWeight;
+    }
+
+    /**
+     * Get the weight of the incoming edge from source to this vertex.
+     * @param source the source vertex label
+     * @return the weight of the edge, or 0 if no edge is recorded
+     */
+    public int getSourceWeight(L source) {
+        if (source == null) {
+            return 0;
+        }
+        Integer weight = sources.get(source);
+        return weight == null ? 0 : weight;
+    }
+
     /**
      * String representation of this vertex.
      * @return a string showing the vertex label and its outgoing edges
@@ -0,0 +1,439 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe implementation of Graph.
+ *
+ * <p>Any number of threads may call add(), set(), increment() and the
+ * observers at the same time. Each set() and increment() is atomic and
+ * linearizable for its edge: it takes effect at one instant between its call
+ * and return, and returns the weight the edge had at that instant. Calls on
+ * edges that hash to different lock stripes never wait for each other.
+ * remove() is atomic too, but takes every stripe lock, so it waits for
+ * every set() and increment() in progress and blocks new ones while it
+ * runs; it takes time proportional to the number of stripes plus the
+ * degree of the vertex.
+ *
+ * <p>Observers never block. vertices(), sources() and targets() return
+ * copies, and the views returned by verticesView(), sourcesView() and
+ * targetsView() are weakly consistent: they never throw
+ * ConcurrentModificationException, and reflect each concurrent change either
+ * fully or not at all, but a copy or iteration made during concurrent
+ * set() calls on different edges is not a snapshot of the whole graph.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class ConcurrentGraph<L> implements Graph<L> {
+
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final ConcurrentHashMap<L, Node<L>> nodes;
+    private final Lock[] stripes;
+    private final Set<L> verticesView;
+    private final int expectedDegree;
+
+    // Abstraction function:
+    //   AF(nodes, ...) = the graph whose vertices are the keys of nodes, with
+    //     an edge (s, t, w) iff nodes[s].targets maps t to w
+    //   nodes[t].sources indexes the same edges by target
+    // Representation invariant:
+    //   nodes[s].targets maps t to w iff nodes[t].sources maps s to w,
+    //     and then w > 0 (t and s are both keys of nodes)
+    //   stripes.length is a power of two
+    // Safety from rep exposure:
+    //   all fields are private and final; vertices(), sources() and
+    //   targets() return new collections, and the views are unmodifiable
+    //   wrappers that cannot be used to modify the rep; expectedDegree is
+    //   only a sizing hint and is not part of the abstract value
+    //
+    // Thread safety argument:
+    //   nodes and every adjacency map are ConcurrentHashMaps, so single
+    //     reads and writes of them are thread-safe
+    //   the rep invariant for edge (s, t) spans two maps, so every change to
+    //     that edge is made while holding the stripe lock stripe(s, t), and
+    //     the edge is read and written in nodes[s].targets under that lock,
+    //     which makes set() linearizable per edge
+    //   remove() holds every stripe lock, taken in index order, while it
+    //     unmaps a node, marks it removed, and deletes its edges; set() and
+    //     increment() hold one stripe lock at a time, so there is no deadlock
+    //   set() and increment() find or create nodes without a lock, then
+    //     check under the stripe lock that neither node is marked removed,
+    //     and look the nodes up again if one is; Node.removed is only written
+    //     under every stripe lock and only read under one, so the check sees
+    //     every removal that finished before the lock was taken, and no edge
+    //     is ever added to a node that is no longer in nodes
+    //   add() and addAll() only call putIfAbsent, which is atomic, and a new
+    //     node has no edges for remove() to race with
+    //   observers take no locks; they see each map entry either before or
+    //     after a change, as ConcurrentHashMap guarantees
+
+    /**
+     * Create an empty graph.
+     */
+    public ConcurrentGraph() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Create an empty graph.
+     *
+     * @param concurrencyLevel expected number of threads calling set() at
+     *                         the same time, requires > 0
+     */
+    public ConcurrentGraph(int concurrencyLevel) {
+        this(concurrencyLevel, 0);
+    }
+
+    /**
+     * Create an empty graph, sized so that it can hold about expectedVertices
+     * vertices before its vertex map needs to grow.
+     *
+     * @param concurrencyLevel expected number of threads calling set() at
+     *                         the same time, requires > 0
+     * @param expectedVertices expected number of vertices, requires >= 0
+     */
+    public ConcurrentGraph(int concurrencyLevel, int expectedVertices) {
+        this(concurrencyLevel, expectedVertices, 0);
+    }
+
+    /**
+     * Create an empty graph, sized so that it can hold about expectedVertices
+     * vertices and expectedEdges edges before its maps need to grow.
+     *
+     * @param concurrencyLevel expected number of threads calling set() at
+     *                         the same time, requires > 0
+     * @param expectedVertices expected number of vertices, requires >= 0
+     * @param expectedEdges expected number of edges, requires >= 0
+     */
+    public ConcurrentGraph(int concurrencyLevel, int expectedVertices, int expectedEdges) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Concurrency level must be positive");
+        }
+        if (expectedVertices < 0 || expectedEdges < 0) {
+            throw new IllegalArgumentException("Expected vertices and edges cannot be negative");
+        }
+        this.nodes = expectedVertices == 0 ? new ConcurrentHashMap<>() : new ConcurrentHashMap<>(expectedVertices);
+        this.verticesView = Collections.unmodifiableSet(nodes.keySet());
+        this.expectedDegree = expectedVertices == 0 ? 0 : expectedEdges / expectedVertices;
+        int stripeCount = Integer.highestOneBit(Math.min(concurrencyLevel, 1 << 16) * 4 - 1) << 1;
+        this.stripes = new Lock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        checkRep();
+    }
+
+    /**
+     * Check that the whole representation invariant holds. This takes time
+     * linear in the size of the graph, and is only reliable when no other
+     * thread is modifying the graph; mutators only check the edge they
+     * change (see checkEdge).
+     */
+    final void checkRep() {
+        assert Integer.bitCount(stripes.length) == 1;
+        for (Map.Entry<L, Node<L>> entry : nodes.entrySet()) {
+            L source = entry.getKey();
+            assert !entry.getValue().removed : "Removed node still mapped";
+            for (Map.Entry<L, Integer> edge : entry.getValue().targets.entrySet()) {
+                assert edge.getValue() > 0;
+                Node<L> target = nodes.get(edge.getKey());
+                assert target != null : "Edge target missing";
+                assert edge.getValue().equals(target.sources.get(source)) : "Edge not mirrored";
+            }
+            for (L source2 : entry.getValue().sources.keySet()) {
+                Node<L> node = nodes.get(source2);
+                assert node != null && node.targets.containsKey(source) : "Edge not mirrored";
+            }
+        }
+    }
+
+    /**
+     * @return the number of edges in each direction that the maps of a new
+     *         vertex are sized for, or 0 for the default size
+     */
+    int expectedDegree() {
+        return expectedDegree;
+    }
+
+    /**
+     * Check the rep invariant for the edge from source to target. Requires
+     * the stripe lock for the edge.
+     */
+    private void checkEdge(Node<L> sourceNode, L source, Node<L> targetNode, L target) {
+        assert ((ReentrantLock) stripe(source, target)).isHeldByCurrentThread();
+        assert !sourceNode.removed && !targetNode.removed : "Edge added to a removed node";
+        assert Objects.equals(sourceNode.targets.get(target), targetNode.sources.get(source))
+                : "Edge " + source + "->" + target + " not mirrored";
+    }
+
+    /**
+     * @return the lock guarding the edge from source to target
+     */
+    private Lock stripe(L source, L target) {
+        int hash = source.hashCode() * 31 + target.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[hash & (stripes.length - 1)];
+    }
+
+    /**
+     * Find the node of a vertex, adding it if needed. The node may be removed
+     * as soon as this returns; callers must check Node.removed under a
+     * stripe lock before changing its edges.
+     */
+    private Node<L> node(L vertex) {
+        return nodes.computeIfAbsent(vertex, v -> new Node<>(expectedDegree));
+    }
+
+    @Override public boolean add(L vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("Vertex cannot be null");
+        }
+
+        return nodes.putIfAbsent(vertex, new Node<>(expectedDegree)) == null;
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        if (source == null || target == null) {
+            throw new IllegalArgumentException("Source and target cannot be null");
+        }
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+
+        return setEdge(source, target, weight);
+    }
+
+    /**
+     * Add, change, or remove an edge as specified by set(), without checking
+     * arguments.
+     */
+    private int setEdge(L source, L target, int weight) {
+        final Lock stripe = stripe(source, target);
+        while (true) {
+            Node<L> sourceNode = node(source);
+            Node<L> targetNode = node(target);
+            stripe.lock();
+            try {
+                if (sourceNode.removed || targetNode.removed) {
+                    continue; // lost a race with remove(), so find the new nodes
+                }
+                Integer previous;
+                if (weight == 0) {
+                    previous = sourceNode.targets.remove(target);
+                    targetNode.sources.remove(source);
+                } else {
+                    previous = sourceNode.targets.put(target, weight);
+                    targetNode.sources.put(source, weight);
+                }
+                checkEdge(sourceNode, source, targetNode, target);
+                return previous == null ? 0 : previous;
+            } finally {
+                stripe.unlock();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Like set(), each increment is atomic and linearizable for its edge,
+     * so concurrent increments of one edge are never lost. It is not
+     * lock-free: it blocks while another thread holds the stripe lock of its
+     * edge, which includes any set() or increment() of an edge in the same
+     * stripe and any remove() in progress.
+     */
+    @Override public int increment(L source, L target, int amount) {
+        if (source == null || target == null) {
+            throw new IllegalArgumentException("Source and target cannot be null");
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+
+        final Lock stripe = stripe(source, target);
+        while (true) {
+            Node<L> sourceNode = node(source);
+            Node<L> targetNode = node(target);
+            stripe.lock();
+            try {
+                if (sourceNode.removed || targetNode.removed) {
+                    continue; // lost a race with remove(), so find the new nodes
+                }
+                // a compare-and-set on targets alone could interleave with a
+                // set() of this edge between the two maps and leave them
+                // disagreeing, so the merge is made under the stripe lock
+                int weight = sourceNode.targets.merge(target, amount, Math::addExact);
+                targetNode.sources.put(source, weight);
+                checkEdge(sourceNode, source, targetNode, target);
+                return weight - amount;
+            } finally {
+                stripe.unlock();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Each vertex is added atomically, but other threads may see some of
+     * the vertices before others.
+     */
+    @Override public boolean addAll(Collection<? extends L> vertices) {
+        for (L vertex : vertices) {
+            if (vertex == null) {
+                throw new IllegalArgumentException("Vertex cannot be null");
+            }
+        }
+
+        boolean changed = false;
+        for (L vertex : vertices) {
+            changed |= nodes.putIfAbsent(vertex, new Node<>(expectedDegree)) == null;
+        }
+        return changed;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Each edge assignment is atomic and linearizable as for set(), but
+     * the batch as a whole is not: other threads may see some of its edges
+     * before others, and may change edges between them.
+     */
+    @Override public void setAll(EdgeBatch<? extends L> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            setEdge(batch.source(i), batch.target(i), batch.weight(i));
+        }
+    }
+
+    @Override public boolean remove(L vertex) {
+        if (vertex == null) {
+            return false;
+        }
+
+        int locked = 0;
+        try {
+            while (locked < stripes.length) {
+                stripes[locked].lock();
+                locked++;
+            }
+            Node<L> node = nodes.remove(vertex);
+            if (node == null) {
+                return false;
+            }
+            node.removed = true;
+            // No set() or increment() is running, so the edge maps are stable
+            for (L target : node.targets.keySet()) {
+                Node<L> targetNode = nodes.get(target);
+                if (targetNode != null) {
+                    targetNode.sources.remove(vertex);
+                }
+            }
+            for (L source : node.sources.keySet()) {
+                Node<L> sourceNode = nodes.get(source);
+                if (sourceNode != null) {
+                    sourceNode.targets.remove(vertex);
+                }
+            }
+            node.targets.clear();
+            node.sources.clear();
+            return true;
+        } finally {
+            while (locked > 0) {
+                locked--;
+                stripes[locked].unlock();
+            }
+        }
+    }
+
+    @Override public Set<L> vertices() {
+        return new HashSet<>(nodes.keySet());
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+        return new HashMap<>(sourcesView(target));
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+        return new HashMap<>(targetsView(source));
+    }
+
+    @Override public Set<L> verticesView() {
+        return verticesView;
+    }
+
+    @Override public Map<L, Integer> sourcesView(L target) {
+        Node<L> node = target == null ? null : nodes.get(target);
+        return node == null ? Collections.emptyMap() : node.sourcesView;
+    }
+
+    @Override public Map<L, Integer> targetsView(L source) {
+        Node<L> node = source == null ? null : nodes.get(source);
+        return node == null ? Collections.emptyMap() : node.targetsView;
+    }
+
+    /**
+     * String representation of this graph.
+     * @return a string representation showing vertices and edges
+     */
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("ConcurrentGraph{\n");
+        for (Map.Entry<L, Node<L>> entry : nodes.entrySet()) {
+            sb.append("  ").append(entry.getKey()).append(" -> ")
+              .append(entry.getValue().targets).append("\n");
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+}
+
+/**
+ * The edges to and from one vertex of a ConcurrentGraph.
+ * This class is internal to the rep of ConcurrentGraph.
+ */
+class Node<L> {
+
+    final Map<L, Integer> targets;
+    final Map<L, Integer> sources;
+    final Map<L, Integer> targetsView;
+    final Map<L, Integer> sourcesView;
+    boolean removed = false;
+
+    // Abstraction function:
+    //   AF(targets, sources, removed) = the outgoing edges of a vertex, as a
+    //     map from target to weight, and its incoming edges, from source to
+    //     weight; if removed, the vertex has left the graph and this node
+    //     must not gain edges
+    // Representation invariant:
+    //   all weights are positive; the rest is checked by ConcurrentGraph
+    //   removed is only written while holding every stripe lock of the
+    //     ConcurrentGraph, and never changes back to false
+    // Safety from rep exposure:
+    //   Node objects are never returned to clients of ConcurrentGraph, which
+    //   only hands out the unmodifiable views
+
+    /**
+     * Make a node with no edges, sized for about expectedDegree edges in
+     * each direction.
+     * @param expectedDegree expected number of targets and of sources, or 0
+     *                       for the default size
+     */
+    Node(int expectedDegree) {
+        this.targets = expectedDegree == 0 ? new ConcurrentHashMap<>() : new ConcurrentHashMap<>(expectedDegree);
+        this.sources = expectedDegree == 0 ? new ConcurrentHashMap<>() : new ConcurrentHashMap<>(expectedDegree);
+        this.targetsView = Collections.unmodifiableMap(targets);
+        this.sourcesView = Collections.unmodifiableMap(sources);
+    }
+
+}
@@ -0,0 +1,1389 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A Graph whose edges are stored on disk, for graphs too large for the heap.
+ *
+ * <p>A disk graph lives in a directory, which it owns while it is open, and
+ * keeps there:
+ * <ul>
+ * <li>a segment file: an immutable CSR snapshot of the graph, with the
+ *     outgoing and incoming edges of each vertex sorted by vertex number,
+ *     then the vertex labels encoded with a LabelCodec. The edge sections are
+ *     memory-mapped, so they are paged in and out by the operating system
+ *     rather than held in the heap.
+ * <li>append-only logs of the changes made since the snapshot. Every add(),
+ *     set(), increment() and remove() is written to the log before it takes
+ *     effect.
+ * </ul>
+ * The heap holds the label index, which maps each label to its vertex
+ * number, the changes in the logs, and a cache of recently used adjacency
+ * rows from the segment, bounded by a number of edges and evicted least
+ * recently used first. Once the logged changes reach a threshold, a
+ * background thread merges them with the segment into a new segment file,
+ * while queries and changes continue against the old segment and the
+ * changes; the new segment then replaces the old one and its logs. If the
+ * threshold is reached again before that compaction finishes, the change
+ * that reaches it waits for the compaction, so the changes held in the heap
+ * stay bounded however fast the graph is written: at most twice the
+ * threshold, at up to about 150 bytes each. Queries on vertices
+ * outside the cache read the mapped segment, so they slow down to disk speed
+ * as the graph outgrows memory, rather than failing.
+ *
+ * <p>Opening a directory that already holds a disk graph reopens it, with
+ * every change that reached the operating system before it was closed or
+ * crashed. Logged changes are buffered in the heap, up to 64 KiB of them,
+ * and reach the operating system when the buffer fills or the graph is
+ * flushed or closed, so a crash of the process may lose any changes made
+ * since the last flush() or close(); a record cut off by the crash is
+ * discarded. Neither flush() nor close() forces the files to the storage
+ * device, so a crash of the operating system may lose more. After close(),
+ * every method except close() throws IllegalStateException.
+ *
+ * <p>Vertex numbers are never reused: a removed vertex keeps its number,
+ * with no label, so a graph whose vertices are removed and added again
+ * repeatedly grows its label index. sources(), targets() and their views
+ * return new maps; verticesView() is a live view of the label index.
+ * Methods that must read or write files throw UncheckedIOException if they
+ * cannot. Disk graphs are not thread-safe.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public final class DiskGraph<L> implements Graph<L>, Closeable {
+
+    /** First four bytes of a segment file: "DGSG". */
+    public static final int MAGIC = 0x44475347;
+
+    /** Version of the segment and log formats written by this class. */
+    public static final int VERSION = 1;
+
+    /** Default bound on the edges held in the adjacency cache. */
+    public static final int DEFAULT_CACHE_EDGES = 1 << 20;
+
+    /**
+     * Default number of logged changes that starts a compaction, which
+     * bounds the changes held in the heap to about 80 MB.
+     */
+    public static final int DEFAULT_COMPACTION_CHANGES = 1 << 18;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)");
+    private static final Pattern LOG_NAME = Pattern.compile("log-(\\d+)");
+
+    // Log record types
+    private static final byte ADD = 1;
+    private static final byte SET = 2;
+    private static final byte REMOVE = 3;
+
+    // Adjacency directions
+    private static final int OUT = 0;
+    private static final int IN = 1;
+
+    private final Path directory;
+    private final LabelCodec<L> codec;
+    private final int cacheEdges;
+    private final int compactionChanges;
+    private final List<L> labels;
+    private final Map<L, Integer> ids = new HashMap<>();
+    private final Set<L> verticesView = Collections.unmodifiableSet(ids.keySet());
+    private final LinkedHashMap<Long, long[]> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final ExecutorService compactor;
+    private long cachedEdges = 0;
+    private Segment segment;
+    private Delta live = new Delta();
+    private int liveChanges = 0;
+    private Frozen<L> frozen = null;
+    private Future<Segment> compaction = null;
+    private int logNumber;
+    private DataOutputStream log = null;
+    private boolean closed = false;
+
+    // Abstraction function:
+    //   AF(labels, segment, frozen, live) = the graph whose vertices are the
+    //     non-null labels[i], with an edge from labels[s] to labels[t] of
+    //     weight w > 0 iff both labels are non-null and the last of
+    //     segment, frozen.delta and live to record a weight for (s, t)
+    //     records w; vertex number i is i
+    //   the graph on disk is segment-k plus the logs numbered >= k, where
+    //     k = segment.number, applied in order; frozen.delta holds the logs
+    //     before log-logNumber, and live holds log-logNumber
+    // Representation invariant:
+    //   ids maps labels[i] to i for every non-null labels[i], and has no
+    //     other keys
+    //   segment.vertices <= labels.size(), and frozen.labels.size() <=
+    //     labels.size(), and every vertex number in segment, frozen and live
+    //     is < labels.size()
+    //   compaction != null implies frozen != null
+    //   liveChanges < compactionChanges, or frozen != null (a compaction
+    //     failed and is retried)
+    //   cachedEdges is the total length of the rows in cache, and each row
+    //     in cache equals segment.row() for its key
+    //   cachedEdges <= cacheEdges
+    // Safety from rep exposure:
+    //   all fields are private; vertices(), sources() and targets() return
+    //   new collections, and verticesView() an unmodifiable wrapper; rows
+    //   and deltas are never returned
+    //
+    // Thread safety argument:
+    //   clients must confine a disk graph to one thread at a time
+    //   the compaction thread only reads its base segment, through duplicated
+    //     buffers, and a Frozen, which is never modified after it is built;
+    //     both are handed to it by ExecutorService.submit(), and the new
+    //     segment is handed back by Future.get(), which both establish
+    //     happens-before
+
+    private DiskGraph(Path directory, LabelCodec<L> codec, int cacheEdges, int compactionChanges,
+            Segment segment, List<L> labels) {
+        this.directory = directory;
+        this.codec = codec;
+        this.cacheEdges = cacheEdges;
+        this.compactionChanges = compactionChanges;
+        this.segment = segment;
+        this.labels = labels;
+        this.compactor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "DiskGraph compaction of " + directory);
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int id = 0; id < labels.size(); id++) {
+            if (labels.get(id) != null) {
+                ids.put(labels.get(id), id);
+            }
+        }
+    }
+
+    /**
+     * Open the disk graph in a directory, creating an empty one if the
+     * directory does not exist or holds no graph, with the default cache
+     * size and compaction threshold.
+     *
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param directory directory holding the graph; must not be open as
+     *                  another disk graph
+     * @param codec encodes and decodes the graph's labels, the same codec
+     *              every time the directory is opened
+     * @return the graph in directory
+     * @throws IOException if the directory cannot be read or written, or
+     *         holds invalid graph files
+     */
+    public static <L> DiskGraph<L> open(Path directory, LabelCodec<L> codec) throws IOException {
+        return open(directory, codec, DEFAULT_CACHE_EDGES, DEFAULT_COMPACTION_CHANGES);
+    }
+
+    /**
+     * Open the disk graph in a directory, creating an empty one if the
+     * directory does not exist or holds no graph.
+     *
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param directory directory holding the graph; must not be open as
+     *                  another disk graph
+     * @param codec encodes and decodes the graph's labels, the same codec
+     *              every time the directory is opened
+     * @param cacheEdges most edges to hold in the adjacency cache, requires
+     *                   >= 0
+     * @param compactionChanges number of logged changes that starts a
+     *                          compaction, requires > 0; a change that
+     *                          reaches it while a compaction is running
+     *                          waits for that compaction
+     * @return the graph in directory
+     * @throws IOException if the directory cannot be read or written, or
+     *         holds invalid graph files
+     */
+    public static <L> DiskGraph<L> open(Path directory, LabelCodec<L> codec, int cacheEdges,
+            int compactionChanges) throws IOException {
+        if (directory == null || codec == null) {
+            throw new IllegalArgumentException("Directory and codec cannot be null");
+        }
+        if (cacheEdges < 0 || compactionChanges <= 0) {
+            throw new IllegalArgumentException("Cache size cannot be negative and compaction threshold must be positive");
+        }
+        Files.createDirectories(directory);
+        int segmentNumber = 0;
+        TreeSet<Integer> logs = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Matcher segmentName = SEGMENT_NAME.matcher(name);
+                Matcher logName = LOG_NAME.matcher(name);
+                if (segmentName.matches()) {
+                    segmentNumber = Math.max(segmentNumber, Integer.parseInt(segmentName.group(1)));
+                } else if (logName.matches()) {
+                    logs.add(Integer.parseInt(logName.group(1)));
+                }
+            }
+        }
+        Segment segment = segmentNumber == 0
+                ? Segment.empty()
+                : Segment.open(segmentFile(directory, segmentNumber), segmentNumber);
+        DiskGraph<L> graph = new DiskGraph<>(directory, codec, cacheEdges, compactionChanges,
+                segment, segment.readLabels(codec));
+        try {
+            for (int number : logs.tailSet(segmentNumber)) {
+                graph.replay(logFile(directory, number));
+            }
+            if (graph.liveChanges > 0) {
+                // fold the replayed logs into a new segment
+                graph.logNumber = logs.last() + 1;
+                graph.log = openLog(logFile(directory, graph.logNumber));
+                graph.freezeLive();
+            } else {
+                for (int number : logs.tailSet(segmentNumber)) {
+                    Files.delete(logFile(directory, number));
+                }
+                graph.deleteObsolete(segmentNumber);
+                graph.logNumber = segmentNumber;
+                graph.log = openLog(logFile(directory, graph.logNumber));
+            }
+        } catch (IOException | RuntimeException e) {
+            graph.compactor.shutdown();
+            if (graph.log != null) {
+                try {
+                    graph.log.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+        graph.checkRep();
+        return graph;
+    }
+
+    /**
+     * Check that the whole representation invariant holds, except that
+     * segment rows are only checked if cached. This takes time linear in the
+     * number of vertices and changes.
+     */
+    void checkRep() {
+        int vertices = 0;
+        for (int id = 0; id < labels.size(); id++) {
+            if (labels.get(id) != null) {
+                vertices++;
+                assert ids.get(labels.get(id)) == id : "label index out of date";
+            }
+        }
+        assert ids.size() == vertices : "label index has extra labels";
+        assert segment.vertices <= labels.size();
+        assert frozen == null || frozen.labels().size() <= labels.size();
+        assert compaction == null || frozen != null;
+        assert liveChanges < compactionChanges || frozen != null : "live layer past its bound";
+        live.checkRep(labels.size());
+        long total = 0;
+        for (long[] row : cache.values()) {
+            total += row.length;
+        }
+        assert total == cachedEdges : "cache size out of date";
+        assert cachedEdges <= cacheEdges;
+    }
+
+    /**
+     * Check that the rep invariant holds for vertex number id.
+     */
+    private void checkVertex(int id) {
+        assert id < labels.size();
+        assert labels.get(id) == null || ids.get(labels.get(id)) == id;
+    }
+
+    private static Path segmentFile(Path directory, int number) {
+        return directory.resolve("segment-" + number);
+    }
+
+    private static Path logFile(Path directory, int number) {
+        return directory.resolve("log-" + number);
+    }
+
+    private static DataOutputStream openLog(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), 1 << 16));
+    }
+
+    /**
+     * Apply the changes in a log to the live layer, stopping at the end of
+     * the file or at a record cut off by a crash.
+     */
+    private void replay(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (true) {
+                byte type;
+                try {
+                    type = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                try {
+                    switch (type) {
+                    case ADD -> {
+                        byte[] bytes = new byte[in.readInt()];
+                        in.readFully(bytes);
+                        L label = codec.decode(bytes);
+                        if (ids.containsKey(label)) {
+                            throw new IOException("Vertex added twice in " + file);
+                        }
+                        applyAdd(label);
+                    }
+                    case SET -> {
+                        int source = in.readInt();
+                        int target = in.readInt();
+                        int weight = in.readInt();
+                        if (source < 0 || source >= labels.size() || target < 0 || target >= labels.size()
+                                || weight < 0) {
+                            throw new IOException("Invalid edge " + source + "->" + target + " in " + file);
+                        }
+                        live.put(source, target, weight);
+                    }
+                    case REMOVE -> {
+                        int id = in.readInt();
+                        if (id < 0 || id >= labels.size() || labels.get(id) == null) {
+                            throw new IOException("Invalid removal of vertex " + id + " in " + file);
+                        }
+                        applyRemove(id);
+                    }
+                    default -> throw new IOException("Invalid record type " + type + " in " + file);
+                    }
+                } catch (EOFException e) {
+                    // last record was cut off
+                    return;
+                } catch (IllegalArgumentException | NegativeArraySizeException e) {
+                    throw new IOException("Invalid record in " + file, e);
+                }
+                liveChanges++;
+            }
+        }
+    }
+
+    /*
+     * Compaction
+     */
+
+    /**
+     * Freeze the live layer, start a new log for later changes, and start
+     * merging the frozen changes into a new segment in the background.
+     * Requires frozen == null.
+     */
+    private void freeze() throws IOException {
+        assert frozen == null;
+        DataOutputStream next = openLog(logFile(directory, logNumber + 1));
+        log.close();
+        log = next;
+        logNumber++;
+        freezeLive();
+    }
+
+    /**
+     * Freeze the live layer, whose changes are in the logs before
+     * log-logNumber, and start merging them into a new segment.
+     */
+    private void freezeLive() {
+        frozen = new Frozen<>(live, new ArrayList<>(labels), logNumber);
+        live = new Delta();
+        liveChanges = 0;
+        startCompaction();
+    }
+
+    private void startCompaction() {
+        Segment base = segment.duplicate();
+        Frozen<L> job = frozen;
+        compaction = compactor.submit(() -> Segment.compact(directory, base, job, codec));
+    }
+
+    /**
+     * Install the result of the running compaction, if there is one and it
+     * is done or wait is true.
+     *
+     * @throws IOException if the compaction failed; its changes stay frozen,
+     *         and are compacted again later
+     */
+    private void finishCompaction(boolean wait) throws IOException {
+        if (compaction == null || (!wait && !compaction.isDone())) {
+            return;
+        }
+        Segment next;
+        try {
+            next = compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for compaction", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw new IOException("Compaction failed: " + directory, cause);
+            }
+            throw new IllegalStateException("Compaction failed: " + directory, e.getCause());
+        } finally {
+            compaction = null;
+        }
+        segment = next;
+        frozen = null;
+        cache.clear();
+        cachedEdges = 0;
+        deleteObsolete(next.number);
+    }
+
+    /**
+     * Delete segments and logs numbered below number, which the segment
+     * numbered number includes, and any unfinished segment files.
+     */
+    private void deleteObsolete(int number) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Matcher segmentName = SEGMENT_NAME.matcher(name);
+                Matcher logName = LOG_NAME.matcher(name);
+                if ((segmentName.matches() && Integer.parseInt(segmentName.group(1)) < number)
+                        || (logName.matches() && Integer.parseInt(logName.group(1)) < number)
+                        || (name.endsWith(".tmp") && compaction == null)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check that this graph is open and install a finished compaction.
+     */
+    private void beginOperation() {
+        if (closed) {
+            throw new IllegalStateException("Graph is closed: " + directory);
+        }
+        try {
+            finishCompaction(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Start a compaction once enough changes have been logged. If one is
+     * still running, wait for it first, so that the live and frozen layers
+     * each hold at most about compactionChanges changes however slow
+     * compaction is.
+     */
+    private void endChange() {
+        liveChanges++;
+        if (liveChanges < compactionChanges) {
+            return;
+        }
+        try {
+            finishCompaction(true);
+            if (frozen == null) {
+                freeze();
+            } else {
+                // an earlier compaction failed; try it again
+                startCompaction();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Merge every logged change into a new segment, and wait until it
+     * replaces the current one.
+     *
+     * @throws IOException if the new segment cannot be written
+     */
+    public void compact() throws IOException {
+        beginOperation();
+        finishCompaction(true);
+        if (frozen != null) {
+            startCompaction();
+            finishCompaction(true);
+        }
+        if (liveChanges > 0) {
+            freeze();
+            finishCompaction(true);
+        }
+        checkRep();
+    }
+
+    /**
+     * Write every logged change to the operating system, so that it survives
+     * a crash of this process. Does not force the log to the storage device.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    public void flush() throws IOException {
+        beginOperation();
+        log.flush();
+    }
+
+    /**
+     * Flush the log, wait for a running compaction, close the log and stop
+     * the compaction thread. Has no effect if this graph is already closed.
+     *
+     * <p>The segment's mapped edge sections stay mapped until they are
+     * garbage collected, since Java cannot unmap a buffer explicitly, so
+     * the segment file may stay open, and on some systems cannot be deleted
+     * or replaced, until then. The directory may be opened again as a disk
+     * graph as soon as close() returns.
+     *
+     * @throws IOException if the log cannot be written or the compaction
+     *         failed; the graph is closed anyway, and its logged changes are
+     *         kept
+     */
+    @Override public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Throwable failure = null;
+        try {
+            finishCompaction(true);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            compactor.shutdown();
+            cache.clear();
+            try {
+                log.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    throw e;
+                }
+                failure.addSuppressed(e);
+            }
+        }
+    }
+
+    /*
+     * Vertices and edges
+     */
+
+    private void applyAdd(L label) {
+        ids.put(label, labels.size());
+        labels.add(label);
+    }
+
+    private void applyRemove(int id) {
+        ids.remove(labels.get(id));
+        labels.set(id, null);
+    }
+
+    /**
+     * @return vertex number of label, adding and logging it if absent
+     */
+    private int findOrAdd(L label) throws IOException {
+        Integer id = ids.get(label);
+        if (id != null) {
+            return id;
+        }
+        byte[] bytes = codec.encode(label);
+        log.writeByte(ADD);
+        log.writeInt(bytes.length);
+        log.write(bytes);
+        applyAdd(label);
+        endChange();
+        return labels.size() - 1;
+    }
+
+    @Override public boolean add(L vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("Vertex cannot be null");
+        }
+        beginOperation();
+        if (ids.containsKey(vertex)) {
+            return false;
+        }
+        try {
+            checkVertex(findOrAdd(vertex));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+
+    /**
+     * Log and apply a change to the weight of an edge.
+     */
+    private void putEdge(int source, int target, int weight) throws IOException {
+        log.writeByte(SET);
+        log.writeInt(source);
+        log.writeInt(target);
+        log.writeInt(weight);
+        live.put(source, target, weight);
+        endChange();
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        if (source == null || target == null) {
+            throw new IllegalArgumentException("Source and target cannot be null");
+        }
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+        beginOperation();
+        try {
+            if (weight == 0) {
+                Integer sourceId = ids.get(source);
+                Integer targetId = ids.get(target);
+                int previous = sourceId == null || targetId == null ? 0 : weight(sourceId, targetId);
+                if (previous != 0) {
+                    putEdge(sourceId, targetId, 0);
+                }
+                return previous;
+            }
+            int sourceId = findOrAdd(source);
+            int targetId = findOrAdd(target);
+            int previous = weight(sourceId, targetId);
+            putEdge(sourceId, targetId, weight);
+            checkVertex(sourceId);
+            checkVertex(targetId);
+            return previous;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override public int increment(L source, L target, int amount) {
+        if (source == null || target == null) {
+            throw new IllegalArgumentException("Source and target cannot be null");
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        beginOperation();
+        try {
+            int sourceId = findOrAdd(source);
+            int targetId = findOrAdd(target);
+            int previous = weight(sourceId, targetId);
+            putEdge(sourceId, targetId, Math.addExact(previous, amount));
+            return previous;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override public boolean remove(L vertex) {
+        beginOperation();
+        Integer id = vertex == null ? null : ids.get(vertex);
+        if (id == null) {
+            return false;
+        }
+        try {
+            log.writeByte(REMOVE);
+            log.writeInt(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        applyRemove(id);
+        endChange();
+        checkVertex(id);
+        return true;
+    }
+
+    @Override public Set<L> vertices() {
+        beginOperation();
+        return new HashSet<>(ids.keySet());
+    }
+
+    @Override public Set<L> verticesView() {
+        beginOperation();
+        return verticesView;
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+        return neighbors(IN, target);
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+        return neighbors(OUT, source);
+    }
+
+    /**
+     * @return new map from the labels of the vertices adjacent to vertex in
+     *         direction to the weights of their edges
+     */
+    private Map<L, Integer> neighbors(int direction, L vertex) {
+        beginOperation();
+        Integer id = vertex == null ? null : ids.get(vertex);
+        if (id == null) {
+            return new HashMap<>();
+        }
+        Map<Integer, Integer> weights = new HashMap<>();
+        for (long edge : row(direction, id)) {
+            weights.put(neighbor(edge), weight(edge));
+        }
+        if (frozen != null) {
+            Delta.apply(frozen.delta().row(direction, id), weights);
+        }
+        Delta.apply(live.row(direction, id), weights);
+        Map<L, Integer> result = HashMap.newHashMap(weights.size());
+        for (Map.Entry<Integer, Integer> entry : weights.entrySet()) {
+            L label = labels.get(entry.getKey());
+            if (label != null) {
+                result.put(label, entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return weight of the edge from vertex number source to vertex number
+     *         target, or 0 if there is none; requires both to be vertices
+     */
+    private int weight(int source, int target) {
+        int weight = live.get(source, target);
+        if (weight == Delta.UNCHANGED && frozen != null) {
+            weight = frozen.delta().get(source, target);
+        }
+        if (weight == Delta.UNCHANGED) {
+            long[] row = cache.get(key(OUT, source));
+            weight = row != null ? find(row, target) : segment.find(OUT, source, target);
+        }
+        return weight;
+    }
+
+    /**
+     * @return the segment row of vertex number id in direction, through the
+     *         cache; not to be modified
+     */
+    private long[] row(int direction, int id) {
+        Long key = key(direction, id);
+        long[] row = cache.get(key);
+        if (row == null) {
+            row = segment.row(direction, id);
+            if (row.length > 0 && row.length <= cacheEdges) {
+                cache.put(key, row);
+                cachedEdges += row.length;
+                Iterator<long[]> eldest = cache.values().iterator();
+                while (cachedEdges > cacheEdges) {
+                    cachedEdges -= eldest.next().length;
+                    eldest.remove();
+                }
+            }
+        }
+        return row;
+    }
+
+    private static Long key(int direction, int id) {
+        return ((long) id << 1) | direction;
+    }
+
+    /*
+     * Rows are arrays of edges, each packed into a long as the vertex number
+     * at the other end in the high 32 bits and the weight in the low 32,
+     * sorted by vertex number.
+     */
+
+    private static long edge(int neighbor, int weight) {
+        return ((long) neighbor << 32) | weight;
+    }
+
+    private static int neighbor(long edge) {
+        return (int) (edge >>> 32);
+    }
+
+    private static int weight(long edge) {
+        return (int) edge;
+    }
+
+    /**
+     * @return weight of the edge to neighbor in row, or 0 if there is none
+     */
+    private static int find(long[] row, int neighbor) {
+        int low = 0;
+        int high = row.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int found = neighbor(row[middle]);
+            if (found < neighbor) {
+                low = middle + 1;
+            } else if (found > neighbor) {
+                high = middle - 1;
+            } else {
+                return weight(row[middle]);
+            }
+        }
+        return 0;
+    }
+
+    @Override public String toString() {
+        return "DiskGraph in " + directory + " with " + ids.size() + " vertices";
+    }
+
+    /**
+     * Changes to edges not yet merged into a segment, indexed by edge, by
+     * source and by target. A weight of 0 records a removed edge.
+     *
+     * <p>Each changed edge is one entry in parallel int arrays, linked into
+     * a list for its source and a list for its target, and found by edge
+     * through a LongIntTable, so nothing is boxed: an entry takes 20 bytes
+     * in the arrays, plus 12-byte table slots for the edge and for each of
+     * its endpoints with no other change, in tables between 3/8 and 3/4
+     * full. Each changed edge therefore takes at most about 150 bytes of
+     * heap, and about 30 to 80 bytes in practice.
+     */
+    private static final class Delta {
+
+        static final int UNCHANGED = -1;
+
+        private static final long[] NO_CHANGES = new long[0];
+        private static final int END = LongIntTable.ABSENT;
+        private static final int INITIAL_ENTRIES = 16;
+
+        private int[] sources = new int[INITIAL_ENTRIES];
+        private int[] targets = new int[INITIAL_ENTRIES];
+        private int[] weights = new int[INITIAL_ENTRIES];
+        private int[] nextOut = new int[INITIAL_ENTRIES];
+        private int[] nextIn = new int[INITIAL_ENTRIES];
+        private int size = 0;
+        private final LongIntTable entries = new LongIntTable();
+        private final LongIntTable heads = new LongIntTable();
+
+        // Abstraction function:
+        //   AF(sources, targets, weights, size, ...) = the changes that set
+        //     the edge from sources[i] to targets[i] to weight weights[i], or
+        //     remove it if that weight is 0, for 0 <= i < size
+        // Representation invariant:
+        //   all arrays have the same length >= size
+        //   the pairs (sources[i], targets[i]) are distinct, and weights[i] >= 0
+        //   entries maps edgeKey(sources[i], targets[i]) to i for each i < size,
+        //     and has no other keys
+        //   heads maps headKey(OUT, s) to the last entry with source s, and
+        //     nextOut[i] is the entry before i with source sources[i], or END;
+        //     likewise headKey(IN, t), nextIn and targets
+        // Safety from rep exposure:
+        //   all fields are private; row() returns a new array
+
+        void checkRep(int vertices) {
+            assert sources.length == targets.length && sources.length == weights.length;
+            assert sources.length == nextOut.length && sources.length == nextIn.length;
+            assert entries.size() == size;
+            for (int i = 0; i < size; i++) {
+                assert sources[i] < vertices && targets[i] < vertices;
+                assert weights[i] >= 0;
+                assert entries.get(edgeKey(sources[i], targets[i])) == i;
+            }
+        }
+
+        private static long edgeKey(int source, int target) {
+            return ((long) source << 32) | target;
+        }
+
+        private static long headKey(int direction, int id) {
+            return ((long) id << 1) | direction;
+        }
+
+        void put(int source, int target, int weight) {
+            final long key = edgeKey(source, target);
+            int i = entries.get(key);
+            if (i != LongIntTable.ABSENT) {
+                weights[i] = weight;
+                return;
+            }
+            if (size == sources.length) {
+                int capacity = size + (size >> 1);
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+                nextOut = Arrays.copyOf(nextOut, capacity);
+                nextIn = Arrays.copyOf(nextIn, capacity);
+            }
+            i = size++;
+            sources[i] = source;
+            targets[i] = target;
+            weights[i] = weight;
+            nextOut[i] = heads.put(headKey(OUT, source), i);
+            nextIn[i] = heads.put(headKey(IN, target), i);
+            entries.put(key, i);
+        }
+
+        /**
+         * @return weight of the edge from source to target, 0 if removed, or
+         *         UNCHANGED
+         */
+        int get(int source, int target) {
+            int i = entries.get(edgeKey(source, target));
+            return i == LongIntTable.ABSENT ? UNCHANGED : weights[i];
+        }
+
+        /**
+         * @return changes to the edges of vertex id in direction, as edges to
+         *         the vertex at the other end with their new weights, sorted
+         *         by vertex number; empty if there are none
+         */
+        long[] row(int direction, int id) {
+            final int first = heads.get(headKey(direction, id));
+            if (first == END) {
+                return NO_CHANGES;
+            }
+            final int[] next = direction == OUT ? nextOut : nextIn;
+            final int[] neighbors = direction == OUT ? targets : sources;
+            int count = 0;
+            for (int i = first; i != END; i = next[i]) {
+                count++;
+            }
+            long[] row = new long[count];
+            int length = 0;
+            for (int i = first; i != END; i = next[i]) {
+                row[length++] = edge(neighbors[i], weights[i]);
+            }
+            Arrays.sort(row);
+            return row;
+        }
+
+        /**
+         * Apply the changes in a row returned by row() to weights.
+         */
+        static void apply(long[] row, Map<Integer, Integer> weights) {
+            for (long change : row) {
+                if (weight(change) == 0) {
+                    weights.remove(neighbor(change));
+                } else {
+                    weights.put(neighbor(change), weight(change));
+                }
+            }
+        }
+    }
+
+    /**
+     * A mutable map from non-negative longs to non-negative ints, with open
+     * addressing and linear probing over parallel arrays, so that no key or
+     * value is boxed. This class is internal to the rep of DiskGraph.
+     */
+    private static final class LongIntTable {
+
+        /** Value returned for a key that is not in the table. */
+        static final int ABSENT = -1;
+
+        private static final long FREE = -1;
+        private static final int INITIAL_SLOTS = 16;
+
+        private long[] keys = free(INITIAL_SLOTS);
+        private int[] values = new int[INITIAL_SLOTS];
+        private int size = 0;
+
+        // Abstraction function:
+        //   AF(keys, values) = the map from keys[i] to values[i] for every
+        //     slot i with keys[i] != FREE
+        // Representation invariant:
+        //   keys.length == values.length, a power of two
+        //   size is the number of slots not FREE, and size < keys.length * 3 / 4
+        //     after every put, so probing always reaches a FREE slot
+        //   each key is in the first slot, probing from slot(key), that
+        //     holds it or is FREE
+        // Safety from rep exposure:
+        //   all fields are private and the arrays are never returned
+
+        private static long[] free(int slots) {
+            long[] keys = new long[slots];
+            Arrays.fill(keys, FREE);
+            return keys;
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * @return the value of key, or ABSENT
+         */
+        int get(long key) {
+            for (int i = slot(key); ; i = (i + 1) & (keys.length - 1)) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+                if (keys[i] == FREE) {
+                    return ABSENT;
+                }
+            }
+        }
+
+        /**
+         * Map a key to a value.
+         * @param key non-negative key
+         * @param value non-negative value
+         * @return the previous value of key, or ABSENT
+         */
+        int put(long key, int value) {
+            assert key >= 0 && value >= 0;
+            for (int i = slot(key); ; i = (i + 1) & (keys.length - 1)) {
+                if (keys[i] == key) {
+                    int previous = values[i];
+                    values[i] = value;
+                    return previous;
+                }
+                if (keys[i] == FREE) {
+                    keys[i] = key;
+                    values[i] = value;
+                    if (++size >= keys.length * 3 / 4) {
+                        grow();
+                    }
+                    return ABSENT;
+                }
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = free(oldKeys.length * 2);
+            values = new int[keys.length];
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != FREE) {
+                    int i = slot(oldKeys[j]);
+                    while (keys[i] != FREE) {
+                        i = (i + 1) & (keys.length - 1);
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+    }
+
+    /**
+     * Changes being merged into a new segment.
+     *
+     * @param delta the changes
+     * @param labels vertex labels when the changes were frozen, null for
+     *               removed vertices
+     * @param number number of the new segment
+     */
+    private record Frozen<L>(Delta delta, List<L> labels, int number) { }
+
+    /**
+     * A memory-mapped segment file.
+     *
+     * <p>A segment file is a header, offset and edge sections for each
+     * direction, and a label section, with all integers big-endian:
+     * <pre>
+     *   header:   int MAGIC, int VERSION, int vertexCount, int 0, long edgeCount
+     *   offsets:  vertexCount + 1 longs for outgoing edges, then the same for
+     *             incoming edges; the row of vertex i runs from offset i to
+     *             offset i + 1
+     *   edges:    edgeCount outgoing edges, then edgeCount incoming edges,
+     *             each an int vertex number and an int weight
+     *   labels:   vertexCount entries of int length, then length bytes
+     *             encoding the label of vertex 0, 1, ... with a LabelCodec,
+     *             or int -1 for a removed vertex
+     * </pre>
+     * Every offset and edge is aligned to its size, so none of them crosses
+     * a mapped window.
+     */
+    private static final class Segment {
+
+        private static final int HEADER_BYTES = 24;
+        private static final int WINDOW_BITS = 30;
+        private static final long WINDOW_MASK = (1L << WINDOW_BITS) - 1;
+        private static final long[] NO_EDGES = new long[0];
+
+        final int number;
+        final int vertices;
+        final long edges;
+        private final Path file;
+        private final ByteBuffer[] windows;
+
+        // Abstraction function:
+        //   AF(number, vertices, edges, file, windows) = segment file number
+        //     number, holding vertices vertices and edges edges, whose bytes
+        //     up to the label section are windows[0], windows[1], ... in order
+        // Representation invariant:
+        //   every window but the last holds 1 << WINDOW_BITS bytes
+        // Safety from rep exposure:
+        //   windows are read-only and never returned
+
+        private Segment(int number, int vertices, long edges, Path file, ByteBuffer[] windows) {
+            this.number = number;
+            this.vertices = vertices;
+            this.edges = edges;
+            this.file = file;
+            this.windows = windows;
+        }
+
+        /**
+         * @return segment for a graph with no segment file
+         */
+        static Segment empty() {
+            return new Segment(0, 0, 0, null, new ByteBuffer[0]);
+        }
+
+        private static long outOffsets() {
+            return HEADER_BYTES;
+        }
+
+        private static long edgesStart(int vertices) {
+            return HEADER_BYTES + 2L * Long.BYTES * (vertices + 1);
+        }
+
+        private static long labelsStart(int vertices, long edges) {
+            return edgesStart(vertices) + 2L * Long.BYTES * edges;
+        }
+
+        static Segment open(Path file, int number) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                final long size = channel.size();
+                if (size < HEADER_BYTES) {
+                    throw new IOException("Not a segment file: " + file);
+                }
+                ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+                if (header.getInt() != MAGIC) {
+                    throw new IOException("Not a segment file: " + file);
+                }
+                int version = header.getInt();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported segment file version " + version + ": " + file);
+                }
+                int vertices = header.getInt();
+                header.getInt();
+                long edges = header.getLong();
+                if (vertices < 0 || edges < 0 || edges > (size - HEADER_BYTES) / (2L * Long.BYTES)
+                        || labelsStart(vertices, edges) > size) {
+                    throw new IOException("Truncated segment file: " + file);
+                }
+                long mapped = labelsStart(vertices, edges);
+                ByteBuffer[] windows = new ByteBuffer[(int) ((mapped + WINDOW_MASK) >>> WINDOW_BITS)];
+                for (int w = 0; w < windows.length; w++) {
+                    long start = (long) w << WINDOW_BITS;
+                    windows[w] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                            Math.min(mapped - start, 1L << WINDOW_BITS));
+                }
+                return new Segment(number, vertices, edges, file, windows);
+            }
+        }
+
+        /**
+         * @return a segment reading the same file through separate buffers,
+         *         for use by another thread
+         */
+        Segment duplicate() {
+            ByteBuffer[] copies = new ByteBuffer[windows.length];
+            for (int w = 0; w < windows.length; w++) {
+                copies[w] = windows[w].duplicate();
+            }
+            return new Segment(number, vertices, edges, file, copies);
+        }
+
+        private long getLong(long position) {
+            return windows[(int) (position >>> WINDOW_BITS)].getLong((int) (position & WINDOW_MASK));
+        }
+
+        /**
+         * @return position of the first and one past the last edge of the row
+         *         of vertex id in direction, as edge numbers within the
+         *         direction's edge section; requires id < vertices
+         */
+        private long rowStart(int direction, int id) {
+            return getLong(outOffsets() + (long) Long.BYTES * ((long) direction * (vertices + 1) + id));
+        }
+
+        private long edgePosition(int direction, long edge) {
+            return edgesStart(vertices) + (long) Long.BYTES * (direction * edges + edge);
+        }
+
+        /**
+         * @return the row of vertex id in direction, empty if id >= vertices
+         */
+        long[] row(int direction, int id) {
+            if (id >= vertices) {
+                return NO_EDGES;
+            }
+            long start = rowStart(direction, id);
+            long[] row = new long[(int) (rowStart(direction, id + 1) - start)];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = getLong(edgePosition(direction, start + i));
+            }
+            return row;
+        }
+
+        /**
+         * @return weight of the edge from vertex id to neighbor in direction,
+         *         or 0 if there is none, found by binary search in the file
+         */
+        int find(int direction, int id, int neighbor) {
+            if (id >= vertices) {
+                return 0;
+            }
+            long low = rowStart(direction, id);
+            long high = rowStart(direction, id + 1) - 1;
+            while (low <= high) {
+                long middle = (low + high) >>> 1;
+                long edge = getLong(edgePosition(direction, middle));
+                if (neighbor(edge) < neighbor) {
+                    low = middle + 1;
+                } else if (neighbor(edge) > neighbor) {
+                    high = middle - 1;
+                } else {
+                    return weight(edge);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @return labels of this segment's vertices in order, null for
+         *         removed vertices, in a new mutable list
+         */
+        <L> List<L> readLabels(LabelCodec<L> codec) throws IOException {
+            List<L> labels = new ArrayList<>(vertices);
+            if (file == null) {
+                return labels;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                channel.position(labelsStart(vertices, edges));
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+                for (int i = 0; i < vertices; i++) {
+                    int length = in.readInt();
+                    if (length < 0) {
+                        labels.add(null);
+                        continue;
+                    }
+                    byte[] bytes = new byte[length];
+                    in.readFully(bytes);
+                    labels.add(codec.decode(bytes));
+                }
+            } catch (EOFException e) {
+                throw new IOException("Truncated label section: " + file, e);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid label: " + file, e);
+            }
+            return labels;
+        }
+
+        /**
+         * Merge frozen changes into a base segment, and write and open the
+         * result as a new segment file.
+         *
+         * @return the new segment
+         */
+        static <L> Segment compact(Path directory, Segment base, Frozen<L> frozen, LabelCodec<L> codec)
+                throws IOException {
+            Path file = segmentFile(directory, frozen.number());
+            Path temporary = directory.resolve(file.getFileName() + ".tmp");
+            final int n = frozen.labels().size();
+            long[] outOffsets = new long[n + 1];
+            long[] inOffsets = new long[n + 1];
+            long edges;
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                channel.position(edgesStart(n));
+                DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+                edges = writeRows(data, OUT, base, frozen, outOffsets);
+                long inEdges = writeRows(data, IN, base, frozen, inOffsets);
+                assert inEdges == edges;
+                for (L label : frozen.labels()) {
+                    if (label == null) {
+                        data.writeInt(-1);
+                    } else {
+                        byte[] bytes = codec.encode(label);
+                        data.writeInt(bytes.length);
+                        data.write(bytes);
+                    }
+                }
+                data.flush();
+
+                channel.position(0);
+                data = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+                data.writeInt(MAGIC);
+                data.writeInt(VERSION);
+                data.writeInt(n);
+                data.writeInt(0);
+                data.writeLong(edges);
+                for (long offset : outOffsets) {
+                    data.writeLong(offset);
+                }
+                for (long offset : inOffsets) {
+                    data.writeLong(offset);
+                }
+                data.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            return open(file, frozen.number());
+        }
+
+        /**
+         * Write the merged rows of every vertex in direction, and fill in
+         * their offsets.
+         *
+         * @return number of edges written
+         */
+        private static <L> long writeRows(DataOutputStream data, int direction, Segment base, Frozen<L> frozen,
+                long[] offsets) throws IOException {
+            final List<L> labels = frozen.labels();
+            long written = 0;
+            for (int id = 0; id < labels.size(); id++) {
+                offsets[id] = written;
+                if (labels.get(id) == null) {
+                    continue;
+                }
+                for (long edge : merge(base.row(direction, id), frozen.delta().row(direction, id), labels)) {
+                    data.writeLong(edge);
+                    written++;
+                }
+            }
+            offsets[labels.size()] = written;
+            return written;
+        }
+
+        /**
+         * @param base a segment row, sorted by vertex number
+         * @param changes changes to that row, sorted by vertex number, as
+         *                returned by Delta.row()
+         * @return base with changes applied, without removed edges or edges
+         *         to removed vertices, sorted by vertex number
+         */
+        private static long[] merge(long[] base, long[] changes, List<?> labels) {
+            long[] merged = new long[base.length + changes.length];
+            int length = 0;
+            int b = 0;
+            int c = 0;
+            while (b < base.length || c < changes.length) {
+                long edge;
+                if (c == changes.length || b < base.length && neighbor(base[b]) < neighbor(changes[c])) {
+                    edge = base[b++];
+                } else {
+                    if (b < base.length && neighbor(base[b]) == neighbor(changes[c])) {
+                        b++; // replaced by the change
+                    }
+                    edge = changes[c++];
+                }
+                if (weight(edge) > 0 && labels.get(neighbor(edge)) != null) {
+                    merged[length++] = edge;
+                }
+            }
+            return length == merged.length ? merged : Arrays.copyOf(merged, length);
+        }
+    }
+
+}
@@ -0,0 +1,160 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A mutable, ordered list of weighted directed edge assignments, to be applied
+ * to a graph all at once with {@link Graph#setAll(EdgeBatch)}.
+ *
+ * <p>Each edge is validated when it is added to the batch, so applying the
+ * batch does not need to check its arguments again. Edges are kept in flat
+ * arrays, without allocating an object per edge.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public final class EdgeBatch<L> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] sources;
+    private Object[] targets;
+    private int[] weights;
+    private int size = 0;
+
+    // Abstraction function:
+    //   AF(sources, targets, weights, size) = the list of edge assignments
+    //     (sources[i], targets[i], weights[i]) for 0 <= i < size
+    // Representation invariant:
+    //   sources.length == targets.length == weights.length >= size >= 0
+    //   sources[0..size) and targets[0..size) are non-null
+    //   weights[0..size) are non-negative
+    // Safety from rep exposure:
+    //   all fields are private and the arrays are never returned
+
+    /**
+     * Create an empty batch.
+     */
+    public EdgeBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create an empty batch with room for expectedEdges edges before it needs
+     * to grow.
+     *
+     * @param expectedEdges expected number of edges, requires >= 0
+     */
+    public EdgeBatch(int expectedEdges) {
+        if (expectedEdges < 0) {
+            throw new IllegalArgumentException("Expected edges cannot be negative");
+        }
+        this.sources = new Object[expectedEdges];
+        this.targets = new Object[expectedEdges];
+        this.weights = new int[expectedEdges];
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert sources.length == targets.length && targets.length == weights.length;
+        assert 0 <= size && size <= weights.length;
+    }
+
+    /**
+     * Append an edge assignment to this batch; applying it has the effect of
+     * {@link Graph#set(Object, Object, int) set(source, target, weight)}.
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @param weight non-negative weight of the edge; zero removes the edge
+     * @return this batch
+     * @throws IllegalArgumentException if source or target is null, or weight
+     *         is negative
+     */
+    public EdgeBatch<L> add(L source, L target, int weight) {
+        if (source == null || target == null) {
+            throw new IllegalArgumentException("Source and target cannot be null");
+        }
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+        if (size == weights.length) {
+            int capacity = Math.max(DEFAULT_CAPACITY, size + (size >> 1));
+            sources = Arrays.copyOf(sources, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+        sources[size] = source;
+        targets[size] = target;
+        weights[size] = weight;
+        size++;
+        checkRep();
+        return this;
+    }
+
+    /**
+     * @return number of edge assignments in this batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i index, requires 0 <= i < size()
+     * @return the source label of the i-th edge assignment
+     */
+    @SuppressWarnings("unchecked")
+    public L source(int i) {
+        checkIndex(i);
+        return (L) sources[i];
+    }
+
+    /**
+     * @param i index, requires 0 <= i < size()
+     * @return the target label of the i-th edge assignment
+     */
+    @SuppressWarnings("unchecked")
+    public L target(int i) {
+        checkIndex(i);
+        return (L) targets[i];
+    }
+
+    /**
+     * @param i index, requires 0 <= i < size()
+     * @return the non-negative weight of the i-th edge assignment
+     */
+    public int weight(int i) {
+        checkIndex(i);
+        return weights[i];
+    }
+
+    /**
+     * Remove all edge assignments from this batch, keeping its capacity.
+     */
+    public void clear() {
+        Arrays.fill(sources, 0, size, null);
+        Arrays.fill(targets, 0, size, null);
+        size = 0;
+        checkRep();
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+        }
+    }
+
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder("EdgeBatch[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(sources[i]).append(" -> ").append(targets[i]).append(" (").append(weights[i]).append(")");
+        }
+        return sb.append("]").toString();
+    }
+
+}
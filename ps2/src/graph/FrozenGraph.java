@@ -0,0 +1,462 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable weighted directed graph in compressed sparse row (CSR) form.
+ * Obtain one with {@link Graph#freeze(Graph)}.
+ *
+ * <p>Vertices are numbered 0..n-1 and each label is stored once, in a label
+ * table. The targets of vertex i are outTargets[outOffsets[i]..outOffsets[i+1])
+ * in increasing order, with weights at the same positions of outWeights, and
+ * likewise for sources; so all edges live in a few flat int arrays and
+ * neighbors are scanned sequentially, without boxing.
+ *
+ * <p>The mutators add(), set(), remove(), addAll(), setAll() and increment()
+ * throw UnsupportedOperationException, so the views returned by
+ * verticesView(), sourcesView() and targetsView() never change.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public final class FrozenGraph<L> implements Graph<L> {
+
+    private final VertexIndex<L> index;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] outWeights;
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final int[] inWeights;
+
+    // Abstraction function:
+    //   AF(index, outOffsets, outTargets, outWeights, ...) = the graph with
+    //     vertices label(0..n), where n = index.size(), and an edge
+    //     (label(i), label(outTargets[k]), outWeights[k]) for every i and
+    //     outOffsets[i] <= k < outOffsets[i+1]
+    //   inOffsets, inSources and inWeights index the same edges by target:
+    //     the sources of vertex j are inSources[inOffsets[j]..inOffsets[j+1])
+    //     with weights inWeights
+    // Representation invariant:
+    //   outOffsets.length == inOffsets.length == n + 1, both start at 0, are
+    //     non-decreasing, and end at outTargets.length == inSources.length
+    //   every row of outTargets and inSources is strictly increasing, in [0, n)
+    //   all weights are positive
+    //   (i, j, w) is in the out rows iff (j, i, w) is in the in rows
+    // Safety from rep exposure:
+    //   all fields are private, final and never mutated after construction;
+    //   vertices(), sources() and targets() return new collections, and the
+    //   views are unmodifiable;
+    //   the package-private array accessors return rep arrays, which callers
+    //   in this package must not modify
+
+    /**
+     * Make a frozen graph from its out rows, which it takes ownership of.
+     *
+     * @param index numbering of the vertices
+     * @param outOffsets out row offsets, satisfying the rep invariant
+     * @param outTargets out row targets, each row sorted
+     * @param outWeights out row weights
+     */
+    private FrozenGraph(VertexIndex<L> index, int[] outOffsets, int[] outTargets, int[] outWeights) {
+        this.index = index;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.outWeights = outWeights;
+        final int n = index.size();
+        final int edges = outTargets.length;
+
+        // In rows: a counting sort of the out rows by target, which leaves
+        // each row sorted by source
+        this.inOffsets = new int[n + 1];
+        for (int target : outTargets) {
+            inOffsets[target + 1]++;
+        }
+        for (int j = 0; j < n; j++) {
+            inOffsets[j + 1] += inOffsets[j];
+        }
+        this.inSources = new int[edges];
+        this.inWeights = new int[edges];
+        int[] next = Arrays.copyOf(inOffsets, n);
+        for (int i = 0; i < n; i++) {
+            for (int k = outOffsets[i]; k < outOffsets[i + 1]; k++) {
+                int position = next[outTargets[k]]++;
+                inSources[position] = i;
+                inWeights[position] = outWeights[k];
+            }
+        }
+
+        checkRep();
+    }
+
+    /**
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param graph graph to copy; not modified
+     * @return graph itself if it is a FrozenGraph, otherwise a frozen copy
+     */
+    static <L> FrozenGraph<L> of(Graph<L> graph) {
+        if (graph instanceof FrozenGraph<L> frozen) {
+            return frozen;
+        }
+        final VertexIndex<L> index = new VertexIndex<>(graph.verticesView());
+        final int n = index.size();
+
+        // Out rows: count, then fill, then sort each row by target
+        final int[] outOffsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            outOffsets[i + 1] = outOffsets[i] + graph.targetsView(index.label(i)).size();
+        }
+        final int[] outTargets = new int[outOffsets[n]];
+        final int[] outWeights = new int[outOffsets[n]];
+        for (int i = 0; i < n; i++) {
+            int k = outOffsets[i];
+            for (Map.Entry<L, Integer> edge : graph.targetsView(index.label(i)).entrySet()) {
+                outTargets[k] = index.indexOf(edge.getKey());
+                outWeights[k] = edge.getValue();
+                k++;
+            }
+            sortRow(outTargets, outWeights, outOffsets[i], outOffsets[i + 1]);
+        }
+        return new FrozenGraph<>(index, outOffsets, outTargets, outWeights);
+    }
+
+    /**
+     * Make a frozen graph from a list of edges between numbered vertices.
+     *
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param index numbering of the vertices
+     * @param edges number of edges
+     * @param sources sources[0..edges) are the edges' source vertex numbers;
+     *                not modified
+     * @param targets targets[0..edges) are the edges' target vertex numbers;
+     *                not modified
+     * @param weights weights[0..edges) are the edges' weights; not modified
+     * @return the graph with the vertices of index and the given edges
+     * @throws IllegalArgumentException if a vertex number is out of range, a
+     *         weight is not positive, or an edge appears twice
+     */
+    static <L> FrozenGraph<L> of(VertexIndex<L> index, int edges, int[] sources, int[] targets, int[] weights) {
+        final int n = index.size();
+
+        // Out rows: a counting sort of the edges by source
+        final int[] outOffsets = new int[n + 1];
+        for (int e = 0; e < edges; e++) {
+            if (sources[e] < 0 || sources[e] >= n || targets[e] < 0 || targets[e] >= n) {
+                throw new IllegalArgumentException("Edge " + sources[e] + "->" + targets[e] + " out of range");
+            }
+            if (weights[e] <= 0) {
+                throw new IllegalArgumentException("Weight " + weights[e] + " is not positive");
+            }
+            outOffsets[sources[e] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            outOffsets[i + 1] += outOffsets[i];
+        }
+        final int[] outTargets = new int[edges];
+        final int[] outWeights = new int[edges];
+        final int[] next = Arrays.copyOf(outOffsets, n);
+        for (int e = 0; e < edges; e++) {
+            int position = next[sources[e]]++;
+            outTargets[position] = targets[e];
+            outWeights[position] = weights[e];
+        }
+        for (int i = 0; i < n; i++) {
+            sortRow(outTargets, outWeights, outOffsets[i], outOffsets[i + 1]);
+            for (int k = outOffsets[i] + 1; k < outOffsets[i + 1]; k++) {
+                if (outTargets[k - 1] == outTargets[k]) {
+                    throw new IllegalArgumentException("Edge " + i + "->" + outTargets[k] + " appears twice");
+                }
+            }
+        }
+        return new FrozenGraph<>(index, outOffsets, outTargets, outWeights);
+    }
+
+    /**
+     * Check that the representation invariant holds. This takes time linear
+     * in the size of the graph, but only runs once, on construction.
+     */
+    private void checkRep() {
+        final int n = index.size();
+        assert outOffsets.length == n + 1 && inOffsets.length == n + 1;
+        assert outOffsets[0] == 0 && inOffsets[0] == 0;
+        assert outOffsets[n] == outTargets.length && inOffsets[n] == inSources.length;
+        assert outTargets.length == inSources.length;
+        for (int i = 0; i < n; i++) {
+            checkRow(outOffsets, outTargets, outWeights, i);
+            checkRow(inOffsets, inSources, inWeights, i);
+            for (int k = outOffsets[i]; k < outOffsets[i + 1]; k++) {
+                int j = outTargets[k];
+                int position = Arrays.binarySearch(inSources, inOffsets[j], inOffsets[j + 1], i);
+                assert position >= 0 && inWeights[position] == outWeights[k];
+            }
+        }
+    }
+
+    private void checkRow(int[] offsets, int[] neighbors, int[] weights, int i) {
+        assert offsets[i] <= offsets[i + 1];
+        for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+            assert 0 <= neighbors[k] && neighbors[k] < index.size();
+            assert k == offsets[i] || neighbors[k - 1] < neighbors[k];
+            assert weights[k] > 0;
+        }
+    }
+
+    /**
+     * Sort neighbors[from..to) in increasing order, permuting weights[from..to)
+     * along with it. Rows are usually short, so this is an insertion sort
+     * unless the row is long.
+     */
+    private static void sortRow(int[] neighbors, int[] weights, int from, int to) {
+        if (to - from > 32) {
+            long[] pairs = new long[to - from];
+            for (int k = from; k < to; k++) {
+                pairs[k - from] = (long) neighbors[k] << 32 | (weights[k] & 0xffffffffL);
+            }
+            Arrays.sort(pairs);
+            for (int k = from; k < to; k++) {
+                neighbors[k] = (int) (pairs[k - from] >>> 32);
+                weights[k] = (int) pairs[k - from];
+            }
+            return;
+        }
+        for (int k = from + 1; k < to; k++) {
+            int neighbor = neighbors[k];
+            int weight = weights[k];
+            int m = k - 1;
+            while (m >= from && neighbors[m] > neighbor) {
+                neighbors[m + 1] = neighbors[m];
+                weights[m + 1] = weights[m];
+                m--;
+            }
+            neighbors[m + 1] = neighbor;
+            weights[m + 1] = weight;
+        }
+    }
+
+    /**
+     * @throws UnsupportedOperationException always
+     */
+    @Override public boolean add(L vertex) {
+        throw new UnsupportedOperationException("FrozenGraph is immutable");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always
+     */
+    @Override public int set(L source, L target, int weight) {
+        throw new UnsupportedOperationException("FrozenGraph is immutable");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always
+     */
+    @Override public boolean remove(L vertex) {
+        throw new UnsupportedOperationException("FrozenGraph is immutable");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always
+     */
+    @Override public boolean addAll(Collection<? extends L> vertices) {
+        throw new UnsupportedOperationException("FrozenGraph is immutable");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always
+     */
+    @Override public void setAll(EdgeBatch<? extends L> batch) {
+        throw new UnsupportedOperationException("FrozenGraph is immutable");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always
+     */
+    @Override public int increment(L source, L target, int amount) {
+        throw new UnsupportedOperationException("FrozenGraph is immutable");
+    }
+
+    @Override public Set<L> vertices() {
+        return new HashSet<>(index.labels());
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+        return new HashMap<>(sourcesView(target));
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+        return new HashMap<>(targetsView(source));
+    }
+
+    @Override public Set<L> verticesView() {
+        return index.labels();
+    }
+
+    @Override public Map<L, Integer> sourcesView(L target) {
+        int j = indexOf(target);
+        return j < 0 ? Collections.emptyMap() : new Row(inOffsets, inSources, inWeights, j);
+    }
+
+    @Override public Map<L, Integer> targetsView(L source) {
+        int i = indexOf(source);
+        return i < 0 ? Collections.emptyMap() : new Row(outOffsets, outTargets, outWeights, i);
+    }
+
+    /**
+     * @return number of vertices in this graph
+     */
+    int vertexCount() {
+        return index.size();
+    }
+
+    /**
+     * @return number of edges in this graph
+     */
+    int edgeCount() {
+        return outTargets.length;
+    }
+
+    /**
+     * @param vertex a label
+     * @return the number of vertex in 0..vertexCount()-1, or -1 if it is not
+     *         in this graph
+     */
+    int indexOf(L vertex) {
+        return index.indexOf(vertex);
+    }
+
+    /**
+     * @param i a vertex number, requires 0 <= i < vertexCount()
+     * @return the label of vertex number i
+     */
+    L label(int i) {
+        return index.label(i);
+    }
+
+    /**
+     * @return the numbering of the vertices of this graph
+     */
+    VertexIndex<L> vertexIndex() {
+        return index;
+    }
+
+    /** @return CSR offsets of the targets of each vertex; must not be modified */
+    int[] outOffsets() {
+        return outOffsets;
+    }
+
+    /** @return CSR targets, as vertex numbers; must not be modified */
+    int[] outTargets() {
+        return outTargets;
+    }
+
+    /** @return CSR weights of the edges in outTargets(); must not be modified */
+    int[] outWeights() {
+        return outWeights;
+    }
+
+    /** @return CSR offsets of the sources of each vertex; must not be modified */
+    int[] inOffsets() {
+        return inOffsets;
+    }
+
+    /** @return CSR sources, as vertex numbers; must not be modified */
+    int[] inSources() {
+        return inSources;
+    }
+
+    /** @return CSR weights of the edges in inSources(); must not be modified */
+    int[] inWeights() {
+        return inWeights;
+    }
+
+    /**
+     * String representation of this graph.
+     * @return a string representation showing vertices and edges
+     */
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("FrozenGraph{\n");
+        for (int i = 0; i < index.size(); i++) {
+            sb.append("  ").append(label(i)).append(" -> ")
+              .append(new Row(outOffsets, outTargets, outWeights, i)).append("\n");
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /**
+     * An unmodifiable map view of one CSR row: neighbor labels to weights.
+     */
+    private final class Row extends AbstractMap<L, Integer> {
+
+        private final int[] neighbors;
+        private final int[] weights;
+        private final int from;
+        private final int to;
+
+        Row(int[] offsets, int[] neighbors, int[] weights, int vertex) {
+            this.neighbors = neighbors;
+            this.weights = weights;
+            this.from = offsets[vertex];
+            this.to = offsets[vertex + 1];
+        }
+
+        @Override public int size() {
+            return to - from;
+        }
+
+        @Override public boolean containsKey(Object key) {
+            return position(key) >= 0;
+        }
+
+        @Override public Integer get(Object key) {
+            int k = position(key);
+            return k < 0 ? null : weights[k];
+        }
+
+        private int position(Object key) {
+            int j = index.indexOf(key);
+            return j < 0 ? -1 : Arrays.binarySearch(neighbors, from, to, j);
+        }
+
+        @Override public Set<Map.Entry<L, Integer>> entrySet() {
+            return new AbstractSet<>() {
+                @Override public int size() {
+                    return to - from;
+                }
+
+                @Override public Iterator<Map.Entry<L, Integer>> iterator() {
+                    return new Iterator<>() {
+                        private int k = from;
+
+                        @Override public boolean hasNext() {
+                            return k < to;
+                        }
+
+                        @Override public Map.Entry<L, Integer> next() {
+                            if (k >= to) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<L, Integer> entry = Map.entry(label(neighbors[k]), weights[k]);
+                            k++;
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+}
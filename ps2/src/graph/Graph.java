@@ -3,6 +3,8 @@
  */
 package graph;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 
@@ -29,6 +31,20 @@ public interface Graph<L> {
         return new ConcreteVerticesGraph<>();
     }
     
+    /**
+     * Make an immutable snapshot of a graph, compacted for fast queries and
+     * low memory use. The snapshot is not affected by later changes to graph,
+     * and its add(), set() and remove() methods throw
+     * UnsupportedOperationException.
+     * 
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param graph graph to copy; not modified
+     * @return an immutable graph with the same vertices and edges as graph
+     */
+    static <L> Graph<L> freeze(Graph<L> graph) {
+        return FrozenGraph.of(graph);
+    }
+    
     /**
      * Add a vertex to this graph.
      * 
@@ -95,4 +111,121 @@ public interface Graph<L> {
      */
     Map<L, Integer> targets(L source);
     
+    /**
+     * Add many vertices to this graph. The effect is the same as calling
+     * {@link #add(Object) add(vertex)} for each vertex, but implementations
+     * may check arguments and invariants once for the whole collection.
+     * 
+     * @param vertices labels of the vertices to add; not modified
+     * @return true if this graph did not already include at least one of the
+     *         given labels; otherwise false (and this graph is not modified)
+     * @throws IllegalArgumentException if vertices contains null, in which
+     *         case this graph is not modified
+     */
+    default boolean addAll(Collection<? extends L> vertices) {
+        for (L vertex : vertices) {
+            if (vertex == null) {
+                throw new IllegalArgumentException("Vertex cannot be null");
+            }
+        }
+        boolean changed = false;
+        for (L vertex : vertices) {
+            changed |= add(vertex);
+        }
+        return changed;
+    }
+    
+    /**
+     * Add, change, or remove many weighted directed edges in this graph. The
+     * effect is the same as calling
+     * {@link #set(Object, Object, int) set(source, target, weight)} for each
+     * edge assignment in the batch, in order, but implementations may size
+     * their structures for the whole batch and check invariants once.
+     * 
+     * @param batch edge assignments to apply, already validated by
+     *              EdgeBatch.add(); not modified
+     */
+    default void setAll(EdgeBatch<? extends L> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            set(batch.source(i), batch.target(i), batch.weight(i));
+        }
+    }
+    
+    /**
+     * Add to the weight of a directed edge in this graph, adding the edge
+     * (and vertices with the given labels) if it does not exist. The effect
+     * is the same as {@link #set(Object, Object, int) set(source, target,
+     * previous + amount)}, where previous is the current weight of the edge
+     * or zero, but implementations find the edge only once.
+     * 
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @param amount positive amount to add to the weight of the edge
+     * @return the previous weight of the edge, or zero if there was no such
+     *         edge
+     * @throws IllegalArgumentException if amount is not positive
+     * @throws ArithmeticException if the new weight would overflow an int, in
+     *         which case this graph is not modified
+     */
+    default int increment(L source, L target, int amount) {
+        if (source == null || target == null) {
+            throw new IllegalArgumentException("Source and target cannot be null");
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        int previous = targetsView(source).getOrDefault(target, 0);
+        set(source, target, Math.addExact(previous, amount));
+        return previous;
+    }
+    
+    /**
+     * Get a read-only view of the vertices in this graph, without copying.
+     * 
+     * <p>The view cannot be used to modify this graph: its mutators throw
+     * UnsupportedOperationException. Whether it reflects later changes to the
+     * graph depends on the implementation, which documents it: views from
+     * ConcreteEdgesGraph and ConcreteVerticesGraph are live, and iterating
+     * over one while the graph is being modified throws
+     * ConcurrentModificationException on a best-effort basis, like the
+     * java.util collections; other implementations may return weakly
+     * consistent views, or copies. The default implementation returns an
+     * unmodifiable copy of {@link #vertices()}.
+     * 
+     * @return an unmodifiable set of labels of vertices in this graph
+     */
+    default Set<L> verticesView() {
+        return Collections.unmodifiableSet(vertices());
+    }
+    
+    /**
+     * Get a read-only view of the sources of edges to a target vertex,
+     * without copying. The view behaves as described for
+     * {@link #verticesView()}, except that once target is removed from this
+     * graph the view stops reflecting changes to it. The default
+     * implementation returns an unmodifiable copy of
+     * {@link #sources(Object) sources(target)}.
+     * 
+     * @param target a label
+     * @return an unmodifiable map with the same contents as sources(target)
+     */
+    default Map<L, Integer> sourcesView(L target) {
+        return Collections.unmodifiableMap(sources(target));
+    }
+    
+    /**
+     * Get a read-only view of the targets of edges from a source vertex,
+     * without copying. The view behaves as described for
+     * {@link #verticesView()}, except that once source is removed from this
+     * graph the view stops reflecting changes to it. The default
+     * implementation returns an unmodifiable copy of
+     * {@link #targets(Object) targets(source)}.
+     * 
+     * @param source a label
+     * @return an unmodifiable map with the same contents as targets(source)
+     */
+    default Map<L, Integer> targetsView(L source) {
+        return Collections.unmodifiableMap(targets(source));
+    }
+    
 }
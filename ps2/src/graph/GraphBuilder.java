@@ -0,0 +1,191 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+/**
+ * Chooses and pre-sizes a Graph implementation from hints about how the
+ * graph will be used.
+ *
+ * <p>Graph.empty() always returns a default-sized ConcreteVerticesGraph. A
+ * builder instead takes hints, all optional, and build() returns a new empty
+ * graph of the implementation that suits them:
+ * <ul>
+ * <li>with concurrent(), a ConcurrentGraph, which is the only implementation
+ *     safe to share between threads;
+ * <li>otherwise, for a builder made by forVertexIds() whose workload is
+ *     BALANCED, an IntGraphAdapter, which stores edges in unboxed arrays
+ *     but copies the maps its views return;
+ * <li>otherwise, a ConcreteVerticesGraph, whose views are live and whose
+ *     lookups are single hash probes.
+ * </ul>
+ * The workload only matters for builders made by forVertexIds() without
+ * concurrent(), since that is the only case with a choice between these
+ * trade-offs. Expected vertex and edge counts size the chosen graph's vertex
+ * map or array, and the edge maps or arrays of each new vertex for the
+ * average degree, so that the graph does not grow while it is built.
+ *
+ * <p>For a builder made by forLabels(), the hints affect only speed and
+ * memory use. A builder made by forVertexIds() may build an IntGraphAdapter,
+ * which behaves differently from the other implementations: its views are
+ * copies rather than live, and its labels must be dense ids, as its
+ * precondition says. A graph that will not change after it is built should
+ * be frozen with Graph.freeze() instead.
+ *
+ * <p>Builders are mutable and not thread-safe; each call to build() returns a
+ * new graph.
+ *
+ * @param <L> type of vertex labels in the graphs built, must be immutable
+ */
+public final class GraphBuilder<L> {
+
+    /**
+     * How a graph's operations are expected to be mixed.
+     */
+    public enum Workload {
+        /** No particular mix of changes and queries. */
+        BALANCED,
+        /** Mostly queries, especially through the views, after the graph is built. */
+        READ_MOSTLY
+    }
+
+    private final boolean vertexIds;
+    private int expectedVertices = 0;
+    private int expectedEdges = 0;
+    private Workload workload = Workload.BALANCED;
+    private int concurrencyLevel = 0;
+
+    // Abstraction function:
+    //   AF(vertexIds, expectedVertices, expectedEdges, workload,
+    //      concurrencyLevel) = a builder for graphs with those hints, where
+    //     vertexIds means labels are dense vertex ids and
+    //     concurrencyLevel == 0 means single-threaded use
+    // Representation invariant:
+    //   expectedVertices >= 0, expectedEdges >= 0, concurrencyLevel >= 0
+    //   workload != null
+    // Safety from rep exposure:
+    //   all fields are private and immutable values
+
+    private GraphBuilder(boolean vertexIds) {
+        this.vertexIds = vertexIds;
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert expectedVertices >= 0;
+        assert expectedEdges >= 0;
+        assert concurrencyLevel >= 0;
+        assert workload != null;
+    }
+
+    /**
+     * Make a builder for graphs with labels of any type. The label type
+     * only fixes the type of the graphs built: in particular, a builder for
+     * Integer labels never builds an IntGraphAdapter, since its labels may
+     * be negative or far apart; use forVertexIds() for dense ids.
+     *
+     * @param <L> type of vertex labels, must be immutable
+     * @param labelType class of the vertex labels
+     * @return a new builder with no hints
+     */
+    public static <L> GraphBuilder<L> forLabels(Class<L> labelType) {
+        if (labelType == null) {
+            throw new IllegalArgumentException("Label type cannot be null");
+        }
+        return new GraphBuilder<>(false);
+    }
+
+    /**
+     * Make a builder for graphs whose labels are dense vertex ids: the
+     * vertices are numbered from 0 up, with few gaps, and every label is
+     * less than IntGraph.MAX_VERTICES. Clients must keep to this
+     * precondition. An IntGraphAdapter built for these ids throws
+     * IllegalArgumentException from add() and set() for labels that are
+     * negative or too large, and uses memory proportional to the largest
+     * label, so a large sparse label may run out of memory.
+     *
+     * @return a new builder with no hints
+     */
+    public static GraphBuilder<Integer> forVertexIds() {
+        return new GraphBuilder<>(true);
+    }
+
+    /**
+     * @param count expected number of vertices, requires >= 0
+     * @return this builder
+     */
+    public GraphBuilder<L> expectedVertices(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Expected vertices cannot be negative");
+        }
+        expectedVertices = count;
+        checkRep();
+        return this;
+    }
+
+    /**
+     * @param count expected number of edges, requires >= 0
+     * @return this builder
+     */
+    public GraphBuilder<L> expectedEdges(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Expected edges cannot be negative");
+        }
+        expectedEdges = count;
+        checkRep();
+        return this;
+    }
+
+    /**
+     * @param workload expected mix of operations, BALANCED by default
+     * @return this builder
+     */
+    public GraphBuilder<L> workload(Workload workload) {
+        if (workload == null) {
+            throw new IllegalArgumentException("Workload cannot be null");
+        }
+        this.workload = workload;
+        checkRep();
+        return this;
+    }
+
+    /**
+     * Require graphs that may be used by several threads at the same time.
+     *
+     * @param threads expected number of threads changing the graph at the
+     *                same time, requires > 0
+     * @return this builder
+     */
+    public GraphBuilder<L> concurrent(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive");
+        }
+        concurrencyLevel = threads;
+        checkRep();
+        return this;
+    }
+
+    /**
+     * @return a new empty graph, of the implementation that suits this
+     *         builder's hints, sized for the expected vertices and edges
+     */
+    public Graph<L> build() {
+        if (concurrencyLevel > 0) {
+            return new ConcurrentGraph<>(concurrencyLevel, expectedVertices, expectedEdges);
+        }
+        if (vertexIds && workload == Workload.BALANCED) {
+            @SuppressWarnings("unchecked") // L is Integer when vertexIds is true
+            Graph<L> graph = (Graph<L>) new IntGraphAdapter(
+                    new IntGraph(Math.min(expectedVertices, IntGraph.MAX_VERTICES), expectedEdges));
+            return graph;
+        }
+        return new ConcreteVerticesGraph<>(expectedVertices, expectedEdges);
+    }
+
+    @Override public String toString() {
+        return "GraphBuilder[" + (vertexIds ? "vertex ids" : "labels")
+                + ", vertices=" + expectedVertices + ", edges=" + expectedEdges
+                + ", " + workload + (concurrencyLevel > 0 ? ", threads=" + concurrencyLevel : "") + "]";
+    }
+
+}
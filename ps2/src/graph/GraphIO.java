@@ -0,0 +1,291 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes graphs in a compact binary edge-list format.
+ *
+ * <p>A file is a header, an edge section and a label section, with all
+ * integers big-endian:
+ * <pre>
+ *   header:  int MAGIC, int VERSION, int vertexCount, int edgeCount
+ *   edges:   edgeCount triples of int source, int target, int weight,
+ *            where source and target are vertex numbers
+ *   labels:  vertexCount entries of int length, then length bytes encoding
+ *            the label of vertex 0, 1, ... with a LabelCodec
+ * </pre>
+ *
+ * <p>The writer streams: it numbers the vertices, then writes each edge as
+ * it reads it from the graph's views, without copying the graph. The reader
+ * memory-maps the file and decodes it in place, then either bulk-builds a
+ * graph with {@link Graph#addAll(java.util.Collection)} and
+ * {@link Graph#setAll(EdgeBatch)}, or builds a frozen CSR graph directly
+ * from the edge arrays.
+ */
+public final class GraphIO {
+
+    /** First four bytes of a graph file: "GRPH". */
+    public static final int MAGIC = 0x47525048;
+
+    /** Version of the format written by this class. */
+    public static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;
+    private static final int EDGE_BYTES = 3 * Integer.BYTES;
+
+    // Edges per EdgeBatch applied to a graph being built
+    private static final int BATCH_EDGES = 1 << 16;
+
+    // Edges per mapped window of the edge section, which must stay under
+    // the 2 GB limit of a single mapping
+    private static final int WINDOW_EDGES = (1 << 30) / EDGE_BYTES;
+
+    private GraphIO() {
+        // static methods only
+    }
+
+    /**
+     * Write a graph to a file, replacing the file if it exists.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to write; not modified
+     * @param file file to write
+     * @param codec encodes the graph's labels
+     * @throws IOException if the file cannot be written
+     */
+    public static <L> void write(Graph<L> graph, Path file, LabelCodec<? super L> codec) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(graph, out, codec);
+        }
+    }
+
+    /**
+     * Write a graph to a stream.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to write; not modified
+     * @param out stream to write to; flushed but not closed
+     * @param codec encodes the graph's labels
+     * @throws IOException if the stream cannot be written
+     */
+    public static <L> void write(Graph<L> graph, OutputStream out, LabelCodec<? super L> codec)
+            throws IOException {
+        if (graph == null || out == null || codec == null) {
+            throw new IllegalArgumentException("Graph, stream and codec cannot be null");
+        }
+        final VertexIndex<L> index = graph instanceof FrozenGraph<L> frozen
+                ? frozen.vertexIndex()
+                : new VertexIndex<>(graph.verticesView());
+        final int n = index.size();
+        long edges = 0;
+        for (int i = 0; i < n; i++) {
+            edges += graph.targetsView(index.label(i)).size();
+        }
+        if (edges > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Graph has too many edges to write: " + edges);
+        }
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(n);
+        data.writeInt((int) edges);
+        for (int i = 0; i < n; i++) {
+            for (Map.Entry<L, Integer> edge : graph.targetsView(index.label(i)).entrySet()) {
+                data.writeInt(i);
+                data.writeInt(index.indexOf(edge.getKey()));
+                data.writeInt(edge.getValue());
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            byte[] bytes = codec.encode(index.label(i));
+            data.writeInt(bytes.length);
+            data.write(bytes);
+        }
+        data.flush();
+    }
+
+    /**
+     * Read a graph file into a graph.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param <G> type of the graph
+     * @param file file written by write()
+     * @param codec decodes the file's labels
+     * @param graph graph to add the file's vertices and edges to, usually
+     *              empty; edges in the file replace existing edges
+     * @return graph
+     * @throws IOException if the file cannot be read or is not a valid graph
+     *         file, in which case graph is not modified
+     */
+    public static <L, G extends Graph<L>> G read(Path file, LabelCodec<? extends L> codec, G graph)
+            throws IOException {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header header = readHeader(channel, file);
+            VertexIndex<L> index = readLabels(channel, header, codec);
+            // check every edge before changing graph, so an invalid file
+            // leaves it unmodified
+            readEdges(channel, header, (source, target, weight) -> { });
+            graph.addAll(index.labels());
+            EdgeBatch<L> batch = new EdgeBatch<>(Math.min(header.edges, BATCH_EDGES));
+            readEdges(channel, header, (source, target, weight) -> {
+                batch.add(index.label(source), index.label(target), weight);
+                if (batch.size() == BATCH_EDGES) {
+                    graph.setAll(batch);
+                    batch.clear();
+                }
+            });
+            graph.setAll(batch);
+        }
+        return graph;
+    }
+
+    /**
+     * Read a graph file into a frozen graph, building its CSR arrays directly
+     * from the file's edges.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param file file written by write()
+     * @param codec decodes the file's labels
+     * @return an immutable graph with the file's vertices and edges
+     * @throws IOException if the file cannot be read or is not a valid graph
+     *         file
+     */
+    public static <L> FrozenGraph<L> readFrozen(Path file, LabelCodec<? extends L> codec) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header header = readHeader(channel, file);
+            VertexIndex<L> index = readLabels(channel, header, codec);
+            int[] sources = new int[header.edges];
+            int[] targets = new int[header.edges];
+            int[] weights = new int[header.edges];
+            int[] count = new int[1];
+            readEdges(channel, header, (source, target, weight) -> {
+                sources[count[0]] = source;
+                targets[count[0]] = target;
+                weights[count[0]] = weight;
+                count[0]++;
+            });
+            try {
+                return FrozenGraph.of(index, header.edges, sources, targets, weights);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid edges: " + file, e);
+            }
+        }
+    }
+
+    /** The header of a graph file. */
+    private record Header(Path file, int vertices, int edges, long labelsStart, long labelBytes) { }
+
+    private static Header readHeader(FileChannel channel, Path file) throws IOException {
+        final long size = channel.size();
+        if (size < HEADER_BYTES) {
+            throw new IOException("Not a graph file: " + file);
+        }
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a graph file: " + file);
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported graph file version " + version + ": " + file);
+        }
+        int vertices = header.getInt();
+        int edges = header.getInt();
+        long labelsStart = HEADER_BYTES + (long) EDGE_BYTES * edges;
+        if (vertices < 0 || edges < 0 || labelsStart > size) {
+            throw new IOException("Truncated graph file: " + file);
+        }
+        if (size - labelsStart > Integer.MAX_VALUE) {
+            throw new IOException("Label section too large: " + file);
+        }
+        // each label takes at least its length, so a vertex count beyond
+        // that is corrupt and must not size any allocation
+        if (vertices > (size - labelsStart) / Integer.BYTES) {
+            throw new IOException("Truncated label section: " + file);
+        }
+        return new Header(file, vertices, edges, labelsStart, size - labelsStart);
+    }
+
+    /**
+     * Decode the label section.
+     *
+     * @return numbering of the labels in the order they appear
+     */
+    private static <L> VertexIndex<L> readLabels(FileChannel channel, Header header,
+            LabelCodec<? extends L> codec) throws IOException {
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, header.labelsStart, header.labelBytes);
+        List<L> labels = new ArrayList<>(header.vertices);
+        for (int i = 0; i < header.vertices; i++) {
+            if (buffer.remaining() < Integer.BYTES) {
+                throw new IOException("Truncated label section: " + header.file);
+            }
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IOException("Truncated label section: " + header.file);
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            try {
+                labels.add(codec.decode(bytes));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid label " + i + ": " + header.file, e);
+            }
+        }
+        if (buffer.hasRemaining()) {
+            throw new IOException("Unexpected data after labels: " + header.file);
+        }
+        try {
+            return new VertexIndex<>(labels);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid labels: " + header.file, e);
+        }
+    }
+
+    /** Receives the edges of a graph file, as vertex numbers. */
+    @FunctionalInterface
+    private interface EdgeVisitor {
+        void visit(int source, int target, int weight);
+    }
+
+    /**
+     * Map the edge section a window at a time and pass each edge to visitor,
+     * after checking that its vertex numbers and weight are valid.
+     */
+    private static void readEdges(FileChannel channel, Header header, EdgeVisitor visitor) throws IOException {
+        for (int first = 0; first < header.edges; first += WINDOW_EDGES) {
+            int count = Math.min(WINDOW_EDGES, header.edges - first);
+            ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_BYTES + (long) EDGE_BYTES * first, (long) EDGE_BYTES * count);
+            for (int e = 0; e < count; e++) {
+                int source = window.getInt();
+                int target = window.getInt();
+                int weight = window.getInt();
+                if (source < 0 || source >= header.vertices || target < 0 || target >= header.vertices) {
+                    throw new IOException("Edge " + source + "->" + target + " out of range: " + header.file);
+                }
+                if (weight <= 0) {
+                    throw new IOException("Edge weight " + weight + " is not positive: " + header.file);
+                }
+                visitor.visit(source, target, weight);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,162 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A mutable binary min-heap of int items in 0..capacity-1, each with a long
+ * priority, that can lower the priority of an item already in the heap.
+ * Items and priorities are kept in primitive arrays, without boxing.
+ * This class is internal to the graph algorithms in this package.
+ */
+class IndexedMinHeap {
+
+    private final int[] heap;
+    private final int[] positions;
+    private final long[] priorities;
+    private int size = 0;
+
+    // Abstraction function:
+    //   AF(heap, positions, priorities, size) = the set of items heap[0..size),
+    //     where item i has priority priorities[i]
+    // Representation invariant:
+    //   heap[0..size) are distinct items in 0..capacity-1
+    //   positions[heap[k]] == k for 0 <= k < size, and positions[i] == -1
+    //     for every item i not in the heap
+    //   priorities[heap[(k-1)/2]] <= priorities[heap[k]] for 0 < k < size
+    // Safety from rep exposure:
+    //   all fields are private and the arrays are never returned
+
+    /**
+     * Make an empty heap.
+     * @param capacity number of possible items, requires >= 0
+     */
+    IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.priorities = new long[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Check the heap order at one position and its children, in O(1) time.
+     */
+    private void checkRep(int k) {
+        assert 0 <= size && size <= heap.length;
+        if (k < size) {
+            assert positions[heap[k]] == k;
+            assert k == 0 || priorities[heap[(k - 1) / 2]] <= priorities[heap[k]];
+        }
+    }
+
+    /**
+     * @return true iff this heap has no items
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param item an item, requires 0 <= item < capacity
+     * @return true iff item is in this heap
+     */
+    boolean contains(int item) {
+        return positions[item] >= 0;
+    }
+
+    /**
+     * Add an item, or lower its priority if it is already in the heap and
+     * the new priority is lower.
+     * @param item an item, requires 0 <= item < capacity
+     * @param priority its priority
+     * @return true if the heap changed
+     */
+    boolean offer(int item, long priority) {
+        int k = positions[item];
+        if (k < 0) {
+            k = size++;
+            heap[k] = item;
+            positions[item] = k;
+        } else if (priority >= priorities[item]) {
+            return false;
+        }
+        priorities[item] = priority;
+        k = siftUp(k);
+        checkRep(k);
+        return true;
+    }
+
+    /**
+     * @return the priority of the item that poll() would remove
+     * @throws IllegalStateException if the heap is empty
+     */
+    long peekPriority() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+        return priorities[heap[0]];
+    }
+
+    /**
+     * Remove an item with the lowest priority.
+     * @return the removed item
+     * @throws IllegalStateException if the heap is empty
+     */
+    int poll() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+        int min = heap[0];
+        positions[min] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            checkRep(siftDown(0));
+        }
+        return min;
+    }
+
+    private int siftUp(int k) {
+        int item = heap[k];
+        long priority = priorities[item];
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            if (priorities[heap[parent]] <= priority) {
+                break;
+            }
+            move(heap[parent], k);
+            k = parent;
+        }
+        move(item, k);
+        return k;
+    }
+
+    private int siftDown(int k) {
+        int item = heap[k];
+        long priority = priorities[item];
+        int half = size >>> 1;
+        while (k < half) {
+            int child = 2 * k + 1;
+            if (child + 1 < size && priorities[heap[child + 1]] < priorities[heap[child]]) {
+                child++;
+            }
+            if (priority <= priorities[heap[child]]) {
+                break;
+            }
+            move(heap[child], k);
+            k = child;
+        }
+        move(item, k);
+        return k;
+    }
+
+    private void move(int item, int k) {
+        heap[k] = item;
+        positions[item] = k;
+    }
+
+}
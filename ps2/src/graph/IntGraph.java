@@ -0,0 +1,626 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A mutable weighted directed graph whose vertices are non-negative ints.
+ * Edges are directed and have a positive weight of type {@code int}.
+ *
+ * <p>This is a primitive specialization of Graph&lt;Integer&gt;: vertices are
+ * dense array indexes, and the edges of each vertex are kept in growable
+ * int[] arrays of neighbors and weights, so no labels or weights are boxed.
+ * Neighbors are visited with a reusable {@link Cursor}. Use
+ * {@link IntGraphAdapter} to treat an IntGraph as a Graph&lt;Integer&gt;.
+ *
+ * <p>Memory is proportional to the largest vertex plus the number of edges,
+ * so vertices should be small, densely numbered ids. Vertices must be less
+ * than {@link #MAX_VERTICES}, the largest array length. Finding or changing
+ * one edge takes time proportional to the degree of its endpoints.
+ */
+public class IntGraph {
+
+    /** Bound on the vertices of an IntGraph: the largest array length. */
+    public static final int MAX_VERTICES = Integer.MAX_VALUE - 8;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final BitSet present = new BitSet();
+    private Adjacency[] outgoing;
+    private Adjacency[] incoming;
+    private int vertexCount = 0;
+    private int edgeCount = 0;
+    private final int expectedDegree;
+
+    // Abstraction function:
+    //   AF(present, outgoing, incoming, ...) = a directed graph whose vertices
+    //     are the set bits of present, with an edge (s, t, w) iff
+    //     outgoing[s] maps t to w
+    // Representation invariant:
+    //   outgoing.length == incoming.length > every set bit of present
+    //   outgoing[v] != null and incoming[v] != null iff v is in present
+    //   outgoing[s] maps t to w iff incoming[t] maps s to w, and then w > 0
+    //   vertexCount == present.cardinality()
+    //   edgeCount == sum of outgoing[v].size()
+    // Safety from rep exposure:
+    //   all fields are private; only ints are returned, and cursors only
+    //   read the arrays of this graph; expectedDegree is only a sizing hint
+    //   and is not part of the abstract value
+
+    /**
+     * Create an empty graph.
+     */
+    public IntGraph() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create an empty graph with room for vertices 0..expectedVertices-1
+     * before any arrays need to grow.
+     *
+     * @param expectedVertices expected bound on the vertices, requires
+     *        0 <= expectedVertices <= MAX_VERTICES
+     */
+    public IntGraph(int expectedVertices) {
+        this(expectedVertices, 0);
+    }
+
+    /**
+     * Create an empty graph with room for vertices 0..expectedVertices-1,
+     * and about expectedEdges edges spread evenly over them, before any
+     * arrays need to grow.
+     *
+     * @param expectedVertices expected bound on the vertices, requires
+     *        0 <= expectedVertices <= MAX_VERTICES
+     * @param expectedEdges expected number of edges, requires >= 0
+     */
+    public IntGraph(int expectedVertices, int expectedEdges) {
+        if (expectedVertices < 0 || expectedEdges < 0) {
+            throw new IllegalArgumentException("Expected vertices and edges cannot be negative");
+        }
+        if (expectedVertices > MAX_VERTICES) {
+            throw new IllegalArgumentException("Expected vertices cannot exceed MAX_VERTICES");
+        }
+        this.outgoing = new Adjacency[expectedVertices];
+        this.incoming = new Adjacency[expectedVertices];
+        this.expectedDegree = expectedVertices == 0 ? 0 : expectedEdges / expectedVertices;
+        checkRep();
+    }
+
+    /**
+     * @return the number of neighbors in each direction that the arrays of a
+     *         new vertex have room for
+     */
+    int expectedDegree() {
+        return expectedDegree;
+    }
+
+    /**
+     * Check that the whole representation invariant holds.
+     * This takes time linear in the size of the graph, so mutators only check
+     * the vertices they touch (see checkVertex); tests may call this method to
+     * validate the entire graph.
+     */
+    final void checkRep() {
+        assert outgoing.length == incoming.length;
+        assert present.length() <= outgoing.length;
+        assert vertexCount == present.cardinality();
+        int edges = 0;
+        for (int v = 0; v < outgoing.length; v++) {
+            checkVertex(v);
+            if (outgoing[v] == null) {
+                continue;
+            }
+            edges += outgoing[v].size();
+            for (int i = 0; i < outgoing[v].size(); i++) {
+                int target = outgoing[v].vertex(i);
+                assert outgoing[v].weight(i) > 0;
+                assert incoming[target] != null && incoming[target].get(v) == outgoing[v].weight(i);
+            }
+        }
+        assert edges == edgeCount;
+    }
+
+    /**
+     * Check the parts of the representation invariant that concern one
+     * vertex, in O(1) time.
+     * @param vertex a vertex that was just added, removed or given an edge
+     */
+    private void checkVertex(int vertex) {
+        boolean contained = vertex >= 0 && present.get(vertex);
+        assert vertex >= outgoing.length || (outgoing[vertex] != null) == contained;
+        assert vertex >= incoming.length || (incoming[vertex] != null) == contained;
+        assert vertexCount >= 0 && edgeCount >= 0;
+    }
+
+    /**
+     * Add a vertex to this graph.
+     *
+     * @param vertex the new vertex, requires 0 <= vertex < MAX_VERTICES
+     * @return true if this graph did not already include vertex; otherwise
+     *         false (and this graph is not modified)
+     */
+    public boolean add(int vertex) {
+        checkLabel(vertex);
+        boolean added = addVertex(vertex);
+        checkVertex(vertex);
+        return added;
+    }
+
+    /**
+     * Add, change, or remove a weighted directed edge in this graph; see
+     * {@link Graph#set(Object, Object, int)}.
+     *
+     * @param source the source vertex, requires 0 <= source < MAX_VERTICES
+     * @param target the target vertex, requires 0 <= target < MAX_VERTICES
+     * @param weight non-negative weight of the edge
+     * @return the previous weight of the edge, or zero if there was no such
+     *         edge
+     */
+    public int set(int source, int target, int weight) {
+        checkLabel(source);
+        checkLabel(target);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+
+        addVertex(source);
+        addVertex(target);
+
+        final int previous;
+        if (weight == 0) {
+            previous = outgoing[source].remove(target);
+            if (previous != 0) {
+                incoming[target].remove(source);
+                edgeCount--;
+            }
+        } else {
+            previous = outgoing[source].put(target, weight);
+            incoming[target].put(source, weight);
+            if (previous == 0) {
+                edgeCount++;
+            }
+        }
+
+        assert outgoing[source].get(target) == weight && incoming[target].get(source) == weight;
+        checkVertex(source);
+        checkVertex(target);
+        return previous;
+    }
+
+    /**
+     * Add to the weight of a directed edge in this graph, adding the edge if
+     * it does not exist; see {@link Graph#increment(Object, Object, int)}.
+     *
+     * @param source the source vertex, requires 0 <= source < MAX_VERTICES
+     * @param target the target vertex, requires 0 <= target < MAX_VERTICES
+     * @param amount positive amount to add to the weight of the edge
+     * @return the previous weight of the edge, or zero if there was no such
+     *         edge
+     * @throws ArithmeticException if the new weight would overflow an int, in
+     *         which case this graph is not modified
+     */
+    public int increment(int source, int target, int amount) {
+        checkLabel(source);
+        checkLabel(target);
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+
+        // an increment can only overflow an existing edge, whose vertices
+        // exist, so the graph is unchanged if it throws
+        addVertex(source);
+        addVertex(target);
+        final int previous = outgoing[source].increment(target, amount);
+        incoming[target].increment(source, amount);
+        if (previous == 0) {
+            edgeCount++;
+        }
+
+        assert outgoing[source].get(target) == previous + amount
+                && incoming[target].get(source) == previous + amount;
+        checkVertex(source);
+        checkVertex(target);
+        return previous;
+    }
+
+    /**
+     * Remove a vertex from this graph; any edges to or from the vertex are
+     * also removed.
+     *
+     * @param vertex the vertex to remove
+     * @return true if this graph included vertex; otherwise false (and this
+     *         graph is not modified)
+     */
+    public boolean remove(int vertex) {
+        if (!contains(vertex)) {
+            return false;
+        }
+
+        Adjacency targets = outgoing[vertex];
+        Adjacency sources = incoming[vertex];
+        // a self-loop is in both lists but is only one edge
+        edgeCount -= targets.size() + sources.size() - (targets.get(vertex) == 0 ? 0 : 1);
+
+        for (int i = 0; i < targets.size(); i++) {
+            incoming[targets.vertex(i)].remove(vertex);
+        }
+        for (int i = 0; i < sources.size(); i++) {
+            if (sources.vertex(i) != vertex) {
+                outgoing[sources.vertex(i)].remove(vertex);
+            }
+        }
+        outgoing[vertex] = null;
+        incoming[vertex] = null;
+        present.clear(vertex);
+        vertexCount--;
+
+        checkVertex(vertex);
+        return true;
+    }
+
+    /**
+     * @param vertex an int
+     * @return true iff vertex is a vertex of this graph
+     */
+    public boolean contains(int vertex) {
+        return vertex >= 0 && present.get(vertex);
+    }
+
+    /**
+     * @return number of vertices in this graph
+     */
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * @return number of edges in this graph
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Find the next vertex of this graph, for iterating over all vertices in
+     * increasing order:
+     * {@code for (int v = g.nextVertex(0); v >= 0; v = g.nextVertex(v + 1))}
+     *
+     * @param from an int, requires >= 0
+     * @return the smallest vertex of this graph that is >= from, or -1 if
+     *         there is none
+     */
+    public int nextVertex(int from) {
+        return present.nextSetBit(from);
+    }
+
+    /**
+     * @param source an int
+     * @param target an int
+     * @return the weight of the edge from source to target, or zero if there
+     *         is no such edge
+     */
+    public int weight(int source, int target) {
+        return contains(source) ? outgoing[source].get(target) : 0;
+    }
+
+    /**
+     * @param vertex an int
+     * @return number of edges from vertex, or zero if it is not in this graph
+     */
+    public int outDegree(int vertex) {
+        return contains(vertex) ? outgoing[vertex].size() : 0;
+    }
+
+    /**
+     * @param vertex an int
+     * @return number of edges to vertex, or zero if it is not in this graph
+     */
+    public int inDegree(int vertex) {
+        return contains(vertex) ? incoming[vertex].size() : 0;
+    }
+
+    /**
+     * @return a new cursor over this graph, not yet positioned on any vertex
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * String representation of this graph.
+     * @return a string representation showing vertices and edges
+     */
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("IntGraph{\n");
+        for (int v = nextVertex(0); v >= 0; v = nextVertex(v + 1)) {
+            sb.append("  ").append(v).append(" -> ").append(outgoing[v]).append("\n");
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+    private static void checkLabel(int vertex) {
+        if (vertex < 0) {
+            throw new IllegalArgumentException("Vertex cannot be negative");
+        }
+        if (vertex >= MAX_VERTICES) {
+            throw new IllegalArgumentException("Vertex must be less than MAX_VERTICES");
+        }
+    }
+
+    /**
+     * Add a vertex, with empty adjacency, if it is not already present.
+     * @param vertex an int, requires 0 <= vertex < MAX_VERTICES
+     * @return true if the vertex was added
+     */
+    private boolean addVertex(int vertex) {
+        if (present.get(vertex)) {
+            return false;
+        }
+        if (vertex >= outgoing.length) {
+            // in long, since doubling the length may overflow an int
+            long capacity = Math.max(vertex + 1L, Math.max(DEFAULT_CAPACITY, outgoing.length * 2L));
+            capacity = Math.min(capacity, MAX_VERTICES);
+            outgoing = Arrays.copyOf(outgoing, (int) capacity);
+            incoming = Arrays.copyOf(incoming, (int) capacity);
+        }
+        outgoing[vertex] = new Adjacency(expectedDegree);
+        incoming[vertex] = new Adjacency(expectedDegree);
+        present.set(vertex);
+        vertexCount++;
+        return true;
+    }
+
+    /**
+     * A reusable, mutable position in the targets or sources of one vertex of
+     * an IntGraph. Reset it with {@link #targetsOf(int)} or
+     * {@link #sourcesOf(int)}, then advance it with {@link #next()}:
+     * <pre>
+     *   for (cursor.targetsOf(v); cursor.next(); ) {
+     *       visit(cursor.vertex(), cursor.weight());
+     *   }
+     * </pre>
+     * The graph must not be modified while a cursor is in use.
+     */
+    public class Cursor {
+
+        private Adjacency adjacency = Adjacency.EMPTY;
+        private int index = -1;
+
+        // Abstraction function:
+        //   AF(adjacency, index) = a position before the first neighbor if
+        //     index == -1, on neighbor adjacency[index] if it is in range,
+        //     or past the last neighbor
+        // Representation invariant:
+        //   adjacency != null, index >= -1
+        // Safety from rep exposure:
+        //   all fields are private; only ints are returned
+
+        private Cursor() {
+        }
+
+        /**
+         * Position this cursor before the first target of edges from source.
+         * @param source an int; if it is not in the graph there are no targets
+         * @return this cursor
+         */
+        public Cursor targetsOf(int source) {
+            return reset(contains(source) ? outgoing[source] : Adjacency.EMPTY);
+        }
+
+        /**
+         * Position this cursor before the first source of edges to target.
+         * @param target an int; if it is not in the graph there are no sources
+         * @return this cursor
+         */
+        public Cursor sourcesOf(int target) {
+            return reset(contains(target) ? incoming[target] : Adjacency.EMPTY);
+        }
+
+        /**
+         * Advance to the next neighbor.
+         * @return true if this cursor is now on a neighbor, false if there
+         *         are no more
+         */
+        public boolean next() {
+            if (index < adjacency.size()) {
+                index++;
+            }
+            return index < adjacency.size();
+        }
+
+        /**
+         * @return the neighbor this cursor is on
+         * @throws IllegalStateException if it is not on a neighbor
+         */
+        public int vertex() {
+            checkPositioned();
+            return adjacency.vertex(index);
+        }
+
+        /**
+         * @return the weight of the edge to or from the neighbor this cursor
+         *         is on
+         * @throws IllegalStateException if it is not on a neighbor
+         */
+        public int weight() {
+            checkPositioned();
+            return adjacency.weight(index);
+        }
+
+        private Cursor reset(Adjacency adjacency) {
+            this.adjacency = adjacency;
+            this.index = -1;
+            return this;
+        }
+
+        private void checkPositioned() {
+            if (index < 0 || index >= adjacency.size()) {
+                throw new IllegalStateException("Cursor is not on a neighbor");
+            }
+        }
+    }
+
+}
+
+/**
+ * A mutable map from int neighbors to positive int weights, kept in parallel
+ * growable arrays in no particular order.
+ * This class is internal to the rep of IntGraph.
+ */
+class Adjacency {
+
+    // Declared before EMPTY, so that EMPTY is made with these arrays
+    private static final int[] NONE = new int[0];
+
+    /** An adjacency that is never modified, for absent vertices. */
+    static final Adjacency EMPTY = new Adjacency();
+
+    private int[] vertices;
+    private int[] weights;
+    private int size = 0;
+
+    // Abstraction function:
+    //   AF(vertices, weights, size) = the map from vertices[i] to weights[i]
+    //     for 0 <= i < size
+    // Representation invariant:
+    //   vertices.length == weights.length >= size >= 0
+    //   vertices[0..size) are distinct and non-negative
+    //   weights[0..size) are positive
+    // Safety from rep exposure:
+    //   all fields are private and the arrays are never returned
+
+    /**
+     * Make an empty adjacency.
+     */
+    Adjacency() {
+        this(0);
+    }
+
+    /**
+     * Make an empty adjacency with room for capacity neighbors.
+     * @param capacity number of neighbors to make room for, requires >= 0
+     */
+    Adjacency(int capacity) {
+        this.vertices = capacity == 0 ? NONE : new int[capacity];
+        this.weights = capacity == 0 ? NONE : new int[capacity];
+    }
+
+    /**
+     * @return number of neighbors
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param i index, requires 0 <= i < size()
+     * @return the i-th neighbor
+     */
+    int vertex(int i) {
+        return vertices[i];
+    }
+
+    /**
+     * @param i index, requires 0 <= i < size()
+     * @return the weight of the i-th neighbor
+     */
+    int weight(int i) {
+        return weights[i];
+    }
+
+    /**
+     * @param vertex an int
+     * @return the weight of vertex, or zero if it is not a neighbor
+     */
+    int get(int vertex) {
+        int i = indexOf(vertex);
+        return i < 0 ? 0 : weights[i];
+    }
+
+    /**
+     * Add vertex as a neighbor or change its weight.
+     * @param vertex a non-negative int
+     * @param weight a positive weight
+     * @return the previous weight of vertex, or zero if it was not a neighbor
+     */
+    int put(int vertex, int weight) {
+        assert this != EMPTY;
+        int i = indexOf(vertex);
+        if (i >= 0) {
+            int previous = weights[i];
+            weights[i] = weight;
+            return previous;
+        }
+        if (size == vertices.length) {
+            int capacity = Math.max(4, size + (size >> 1));
+            vertices = Arrays.copyOf(vertices, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+        vertices[size] = vertex;
+        weights[size] = weight;
+        size++;
+        return 0;
+    }
+
+    /**
+     * Add to the weight of vertex, adding it as a neighbor if needed.
+     * @param vertex a non-negative int
+     * @param amount a positive amount
+     * @return the previous weight of vertex, or zero if it was not a neighbor
+     * @throws ArithmeticException if the weight would overflow, in which case
+     *         this is not modified
+     */
+    int increment(int vertex, int amount) {
+        int i = indexOf(vertex);
+        if (i < 0) {
+            return put(vertex, amount);
+        }
+        int previous = weights[i];
+        weights[i] = Math.addExact(previous, amount);
+        return previous;
+    }
+
+    /**
+     * Remove vertex as a neighbor; the last neighbor takes its place.
+     * @param vertex an int
+     * @return the previous weight of vertex, or zero if it was not a neighbor
+     */
+    int remove(int vertex) {
+        int i = indexOf(vertex);
+        if (i < 0) {
+            return 0;
+        }
+        int previous = weights[i];
+        size--;
+        vertices[i] = vertices[size];
+        weights[i] = weights[size];
+        return previous;
+    }
+
+    private int indexOf(int vertex) {
+        for (int i = 0; i < size; i++) {
+            if (vertices[i] == vertex) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(vertices[i]).append("=").append(weights[i]);
+        }
+        return sb.append("}").toString();
+    }
+
+}
@@ -0,0 +1,118 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A Graph&lt;Integer&gt; backed by an IntGraph.
+ *
+ * <p>The adapter and its IntGraph are the same graph: changes made through
+ * either one are seen by the other. Vertex labels must be non-negative and
+ * less than {@link IntGraph#MAX_VERTICES}; add() and set() throw
+ * IllegalArgumentException for null labels or labels out of that range,
+ * while remove(), sources() and targets() treat them as absent vertices.
+ * The views returned by verticesView(), sourcesView() and targetsView() are
+ * unmodifiable copies.
+ */
+public class IntGraphAdapter implements Graph<Integer> {
+
+    private final IntGraph graph;
+
+    // Abstraction function:
+    //   AF(graph) = the graph AF(graph), with each int vertex boxed as an
+    //     Integer label
+    // Representation invariant:
+    //   graph != null
+    // Safety from rep exposure:
+    //   graph is shared with the client deliberately, as specified;
+    //   vertices(), sources() and targets() return new collections
+
+    /**
+     * Create an empty graph.
+     */
+    public IntGraphAdapter() {
+        this(new IntGraph());
+    }
+
+    /**
+     * Create a Graph&lt;Integer&gt; view of an IntGraph.
+     *
+     * @param graph the graph to adapt; changes to either are seen by both
+     */
+    public IntGraphAdapter(IntGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        this.graph = graph;
+    }
+
+    /**
+     * @return the IntGraph backing this graph
+     */
+    public IntGraph intGraph() {
+        return graph;
+    }
+
+    @Override public boolean add(Integer vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("Vertex cannot be null");
+        }
+        return graph.add(vertex);
+    }
+
+    @Override public int set(Integer source, Integer target, int weight) {
+        if (source == null || target == null) {
+            throw new IllegalArgumentException("Source and target cannot be null");
+        }
+        return graph.set(source, target, weight);
+    }
+
+    @Override public int increment(Integer source, Integer target, int amount) {
+        if (source == null || target == null) {
+            throw new IllegalArgumentException("Source and target cannot be null");
+        }
+        return graph.increment(source, target, amount);
+    }
+
+    @Override public boolean remove(Integer vertex) {
+        return vertex != null && graph.remove(vertex);
+    }
+
+    @Override public Set<Integer> vertices() {
+        Set<Integer> vertices = new HashSet<>();
+        for (int v = graph.nextVertex(0); v >= 0; v = graph.nextVertex(v + 1)) {
+            vertices.add(v);
+        }
+        return vertices;
+    }
+
+    @Override public Map<Integer, Integer> sources(Integer target) {
+        return target == null ? new HashMap<>() : toMap(graph.cursor().sourcesOf(target));
+    }
+
+    @Override public Map<Integer, Integer> targets(Integer source) {
+        return source == null ? new HashMap<>() : toMap(graph.cursor().targetsOf(source));
+    }
+
+    private static Map<Integer, Integer> toMap(IntGraph.Cursor cursor) {
+        Map<Integer, Integer> neighbors = new HashMap<>();
+        while (cursor.next()) {
+            neighbors.put(cursor.vertex(), cursor.weight());
+        }
+        return neighbors;
+    }
+
+    /**
+     * String representation of this graph.
+     * @return a string representation showing vertices and edges
+     */
+    @Override public String toString() {
+        return graph.toString();
+    }
+
+}
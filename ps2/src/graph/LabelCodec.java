@@ -0,0 +1,76 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * Converts vertex labels to and from bytes, for storing or sending graphs.
+ *
+ * <p>For every label x, decode(encode(x)) must equal x.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public interface LabelCodec<L> {
+
+    /**
+     * @param label a non-null label
+     * @return bytes encoding label; not retained by the caller
+     */
+    byte[] encode(L label);
+
+    /**
+     * @param bytes bytes returned by encode(); not retained
+     * @return the label they encode
+     * @throws IllegalArgumentException if bytes are not a valid encoding
+     */
+    L decode(byte[] bytes);
+
+    /**
+     * @return codec for strings, as UTF-8
+     */
+    static LabelCodec<String> strings() {
+        return of(label -> label.getBytes(StandardCharsets.UTF_8),
+                bytes -> new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return codec for integers, as 4 big-endian bytes
+     */
+    static LabelCodec<Integer> integers() {
+        return of(label -> ByteBuffer.allocate(Integer.BYTES).putInt(label).array(),
+                bytes -> {
+                    if (bytes.length != Integer.BYTES) {
+                        throw new IllegalArgumentException("Expected " + Integer.BYTES + " bytes, got " + bytes.length);
+                    }
+                    return ByteBuffer.wrap(bytes).getInt();
+                });
+    }
+
+    /**
+     * Make a codec from a pair of functions.
+     *
+     * @param <L> type of vertex labels, must be immutable
+     * @param encoder encodes a label
+     * @param decoder decodes a label encoded by encoder
+     * @return codec using encoder and decoder
+     */
+    static <L> LabelCodec<L> of(Function<? super L, byte[]> encoder, Function<byte[], ? extends L> decoder) {
+        if (encoder == null || decoder == null) {
+            throw new IllegalArgumentException("Encoder and decoder cannot be null");
+        }
+        return new LabelCodec<>() {
+            @Override public byte[] encode(L label) {
+                return encoder.apply(label);
+            }
+
+            @Override public L decode(byte[] bytes) {
+                return decoder.apply(bytes);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,379 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel, direction-optimizing breadth-first search, following Beamer,
+ * Asanović and Patterson, "Direction-Optimizing Breadth-First Search" (2012).
+ *
+ * <p>The graph is frozen into compressed sparse row form when this object is
+ * made (see {@link Graph#freeze(Graph)}). Each level of the search expands a
+ * frontier either top-down (each frontier vertex claims its unvisited
+ * targets) or bottom-up (each unvisited vertex looks for a source in the
+ * frontier), choosing whichever should examine fewer edges. Top-down levels
+ * keep the frontier as a queue of vertex numbers and take time proportional
+ * to the edges of the frontier, so a long, thin search does not pay for the
+ * whole graph at every level. Bottom-up levels, which visit every vertex
+ * anyway, keep it as a bitmap over vertex numbers, which is converted only
+ * when the direction changes. Both directions split their frontier into
+ * ranges that are expanded in parallel on a ForkJoinPool, except that a
+ * top-down frontier small enough for one task is expanded on the calling
+ * thread.
+ *
+ * <p>This class is immutable, so searches may run in parallel.
+ *
+ * @param <L> type of vertex labels in the graph, must be immutable
+ */
+public final class ParallelBreadthFirstSearch<L> {
+
+    /** Hop count of a vertex that cannot be reached. */
+    public static final int UNREACHED = -1;
+
+    /** Parent of the source vertex and of unreachable vertices. */
+    public static final int NO_PARENT = -1;
+
+    // Switch to bottom-up once the frontier's edges exceed 1/ALPHA of the
+    // edges left to explore, and back to top-down once the frontier holds
+    // fewer than 1/BETA of the vertices; these are the values from the paper
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    // Bitmap words per bottom-up leaf task: 256 words cover 16384 vertices
+    private static final int LEAF_WORDS = 256;
+
+    // Frontier vertices per top-down leaf task
+    private static final int LEAF_VERTICES = 1024;
+
+    // Vertices a top-down leaf task discovers before copying them to the
+    // next frontier queue
+    private static final int DISCOVERED_BUFFER = 256;
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final FrozenGraph<L> graph;
+    private final ForkJoinPool pool;
+
+    // Abstraction function:
+    //   AF(graph, pool) = breadth-first search of graph, run on pool
+    // Representation invariant:
+    //   graph != null, pool != null
+    // Safety from rep exposure:
+    //   graph is private, final and immutable; pool is shared with the
+    //   client deliberately; search results are newly allocated
+    // Thread safety argument:
+    //   each search allocates its own arrays; within a search, top-down
+    //   tasks claim a vertex by compare-and-set on its hop count, so each
+    //   vertex is discovered once, and reserve disjoint slices of the next
+    //   queue with an atomic counter, while bottom-up tasks own disjoint
+    //   ranges of vertices and bitmap words; ForkJoinTask.invokeAll() makes
+    //   each level's writes visible to the next level, and the frontier is
+    //   converted between forms only between levels, on one thread
+
+    /**
+     * Prepare to search a graph on the common ForkJoinPool.
+     *
+     * @param graph graph to search; not modified, and later changes to it are
+     *              not seen by this object
+     */
+    public ParallelBreadthFirstSearch(Graph<L> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Prepare to search a graph.
+     *
+     * @param graph graph to search; not modified, and later changes to it are
+     *              not seen by this object
+     * @param pool pool to run the search on
+     */
+    public ParallelBreadthFirstSearch(Graph<L> graph, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool cannot be null");
+        }
+        this.graph = FrozenGraph.of(graph);
+        this.pool = pool;
+    }
+
+    /**
+     * Hop counts and parents on shortest unweighted paths from one source
+     * vertex, indexed by vertex number in {@link #vertexIndex()}.
+     *
+     * @param hops hops[v] is the number of edges on a shortest path from the
+     *             source to v, or UNREACHED
+     * @param parents parents[v] is the vertex before v on such a path, or
+     *                NO_PARENT if v is the source or unreachable
+     */
+    public record Result(int[] hops, int[] parents) { }
+
+    /**
+     * @return the numbering of vertices used by search results
+     */
+    public VertexIndex<L> vertexIndex() {
+        return graph.vertexIndex();
+    }
+
+    /**
+     * Search the graph breadth-first from a source vertex, following edges
+     * from source to target and ignoring weights.
+     *
+     * @param source label of a vertex in the graph
+     * @return hop counts and parents from source; the arrays belong to the
+     *         caller
+     * @throws IllegalArgumentException if source is not in the graph
+     */
+    public Result from(L source) {
+        final int s = graph.indexOf(source);
+        if (s < 0) {
+            throw new IllegalArgumentException("Vertex " + source + " is not in the graph");
+        }
+        final int n = graph.vertexCount();
+        Search search = new Search(n);
+        search.hops[s] = 0;
+        search.queue[0] = s;
+        search.queueSize = 1;
+
+        long frontierEdges = outDegree(s);
+        long frontierSize = 1;
+        long unexploredEdges = graph.edgeCount() - inDegree(s);
+        boolean topDown = true;
+        for (int level = 0; frontierSize > 0; level++) {
+            if (topDown && frontierEdges > unexploredEdges / ALPHA) {
+                topDown = false;
+            } else if (!topDown && frontierSize < n / BETA) {
+                topDown = true;
+            }
+
+            Expand expand;
+            if (topDown) {
+                search.toQueue();
+                expand = new Expand(search, level, true, 0, search.queueSize);
+            } else {
+                search.toBitmap();
+                expand = new Expand(search, level, false, 0, search.frontier.length);
+            }
+            if (topDown && search.queueSize <= LEAF_VERTICES) {
+                expand.invoke(); // one leaf task: run it here, without a hand-off to the pool
+            } else {
+                pool.invoke(expand);
+            }
+
+            frontierSize = expand.discovered;
+            frontierEdges = expand.discoveredOutEdges;
+            unexploredEdges -= expand.discoveredInEdges;
+            search.advance();
+        }
+
+        return new Result(search.hops, search.parents);
+    }
+
+    private int outDegree(int v) {
+        return graph.outOffsets()[v + 1] - graph.outOffsets()[v];
+    }
+
+    private int inDegree(int v) {
+        return graph.inOffsets()[v + 1] - graph.inOffsets()[v];
+    }
+
+    /**
+     * The mutable state of one search. The current frontier is either
+     * queue[0..queueSize), or the set bits of frontier if inBitmap; the
+     * level being expanded writes the next frontier to nextQueue or next in
+     * the same form. Whenever the frontier is in the queue, both bitmaps are
+     * all zero, and they are allocated only once a level runs bottom-up.
+     */
+    private static final class Search {
+        final int n;
+        final int[] hops;
+        final int[] parents;
+        int[] queue;
+        int queueSize = 0;
+        int[] nextQueue;
+        final AtomicInteger nextQueueSize = new AtomicInteger();
+        long[] frontier = null;
+        long[] next = null;
+        boolean inBitmap = false;
+
+        Search(int n) {
+            this.n = n;
+            this.hops = new int[n];
+            this.parents = new int[n];
+            Arrays.fill(hops, UNREACHED);
+            Arrays.fill(parents, NO_PARENT);
+            this.queue = new int[n];
+            this.nextQueue = new int[n];
+        }
+
+        /** Move the frontier into the queue, if it is in the bitmap. */
+        void toQueue() {
+            if (!inBitmap) {
+                return;
+            }
+            queueSize = 0;
+            for (int w = 0; w < frontier.length; w++) {
+                for (long word = frontier[w]; word != 0; word &= word - 1) {
+                    queue[queueSize++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                }
+            }
+            Arrays.fill(frontier, 0);
+            inBitmap = false;
+        }
+
+        /** Move the frontier into the bitmap, if it is in the queue. */
+        void toBitmap() {
+            if (inBitmap) {
+                return;
+            }
+            if (frontier == null) {
+                frontier = new long[(n + 63) >>> 6];
+                next = new long[frontier.length];
+            }
+            for (int i = 0; i < queueSize; i++) {
+                frontier[queue[i] >>> 6] |= 1L << queue[i];
+            }
+            inBitmap = true;
+        }
+
+        /**
+         * Make the next frontier current. After a bottom-up level, which
+         * examined every vertex, also clear the old bitmap for reuse.
+         */
+        void advance() {
+            if (inBitmap) {
+                long[] done = frontier;
+                frontier = next;
+                next = done;
+                Arrays.fill(next, 0);
+            } else {
+                int[] done = queue;
+                queue = nextQueue;
+                nextQueue = done;
+                queueSize = nextQueueSize.getAndSet(0);
+            }
+        }
+    }
+
+    /**
+     * Expand one level of the search over [from, to), which indexes the
+     * frontier queue when top-down and the bitmap words when bottom-up,
+     * splitting the range in half until it is small enough to do directly.
+     * Afterwards, the fields count the vertices discovered from the range
+     * and the sum of their out- and in-degrees.
+     */
+    @SuppressWarnings("serial") // ForkJoinTask is Serializable, but tasks are never serialized
+    private final class Expand extends RecursiveAction {
+
+        private final Search search;
+        private final int level;
+        private final boolean topDown;
+        private final int from;
+        private final int to;
+        long discovered;
+        long discoveredOutEdges;
+        long discoveredInEdges;
+
+        Expand(Search search, int level, boolean topDown, int from, int to) {
+            this.search = search;
+            this.level = level;
+            this.topDown = topDown;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override protected void compute() {
+            if (to - from > (topDown ? LEAF_VERTICES : LEAF_WORDS)) {
+                int middle = (from + to) >>> 1;
+                Expand left = new Expand(search, level, topDown, from, middle);
+                Expand right = new Expand(search, level, topDown, middle, to);
+                invokeAll(left, right);
+                discovered = left.discovered + right.discovered;
+                discoveredOutEdges = left.discoveredOutEdges + right.discoveredOutEdges;
+                discoveredInEdges = left.discoveredInEdges + right.discoveredInEdges;
+            } else if (topDown) {
+                topDown();
+            } else {
+                bottomUp();
+            }
+        }
+
+        /**
+         * Claim the unvisited targets of each frontier vertex in range, and
+         * append them to the next queue. Other tasks may claim the same
+         * targets, so claims are atomic; discovered vertices are buffered
+         * and copied into a slice of the next queue reserved atomically.
+         */
+        private void topDown() {
+            final int[] offsets = graph.outOffsets();
+            final int[] targets = graph.outTargets();
+            final int[] hops = search.hops;
+            final int[] found = new int[DISCOVERED_BUFFER];
+            int foundCount = 0;
+            for (int i = from; i < to; i++) {
+                int u = search.queue[i];
+                for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                    int v = targets[k];
+                    if (hops[v] == UNREACHED && INTS.compareAndSet(hops, v, UNREACHED, level + 1)) {
+                        search.parents[v] = u;
+                        discover(v);
+                        if (foundCount == found.length) {
+                            enqueue(found, foundCount);
+                            foundCount = 0;
+                        }
+                        found[foundCount++] = v;
+                    }
+                }
+            }
+            enqueue(found, foundCount);
+        }
+
+        /** Append found[0..count) to the next frontier queue. */
+        private void enqueue(int[] found, int count) {
+            if (count > 0) {
+                int at = search.nextQueueSize.getAndAdd(count);
+                System.arraycopy(found, 0, search.nextQueue, at, count);
+            }
+        }
+
+        /**
+         * Find a frontier source for each unvisited vertex in range. This
+         * task owns the vertices and next-frontier words in its range, so no
+         * atomic updates are needed.
+         */
+        private void bottomUp() {
+            final int[] offsets = graph.inOffsets();
+            final int[] sources = graph.inSources();
+            final int[] hops = search.hops;
+            final long[] frontier = search.frontier;
+            final int end = Math.min(search.n, to << 6);
+            for (int v = from << 6; v < end; v++) {
+                if (hops[v] != UNREACHED) {
+                    continue;
+                }
+                for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                    int u = sources[k];
+                    if ((frontier[u >>> 6] & (1L << u)) != 0) {
+                        hops[v] = level + 1;
+                        search.parents[v] = u;
+                        search.next[v >>> 6] |= 1L << v;
+                        discover(v);
+                        break;
+                    }
+                }
+            }
+        }
+
+        private void discover(int v) {
+            discovered++;
+            discoveredOutEdges += outDegree(v);
+            discoveredInEdges += inDegree(v);
+        }
+    }
+
+}
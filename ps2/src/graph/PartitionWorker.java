@@ -0,0 +1,330 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One partition of a PartitionedGraph, served over a socket.
+ *
+ * <p>A worker stores the vertices of its partition, each with its outgoing
+ * and incoming edges. An edge whose other end is in another partition is
+ * stored on both partitions, and the entry for the vertex at the other end
+ * is a ghost of that vertex. Workers never decode labels: they compare
+ * vertices by their encoded bytes, which LabelCodec requires to identify
+ * each label.
+ *
+ * <p>Run as a program, a worker connects to a coordinator and serves it
+ * until the coordinator shuts it down or disconnects:
+ * <pre>
+ *   java graph.PartitionWorker host port partition
+ * </pre>
+ *
+ * <p>The protocol is a sequence of requests, each answered in order by a
+ * reply. Integers are big-endian, and a label is an int length then that
+ * many bytes. On connecting, the worker sends int MAGIC and int partition.
+ * A request is a byte operation and its arguments:
+ * <pre>
+ *   ADD v                      reply boolean added
+ *   SET_OUT s t w, SET_IN t s w
+ *                              set the weight of the edge between an owned
+ *                              vertex and a ghost, adding the owned vertex
+ *                              if w &gt; 0; reply int previous weight
+ *   INCREMENT_OUT s t a, INCREMENT_IN t s a
+ *                              add a to that weight; reply int previous
+ *   REMOVE v                   reply boolean found, then int n and n target
+ *                              labels, then int m and m source labels, of
+ *                              the edges removed with v
+ *   DROP_GHOSTS v n t... m s...
+ *                              remove v from the sources of each t and the
+ *                              targets of each s; reply only the status
+ *   VERTICES                   reply int n and n labels
+ *   TARGETS n v..., SOURCES n v...
+ *                              reply, for each v, int k and k pairs of
+ *                              label and int weight
+ *   SHUTDOWN                   no reply; the worker closes the connection
+ * </pre>
+ * Every reply starts with a status byte: OK, OVERFLOW if an increment would
+ * overflow an int, or FAILED followed by a UTF message for an invalid
+ * request. The rest of the reply follows only OK, and a request that fails
+ * changes nothing. Replies are flushed once no more requests are waiting, so
+ * a coordinator can send many requests before reading their replies.
+ */
+public final class PartitionWorker {
+
+    /** First four bytes a worker sends: "GPWK". */
+    static final int MAGIC = 0x4750574b;
+
+    // Operations
+    static final byte ADD = 1;
+    static final byte SET_OUT = 2;
+    static final byte SET_IN = 3;
+    static final byte INCREMENT_OUT = 4;
+    static final byte INCREMENT_IN = 5;
+    static final byte REMOVE = 6;
+    static final byte DROP_GHOSTS = 7;
+    static final byte VERTICES = 8;
+    static final byte TARGETS = 9;
+    static final byte SOURCES = 10;
+    static final byte SHUTDOWN = 11;
+
+    // Reply statuses
+    static final byte OK = 0;
+    static final byte OVERFLOW = 1;
+    static final byte FAILED = 2;
+
+    private final Map<Key, Map<Key, Integer>> targets = new HashMap<>();
+    private final Map<Key, Map<Key, Integer>> sources = new HashMap<>();
+
+    // Abstraction function:
+    //   AF(targets, sources) = the part of a graph on the vertices
+    //     targets.keySet(), with an edge from s to t of weight w iff
+    //     targets[s][t] == w or sources[t][s] == w
+    // Representation invariant:
+    //   targets.keySet() equals sources.keySet()
+    //   every weight is > 0
+    //   (the coordinator keeps targets[s][t] == sources[t][s] across
+    //   partitions, and changes the two entries in separate requests)
+    // Safety from rep exposure:
+    //   all fields are private; replies are written as bytes
+
+    /**
+     * An encoded label, compared by content.
+     */
+    private record Key(byte[] bytes) {
+        @Override public boolean equals(Object that) {
+            return that instanceof Key key && Arrays.equals(bytes, key.bytes);
+        }
+
+        @Override public int hashCode() {
+            return Arrays.hashCode(bytes);
+        }
+    }
+
+    private PartitionWorker() {
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert targets.keySet().equals(sources.keySet());
+    }
+
+    /**
+     * Check the rep invariant for the edges of owned vertex v.
+     */
+    private void checkVertex(Key vertex) {
+        Map<Key, Integer> out = targets.get(vertex);
+        assert (out == null) == (sources.get(vertex) == null);
+        if (out == null) {
+            return;
+        }
+        for (int weight : out.values()) {
+            assert weight > 0;
+        }
+        for (int weight : sources.get(vertex).values()) {
+            assert weight > 0;
+        }
+    }
+
+    /**
+     * Connect to a coordinator and serve it.
+     *
+     * @param args host, port and partition number
+     * @throws IOException if the connection fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            throw new IllegalArgumentException("Usage: java graph.PartitionWorker host port partition");
+        }
+        run(args[0], Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+    }
+
+    /**
+     * Connect to a coordinator, introduce this worker as a partition, and
+     * serve requests until shut down or disconnected.
+     */
+    static void run(String host, int port, int partition) throws IOException {
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(partition);
+            out.flush();
+            new PartitionWorker().serve(in, out);
+        }
+    }
+
+    private void serve(DataInputStream in, DataOutputStream out) throws IOException {
+        while (true) {
+            byte operation;
+            try {
+                operation = in.readByte();
+            } catch (EOFException e) {
+                return;
+            }
+            if (operation == SHUTDOWN) {
+                out.flush();
+                return;
+            }
+            handle(operation, in, out);
+            if (in.available() == 0) {
+                out.flush();
+            }
+        }
+    }
+
+    private static Key readKey(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new Key(bytes);
+    }
+
+    private static void writeKey(DataOutputStream out, Key key) throws IOException {
+        out.writeInt(key.bytes().length);
+        out.write(key.bytes());
+    }
+
+    private static List<Key> readKeys(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<Key> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            keys.add(readKey(in));
+        }
+        return keys;
+    }
+
+    private static void writeKeys(DataOutputStream out, Iterable<Key> keys, int count) throws IOException {
+        out.writeInt(count);
+        for (Key key : keys) {
+            writeKey(out, key);
+        }
+    }
+
+    private void handle(byte operation, DataInputStream in, DataOutputStream out) throws IOException {
+        switch (operation) {
+        case ADD -> {
+            Key vertex = readKey(in);
+            boolean added = !targets.containsKey(vertex);
+            addVertex(vertex);
+            out.writeByte(OK);
+            out.writeBoolean(added);
+        }
+        case SET_OUT, SET_IN -> {
+            Key owned = readKey(in);
+            Key ghost = readKey(in);
+            int weight = in.readInt();
+            if (weight < 0) {
+                out.writeByte(FAILED);
+                out.writeUTF("Weight cannot be negative");
+                return;
+            }
+            out.writeByte(OK);
+            out.writeInt(setEdge(operation == SET_OUT ? targets : sources, owned, ghost, weight));
+        }
+        case INCREMENT_OUT, INCREMENT_IN -> {
+            Key owned = readKey(in);
+            Key ghost = readKey(in);
+            int amount = in.readInt();
+            Map<Key, Map<Key, Integer>> edges = operation == INCREMENT_OUT ? targets : sources;
+            Map<Key, Integer> row = edges.get(owned);
+            int previous = row == null ? 0 : row.getOrDefault(ghost, 0);
+            if (amount <= 0) {
+                out.writeByte(FAILED);
+                out.writeUTF("Amount must be positive");
+            } else if (previous > Integer.MAX_VALUE - amount) {
+                out.writeByte(OVERFLOW);
+            } else {
+                setEdge(edges, owned, ghost, previous + amount);
+                out.writeByte(OK);
+                out.writeInt(previous);
+            }
+        }
+        case REMOVE -> {
+            Key vertex = readKey(in);
+            Map<Key, Integer> outgoing = targets.remove(vertex);
+            Map<Key, Integer> inEdges = sources.remove(vertex);
+            out.writeByte(OK);
+            out.writeBoolean(outgoing != null);
+            if (outgoing == null) {
+                return;
+            }
+            writeKeys(out, outgoing.keySet(), outgoing.size());
+            writeKeys(out, inEdges.keySet(), inEdges.size());
+        }
+        case DROP_GHOSTS -> {
+            Key vertex = readKey(in);
+            for (Key target : readKeys(in)) {
+                Map<Key, Integer> row = sources.get(target);
+                if (row != null) {
+                    row.remove(vertex);
+                }
+            }
+            for (Key source : readKeys(in)) {
+                Map<Key, Integer> row = targets.get(source);
+                if (row != null) {
+                    row.remove(vertex);
+                }
+            }
+            out.writeByte(OK);
+        }
+        case VERTICES -> {
+            out.writeByte(OK);
+            writeKeys(out, targets.keySet(), targets.size());
+        }
+        case TARGETS, SOURCES -> {
+            List<Key> vertices = readKeys(in);
+            Map<Key, Map<Key, Integer>> edges = operation == TARGETS ? targets : sources;
+            out.writeByte(OK);
+            for (Key vertex : vertices) {
+                Map<Key, Integer> row = edges.getOrDefault(vertex, Map.of());
+                out.writeInt(row.size());
+                for (Map.Entry<Key, Integer> edge : row.entrySet()) {
+                    writeKey(out, edge.getKey());
+                    out.writeInt(edge.getValue());
+                }
+            }
+        }
+        default -> throw new IOException("Unknown operation " + operation);
+        }
+    }
+
+    private void addVertex(Key vertex) {
+        if (!targets.containsKey(vertex)) {
+            targets.put(vertex, new HashMap<>());
+            sources.put(vertex, new HashMap<>());
+        }
+    }
+
+    /**
+     * Set the weight of the edge between owned and ghost in edges, which is
+     * targets or sources, adding owned if weight is positive.
+     *
+     * @return the previous weight of the edge, or 0
+     */
+    private int setEdge(Map<Key, Map<Key, Integer>> edges, Key owned, Key ghost, int weight) {
+        Integer previous;
+        if (weight == 0) {
+            Map<Key, Integer> row = edges.get(owned);
+            previous = row == null ? null : row.remove(ghost);
+        } else {
+            addVertex(owned);
+            previous = edges.get(owned).put(ghost, weight);
+        }
+        checkVertex(owned);
+        return previous == null ? 0 : previous;
+    }
+
+}
@@ -0,0 +1,710 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Graph spread over several worker processes on this machine, each
+ * holding one partition of its vertices.
+ *
+ * <p>This object is the coordinator: it implements Graph by sending requests
+ * to PartitionWorker processes over loopback sockets. Each vertex belongs to
+ * the partition chosen by a hash of its label's bytes, as encoded by a
+ * LabelCodec. Each edge is stored by the worker of its source, as an
+ * outgoing edge, and by the worker of its target, as an incoming edge; when
+ * those are different workers, each stores a ghost entry for the vertex at
+ * the other end. So targets() and sources() take one round trip to one
+ * worker, and set() and increment() one round trip to at most two workers
+ * at the same time.
+ *
+ * <p>Requests to different workers, and many requests to the same worker,
+ * are sent before any reply is read. targetsOf() and sourcesOf() query many
+ * vertices with one round trip to each worker that owns any of them;
+ * vertices() and remove() take one and two rounds of requests to the
+ * workers involved; addAll() and setAll() send their requests in batches.
+ *
+ * <p>Partitioned graphs are not thread-safe. Their views are unmodifiable
+ * copies, and methods that lose a worker throw UncheckedIOException and
+ * close the graph. After close(), every method except close() throws
+ * IllegalStateException.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public final class PartitionedGraph<L> implements Graph<L>, Closeable {
+
+    // Most requests sent to one worker before reading their replies, so
+    // that unread replies fit in the socket buffers
+    private static final int PIPELINE_DEPTH = 1024;
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 60_000;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final LabelCodec<L> codec;
+    private final Worker[] workers;
+    private boolean closed = false;
+
+    // Abstraction function:
+    //   AF(codec, workers) = the graph whose vertices are the labels decoded
+    //     from the vertices of every worker, with an edge from s to t of
+    //     weight w iff the worker owning s has an outgoing edge from s to t
+    //     of weight w
+    // Representation invariant:
+    //   workers.length > 0, and workers[p] serves partition p
+    //   every vertex v is stored only by workers[partition(encode(v))]
+    //   the worker owning s has an outgoing edge from s to t of weight w iff
+    //     the worker owning t has an incoming edge to t from s of weight w
+    //   no request is waiting for its reply between public method calls
+    // Safety from rep exposure:
+    //   all fields are private; every collection returned is new
+    //
+    // Thread safety argument:
+    //   this type is not thread-safe; each worker serves one coordinator
+
+    /**
+     * A connection to a worker, and the process or thread running it.
+     */
+    private static final class Worker {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+        final Process process;
+        final Thread thread;
+        int pending = 0;
+
+        Worker(Socket socket, DataInputStream in, DataOutputStream out, Process process, Thread thread) {
+            this.socket = socket;
+            this.in = in;
+            this.out = out;
+            this.process = process;
+            this.thread = thread;
+        }
+    }
+
+    /** Reads the rest of a reply after its status. */
+    @FunctionalInterface
+    private interface ReplyReader {
+        void read(DataInputStream in) throws IOException;
+    }
+
+    private PartitionedGraph(LabelCodec<L> codec, Worker[] workers) {
+        this.codec = codec;
+        this.workers = workers;
+    }
+
+    /**
+     * Start a graph with its partitions in new worker processes, running the
+     * same Java installation and class path as this process.
+     *
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param workers number of worker processes, requires > 0
+     * @param codec encodes and decodes the graph's labels
+     * @return a new empty graph; must be closed to stop its workers
+     * @throws IOException if the workers cannot be started or connected to
+     */
+    public static <L> PartitionedGraph<L> start(int workers, LabelCodec<L> codec) throws IOException {
+        return start(workers, codec, false);
+    }
+
+    /**
+     * Start a graph with its partitions served by threads of this process,
+     * over the same loopback sockets and protocol as worker processes.
+     * For testing.
+     */
+    static <L> PartitionedGraph<L> startInThreads(int workers, LabelCodec<L> codec) throws IOException {
+        return start(workers, codec, true);
+    }
+
+    private static <L> PartitionedGraph<L> start(int count, LabelCodec<L> codec, boolean inThreads)
+            throws IOException {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Number of workers must be positive");
+        }
+        if (codec == null) {
+            throw new IllegalArgumentException("Codec cannot be null");
+        }
+        Process[] processes = new Process[count];
+        Thread[] threads = new Thread[count];
+        Worker[] workers = new Worker[count];
+        try (ServerSocket server = new ServerSocket(0, count, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+            String host = server.getInetAddress().getHostAddress();
+            int port = server.getLocalPort();
+            for (int p = 0; p < count; p++) {
+                if (inThreads) {
+                    final int partition = p;
+                    threads[p] = new Thread(() -> {
+                        try {
+                            PartitionWorker.run(host, port, partition);
+                        } catch (IOException e) {
+                            // the coordinator sees the connection fail
+                        }
+                    }, "PartitionWorker " + p);
+                    threads[p].setDaemon(true);
+                    threads[p].start();
+                } else {
+                    processes[p] = workerProcess(host, port, p).start();
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+                int magic = in.readInt();
+                int partition = in.readInt();
+                if (magic != PartitionWorker.MAGIC || partition < 0 || partition >= count
+                        || workers[partition] != null) {
+                    socket.close();
+                    throw new IOException("Unexpected connection from " + socket.getRemoteSocketAddress());
+                }
+                workers[partition] = new Worker(socket, in, out, processes[partition], threads[partition]);
+            }
+        } catch (IOException | RuntimeException e) {
+            for (int p = 0; p < count; p++) {
+                if (workers[p] != null) {
+                    closeQuietly(workers[p].socket);
+                }
+                if (processes[p] != null) {
+                    processes[p].destroyForcibly();
+                }
+            }
+            throw e;
+        }
+        PartitionedGraph<L> graph = new PartitionedGraph<>(codec, workers);
+        graph.checkRep();
+        return graph;
+    }
+
+    private static ProcessBuilder workerProcess(String host, int port, int partition) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (PartitionedGraph.class.desiredAssertionStatus()) {
+            command.add("-ea");
+        }
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"),
+                PartitionWorker.class.getName(), host, Integer.toString(port), Integer.toString(partition)));
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT);
+    }
+
+    /**
+     * Check the parts of the rep invariant that hold in this process.
+     */
+    private void checkRep() {
+        assert workers.length > 0;
+        for (Worker worker : workers) {
+            assert worker != null;
+            assert worker.pending == 0;
+        }
+    }
+
+    /**
+     * Check that the whole representation invariant holds, by reading every
+     * vertex and edge from the workers. For testing.
+     */
+    void checkEdges() {
+        checkRep();
+        Set<L> vertices = vertices();
+        Map<L, Map<L, Integer>> targets = targetsOf(vertices);
+        Map<L, Map<L, Integer>> sources = sourcesOf(vertices);
+        for (L source : vertices) {
+            for (Map.Entry<L, Integer> edge : targets.get(source).entrySet()) {
+                assert vertices.contains(edge.getKey()) : "Edge target missing";
+                assert edge.getValue().equals(sources.get(edge.getKey()).get(source)) : "Edge not mirrored";
+            }
+        }
+        for (L target : vertices) {
+            for (Map.Entry<L, Integer> edge : sources.get(target).entrySet()) {
+                assert edge.getValue().equals(targets.get(edge.getKey()).get(target)) : "Edge not mirrored";
+            }
+        }
+    }
+
+    /*
+     * Requests and replies
+     */
+
+    private int partition(byte[] key) {
+        int hash = Arrays.hashCode(key);
+        return Math.floorMod(hash ^ (hash >>> 16), workers.length);
+    }
+
+    private Worker owner(byte[] key) {
+        return workers[partition(key)];
+    }
+
+    private byte[] encode(L label) {
+        return codec.encode(label);
+    }
+
+    private static void writeKey(DataOutputStream out, byte[] key) throws IOException {
+        out.writeInt(key.length);
+        out.write(key);
+    }
+
+    private static void writeKeys(DataOutputStream out, List<byte[]> keys) throws IOException {
+        out.writeInt(keys.size());
+        for (byte[] key : keys) {
+            writeKey(out, key);
+        }
+    }
+
+    private L readLabel(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return codec.decode(bytes);
+    }
+
+    private List<byte[]> readKeys(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<byte[]> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            keys.add(bytes);
+        }
+        return keys;
+    }
+
+    /**
+     * Read the status of the next reply from worker.
+     *
+     * @return null if the request succeeded, or the exception it should
+     *         throw, to be thrown once every outstanding reply is read
+     */
+    private static RuntimeException status(Worker worker) throws IOException {
+        byte status = worker.in.readByte();
+        return switch (status) {
+            case PartitionWorker.OK -> null;
+            case PartitionWorker.OVERFLOW -> new ArithmeticException("integer overflow");
+            case PartitionWorker.FAILED -> new IllegalArgumentException(worker.in.readUTF());
+            default -> throw new IOException("Invalid reply status " + status);
+        };
+    }
+
+    /**
+     * Send a request to worker that has been written to its stream, reading
+     * the replies of earlier requests first if too many are outstanding.
+     * Before waiting on one worker, flush the others so they keep working.
+     */
+    private void sent(Worker worker, ReplyReader reader) throws IOException {
+        worker.pending++;
+        if (worker.pending >= PIPELINE_DEPTH) {
+            flushAll();
+            drain(worker, reader);
+        }
+    }
+
+    /**
+     * Flush the requests written to every worker, so that all of them work
+     * on their requests while the replies of one are read.
+     */
+    private void flushAll() throws IOException {
+        for (Worker worker : workers) {
+            worker.out.flush();
+        }
+    }
+
+    /**
+     * Flush worker's requests and read all their replies, which must all
+     * succeed.
+     */
+    private static void drain(Worker worker, ReplyReader reader) throws IOException {
+        worker.out.flush();
+        for (; worker.pending > 0; worker.pending--) {
+            RuntimeException failure = status(worker);
+            if (failure != null) {
+                throw new IOException("Unexpected failure from worker", failure);
+            }
+            reader.read(worker.in);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Graph is closed");
+        }
+    }
+
+    /**
+     * Close this graph after losing a worker.
+     *
+     * @return exception to throw
+     */
+    private UncheckedIOException lost(IOException e) {
+        closed = true;
+        for (Worker worker : workers) {
+            closeQuietly(worker.socket);
+            if (worker.process != null) {
+                worker.process.destroyForcibly();
+            }
+        }
+        return new UncheckedIOException("Lost connection to a worker", e);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // already failing
+        }
+    }
+
+    /*
+     * Graph operations
+     */
+
+    @Override public boolean add(L vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("Vertex cannot be null");
+        }
+        checkOpen();
+        byte[] key = encode(vertex);
+        Worker worker = owner(key);
+        try {
+            worker.out.writeByte(PartitionWorker.ADD);
+            writeKey(worker.out, key);
+            worker.out.flush();
+            RuntimeException failure = status(worker);
+            if (failure != null) {
+                throw failure;
+            }
+            return worker.in.readBoolean();
+        } catch (IOException e) {
+            throw lost(e);
+        }
+    }
+
+    @Override public boolean addAll(Collection<? extends L> vertices) {
+        for (L vertex : vertices) {
+            if (vertex == null) {
+                throw new IllegalArgumentException("Vertex cannot be null");
+            }
+        }
+        checkOpen();
+        boolean[] changed = {false};
+        ReplyReader added = in -> changed[0] |= in.readBoolean();
+        try {
+            for (L vertex : vertices) {
+                byte[] key = encode(vertex);
+                Worker worker = owner(key);
+                worker.out.writeByte(PartitionWorker.ADD);
+                writeKey(worker.out, key);
+                sent(worker, added);
+            }
+            flushAll();
+            for (Worker worker : workers) {
+                drain(worker, added);
+            }
+        } catch (IOException e) {
+            throw lost(e);
+        }
+        checkRep();
+        return changed[0];
+    }
+
+    /**
+     * Write the two halves of a change to the edge from source to target.
+     *
+     * @return the workers written to, source's first
+     */
+    private Worker[] writeEdge(byte operation, byte[] source, byte[] target, int value) throws IOException {
+        Worker sourceWorker = owner(source);
+        Worker targetWorker = owner(target);
+        boolean set = operation == PartitionWorker.SET_OUT;
+        sourceWorker.out.writeByte(operation);
+        writeKey(sourceWorker.out, source);
+        writeKey(sourceWorker.out, target);
+        sourceWorker.out.writeInt(value);
+        targetWorker.out.writeByte(set ? PartitionWorker.SET_IN : PartitionWorker.INCREMENT_IN);
+        writeKey(targetWorker.out, target);
+        writeKey(targetWorker.out, source);
+        targetWorker.out.writeInt(value);
+        return new Worker[] {sourceWorker, targetWorker};
+    }
+
+    /**
+     * Send both halves of a change to an edge and read their replies.
+     *
+     * @return the previous weight of the edge
+     */
+    private int changeEdge(byte operation, L source, L target, int value) {
+        try {
+            Worker[] pair = writeEdge(operation, encode(source), encode(target), value);
+            pair[0].out.flush();
+            pair[1].out.flush();
+            RuntimeException sourceFailure = status(pair[0]);
+            int previous = sourceFailure == null ? pair[0].in.readInt() : 0;
+            RuntimeException targetFailure = status(pair[1]);
+            if (targetFailure == null) {
+                pair[1].in.readInt();
+            }
+            if (sourceFailure != null) {
+                throw sourceFailure;
+            }
+            if (targetFailure != null) {
+                throw targetFailure;
+            }
+            return previous;
+        } catch (IOException e) {
+            throw lost(e);
+        }
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        if (source == null || target == null) {
+            throw new IllegalArgumentException("Source and target cannot be null");
+        }
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+        checkOpen();
+        return changeEdge(PartitionWorker.SET_OUT, source, target, weight);
+    }
+
+    @Override public int increment(L source, L target, int amount) {
+        if (source == null || target == null) {
+            throw new IllegalArgumentException("Source and target cannot be null");
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        checkOpen();
+        return changeEdge(PartitionWorker.INCREMENT_OUT, source, target, amount);
+    }
+
+    @Override public void setAll(EdgeBatch<? extends L> batch) {
+        checkOpen();
+        ReplyReader previous = DataInputStream::readInt;
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                Worker[] pair = writeEdge(PartitionWorker.SET_OUT,
+                        encode(batch.source(i)), encode(batch.target(i)), batch.weight(i));
+                sent(pair[0], previous);
+                sent(pair[1], previous);
+            }
+            flushAll();
+            for (Worker worker : workers) {
+                drain(worker, previous);
+            }
+        } catch (IOException e) {
+            throw lost(e);
+        }
+        checkRep();
+    }
+
+    @Override public boolean remove(L vertex) {
+        checkOpen();
+        if (vertex == null) {
+            return false;
+        }
+        byte[] key = encode(vertex);
+        Worker worker = owner(key);
+        try {
+            worker.out.writeByte(PartitionWorker.REMOVE);
+            writeKey(worker.out, key);
+            worker.out.flush();
+            if (status(worker) != null || !worker.in.readBoolean()) {
+                return false;
+            }
+            List<byte[]> targets = readKeys(worker.in);
+            List<byte[]> sources = readKeys(worker.in);
+
+            // drop the entries for vertex stored with its neighbors
+            List<List<byte[]>> targetsOf = new ArrayList<>();
+            List<List<byte[]>> sourcesOf = new ArrayList<>();
+            for (int p = 0; p < workers.length; p++) {
+                targetsOf.add(new ArrayList<>());
+                sourcesOf.add(new ArrayList<>());
+            }
+            for (byte[] target : targets) {
+                targetsOf.get(partition(target)).add(target);
+            }
+            for (byte[] source : sources) {
+                sourcesOf.get(partition(source)).add(source);
+            }
+            for (int p = 0; p < workers.length; p++) {
+                if (!targetsOf.get(p).isEmpty() || !sourcesOf.get(p).isEmpty()) {
+                    DataOutputStream out = workers[p].out;
+                    out.writeByte(PartitionWorker.DROP_GHOSTS);
+                    writeKey(out, key);
+                    writeKeys(out, targetsOf.get(p));
+                    writeKeys(out, sourcesOf.get(p));
+                    workers[p].pending++;
+                }
+            }
+            flushAll();
+            for (Worker each : workers) {
+                drain(each, in -> { });
+            }
+            return true;
+        } catch (IOException e) {
+            throw lost(e);
+        }
+    }
+
+    @Override public Set<L> vertices() {
+        checkOpen();
+        Set<L> vertices = new HashSet<>();
+        try {
+            for (Worker worker : workers) {
+                worker.out.writeByte(PartitionWorker.VERTICES);
+                worker.pending++;
+            }
+            flushAll();
+            for (Worker worker : workers) {
+                drain(worker, in -> {
+                    for (int count = in.readInt(); count > 0; count--) {
+                        vertices.add(readLabel(in));
+                    }
+                });
+            }
+        } catch (IOException e) {
+            throw lost(e);
+        }
+        return vertices;
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+        checkOpen();
+        return target == null ? new HashMap<>() : neighbors(PartitionWorker.SOURCES, List.of(target)).get(target);
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+        checkOpen();
+        return source == null ? new HashMap<>() : neighbors(PartitionWorker.TARGETS, List.of(source)).get(source);
+    }
+
+    /**
+     * Get the sources of many target vertices, with one request to each
+     * worker that owns any of them.
+     *
+     * @param targets labels; not modified
+     * @return a new map from each label in targets to sources(label)
+     */
+    public Map<L, Map<L, Integer>> sourcesOf(Collection<? extends L> targets) {
+        checkOpen();
+        return neighbors(PartitionWorker.SOURCES, targets);
+    }
+
+    /**
+     * Get the targets of many source vertices, with one request to each
+     * worker that owns any of them.
+     *
+     * @param sources labels; not modified
+     * @return a new map from each label in sources to targets(label)
+     */
+    public Map<L, Map<L, Integer>> targetsOf(Collection<? extends L> sources) {
+        checkOpen();
+        return neighbors(PartitionWorker.TARGETS, sources);
+    }
+
+    private Map<L, Map<L, Integer>> neighbors(byte operation, Collection<? extends L> vertices) {
+        List<List<L>> labels = new ArrayList<>();
+        List<List<byte[]>> keys = new ArrayList<>();
+        for (int p = 0; p < workers.length; p++) {
+            labels.add(new ArrayList<>());
+            keys.add(new ArrayList<>());
+        }
+        for (L vertex : vertices) {
+            if (vertex == null) {
+                throw new IllegalArgumentException("Vertex cannot be null");
+            }
+            byte[] key = encode(vertex);
+            labels.get(partition(key)).add(vertex);
+            keys.get(partition(key)).add(key);
+        }
+        Map<L, Map<L, Integer>> result = HashMap.newHashMap(vertices.size());
+        try {
+            for (int p = 0; p < workers.length; p++) {
+                if (!keys.get(p).isEmpty()) {
+                    workers[p].out.writeByte(operation);
+                    writeKeys(workers[p].out, keys.get(p));
+                    workers[p].pending++;
+                }
+            }
+            flushAll();
+            for (int p = 0; p < workers.length; p++) {
+                List<L> owned = labels.get(p);
+                drain(workers[p], in -> {
+                    for (L vertex : owned) {
+                        int count = in.readInt();
+                        Map<L, Integer> edges = HashMap.newHashMap(count);
+                        for (int i = 0; i < count; i++) {
+                            edges.put(readLabel(in), in.readInt());
+                        }
+                        result.put(vertex, edges);
+                    }
+                });
+            }
+        } catch (IOException e) {
+            throw lost(e);
+        }
+        return result;
+    }
+
+    /**
+     * Stop the workers and close their connections. Has no effect if this
+     * graph is already closed.
+     *
+     * @throws IOException if a worker cannot be told to stop
+     */
+    @Override public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        IOException failure = null;
+        for (Worker worker : workers) {
+            try {
+                worker.out.writeByte(PartitionWorker.SHUTDOWN);
+                worker.out.flush();
+            } catch (IOException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        for (Worker worker : workers) {
+            try {
+                if (worker.process != null && !worker.process.waitFor(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    worker.process.destroyForcibly();
+                }
+                if (worker.thread != null) {
+                    worker.thread.join(TimeUnit.SECONDS.toMillis(SHUTDOWN_TIMEOUT_SECONDS));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            closeQuietly(worker.socket);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override public String toString() {
+        return "PartitionedGraph with " + workers.length + " workers";
+    }
+
+}
@@ -0,0 +1,331 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable weighted directed graph whose updates return new versions.
+ *
+ * <p>with(), withEdge() and without() return a new graph and leave this one
+ * unchanged. The new graph shares all but O(log n) of its structure with this
+ * one, so each update takes O(log n) time and space, except without(), which
+ * also updates each neighbor of the removed vertex. Every version remains a
+ * valid snapshot that may be read by any number of threads, so a reader can
+ * hold one version for as long as it likes while writers publish newer ones.
+ *
+ * <p>The Graph mutators add(), set(), remove(), addAll(), setAll() and
+ * increment() throw UnsupportedOperationException. The views returned by
+ * verticesView(), sourcesView() and targetsView() never change, since this
+ * graph never changes.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public final class PersistentGraph<L> implements Graph<L> {
+
+    @SuppressWarnings("rawtypes")
+    private static final PersistentGraph EMPTY =
+            new PersistentGraph<>(PersistentMap.empty(), PersistentMap.empty(), 0);
+
+    private final PersistentMap<L, PersistentMap<L, Integer>> outgoing;
+    private final PersistentMap<L, PersistentMap<L, Integer>> incoming;
+    private final int edgeCount;
+
+    // Abstraction function:
+    //   AF(outgoing, incoming, edgeCount) = the graph whose vertices are the
+    //     keys of outgoing, with an edge (s, t, w) iff outgoing[s] maps t to w
+    //   incoming[t] indexes the same edges by target
+    // Representation invariant:
+    //   outgoing and incoming have the same keys
+    //   outgoing[s] maps t to w iff incoming[t] maps s to w, and then w > 0
+    //   edgeCount == sum of outgoing[v].size()
+    // Safety from rep exposure:
+    //   all fields are private and final, and PersistentMaps are immutable;
+    //   vertices(), sources() and targets() return new collections, and the
+    //   views are unmodifiable
+    // Thread safety argument:
+    //   this type is immutable, and all fields are final, so instances may be
+    //   shared freely between threads once published
+
+    private PersistentGraph(PersistentMap<L, PersistentMap<L, Integer>> outgoing,
+            PersistentMap<L, PersistentMap<L, Integer>> incoming, int edgeCount) {
+        this.outgoing = outgoing;
+        this.incoming = incoming;
+        this.edgeCount = edgeCount;
+    }
+
+    /**
+     * Check the whole representation invariant. This takes time linear in
+     * the size of the graph, so updates only check the vertices they touch
+     * (see checkVertex); tests may call this method to validate the entire
+     * graph.
+     */
+    void checkRep() {
+        assert outgoing.size() == incoming.size();
+        int edges = 0;
+        for (Map.Entry<L, PersistentMap<L, Integer>> entry : outgoing.asMap().entrySet()) {
+            L source = entry.getKey();
+            assert incoming.containsKey(source) : "Vertex " + source + " missing from incoming";
+            edges += entry.getValue().size();
+            for (Map.Entry<L, Integer> edge : entry.getValue().asMap().entrySet()) {
+                assert edge.getValue() > 0;
+                PersistentMap<L, Integer> sources = incoming.get(edge.getKey());
+                assert sources != null && edge.getValue().equals(sources.get(source))
+                        : "Edge " + source + "->" + edge.getKey() + " not mirrored";
+            }
+        }
+        assert edges == edgeCount;
+    }
+
+    /**
+     * Check the parts of the representation invariant that concern one
+     * vertex, in O(log n) time.
+     */
+    private void checkVertex(L vertex) {
+        assert outgoing.containsKey(vertex) == incoming.containsKey(vertex) : "Vertex not indexed";
+        assert outgoing.size() == incoming.size();
+        assert edgeCount >= 0;
+    }
+
+    /**
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @return the empty graph
+     */
+    @SuppressWarnings("unchecked")
+    public static <L> PersistentGraph<L> empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Make a persistent copy of a graph.
+     *
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param graph graph to copy; not modified
+     * @return a persistent graph with the same vertices and edges as graph
+     */
+    public static <L> PersistentGraph<L> copyOf(Graph<L> graph) {
+        if (graph instanceof PersistentGraph<L> persistent) {
+            return persistent;
+        }
+        PersistentGraph<L> copy = empty();
+        for (L vertex : graph.verticesView()) {
+            copy = copy.with(vertex);
+        }
+        for (L source : graph.verticesView()) {
+            for (Map.Entry<L, Integer> edge : graph.targetsView(source).entrySet()) {
+                copy = copy.withEdge(source, edge.getKey(), edge.getValue());
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Add a vertex; see {@link Graph#add(Object)}.
+     *
+     * @param vertex label for the new vertex
+     * @return a graph equal to this one plus vertex; this graph if it
+     *         already includes vertex
+     */
+    public PersistentGraph<L> with(L vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("Vertex cannot be null");
+        }
+        if (outgoing.containsKey(vertex)) {
+            return this;
+        }
+        PersistentGraph<L> result = new PersistentGraph<>(
+                outgoing.put(vertex, PersistentMap.empty()),
+                incoming.put(vertex, PersistentMap.empty()),
+                edgeCount);
+        result.checkVertex(vertex);
+        return result;
+    }
+
+    /**
+     * Add, change, or remove a weighted directed edge; see
+     * {@link Graph#set(Object, Object, int)}.
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @param weight non-negative weight of the edge
+     * @return a graph equal to this one except that the edge from source to
+     *         target has the given weight (or is absent if weight is zero),
+     *         and source and target are vertices
+     */
+    public PersistentGraph<L> withEdge(L source, L target, int weight) {
+        if (source == null || target == null) {
+            throw new IllegalArgumentException("Source and target cannot be null");
+        }
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+
+        PersistentGraph<L> graph = with(source).with(target);
+        PersistentMap<L, Integer> targets = graph.outgoing.get(source);
+        PersistentMap<L, Integer> sources = graph.incoming.get(target);
+        int previous = weight(source, target);
+        if (previous == weight) {
+            return graph;
+        }
+
+        PersistentGraph<L> result;
+        if (weight == 0) {
+            result = new PersistentGraph<>(
+                    graph.outgoing.put(source, targets.remove(target)),
+                    graph.incoming.put(target, sources.remove(source)),
+                    edgeCount - 1);
+        } else {
+            result = new PersistentGraph<>(
+                    graph.outgoing.put(source, targets.put(target, weight)),
+                    graph.incoming.put(target, sources.put(source, weight)),
+                    previous == 0 ? edgeCount + 1 : edgeCount);
+        }
+        assert result.weight(source, target) == weight;
+        assert result.incoming.get(target).asMap().getOrDefault(source, 0) == weight;
+        result.checkVertex(source);
+        result.checkVertex(target);
+        return result;
+    }
+
+    /**
+     * Remove a vertex and its edges; see {@link Graph#remove(Object)}.
+     *
+     * @param vertex label of the vertex to remove
+     * @return a graph equal to this one without vertex and its edges; this
+     *         graph if it does not include vertex
+     */
+    public PersistentGraph<L> without(L vertex) {
+        PersistentMap<L, Integer> targets = outgoing.get(vertex);
+        if (targets == null) {
+            return this;
+        }
+        PersistentMap<L, Integer> sources = incoming.get(vertex);
+
+        PersistentMap<L, PersistentMap<L, Integer>> newOutgoing = outgoing.remove(vertex);
+        PersistentMap<L, PersistentMap<L, Integer>> newIncoming = incoming.remove(vertex);
+        for (L target : targets.asMap().keySet()) {
+            if (!target.equals(vertex)) {
+                newIncoming = newIncoming.put(target, newIncoming.get(target).remove(vertex));
+            }
+        }
+        for (L source : sources.asMap().keySet()) {
+            if (!source.equals(vertex)) {
+                newOutgoing = newOutgoing.put(source, newOutgoing.get(source).remove(vertex));
+            }
+        }
+        // a self-loop is in both maps but is only one edge
+        int removed = targets.size() + sources.size() - (targets.containsKey(vertex) ? 1 : 0);
+
+        PersistentGraph<L> result = new PersistentGraph<>(newOutgoing, newIncoming, edgeCount - removed);
+        result.checkVertex(vertex);
+        return result;
+    }
+
+    /**
+     * @param source a label
+     * @param target a label
+     * @return the weight of the edge from source to target, or zero if there
+     *         is no such edge
+     */
+    public int weight(L source, L target) {
+        PersistentMap<L, Integer> targets = outgoing.get(source);
+        Integer weight = targets == null ? null : targets.get(target);
+        return weight == null ? 0 : weight;
+    }
+
+    /**
+     * @return number of edges in this graph
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @throws UnsupportedOperationException always; use with()
+     */
+    @Override public boolean add(L vertex) {
+        throw new UnsupportedOperationException("PersistentGraph is immutable; use with()");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always; use withEdge()
+     */
+    @Override public int set(L source, L target, int weight) {
+        throw new UnsupportedOperationException("PersistentGraph is immutable; use withEdge()");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always; use without()
+     */
+    @Override public boolean remove(L vertex) {
+        throw new UnsupportedOperationException("PersistentGraph is immutable; use without()");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always; use with()
+     */
+    @Override public boolean addAll(Collection<? extends L> vertices) {
+        throw new UnsupportedOperationException("PersistentGraph is immutable; use with()");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always; use withEdge()
+     */
+    @Override public void setAll(EdgeBatch<? extends L> batch) {
+        throw new UnsupportedOperationException("PersistentGraph is immutable; use withEdge()");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always; use withEdge()
+     */
+    @Override public int increment(L source, L target, int amount) {
+        throw new UnsupportedOperationException("PersistentGraph is immutable; use withEdge()");
+    }
+
+    @Override public Set<L> vertices() {
+        return new HashSet<>(outgoing.asMap().keySet());
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+        return new HashMap<>(sourcesView(target));
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+        return new HashMap<>(targetsView(source));
+    }
+
+    @Override public Set<L> verticesView() {
+        return Collections.unmodifiableSet(outgoing.asMap().keySet());
+    }
+
+    @Override public Map<L, Integer> sourcesView(L target) {
+        PersistentMap<L, Integer> sources = incoming.get(target);
+        return sources == null ? Collections.emptyMap() : sources.asMap();
+    }
+
+    @Override public Map<L, Integer> targetsView(L source) {
+        PersistentMap<L, Integer> targets = outgoing.get(source);
+        return targets == null ? Collections.emptyMap() : targets.asMap();
+    }
+
+    /**
+     * String representation of this graph.
+     * @return a string representation showing vertices and edges
+     */
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("PersistentGraph{\n");
+        for (Map.Entry<L, PersistentMap<L, Integer>> entry : outgoing.asMap().entrySet()) {
+            sb.append("  ").append(entry.getKey()).append(" -> ").append(entry.getValue()).append("\n");
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+
+}
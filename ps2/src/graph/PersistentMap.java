@@ -0,0 +1,406 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable map implemented as a hash array mapped trie (HAMT).
+ *
+ * <p>put() and remove() return a new map that shares all but one path of the
+ * trie with this one, so they take O(log32 n) time and space, and every
+ * earlier version of the map remains valid. Keys and values must be non-null
+ * and immutable.
+ *
+ * <p>This class is internal to the rep of PersistentGraph.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+final class PersistentMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    @SuppressWarnings("rawtypes")
+    private static final PersistentMap EMPTY = new PersistentMap<>(new Object[0], 0, 0);
+
+    // A trie node is an Object[] of alternating keys and values. A null key
+    // marks a child node, stored in the value slot. A bitmap node covers 32
+    // hash fragments at its depth, with the bitmap giving which are present;
+    // a collision node holds entries whose keys have identical hashes.
+    private final Object[] root;
+    private final int rootBitmap;
+    private final int size;
+
+    // Abstraction function:
+    //   AF(root, rootBitmap, size) = the map from each key stored in the trie
+    //     rooted at root (a bitmap node with bitmap rootBitmap) to the value
+    //     stored beside it
+    // Representation invariant:
+    //   size == number of keys in the trie, and keys are distinct
+    //   in a bitmap node at depth d with bitmap b, there are bitCount(b)
+    //     slots, and slot i holds the entries whose hash fragment at depth d
+    //     is the i-th set bit of b
+    //   child nodes are never empty
+    // Safety from rep exposure:
+    //   all fields are private and final, and nodes are never mutated after
+    //   they are published; asMap() returns an unmodifiable view
+
+    private PersistentMap(Object[] root, int rootBitmap, int size) {
+        this.root = root;
+        this.rootBitmap = rootBitmap;
+        this.size = size;
+    }
+
+    /**
+     * @param <K> type of keys
+     * @param <V> type of values
+     * @return the empty map
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return number of keys in this map
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param key a key, or null
+     * @return the value for key, or null if key is not in this map
+     */
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        final int hash = hash(key);
+        Object[] node = root;
+        int bitmap = rootBitmap;
+        int shift = 0;
+        while (true) {
+            if (node.length > 0 && bitmap == 0) {
+                // collision node
+                for (int i = 0; i < node.length; i += 2) {
+                    if (key.equals(node[i])) {
+                        return (V) node[i + 1];
+                    }
+                }
+                return null;
+            }
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+            if (node[i] != null) {
+                return key.equals(node[i]) ? (V) node[i + 1] : null;
+            }
+            Child child = (Child) node[i + 1];
+            node = child.array;
+            bitmap = child.bitmap;
+            shift += BITS;
+        }
+    }
+
+    /**
+     * @param key a key, or null
+     * @return true iff key is in this map
+     */
+    boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @param key key to map, non-null
+     * @param value value to map it to, non-null
+     * @return a map equal to this one except that key maps to value; this
+     *         map if key already maps to an equal value
+     */
+    PersistentMap<K, V> put(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        boolean[] added = new boolean[1];
+        Child newRoot = put(root, rootBitmap, 0, hash(key), key, value, added);
+        if (newRoot.array == root) {
+            return this;
+        }
+        return new PersistentMap<>(newRoot.array, newRoot.bitmap, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * @param key a key, or null
+     * @return a map equal to this one except that key is absent; this map if
+     *         key was already absent
+     */
+    PersistentMap<K, V> remove(Object key) {
+        if (key == null) {
+            return this;
+        }
+        Child newRoot = remove(root, rootBitmap, 0, hash(key), key);
+        if (newRoot != null && newRoot.array == root) {
+            return this;
+        }
+        if (newRoot == null) {
+            return empty();
+        }
+        return new PersistentMap<>(newRoot.array, newRoot.bitmap, size - 1);
+    }
+
+    /**
+     * @return an unmodifiable Map view of this map
+     */
+    Map<K, V> asMap() {
+        return new MapView();
+    }
+
+    @Override public String toString() {
+        return asMap().toString();
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * A child node: its slot array, and its bitmap, which is 0 for a
+     * collision node.
+     */
+    private record Child(Object[] array, int bitmap) { }
+
+    private static Child put(Object[] node, int bitmap, int shift, int hash, Object key, Object value,
+            boolean[] added) {
+        if (node.length > 0 && bitmap == 0) {
+            return putCollision(node, shift, hash, key, value, added);
+        }
+        int bit = bit(hash, shift);
+        int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+        if ((bitmap & bit) == 0) {
+            added[0] = true;
+            Object[] copy = new Object[node.length + 2];
+            System.arraycopy(node, 0, copy, 0, i);
+            copy[i] = key;
+            copy[i + 1] = value;
+            System.arraycopy(node, i, copy, i + 2, node.length - i);
+            return new Child(copy, bitmap | bit);
+        }
+        Object existingKey = node[i];
+        Object existingValue = node[i + 1];
+        Object newKey;
+        Object newValue;
+        if (existingKey == null) {
+            Child child = (Child) existingValue;
+            Child newChild = put(child.array, child.bitmap, shift + BITS, hash, key, value, added);
+            if (newChild.array == child.array) {
+                return new Child(node, bitmap);
+            }
+            newKey = null;
+            newValue = newChild;
+        } else if (existingKey.equals(key)) {
+            if (existingValue.equals(value)) {
+                return new Child(node, bitmap);
+            }
+            newKey = key;
+            newValue = value;
+        } else {
+            added[0] = true;
+            newKey = null;
+            newValue = pair(shift + BITS, existingKey, existingValue, hash, key, value);
+        }
+        Object[] copy = node.clone();
+        copy[i] = newKey;
+        copy[i + 1] = newValue;
+        return new Child(copy, bitmap);
+    }
+
+    private static Child putCollision(Object[] node, int shift, int hash, Object key, Object value,
+            boolean[] added) {
+        int collisionHash = hash(node[0]);
+        if (hash != collisionHash) {
+            // nest the collision node under a new bitmap node at this depth
+            Child nested = new Child(new Object[] {null, new Child(node, 0)}, bit(collisionHash, shift));
+            return put(nested.array, nested.bitmap, shift, hash, key, value, added);
+        }
+        for (int i = 0; i < node.length; i += 2) {
+            if (key.equals(node[i])) {
+                if (value.equals(node[i + 1])) {
+                    return new Child(node, 0);
+                }
+                Object[] copy = node.clone();
+                copy[i + 1] = value;
+                return new Child(copy, 0);
+            }
+        }
+        added[0] = true;
+        Object[] copy = Arrays.copyOf(node, node.length + 2);
+        copy[node.length] = key;
+        copy[node.length + 1] = value;
+        return new Child(copy, 0);
+    }
+
+    /**
+     * @return a node holding two entries with distinct keys
+     */
+    private static Child pair(int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+        int hash1 = hash(key1);
+        if (hash1 == hash2) {
+            return new Child(new Object[] {key1, value1, key2, value2}, 0);
+        }
+        int bit1 = bit(hash1, shift);
+        int bit2 = bit(hash2, shift);
+        if (bit1 == bit2) {
+            return new Child(new Object[] {null, pair(shift + BITS, key1, value1, hash2, key2, value2)}, bit1);
+        }
+        Object[] array = Integer.compareUnsigned(bit1, bit2) < 0
+                ? new Object[] {key1, value1, key2, value2}
+                : new Object[] {key2, value2, key1, value1};
+        return new Child(array, bit1 | bit2);
+    }
+
+    /**
+     * @return the node without key, the same node if key is absent, or null
+     *         if the node would become empty
+     */
+    private static Child remove(Object[] node, int bitmap, int shift, int hash, Object key) {
+        if (node.length > 0 && bitmap == 0) {
+            for (int i = 0; i < node.length; i += 2) {
+                if (key.equals(node[i])) {
+                    return node.length == 2 ? null : new Child(without(node, i), 0);
+                }
+            }
+            return new Child(node, 0);
+        }
+        int bit = bit(hash, shift);
+        if ((bitmap & bit) == 0) {
+            return new Child(node, bitmap);
+        }
+        int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+        if (node[i] == null) {
+            Child child = (Child) node[i + 1];
+            Child newChild = remove(child.array, child.bitmap, shift + BITS, hash, key);
+            if (newChild != null && newChild.array == child.array) {
+                return new Child(node, bitmap);
+            }
+            if (newChild != null) {
+                Object[] copy = node.clone();
+                copy[i + 1] = newChild;
+                return new Child(copy, bitmap);
+            }
+        } else if (!key.equals(node[i])) {
+            return new Child(node, bitmap);
+        }
+        if (bitmap == bit) {
+            return null;
+        }
+        return new Child(without(node, i), bitmap & ~bit);
+    }
+
+    private static Object[] without(Object[] node, int i) {
+        Object[] copy = new Object[node.length - 2];
+        System.arraycopy(node, 0, copy, 0, i);
+        System.arraycopy(node, i + 2, copy, i, node.length - i - 2);
+        return copy;
+    }
+
+    /**
+     * An unmodifiable Map view of a PersistentMap.
+     */
+    private final class MapView extends AbstractMap<K, V> {
+
+        @Override public int size() {
+            return size;
+        }
+
+        @Override public boolean containsKey(Object key) {
+            return PersistentMap.this.containsKey(key);
+        }
+
+        @Override public V get(Object key) {
+            return PersistentMap.this.get(key);
+        }
+
+        @Override public Set<Map.Entry<K, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override public int size() {
+                    return size;
+                }
+
+                @Override public Iterator<Map.Entry<K, V>> iterator() {
+                    return new EntryIterator();
+                }
+            };
+        }
+    }
+
+    /**
+     * Iterates over the entries of the trie depth-first, keeping a stack of
+     * the nodes being visited and the next slot to visit in each.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+        private final Deque<Object[]> nodes = new ArrayDeque<>();
+        private final Deque<Integer> positions = new ArrayDeque<>();
+        private Map.Entry<K, V> next;
+
+        EntryIterator() {
+            nodes.push(root);
+            positions.push(0);
+            advance();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (!nodes.isEmpty()) {
+                Object[] node = nodes.peek();
+                int i = positions.pop();
+                if (i >= node.length) {
+                    nodes.pop();
+                    continue;
+                }
+                positions.push(i + 2);
+                if (node[i] == null) {
+                    nodes.push(((Child) node[i + 1]).array);
+                    positions.push(0);
+                } else {
+                    next = Map.entry((K) node[i], (V) node[i + 1]);
+                    return;
+                }
+            }
+        }
+
+        @Override public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override public Map.Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> entry = next;
+            advance();
+            return entry;
+        }
+    }
+
+}
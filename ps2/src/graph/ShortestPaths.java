@@ -0,0 +1,175 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shortest weighted paths in a graph, by Dijkstra's algorithm.
+ *
+ * <p>The graph is frozen into compressed sparse row form when this object is
+ * made (see {@link Graph#freeze(Graph)}), so queries see the graph as it was
+ * then, scan neighbors in primitive arrays, and keep distances in a
+ * primitive indexed binary heap over dense vertex numbers. Since edge weights
+ * are positive, a single-pair query stops as soon as the target is reached.
+ *
+ * <p>This class is immutable, so queries may run in parallel.
+ *
+ * @param <L> type of vertex labels in the graph, must be immutable
+ */
+public final class ShortestPaths<L> {
+
+    /** Distance to a vertex that cannot be reached. */
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+
+    /** Predecessor of the source vertex and of unreachable vertices. */
+    public static final int NO_PREDECESSOR = -1;
+
+    private final FrozenGraph<L> graph;
+
+    // Abstraction function:
+    //   AF(graph) = the shortest paths of graph
+    // Representation invariant:
+    //   graph != null
+    // Safety from rep exposure:
+    //   graph is private, final and immutable; query results are newly
+    //   allocated for the caller
+
+    /**
+     * Prepare to find shortest paths in a graph.
+     *
+     * @param graph graph to search; not modified, and later changes to it are
+     *              not seen by this object
+     */
+    public ShortestPaths(Graph<L> graph) {
+        this.graph = FrozenGraph.of(graph);
+    }
+
+    /**
+     * Distances and predecessors on shortest paths from one source vertex to
+     * every vertex, indexed by vertex number in {@link #vertexIndex()}.
+     *
+     * @param distances distances[v] is the total weight of a shortest path
+     *                  from the source to v, or UNREACHABLE
+     * @param predecessors predecessors[v] is the vertex before v on a
+     *                     shortest path from the source to v, or
+     *                     NO_PREDECESSOR if v is the source or unreachable
+     */
+    public record SingleSource(long[] distances, int[] predecessors) { }
+
+    /**
+     * @return the numbering of vertices used by single-source results
+     */
+    public VertexIndex<L> vertexIndex() {
+        return graph.vertexIndex();
+    }
+
+    /**
+     * Find the total weight of a shortest path between two vertices.
+     *
+     * @param source label of a vertex in the graph
+     * @param target label of a vertex in the graph
+     * @return total weight of a shortest path from source to target, 0 if
+     *         they are the same vertex, or UNREACHABLE if there is no path
+     * @throws IllegalArgumentException if source or target is not in the graph
+     */
+    public long distance(L source, L target) {
+        int s = vertexNumber(source);
+        int t = vertexNumber(target);
+        long[] distances = new long[graph.vertexCount()];
+        search(s, t, distances, new int[graph.vertexCount()]);
+        return distances[t];
+    }
+
+    /**
+     * Find a shortest path between two vertices.
+     *
+     * @param source label of a vertex in the graph
+     * @param target label of a vertex in the graph
+     * @return the labels of the vertices on a shortest path from source to
+     *         target, starting with source and ending with target; or the
+     *         empty list if there is no path
+     * @throws IllegalArgumentException if source or target is not in the graph
+     */
+    public List<L> path(L source, L target) {
+        int s = vertexNumber(source);
+        int t = vertexNumber(target);
+        long[] distances = new long[graph.vertexCount()];
+        int[] predecessors = new int[graph.vertexCount()];
+        search(s, t, distances, predecessors);
+        if (distances[t] == UNREACHABLE) {
+            return Collections.emptyList();
+        }
+        List<L> path = new ArrayList<>();
+        for (int v = t; v != NO_PREDECESSOR; v = predecessors[v]) {
+            path.add(graph.label(v));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Find shortest paths from one vertex to every vertex.
+     *
+     * @param source label of a vertex in the graph
+     * @return distances and predecessors from source, indexed by vertex
+     *         number in {@link #vertexIndex()}; the arrays belong to the caller
+     * @throws IllegalArgumentException if source is not in the graph
+     */
+    public SingleSource from(L source) {
+        int s = vertexNumber(source);
+        long[] distances = new long[graph.vertexCount()];
+        int[] predecessors = new int[graph.vertexCount()];
+        search(s, -1, distances, predecessors);
+        return new SingleSource(distances, predecessors);
+    }
+
+    private int vertexNumber(L label) {
+        int i = graph.indexOf(label);
+        if (i < 0) {
+            throw new IllegalArgumentException("Vertex " + label + " is not in the graph");
+        }
+        return i;
+    }
+
+    /**
+     * Run Dijkstra's algorithm from source, stopping once target is settled.
+     * @param source vertex number of the source
+     * @param target vertex number to stop at, or -1 to settle every vertex
+     * @param distances filled with distances from source; those of vertices
+     *                  not settled before stopping are upper bounds
+     * @param predecessors filled with predecessors on the paths found
+     */
+    private void search(int source, int target, long[] distances, int[] predecessors) {
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+        final int[] weights = graph.outWeights();
+        Arrays.fill(distances, UNREACHABLE);
+        Arrays.fill(predecessors, NO_PREDECESSOR);
+
+        IndexedMinHeap heap = new IndexedMinHeap(distances.length);
+        distances[source] = 0;
+        heap.offer(source, 0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (u == target) {
+                return;
+            }
+            long distance = distances[u];
+            for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                int v = targets[k];
+                long candidate = distance + weights[k];
+                if (candidate < distances[v]) {
+                    distances[v] = candidate;
+                    predecessors[v] = u;
+                    heap.offer(v, candidate);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,295 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The strongly connected components of a graph, found by Tarjan's algorithm.
+ *
+ * <p>The graph is frozen into compressed sparse row form when this object is
+ * made (see {@link Graph#freeze(Graph)}), and the depth-first search keeps
+ * its own stack of vertices and edge positions in int arrays instead of
+ * recursing, so graphs with very long paths do not overflow the call stack.
+ *
+ * <p>Components are numbered 0..componentCount()-1 in topological order: if
+ * there is an edge from a vertex in component c to a vertex in component d,
+ * then c <= d.
+ *
+ * <p>This class is immutable.
+ *
+ * @param <L> type of vertex labels in the graph, must be immutable
+ */
+public final class StronglyConnectedComponents<L> {
+
+    private static final int UNVISITED = -1;
+
+    private final FrozenGraph<L> graph;
+    private final int[] components;
+    private final int componentCount;
+
+    // Abstraction function:
+    //   AF(graph, components, componentCount) = the partition of the vertices
+    //     of graph into componentCount strongly connected components, where
+    //     vertex number v is in component components[v]
+    // Representation invariant:
+    //   components.length == graph.vertexCount()
+    //   every component number in 0..componentCount-1 is used, and no other
+    //   for every edge (u, v) of graph, components[u] <= components[v]
+    // Safety from rep exposure:
+    //   all fields are private and final; graph is immutable; components()
+    //   returns a copy of the array
+
+    /**
+     * Find the strongly connected components of a graph.
+     *
+     * @param graph graph to search; not modified, and later changes to it are
+     *              not seen by this object
+     */
+    public StronglyConnectedComponents(Graph<L> graph) {
+        this.graph = FrozenGraph.of(graph);
+        this.components = new int[this.graph.vertexCount()];
+        this.componentCount = tarjan();
+        checkRep();
+    }
+
+    private void checkRep() {
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+        assert components.length == graph.vertexCount();
+        boolean[] used = new boolean[componentCount];
+        for (int u = 0; u < components.length; u++) {
+            assert 0 <= components[u] && components[u] < componentCount;
+            used[components[u]] = true;
+            for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                assert components[u] <= components[targets[k]] : "Components not in topological order";
+            }
+        }
+        for (boolean component : used) {
+            assert component;
+        }
+    }
+
+    /**
+     * Run Tarjan's algorithm, filling components.
+     *
+     * @return number of components
+     */
+    private int tarjan() {
+        final int n = graph.vertexCount();
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+
+        // order[v] is the preorder number of v, or UNVISITED; low[v] is the
+        // least preorder number reachable from v's subtree that is still on
+        // the component stack
+        final int[] order = new int[n];
+        final int[] low = new int[n];
+        Arrays.fill(order, UNVISITED);
+        Arrays.fill(components, UNVISITED);
+
+        // The search path, with the position of the next edge to follow from
+        // each vertex on it; and the component stack of visited vertices not
+        // yet assigned to a component
+        final int[] path = new int[n];
+        final int[] nextEdge = new int[n];
+        final int[] stack = new int[n];
+        int pathSize = 0;
+        int stackSize = 0;
+        int visited = 0;
+        int found = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (order[root] != UNVISITED) {
+                continue;
+            }
+            order[root] = low[root] = visited++;
+            stack[stackSize++] = root;
+            path[pathSize] = root;
+            nextEdge[pathSize++] = offsets[root];
+
+            while (pathSize > 0) {
+                final int u = path[pathSize - 1];
+                final int k = nextEdge[pathSize - 1];
+                if (k < offsets[u + 1]) {
+                    nextEdge[pathSize - 1]++;
+                    final int v = targets[k];
+                    if (order[v] == UNVISITED) {
+                        order[v] = low[v] = visited++;
+                        stack[stackSize++] = v;
+                        path[pathSize] = v;
+                        nextEdge[pathSize++] = offsets[v];
+                    } else if (components[v] == UNVISITED) {
+                        // v is still on the component stack
+                        low[u] = Math.min(low[u], order[v]);
+                    }
+                    continue;
+                }
+
+                // all edges from u are done: pop it from the path
+                pathSize--;
+                if (low[u] == order[u]) {
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        components[w] = found;
+                    } while (w != u);
+                    found++;
+                }
+                if (pathSize > 0) {
+                    final int parent = path[pathSize - 1];
+                    low[parent] = Math.min(low[parent], low[u]);
+                }
+            }
+        }
+
+        // Tarjan finds components in reverse topological order
+        for (int v = 0; v < n; v++) {
+            components[v] = found - 1 - components[v];
+        }
+        return found;
+    }
+
+    /**
+     * @return the numbering of vertices used by components()
+     */
+    public VertexIndex<L> vertexIndex() {
+        return graph.vertexIndex();
+    }
+
+    /**
+     * @return number of strongly connected components
+     */
+    public int componentCount() {
+        return componentCount;
+    }
+
+    /**
+     * @return array whose element v is the component of vertex number v in
+     *         {@link #vertexIndex()}; the array belongs to the caller
+     */
+    public int[] components() {
+        return components.clone();
+    }
+
+    /**
+     * @param vertex label of a vertex in the graph
+     * @return the component of vertex
+     * @throws IllegalArgumentException if vertex is not in the graph
+     */
+    public int componentOf(L vertex) {
+        int v = graph.indexOf(vertex);
+        if (v < 0) {
+            throw new IllegalArgumentException("Vertex " + vertex + " is not in the graph");
+        }
+        return components[v];
+    }
+
+    /**
+     * @param component a component number
+     * @return unmodifiable list of the labels of the vertices in component
+     * @throws IllegalArgumentException unless 0 <= component < componentCount()
+     */
+    public List<L> members(int component) {
+        if (component < 0 || component >= componentCount) {
+            throw new IllegalArgumentException("No component " + component);
+        }
+        int count = 0;
+        for (int c : components) {
+            if (c == component) {
+                count++;
+            }
+        }
+        final int[] members = new int[count];
+        for (int v = 0, i = 0; i < count; v++) {
+            if (components[v] == component) {
+                members[i++] = v;
+            }
+        }
+        return new AbstractList<>() {
+            @Override public L get(int i) {
+                return graph.label(members[i]);
+            }
+
+            @Override public int size() {
+                return members.length;
+            }
+        };
+    }
+
+    /**
+     * Build the condensation of the graph: the directed acyclic graph with a
+     * vertex for each component, and an edge from component c to a different
+     * component d whose weight is the total weight of the edges from vertices
+     * in c to vertices in d.
+     *
+     * @return a new mutable graph, from {@link Graph#empty()}, whose vertices
+     *         are the components 0..componentCount()-1
+     * @throws ArithmeticException if a total weight overflows an int
+     */
+    public Graph<Integer> condensation() {
+        final int n = graph.vertexCount();
+        final int[] offsets = graph.outOffsets();
+        final int[] targets = graph.outTargets();
+        final int[] weights = graph.outWeights();
+
+        // Group vertices by component with a counting sort
+        final int[] start = new int[componentCount + 1];
+        for (int c : components) {
+            start[c + 1]++;
+        }
+        for (int c = 0; c < componentCount; c++) {
+            start[c + 1] += start[c];
+        }
+        final int[] byComponent = new int[n];
+        final int[] fill = Arrays.copyOf(start, componentCount);
+        for (int v = 0; v < n; v++) {
+            byComponent[fill[components[v]]++] = v;
+        }
+
+        // Sum each component's outgoing edges per target component, in a
+        // sparse accumulator that is reset after each component
+        final int[] totals = new int[componentCount];
+        final int[] touched = new int[componentCount];
+        final EdgeBatch<Integer> batch = new EdgeBatch<>();
+        for (int c = 0; c < componentCount; c++) {
+            int touchedCount = 0;
+            for (int i = start[c]; i < start[c + 1]; i++) {
+                final int u = byComponent[i];
+                for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                    final int d = components[targets[k]];
+                    if (d == c) {
+                        continue;
+                    }
+                    if (totals[d] == 0) {
+                        touched[touchedCount++] = d;
+                    }
+                    totals[d] = Math.addExact(totals[d], weights[k]);
+                }
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                batch.add(c, touched[i], totals[touched[i]]);
+                totals[touched[i]] = 0;
+            }
+        }
+
+        List<Integer> vertices = new ArrayList<>(componentCount);
+        for (int c = 0; c < componentCount; c++) {
+            vertices.add(c);
+        }
+        Graph<Integer> dag = Graph.empty();
+        dag.addAll(vertices);
+        dag.setAll(batch);
+        return dag;
+    }
+
+    @Override public String toString() {
+        return "StronglyConnectedComponents{" + componentCount + " components of "
+                + graph.vertexCount() + " vertices}";
+    }
+
+}
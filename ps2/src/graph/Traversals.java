@@ -0,0 +1,304 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Lazy traversals of a graph.
+ *
+ * <p>Each method returns an Iterable whose iterators walk the graph on
+ * demand, reading neighbors through {@link Graph#targetsView(Object)} and
+ * {@link Graph#sourcesView(Object)} rather than copying them, so a caller
+ * that stops early on a depth-first or breadth-first traversal pays only for
+ * the vertices it has seen. Besides the set of vertices already seen, those
+ * iterators hold only their frontier: the queue for breadth-first, and the
+ * path of partly scanned neighbor iterators for depth-first. A topological
+ * iterator must count the remaining sources of every accepted vertex before
+ * producing the first one, so iterator() takes time and space linear in the
+ * accepted part of the graph. Each call to iterator() starts a new
+ * traversal.
+ *
+ * <p>An optional filter restricts a traversal to the vertices it accepts:
+ * rejected vertices are neither produced nor expanded, as if they and their
+ * edges were removed from the graph.
+ *
+ * <p>The graph must not be modified while an iterator is in use. Iterators
+ * do not support remove().
+ */
+public final class Traversals {
+
+    private Traversals() {
+        // static methods only
+    }
+
+    /**
+     * Traverse the vertices reachable from start in depth-first preorder.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to traverse
+     * @param start label of a vertex in the graph
+     * @return vertices reachable from start, each once, starting with start
+     * @throws IllegalArgumentException if start is not in the graph
+     */
+    public static <L> Iterable<L> depthFirst(Graph<L> graph, L start) {
+        return depthFirst(graph, start, vertex -> true);
+    }
+
+    /**
+     * Traverse the vertices reachable from start through accepted vertices,
+     * in depth-first preorder.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to traverse
+     * @param start label of a vertex in the graph
+     * @param filter accepts the vertices to visit
+     * @return accepted vertices reachable from start through accepted
+     *         vertices, each once, starting with start; empty if start is
+     *         not accepted
+     * @throws IllegalArgumentException if start is not in the graph
+     */
+    public static <L> Iterable<L> depthFirst(Graph<L> graph, L start, Predicate<? super L> filter) {
+        checkStart(graph, start, filter);
+        return () -> new DepthFirstIterator<>(graph, start, filter);
+    }
+
+    /**
+     * Traverse the vertices reachable from start in breadth-first order.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to traverse
+     * @param start label of a vertex in the graph
+     * @return vertices reachable from start, each once, in nondecreasing
+     *         order of hops from start
+     * @throws IllegalArgumentException if start is not in the graph
+     */
+    public static <L> Iterable<L> breadthFirst(Graph<L> graph, L start) {
+        return breadthFirst(graph, start, vertex -> true);
+    }
+
+    /**
+     * Traverse the vertices reachable from start through accepted vertices,
+     * in breadth-first order.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to traverse
+     * @param start label of a vertex in the graph
+     * @param filter accepts the vertices to visit
+     * @return accepted vertices reachable from start through accepted
+     *         vertices, each once, in nondecreasing order of hops from start;
+     *         empty if start is not accepted
+     * @throws IllegalArgumentException if start is not in the graph
+     */
+    public static <L> Iterable<L> breadthFirst(Graph<L> graph, L start, Predicate<? super L> filter) {
+        checkStart(graph, start, filter);
+        return () -> new BreadthFirstIterator<>(graph, start, filter);
+    }
+
+    /**
+     * Traverse all vertices in topological order, by Kahn's algorithm.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to traverse
+     * @return every vertex once, each before all of its targets; iterators
+     *         throw IllegalStateException from next() on reaching a cycle
+     */
+    public static <L> Iterable<L> topologicalOrder(Graph<L> graph) {
+        return topologicalOrder(graph, vertex -> true);
+    }
+
+    /**
+     * Traverse the accepted vertices in topological order of the subgraph
+     * they induce, by Kahn's algorithm.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to traverse
+     * @param filter accepts the vertices to visit
+     * @return every accepted vertex once, each before all of its accepted
+     *         targets; iterators throw IllegalStateException from next() on
+     *         reaching a cycle among accepted vertices
+     */
+    public static <L> Iterable<L> topologicalOrder(Graph<L> graph, Predicate<? super L> filter) {
+        if (graph == null || filter == null) {
+            throw new IllegalArgumentException("Graph and filter cannot be null");
+        }
+        return () -> new TopologicalIterator<>(graph, filter);
+    }
+
+    private static <L> void checkStart(Graph<L> graph, L start, Predicate<? super L> filter) {
+        if (graph == null || filter == null) {
+            throw new IllegalArgumentException("Graph and filter cannot be null");
+        }
+        if (!graph.verticesView().contains(start)) {
+            throw new IllegalArgumentException("Vertex " + start + " is not in the graph");
+        }
+    }
+
+    /**
+     * Depth-first preorder, keeping an iterator over the targets of each
+     * vertex on the current path.
+     */
+    private static final class DepthFirstIterator<L> implements Iterator<L> {
+
+        private final Graph<L> graph;
+        private final Predicate<? super L> filter;
+        private final Set<L> seen = new HashSet<>();
+        private final Deque<Iterator<L>> path = new ArrayDeque<>();
+        private L next;
+
+        DepthFirstIterator(Graph<L> graph, L start, Predicate<? super L> filter) {
+            this.graph = graph;
+            this.filter = filter;
+            if (filter.test(start)) {
+                seen.add(start);
+                next = start;
+            }
+        }
+
+        @Override public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            while (!path.isEmpty()) {
+                Iterator<L> targets = path.peek();
+                if (!targets.hasNext()) {
+                    path.pop();
+                    continue;
+                }
+                L target = targets.next();
+                if (filter.test(target) && seen.add(target)) {
+                    next = target;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override public L next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            L vertex = next;
+            next = null;
+            path.push(graph.targetsView(vertex).keySet().iterator());
+            return vertex;
+        }
+    }
+
+    /**
+     * Breadth-first order, keeping a queue of vertices produced but not yet
+     * expanded.
+     */
+    private static final class BreadthFirstIterator<L> implements Iterator<L> {
+
+        private final Graph<L> graph;
+        private final Predicate<? super L> filter;
+        private final Set<L> seen = new HashSet<>();
+        private final Deque<L> queue = new ArrayDeque<>();
+
+        BreadthFirstIterator(Graph<L> graph, L start, Predicate<? super L> filter) {
+            this.graph = graph;
+            this.filter = filter;
+            if (filter.test(start)) {
+                seen.add(start);
+                queue.add(start);
+            }
+        }
+
+        @Override public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override public L next() {
+            if (queue.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            L vertex = queue.remove();
+            for (L target : graph.targetsView(vertex).keySet()) {
+                if (filter.test(target) && seen.add(target)) {
+                    queue.add(target);
+                }
+            }
+            return vertex;
+        }
+    }
+
+    /**
+     * Kahn's algorithm: count the accepted sources of each accepted vertex,
+     * then repeatedly produce a vertex with no sources left and discount its
+     * targets.
+     */
+    private static final class TopologicalIterator<L> implements Iterator<L> {
+
+        private final Graph<L> graph;
+        private final Predicate<? super L> filter;
+        private final Map<L, Integer> remainingSources = new HashMap<>();
+        private final Deque<L> ready = new ArrayDeque<>();
+        private int remaining;
+
+        TopologicalIterator(Graph<L> graph, Predicate<? super L> filter) {
+            this.graph = graph;
+            this.filter = filter;
+            for (L vertex : graph.verticesView()) {
+                if (!filter.test(vertex)) {
+                    continue;
+                }
+                remaining++;
+                int sources = 0;
+                for (L source : graph.sourcesView(vertex).keySet()) {
+                    if (filter.test(source)) {
+                        sources++;
+                    }
+                }
+                if (sources == 0) {
+                    ready.add(vertex);
+                } else {
+                    remainingSources.put(vertex, sources);
+                }
+            }
+        }
+
+        @Override public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        /**
+         * @throws IllegalStateException if the remaining vertices all lie on
+         *         or after a cycle
+         */
+        @Override public L next() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            if (ready.isEmpty()) {
+                throw new IllegalStateException("Graph has a cycle through " + remainingSources.keySet());
+            }
+            L vertex = ready.remove();
+            remaining--;
+            for (L target : graph.targetsView(vertex).keySet()) {
+                Integer sources = remainingSources.get(target);
+                if (sources == null) {
+                    // rejected by the filter
+                    continue;
+                }
+                if (sources == 1) {
+                    remainingSources.remove(target);
+                    ready.add(target);
+                } else {
+                    remainingSources.put(target, sources - 1);
+                }
+            }
+            return vertex;
+        }
+    }
+
+}
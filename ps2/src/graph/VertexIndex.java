@@ -0,0 +1,98 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable dense numbering of a set of vertex labels: each label gets a
+ * distinct number in 0..size()-1, so per-vertex data can be kept in primitive
+ * arrays indexed by vertex number.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public final class VertexIndex<L> {
+
+    private final Object[] labels;
+    private final Map<L, Integer> numbers;
+    private final Set<L> labelsView;
+
+    // Abstraction function:
+    //   AF(labels, numbers) = the numbering where labels[i] has number i
+    // Representation invariant:
+    //   labels are non-null and distinct
+    //   numbers maps labels[i] to i, and has no other keys
+    // Safety from rep exposure:
+    //   all fields are private and final, and never mutated after
+    //   construction; labels() returns an unmodifiable view
+
+    /**
+     * Number a collection of labels, in iteration order.
+     *
+     * @param labels distinct, non-null labels; not modified
+     */
+    public VertexIndex(Collection<? extends L> labels) {
+        this.labels = new Object[labels.size()];
+        this.numbers = new HashMap<>(labels.size() * 4 / 3 + 1);
+        for (L label : labels) {
+            if (label == null) {
+                throw new IllegalArgumentException("Label cannot be null");
+            }
+            if (numbers.putIfAbsent(label, numbers.size()) != null) {
+                throw new IllegalArgumentException("Duplicate label " + label);
+            }
+            this.labels[numbers.size() - 1] = label;
+        }
+        this.labelsView = Collections.unmodifiableSet(numbers.keySet());
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert numbers.size() == labels.length;
+        for (int i = 0; i < labels.length; i++) {
+            assert labels[i] != null && numbers.get(labels[i]) == i;
+        }
+    }
+
+    /**
+     * @return number of labels
+     */
+    public int size() {
+        return labels.length;
+    }
+
+    /**
+     * @param label a label, or null
+     * @return the number of label, or -1 if it is not in this index
+     */
+    public int indexOf(Object label) {
+        Integer i = label == null ? null : numbers.get(label);
+        return i == null ? -1 : i;
+    }
+
+    /**
+     * @param i a number, requires 0 <= i < size()
+     * @return the label with number i
+     */
+    @SuppressWarnings("unchecked")
+    public L label(int i) {
+        return (L) labels[i];
+    }
+
+    /**
+     * @return an unmodifiable view of the labels in this index
+     */
+    public Set<L> labels() {
+        return labelsView;
+    }
+
+    @Override public String toString() {
+        return "VertexIndex" + numbers;
+    }
+
+}
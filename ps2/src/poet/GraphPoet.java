@@ -12,6 +12,7 @@ import java.util.List;
 import java.util.Map;
 
 import graph.Graph;
+import graph.GraphBuilder;
 
 /**
  * A graph-based poetry generator.
@@ -57,7 +58,7 @@ import graph.Graph;
  */
 public class GraphPoet {
     
-    private final Graph<String> graph = Graph.empty();
+    private final Graph<String> graph;
 
     // Abstraction function:
     //   AF(graph) = a poetry generator where graph represents word affinity
@@ -89,7 +90,7 @@ public class GraphPoet {
                 text.append(line).append(" ");
             }
         }
-        buildGraphFromText(text.toString());
+        graph = buildGraphFromText(text.toString());
         checkRep();
     }
 
@@ -99,7 +100,7 @@ public class GraphPoet {
      * @param corpus text from which to derive the poet's affinity graph
      */
     public GraphPoet(String corpus) {
-        buildGraphFromText(corpus);
+        graph = buildGraphFromText(corpus);
         checkRep();
     }
 
@@ -108,7 +109,7 @@ public class GraphPoet {
      */
     private void checkRep() {
         // Verify all vertices are lowercase and properly formatted
-        for (String vertex : graph.vertices()) {
+        for (String vertex : graph.verticesView()) {
             assert vertex != null;
             assert !vertex.isEmpty() : "vertex cannot be empty";
             assert vertex.equals(vertex.toLowerCase()) : "vertex must be lowercase";
@@ -121,10 +122,18 @@ public class GraphPoet {
     /**
      * Build the affinity graph from corpus text.
      * @param corpusText the text to process
+     * @return the affinity graph of corpusText
      */
-    private void buildGraphFromText(String corpusText) {
+    private Graph<String> buildGraphFromText(String corpusText) {
         List<String> words = extractWords(corpusText);
 
+        // Sized for every word being distinct; poem() then only reads the views
+        Graph<String> graph = GraphBuilder.forLabels(String.class)
+                .expectedVertices(words.size())
+                .expectedEdges(Math.max(words.size() - 1, 0))
+                .workload(GraphBuilder.Workload.READ_MOSTLY)
+                .build();
+
         // Add all words as vertices
         for (String word : words) {
             graph.add(word.toLowerCase());
@@ -135,13 +144,10 @@ public class GraphPoet {
             String current = words.get(i).toLowerCase();
             String next = words.get(i + 1).toLowerCase();
 
-            // Get current edge weight and increment by 1
-            int currentWeight = graph.set(current, next, 1);
-            if (currentWeight > 0) {
-                // Edge already existed, increment its weight
-                graph.set(current, next, currentWeight + 1);
-            }
+            // Count the bigram: add 1 to the edge weight, creating the edge
+            graph.increment(current, next, 1);
         }
+        return graph;
     }
 
     /**
@@ -209,8 +215,8 @@ public class GraphPoet {
      * @return the best bridge word (lowercase), or null if none exists
      */
     private String findBestBridge(String word1, String word2) {
-        Map<String, Integer> targetsFromWord1 = graph.targets(word1);
-        Map<String, Integer> sourcesToWord2 = graph.sources(word2);
+        Map<String, Integer> targetsFromWord1 = graph.targetsView(word1);
+        Map<String, Integer> sourcesToWord2 = graph.sourcesView(word2);
 
         String bestBridge = null;
         int maxWeight = 0;
@@ -5,6 +5,11 @@ package graph;
 
 import static org.junit.Assert.*;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
 import org.junit.Test;
 
 /**
@@ -96,6 +101,79 @@ public class ConcreteEdgesGraphTest extends GraphInstanceTest {
                 result.contains("->") || result.contains("edges"));
     }
 
+    // Testing strategy for the adjacency indexes of ConcreteEdgesGraph
+    // - Random sequence of set() (add, update, remove edge) and remove(vertex),
+    //   including self-loops, compared against a simple map-of-maps model
+    //   through sources() and targets(), and validated with the full checkRep()
+    // - verticesView(), targetsView() and sourcesView() reflect later changes,
+    //   and repeated calls return the same view object
+
+    @Test
+    public void testRandomOperationsMatchModel() {
+        ConcreteEdgesGraph<String> graph = new ConcreteEdgesGraph<>();
+        Map<String, Map<String, Integer>> model = new HashMap<>();
+        Random random = new Random(6005);
+        final int labels = 12;
+
+        for (int step = 0; step < 3000; step++) {
+            String source = "v" + random.nextInt(labels);
+            String target = "v" + random.nextInt(labels);
+            if (random.nextInt(10) == 0) {
+                boolean expected = model.containsKey(source);
+                model.remove(source);
+                for (Map<String, Integer> targets : model.values()) {
+                    targets.remove(source);
+                }
+                assertEquals("expected remove result to match model", expected, graph.remove(source));
+            } else {
+                int weight = random.nextInt(4);
+                model.computeIfAbsent(source, v -> new HashMap<>());
+                model.computeIfAbsent(target, v -> new HashMap<>());
+                Integer previous = weight == 0
+                        ? model.get(source).remove(target)
+                        : model.get(source).put(target, weight);
+                assertEquals("expected previous weight to match model",
+                        previous == null ? 0 : (int) previous, graph.set(source, target, weight));
+            }
+        }
+
+        graph.checkRep();
+        assertEquals("expected vertices to match model", model.keySet(), graph.vertices());
+        for (String vertex : model.keySet()) {
+            assertEquals("expected targets to match model", model.get(vertex), graph.targets(vertex));
+            Map<String, Integer> sources = new HashMap<>();
+            for (String source : model.keySet()) {
+                if (model.get(source).containsKey(vertex)) {
+                    sources.put(source, model.get(source).get(vertex));
+                }
+            }
+            assertEquals("expected sources to match model", sources, graph.sources(vertex));
+        }
+    }
+
+    @Test
+    public void testViewsAreLive() {
+        ConcreteEdgesGraph<String> graph = new ConcreteEdgesGraph<>();
+        graph.set("A", "B", 1);
+        Set<String> vertices = graph.verticesView();
+        Map<String, Integer> targets = graph.targetsView("A");
+        Map<String, Integer> sources = graph.sourcesView("B");
+
+        graph.set("A", "C", 2);
+        graph.set("C", "B", 3);
+        graph.set("A", "B", 4);
+        assertEquals("expected vertices view to see new vertex", Set.of("A", "B", "C"), vertices);
+        assertEquals("expected targets view to see new edges", Map.of("B", 4, "C", 2), targets);
+        assertEquals("expected sources view to see new edges", Map.of("A", 4, "C", 3), sources);
+
+        graph.remove("C");
+        assertEquals("expected vertices view to drop removed vertex", Set.of("A", "B"), vertices);
+        assertEquals("expected targets view to drop removed target", Map.of("B", 4), targets);
+        assertEquals("expected sources view to drop removed source", Map.of("A", 4), sources);
+        assertSame("expected targets view reused", targets, graph.targetsView("A"));
+        assertSame("expected sources view reused", sources, graph.sourcesView("B"));
+    }
+
     /*
      * Testing Edge...
      */
@@ -6,6 +6,7 @@ package graph;
 import static org.junit.Assert.*;
 
 import java.util.Map;
+import java.util.Set;
 
 import org.junit.Test;
 
@@ -102,6 +103,134 @@ public class ConcreteVerticesGraphTest extends GraphInstanceTest {
         assertContainsExpectedElements(result, VERTEX_A, VERTEX_B, VERTEX_C);
     }
 
+    // Testing strategy for the label index of ConcreteVerticesGraph
+    // - Many vertices and edges, then lookups via targets() and remove(),
+    //   validated with the full checkRep()
+    // - toString() lists vertices in insertion order, also after removals
+    // - verticesView(), targetsView() and sourcesView() reflect later changes
+    //
+    // Testing strategy for ConcreteVerticesGraph(expectedVertices, expectedEdges)
+    // - expected counts negative, 0, smaller than actual, larger, with an
+    //   expected degree below and above the default map capacity
+    //
+    // Testing strategy for ConcreteVerticesGraph.setAll()
+    // - batch adds new vertices, some only through zero weights, into an
+    //   empty graph and a non-empty one: same vertices, edges and toString()
+    //   order as one set() per edge, and live views still live
+    // - new vertex with more batch edges than the default map capacity
+
+    @Test
+    public void testManyVerticesIndexed() {
+        ConcreteVerticesGraph<String> graph = new ConcreteVerticesGraph<>();
+        final int n = 2000;
+        for (int i = 0; i < n; i++) {
+            graph.set("v" + i, "v" + ((i + 1) % n), i + 1);
+        }
+
+        graph.checkRep();
+        assertEquals("expected all vertices", n, graph.vertices().size());
+        assertEquals("expected edge found through index",
+                Map.of("v0", n), graph.targets("v" + (n - 1)));
+        assertTrue("expected vertex removed", graph.remove("v7"));
+        assertFalse("expected removed vertex gone from index", graph.remove("v7"));
+        assertTrue("expected edge into removed vertex gone", graph.targets("v6").isEmpty());
+        assertEquals("expected re-added vertex to be new", 0, graph.set("v7", "v8", 1));
+        graph.checkRep();
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeExpectedEdges() {
+        new ConcreteVerticesGraph<String>(10, -1);
+    }
+
+    @Test
+    public void testExpectedSizes() {
+        int[][] sizes = {{0, 0}, {10, 10}, {100, 10000}, {10000, 5}};
+        for (int[] size : sizes) {
+            ConcreteVerticesGraph<Integer> graph = new ConcreteVerticesGraph<>(size[0], size[1]);
+            for (int i = 0; i < 100; i++) {
+                for (int j = 0; j < 20; j++) {
+                    graph.set(i, (i + j) % 100, j + 1);
+                }
+            }
+            graph.checkRep();
+            assertEquals("expected all vertices", 100, graph.vertices().size());
+            assertEquals("expected all targets", 20, graph.targets(7).size());
+            assertEquals("expected all sources", 20, graph.sources(7).size());
+        }
+    }
+
+    @Test
+    public void testViewsAreLive() {
+        ConcreteVerticesGraph<String> graph = new ConcreteVerticesGraph<>();
+        graph.set("A", "B", 1);
+        Set<String> vertices = graph.verticesView();
+        Map<String, Integer> targets = graph.targetsView("A");
+        Map<String, Integer> sources = graph.sourcesView("B");
+
+        graph.set("A", "C", 2);
+        graph.set("C", "B", 3);
+        graph.set("A", "B", 4);
+        assertEquals("expected vertices view to see new vertex", Set.of("A", "B", "C"), vertices);
+        assertEquals("expected targets view to see new edges", Map.of("B", 4, "C", 2), targets);
+        assertEquals("expected sources view to see new edges", Map.of("A", 4, "C", 3), sources);
+
+        graph.remove("C");
+        assertEquals("expected vertices view to drop removed vertex", Set.of("A", "B"), vertices);
+        assertEquals("expected targets view to drop removed target", Map.of("B", 4), targets);
+        assertEquals("expected sources view to drop removed source", Map.of("A", 4), sources);
+    }
+
+    @Test
+    public void testSetAllMatchesSets() {
+        for (boolean empty : new boolean[] {true, false}) {
+            ConcreteVerticesGraph<String> batched = new ConcreteVerticesGraph<>();
+            ConcreteVerticesGraph<String> sequential = new ConcreteVerticesGraph<>();
+            if (!empty) {
+                batched.set(VERTEX_X, VERTEX_A, WEIGHT_5);
+                sequential.set(VERTEX_X, VERTEX_A, WEIGHT_5);
+            }
+            Set<String> vertices = batched.verticesView();
+            Map<String, Integer> targets = batched.targetsView(VERTEX_X);
+
+            EdgeBatch<String> batch = new EdgeBatch<String>()
+                    .add(VERTEX_C, VERTEX_B, 0)
+                    .add(VERTEX_X, VERTEX_B, WEIGHT_10)
+                    .add(VERTEX_A, VERTEX_C, WEIGHT_15);
+            for (int i = 0; i < 50; i++) {
+                batch.add("hub", "leaf" + i, i + 1);
+            }
+            batched.setAll(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                sequential.set(batch.source(i), batch.target(i), batch.weight(i));
+            }
+
+            batched.checkRep();
+            assertEquals("expected same string as sequential sets", sequential.toString(), batched.toString());
+            assertEquals("expected vertices view to see batch", sequential.vertices(), vertices);
+            assertEquals("expected zero-weight vertex without edges", Map.of(), batched.targets(VERTEX_C));
+            assertEquals("expected all hub targets", 50, batched.targets("hub").size());
+            assertEquals("expected targets view to see batch",
+                    empty ? Map.of() : Map.of(VERTEX_A, WEIGHT_5, VERTEX_B, WEIGHT_10), targets);
+        }
+    }
+
+    @Test
+    public void testToStringInsertionOrder() {
+        ConcreteVerticesGraph<String> graph = new ConcreteVerticesGraph<>();
+        graph.add(VERTEX_X);
+        graph.add(VERTEX_C);
+        graph.set(VERTEX_B, VERTEX_A, WEIGHT_5);
+        graph.remove(VERTEX_C);
+
+        String result = graph.toString();
+        int x = result.indexOf(VERTEX_X + ":");
+        int b = result.indexOf(VERTEX_B + ":");
+        int a = result.indexOf(VERTEX_A + ":");
+        assertTrue("expected vertices in insertion order", 0 <= x && x < b && b < a);
+        assertFalse("expected removed vertex not shown", result.contains(VERTEX_C + ":"));
+    }
+
     /*
      * Testing Vertex...
      */
@@ -408,6 +537,63 @@ public class ConcreteVerticesGraphTest extends GraphInstanceTest {
         assertVertexDoesNotHaveTarget(vertex, "hub");
     }
 
+    // Testing strategy for Vertex incoming edges
+    // setSource(source, weight), removeSource(source), getSourceWeight(source):
+    // - Source: null, non-existent, existing
+    // - Weight: zero, positive; existing edge with different weight
+    // getSources():
+    // - Mutation safety: returned map should be defensive copy
+    // Through the graph: sources() after set() and remove() of a neighbor
+
+    @Test
+    public void testVertexSetSourceAndUpdate() {
+        Vertex<String> vertex = createVertex(VERTEX_A);
+
+        assertEquals("should return 0 for new incoming edge", 0, vertex.setSource(VERTEX_B, WEIGHT_5));
+        assertEquals("should return previous weight", WEIGHT_5, vertex.setSource(VERTEX_B, WEIGHT_10));
+        assertEquals("should have updated weight", WEIGHT_10, vertex.getSourceWeight(VERTEX_B));
+        assertEquals("should not record incoming edge as outgoing", 0, vertex.getTargetWeight(VERTEX_B));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testVertexSetSourceZeroWeight() {
+        createVertex(VERTEX_A).setSource(VERTEX_B, 0);
+    }
+
+    @Test
+    public void testVertexRemoveSource() {
+        Vertex<String> vertex = createVertex(VERTEX_A);
+        vertex.setSource(VERTEX_B, WEIGHT_5);
+
+        assertEquals("should return 0 for null source", 0, vertex.removeSource(null));
+        assertEquals("should return 0 for non-existent source", 0, vertex.removeSource(VERTEX_C));
+        assertEquals("should return removed weight", WEIGHT_5, vertex.removeSource(VERTEX_B));
+        assertTrue("should have no sources", vertex.getSources().isEmpty());
+    }
+
+    @Test
+    public void testVertexGetSourcesDefensiveCopy() {
+        Vertex<String> vertex = createVertex(VERTEX_A);
+        vertex.setSource(VERTEX_B, WEIGHT_5);
+        vertex.getSources().clear();
+
+        assertEquals("internal sources should be unchanged", WEIGHT_5, vertex.getSourceWeight(VERTEX_B));
+    }
+
+    @Test
+    public void testSourcesAfterNeighborRemoved() {
+        ConcreteVerticesGraph<String> graph = createGraphWithEdges();
+        graph.set(VERTEX_C, VERTEX_A, WEIGHT_15);
+        graph.remove(VERTEX_B);
+
+        assertEquals("removed source should be gone from sources",
+                Map.of(VERTEX_A, WEIGHT_10), graph.sources(VERTEX_C));
+        assertTrue("removed target should be gone from targets",
+                graph.targets(VERTEX_A).equals(Map.of(VERTEX_C, WEIGHT_10)));
+        assertEquals("unrelated incoming edge should remain",
+                Map.of(VERTEX_C, WEIGHT_15), graph.sources(VERTEX_A));
+    }
+
     // Helper methods to reduce duplication and improve readability
 
     private ConcreteVerticesGraph<String> createGraphWithEdges() {
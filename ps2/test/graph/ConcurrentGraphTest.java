@@ -0,0 +1,251 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests for ConcurrentGraph.
+ * <p>
+ * This class runs the GraphInstanceTest tests against ConcurrentGraph, as
+ * well as tests for that particular implementation.
+ * <p>
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class ConcurrentGraphTest extends GraphInstanceTest {
+
+    private static final int THREADS = 16;
+
+    /*
+     * Provide a ConcurrentGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new ConcurrentGraph<>();
+    }
+
+    /*
+     * Testing ConcurrentGraph...
+     */
+
+    // Testing strategy for ConcurrentGraph
+    //
+    // Constructor:
+    // - concurrencyLevel: 0, 1, large
+    // - expectedVertices: negative, 0, smaller than actual, larger
+    //
+    // Concurrent use, with THREADS threads started together:
+    // - set() on disjoint edges: every edge present afterwards
+    // - set() on the same edge: every previous weight returned is one that
+    //   some thread wrote, and targets and sources agree afterwards
+    // - increment() on the same edges: no increment is lost
+    // - set() racing remove(): rep invariant holds afterwards, validated
+    //   with the full checkRep()
+    // - increment() from every thread racing remove() of other vertices:
+    //   rep invariant holds, and no increment of an edge whose endpoints
+    //   are never removed is lost
+    // - iterating views while other threads call set(): no exception
+
+    /**
+     * Run task(i) on THREADS threads for i in 0..THREADS-1, starting them
+     * together, and rethrow the first failure.
+     */
+    private static void runConcurrently(ThreadTask task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            final int id = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    task.run(id);
+                } catch (Throwable t) {
+                    synchronized (failures) {
+                        failures.add(t);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError("thread failed", failures.get(0));
+        }
+    }
+
+    /** Work done by one thread of runConcurrently. */
+    private interface ThreadTask {
+        void run(int id) throws Exception;
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testZeroConcurrencyLevel() {
+        new ConcurrentGraph<String>(0);
+    }
+
+    @Test
+    public void testConcurrencyLevels() {
+        for (int level : new int[] {1, 1 << 20}) {
+            ConcurrentGraph<String> graph = new ConcurrentGraph<>(level);
+            assertEquals("expected no previous edge", 0, graph.set("A", "B", 1));
+            assertEquals("expected previous weight", 1, graph.set("A", "B", 2));
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeExpectedVertices() {
+        new ConcurrentGraph<String>(1, -1);
+    }
+
+    @Test
+    public void testExpectedVertices() {
+        for (int expected : new int[] {0, 10, 10000}) {
+            ConcurrentGraph<Integer> graph = new ConcurrentGraph<>(4, expected);
+            for (int i = 0; i < 1000; i++) {
+                graph.set(i, (i + 1) % 1000, 1);
+            }
+            graph.checkRep();
+            assertEquals("expected all vertices", 1000, graph.vertices().size());
+        }
+    }
+
+    @Test
+    public void testConcurrentDisjointSets() throws InterruptedException {
+        ConcurrentGraph<Integer> graph = new ConcurrentGraph<>();
+        final int perThread = 2000;
+        runConcurrently(id -> {
+            for (int i = 0; i < perThread; i++) {
+                assertEquals(0, graph.set(id, 1000 + i, id + 1));
+            }
+        });
+
+        graph.checkRep();
+        for (int id = 0; id < THREADS; id++) {
+            assertEquals("expected all edges of thread", perThread, graph.targets(id).size());
+        }
+        assertEquals("expected every thread as a source", THREADS, graph.sources(1000).size());
+    }
+
+    @Test
+    public void testConcurrentSameEdges() throws InterruptedException {
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        final int perThread = 5000;
+        AtomicInteger removed = new AtomicInteger();
+        runConcurrently(id -> {
+            for (int i = 0; i < perThread; i++) {
+                // even threads set the edge to weight id + 1, odd threads remove it
+                int previous = graph.set("A", "B", id % 2 == 0 ? id + 1 : 0);
+                assertTrue("expected a weight some thread wrote",
+                        previous == 0 || (previous - 1) % 2 == 0 && previous <= THREADS);
+                if (id % 2 == 1 && previous != 0) {
+                    removed.incrementAndGet();
+                }
+            }
+        });
+
+        graph.checkRep();
+        assertTrue("expected some removals to see an edge", removed.get() > 0);
+        Map<String, Integer> targets = graph.targets("A");
+        assertEquals("expected targets and sources to agree", targets.get("B"), graph.sources("B").get("A"));
+    }
+
+    @Test
+    public void testConcurrentIncrements() throws InterruptedException {
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        final int perThread = 5000;
+        runConcurrently(id -> {
+            for (int i = 0; i < perThread; i++) {
+                graph.increment("A", i % 2 == 0 ? "B" : "A", 1);
+            }
+        });
+
+        graph.checkRep();
+        assertEquals("expected every increment counted",
+                Map.of("A", THREADS * perThread / 2, "B", THREADS * perThread / 2), graph.targets("A"));
+    }
+
+    @Test
+    public void testConcurrentSetAndRemove() throws InterruptedException {
+        ConcurrentGraph<Integer> graph = new ConcurrentGraph<>();
+        final int labels = 50;
+        runConcurrently(id -> {
+            for (int i = 0; i < 5000; i++) {
+                int source = (i * 7 + id) % labels;
+                int target = (i * 13 + id * 3) % labels;
+                if (id % 4 == 0 && i % 10 == 0) {
+                    graph.remove(source);
+                } else {
+                    graph.set(source, target, 1 + i % 3);
+                }
+            }
+        });
+
+        graph.checkRep();
+    }
+
+    @Test
+    public void testConcurrentIncrementsAndRemoves() throws InterruptedException {
+        ConcurrentGraph<Integer> graph = new ConcurrentGraph<>(4);
+        final int perThread = 5000;
+        final int kept = 100;
+        runConcurrently(id -> {
+            for (int i = 0; i < perThread; i++) {
+                // vertices below kept are never removed; those above are
+                // removed by one thread in four while the others add edges to them
+                graph.increment(id, (id * perThread + i) % kept, 1);
+                if (id % 4 == 0) {
+                    graph.remove(kept + i % 10);
+                } else {
+                    graph.increment(kept + i % 10, i % kept, 1);
+                }
+            }
+        });
+
+        graph.checkRep();
+        long total = 0;
+        for (int id = 0; id < THREADS; id++) {
+            for (int weight : graph.targets(id).values()) {
+                total += weight;
+            }
+        }
+        assertEquals("expected every increment between kept vertices counted",
+                (long) THREADS * perThread, total);
+    }
+
+    @Test
+    public void testIterateViewsDuringSets() throws InterruptedException {
+        ConcurrentGraph<Integer> graph = new ConcurrentGraph<>();
+        runConcurrently(id -> {
+            for (int i = 0; i < 2000; i++) {
+                if (id % 2 == 0) {
+                    graph.set(0, i, id + 1);
+                } else {
+                    long sum = 0;
+                    for (int weight : graph.targetsView(0).values()) {
+                        sum += weight;
+                    }
+                    for (int vertex : graph.verticesView()) {
+                        sum += vertex;
+                    }
+                    assertTrue(sum >= 0);
+                }
+            }
+        });
+
+        graph.checkRep();
+        assertEquals("expected every target", 2000, graph.targets(0).size());
+    }
+}
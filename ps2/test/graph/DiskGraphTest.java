@@ -0,0 +1,330 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests for DiskGraph.
+ * <p>
+ * This class runs the GraphInstanceTest tests against DiskGraph, with a
+ * small cache and compactions every few changes, as well as tests for that
+ * particular implementation.
+ * <p>
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class DiskGraphTest extends GraphInstanceTest {
+
+    private static final List<Path> DIRECTORIES = new ArrayList<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (Path directory : DIRECTORIES) {
+                try (Stream<Path> files = Files.walk(directory)) {
+                    files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+                } catch (IOException e) {
+                    // leave it for the operating system
+                }
+            }
+        }));
+    }
+
+    /**
+     * @return a new empty directory, deleted when the JVM exits
+     */
+    private static synchronized Path tempDirectory() {
+        try {
+            Path directory = Files.createTempDirectory("diskgraph");
+            DIRECTORIES.add(directory);
+            return directory;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private final List<DiskGraph<String>> instances = new ArrayList<>();
+
+    /*
+     * Provide a DiskGraph for tests in GraphInstanceTest, closed after the
+     * test.
+     */
+    @Override public Graph<String> emptyInstance() {
+        try {
+            DiskGraph<String> graph = DiskGraph.open(tempDirectory(), LabelCodec.strings(), 4, 3);
+            instances.add(graph);
+            return graph;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * Close the log and stop the compaction thread of every graph from
+     * emptyInstance().
+     */
+    @After
+    public void closeInstances() throws IOException {
+        for (DiskGraph<String> graph : instances) {
+            graph.close();
+        }
+    }
+
+    /*
+     * Testing DiskGraph...
+     */
+
+    // Testing strategy for DiskGraph
+    //
+    // open():
+    // - directory new, empty, or holding a closed graph; null arguments,
+    //   negative cache size, zero compaction threshold
+    // - graph closed with changes in its log only, in a segment only, or both
+    // - log ends with a cut-off record; segment file corrupt
+    //
+    // compaction:
+    // - started by the threshold in the background, or by compact()
+    // - threshold reached again while a compaction runs: the change waits
+    // - merges additions, changes and removals of edges, removals of
+    //   vertices, and vertices removed and added again
+    // - old segments and logs deleted afterwards
+    //
+    // cache: size 0, smaller than a row, larger than the graph
+    //
+    // random changes checked against ConcreteVerticesGraph, with the full
+    // checkRep(), across compactions and reopening
+    //
+    // close(): twice; methods after close()
+
+    private static <L> void assertSameGraph(Graph<L> expected, Graph<L> actual) {
+        assertEquals("expected same vertices", expected.vertices(), actual.vertices());
+        for (L vertex : expected.vertices()) {
+            assertEquals("expected same targets of " + vertex, expected.targets(vertex), actual.targets(vertex));
+            assertEquals("expected same sources of " + vertex, expected.sources(vertex), actual.sources(vertex));
+        }
+    }
+
+    /**
+     * @return names of the files in directory
+     */
+    private static Set<String> files(Path directory) throws IOException {
+        Set<String> names = new TreeSet<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> names.add(file.getFileName().toString()));
+        }
+        return names;
+    }
+
+    @Test
+    public void testReopenFromLog() throws IOException {
+        Path directory = tempDirectory();
+        try (DiskGraph<String> graph = DiskGraph.open(directory, LabelCodec.strings())) {
+            graph.set("a", "b", 1);
+            graph.set("b", "c", 2);
+            graph.add("lonely");
+            graph.increment("a", "b", 5);
+        }
+        assertEquals("expected only a log", Set.of("log-0"), files(directory));
+
+        try (DiskGraph<String> graph = DiskGraph.open(directory, LabelCodec.strings())) {
+            assertEquals("expected vertices", Set.of("a", "b", "c", "lonely"), graph.vertices());
+            assertEquals("expected incremented edge", Map.of("b", 6), graph.targets("a"));
+            assertEquals("expected sources", Map.of("b", 2), graph.sources("c"));
+            graph.checkRep();
+        }
+    }
+
+    @Test
+    public void testCompactAndReopen() throws IOException {
+        Path directory = tempDirectory();
+        Graph<String> expected = Graph.empty();
+        try (DiskGraph<String> graph = DiskGraph.open(directory, LabelCodec.strings())) {
+            for (Graph<String> g : List.of(expected, graph)) {
+                g.set("a", "b", 1);
+                g.set("a", "c", 2);
+                g.set("c", "a", 3);
+                g.set("c", "c", 4);
+                g.add("gone");
+                g.set("gone", "a", 5);
+            }
+            graph.compact();
+            assertEquals("expected one segment and an empty log", Set.of("log-1", "segment-1"), files(directory));
+            assertSameGraph(expected, graph);
+
+            for (Graph<String> g : List.of(expected, graph)) {
+                g.set("a", "b", 0);
+                g.set("a", "c", 7);
+                g.remove("gone");
+                g.set("c", "gone", 8);
+            }
+            assertSameGraph(expected, graph);
+            graph.compact();
+            assertSameGraph(expected, graph);
+            graph.checkRep();
+        }
+        try (DiskGraph<String> graph = DiskGraph.open(directory, LabelCodec.strings())) {
+            assertSameGraph(expected, graph);
+        }
+        assertEquals("expected segment and an empty log", Set.of("log-2", "segment-2"), files(directory));
+    }
+
+    @Test
+    public void testReopenSegmentAndLog() throws IOException {
+        Path directory = tempDirectory();
+        try (DiskGraph<String> graph = DiskGraph.open(directory, LabelCodec.strings())) {
+            graph.set("a", "b", 1);
+            graph.compact();
+            graph.set("b", "a", 2);
+            graph.remove("a");
+            graph.set("a", "b", 3);
+        }
+        try (DiskGraph<String> graph = DiskGraph.open(directory, LabelCodec.strings())) {
+            assertEquals("expected re-added vertex with new edge", Map.of("b", 3), graph.targets("a"));
+            assertEquals("expected removed edge gone", Map.of(), graph.targets("b"));
+            graph.compact();
+            assertEquals("expected edge after compaction", Map.of("a", 3), graph.sources("b"));
+        }
+    }
+
+    @Test
+    public void testLiveChangesBounded() throws IOException {
+        Path directory = tempDirectory();
+        try (DiskGraph<Integer> graph = DiskGraph.open(directory, LabelCodec.integers(), 0, 10)) {
+            for (int i = 0; i < 2000; i++) {
+                graph.set(i % 300, (i * 7) % 300, 1 + i);
+                graph.checkRep();
+            }
+            assertEquals("expected last edge", Map.of(1999 * 7 % 300, 2000), graph.targets(1999 % 300));
+        }
+    }
+
+    @Test
+    public void testRandomAgainstMemoryGraph() throws IOException {
+        Path directory = tempDirectory();
+        Random random = new Random(6005);
+        Graph<Integer> expected = Graph.empty();
+        DiskGraph<Integer> graph = DiskGraph.open(directory, LabelCodec.integers(), 50, 200);
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 2000; i++) {
+                int source = random.nextInt(100);
+                int target = random.nextInt(100);
+                int choice = random.nextInt(10);
+                if (choice == 0) {
+                    assertEquals("expected same result of remove", expected.remove(source), graph.remove(source));
+                } else if (choice < 3) {
+                    assertEquals("expected same result of increment",
+                            expected.increment(source, target, 1), graph.increment(source, target, 1));
+                } else {
+                    // the spec leaves the graph unchanged when weight is 0, but
+                    // ConcreteVerticesGraph adds the vertices
+                    boolean bothPresent = expected.vertices().containsAll(List.of(source, target));
+                    int weight = bothPresent ? random.nextInt(4) : 1 + random.nextInt(3);
+                    assertEquals("expected same result of set",
+                            expected.set(source, target, weight), graph.set(source, target, weight));
+                }
+            }
+            assertSameGraph(expected, graph);
+            graph.checkRep();
+            graph.close();
+            graph = DiskGraph.open(directory, LabelCodec.integers(), 50, 200);
+            assertSameGraph(expected, graph);
+        }
+        graph.close();
+    }
+
+    @Test
+    public void testCacheSizes() throws IOException {
+        for (int cacheEdges : new int[] {0, 3, 1000}) {
+            try (DiskGraph<Integer> graph = DiskGraph.open(tempDirectory(), LabelCodec.integers(), cacheEdges, 1000)) {
+                for (int i = 0; i < 20; i++) {
+                    graph.set(0, i, i + 1);
+                    graph.set(i, (i + 1) % 20, 1);
+                }
+                graph.compact();
+                for (int i = 0; i < 20; i++) {
+                    assertEquals("expected targets of hub", 20, graph.targets(0).size());
+                    assertEquals("expected sources of " + i, i == 0 ? 2 : i == 1 ? 1 : 2, graph.sources(i).size());
+                }
+                assertEquals("expected edge found in segment", 8, graph.set(0, 7, 9));
+                graph.checkRep();
+            }
+        }
+    }
+
+    @Test
+    public void testCutOffLog() throws IOException {
+        Path directory = tempDirectory();
+        try (DiskGraph<String> graph = DiskGraph.open(directory, LabelCodec.strings())) {
+            graph.set("a", "b", 1);
+        }
+        try (OutputStream out = Files.newOutputStream(directory.resolve("log-0"), StandardOpenOption.APPEND)) {
+            out.write(new byte[] {2, 0, 0}); // start of a SET record
+        }
+        try (DiskGraph<String> graph = DiskGraph.open(directory, LabelCodec.strings())) {
+            assertEquals("expected logged edge", Map.of("b", 1), graph.targets("a"));
+            graph.set("b", "a", 2);
+        }
+        try (DiskGraph<String> graph = DiskGraph.open(directory, LabelCodec.strings())) {
+            assertEquals("expected edge after cut-off record", Map.of("a", 2), graph.targets("b"));
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testCorruptSegment() throws IOException {
+        Path directory = tempDirectory();
+        Files.write(directory.resolve("segment-1"), new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        DiskGraph.open(directory, LabelCodec.strings()).close();
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        DiskGraph<String> graph = DiskGraph.open(tempDirectory(), LabelCodec.strings());
+        graph.add("a");
+        graph.close();
+        graph.close();
+        try {
+            graph.vertices();
+            fail("expected IllegalStateException after close");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testVerticesViewIsLive() throws IOException {
+        try (DiskGraph<String> graph = DiskGraph.open(tempDirectory(), LabelCodec.strings())) {
+            Set<String> view = graph.verticesView();
+            graph.add("a");
+            assertEquals("expected view to reflect add", Set.of("a"), view);
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testOpenNullCodec() throws IOException {
+        DiskGraph.open(tempDirectory(), null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testOpenZeroCompactionChanges() throws IOException {
+        DiskGraph.open(tempDirectory(), LabelCodec.strings(), 10, 0);
+    }
+
+}
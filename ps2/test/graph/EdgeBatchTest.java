@@ -0,0 +1,88 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for EdgeBatch. Applying batches to graphs is tested in
+ * GraphInstanceTest.
+ */
+public class EdgeBatchTest {
+
+    // Testing strategy for EdgeBatch
+    //
+    // Constructor:
+    // - expectedEdges: negative, 0, positive
+    //
+    // add():
+    // - source, target: null, non-null
+    // - weight: negative, zero, positive
+    // - Batch: within capacity, growing past capacity
+    //
+    // source(), target(), weight():
+    // - Index: negative, in range, size()
+    //
+    // clear():
+    // - Batch: empty, non-empty; add() after clear()
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testAddGrows() {
+        EdgeBatch<String> batch = new EdgeBatch<>(0);
+        for (int i = 0; i < 100; i++) {
+            assertSame("expected add to return the batch", batch, batch.add("s" + i, "t" + i, i));
+        }
+
+        assertEquals("expected all edges", 100, batch.size());
+        assertEquals("expected first source", "s0", batch.source(0));
+        assertEquals("expected last target", "t99", batch.target(99));
+        assertEquals("expected zero weight kept", 0, batch.weight(0));
+        assertEquals("expected last weight", 99, batch.weight(99));
+    }
+
+    @Test
+    public void testClear() {
+        EdgeBatch<String> batch = new EdgeBatch<>();
+        batch.clear();
+        batch.add("A", "B", 1).add("B", "C", 2);
+        batch.clear();
+        assertEquals("expected empty batch", 0, batch.size());
+
+        batch.add("C", "D", 3);
+        assertEquals("expected one edge", 1, batch.size());
+        assertEquals("expected new source", "C", batch.source(0));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeExpectedEdges() {
+        new EdgeBatch<String>(-1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAddNullSource() {
+        new EdgeBatch<String>().add(null, "B", 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAddNegativeWeight() {
+        new EdgeBatch<String>().add("A", "B", -1);
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testIndexPastSize() {
+        new EdgeBatch<String>(4).add("A", "B", 1).weight(1);
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testNegativeIndex() {
+        new EdgeBatch<String>().add("A", "B", 1).source(-1);
+    }
+}
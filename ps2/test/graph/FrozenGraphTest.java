@@ -0,0 +1,142 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for FrozenGraph.
+ */
+public class FrozenGraphTest {
+
+    // Testing strategy for FrozenGraph
+    //
+    // Construction (via Graph.freeze):
+    // - Source graph: empty, isolated vertices, self-loops, long rows that are
+    //   sorted differently, random graph
+    // - Observe with vertices(), sources(), targets() and their views, which
+    //   must equal those of the source graph
+    //
+    // add(), set(), remove(), addAll(), setAll():
+    // - always throw UnsupportedOperationException
+    //
+    // Views:
+    // - get(), containsKey() for neighbor, non-neighbor, absent label, null
+    //
+    // CSR accessors:
+    // - Offsets, neighbors and weights agree with targets() and sources()
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testFreezeEmpty() {
+        Graph<String> frozen = Graph.freeze(Graph.empty());
+
+        assertTrue("expected no vertices", frozen.vertices().isEmpty());
+        assertTrue("expected no targets of absent vertex", frozen.targetsView("A").isEmpty());
+    }
+
+    @Test
+    public void testFreezeMatchesRandomGraph() {
+        Graph<Integer> graph = Graph.empty();
+        Random random = new Random(6005);
+        for (int i = 0; i < 2000; i++) {
+            graph.set(random.nextInt(200), random.nextInt(200), 1 + random.nextInt(100));
+        }
+        graph.add(1000);
+        // a long row, to exercise sorting of rows with many entries
+        for (int i = 0; i < 100; i++) {
+            graph.set(7, 199 - i, i + 1);
+        }
+
+        Graph<Integer> frozen = Graph.freeze(graph);
+        assertEquals("expected same vertices", graph.vertices(), frozen.vertices());
+        for (int vertex : graph.vertices()) {
+            assertEquals("expected same targets", graph.targets(vertex), frozen.targets(vertex));
+            assertEquals("expected same sources", graph.sources(vertex), frozen.sources(vertex));
+            assertEquals("expected same targets view", graph.targets(vertex), frozen.targetsView(vertex));
+            assertEquals("expected same sources view", graph.sources(vertex), frozen.sourcesView(vertex));
+        }
+    }
+
+    @Test
+    public void testViewLookups() {
+        Graph<String> graph = Graph.empty();
+        graph.set("A", "B", 3);
+        graph.set("A", "A", 4);
+        graph.add("C");
+        Map<String, Integer> targets = Graph.freeze(graph).targetsView("A");
+
+        assertEquals("expected weight of neighbor", (Integer) 3, targets.get("B"));
+        assertEquals("expected weight of self-loop", (Integer) 4, targets.get("A"));
+        assertNull("expected no weight for non-neighbor", targets.get("C"));
+        assertFalse("expected absent label not a key", targets.containsKey("Z"));
+        assertFalse("expected null not a key", targets.containsKey(null));
+    }
+
+    @Test
+    public void testCsrArrays() {
+        Graph<String> graph = Graph.empty();
+        graph.set("A", "B", 1);
+        graph.set("A", "C", 2);
+        graph.set("C", "B", 3);
+        FrozenGraph<String> frozen = (FrozenGraph<String>) Graph.freeze(graph);
+
+        assertEquals("expected vertex count", 3, frozen.vertexCount());
+        assertEquals("expected edge count", 3, frozen.edgeCount());
+        int a = frozen.indexOf("A");
+        int b = frozen.indexOf("B");
+        assertEquals("expected label of index", "A", frozen.label(a));
+        assertEquals("expected absent label", -1, frozen.indexOf("Z"));
+        assertEquals("expected out-degree of A", 2, frozen.outOffsets()[a + 1] - frozen.outOffsets()[a]);
+        assertEquals("expected in-degree of B", 2, frozen.inOffsets()[b + 1] - frozen.inOffsets()[b]);
+        for (int k = frozen.inOffsets()[b]; k < frozen.inOffsets()[b + 1]; k++) {
+            String source = frozen.label(frozen.inSources()[k]);
+            assertEquals("expected in weight to match sources()",
+                    graph.sources("B").get(source), (Integer) frozen.inWeights()[k]);
+        }
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testAddThrows() {
+        Graph.freeze(Graph.<String>empty()).add("A");
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testSetThrows() {
+        Graph.freeze(Graph.<String>empty()).set("A", "B", 1);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testRemoveThrows() {
+        Graph<String> graph = Graph.empty();
+        graph.add("A");
+        Graph.freeze(graph).remove("A");
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testSetAllThrows() {
+        Graph.freeze(Graph.<String>empty()).setAll(new EdgeBatch<>());
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testIncrementThrows() {
+        Graph.freeze(Graph.<String>empty()).increment("A", "B", 1);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testViewUnmodifiable() {
+        Graph<String> graph = Graph.empty();
+        graph.set("A", "B", 1);
+        Graph.freeze(graph).targetsView("A").remove("B");
+    }
+}
@@ -0,0 +1,155 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for GraphBuilder.
+ * <p>
+ * This class runs the GraphInstanceTest tests against a graph from a builder
+ * with every hint set, as well as tests for the builder itself.
+ * <p>
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class GraphBuilderTest extends GraphInstanceTest {
+
+    /*
+     * Provide a graph from GraphBuilder for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return GraphBuilder.forLabels(String.class)
+                .expectedVertices(100)
+                .expectedEdges(1000)
+                .workload(GraphBuilder.Workload.READ_MOSTLY)
+                .build();
+    }
+
+    /*
+     * Testing GraphBuilder...
+     */
+
+    // Testing strategy for GraphBuilder
+    //
+    // forLabels(), forVertexIds():
+    // - label type null, String, Integer
+    //
+    // hints: expectedVertices, expectedEdges negative, 0, positive;
+    //   workload null, BALANCED, READ_MOSTLY;
+    //   concurrent() with threads 0, positive
+    //
+    // build():
+    // - chooses ConcurrentGraph, IntGraphAdapter or ConcreteVerticesGraph
+    // - workload changes the implementation for vertex ids only
+    // - expected vertices and edges size the edges of new vertices in each
+    //   implementation; no edges hint leaves the default size
+    // - called twice: distinct graphs
+    // - graph for vertex ids accepts many vertices beyond the expected count
+
+    @Test
+    public void testDefaultIsConcreteVerticesGraph() {
+        assertTrue("expected ConcreteVerticesGraph",
+                GraphBuilder.forLabels(String.class).build() instanceof ConcreteVerticesGraph);
+        assertTrue("expected Integer labels not treated as vertex ids",
+                GraphBuilder.forLabels(Integer.class).workload(GraphBuilder.Workload.BALANCED).build()
+                        instanceof ConcreteVerticesGraph);
+        assertTrue("expected workload ignored for labels",
+                GraphBuilder.forLabels(String.class).workload(GraphBuilder.Workload.READ_MOSTLY).build()
+                        instanceof ConcreteVerticesGraph);
+    }
+
+    @Test
+    public void testConcurrent() {
+        Graph<Integer> graph = GraphBuilder.forVertexIds().expectedVertices(50).concurrent(8).build();
+
+        assertTrue("expected ConcurrentGraph", graph instanceof ConcurrentGraph);
+    }
+
+    @Test
+    public void testVertexIds() {
+        Graph<Integer> writes = GraphBuilder.forVertexIds().expectedVertices(10)
+                .workload(GraphBuilder.Workload.BALANCED).build();
+        Graph<Integer> reads = GraphBuilder.forVertexIds().workload(GraphBuilder.Workload.READ_MOSTLY).build();
+
+        assertTrue("expected IntGraphAdapter", writes instanceof IntGraphAdapter);
+        assertTrue("expected live views for reads", reads instanceof ConcreteVerticesGraph);
+        assertTrue("expected IntGraphAdapter by default", GraphBuilder.forVertexIds().build() instanceof IntGraphAdapter);
+
+        for (int i = 0; i < 1000; i++) {
+            writes.set(i, (i + 1) % 1000, i + 1);
+        }
+        assertEquals("expected all vertices", 1000, writes.vertices().size());
+        assertEquals("expected edge", 1000, writes.targets(999).get(0).intValue());
+    }
+
+    @Test
+    public void testExpectedEdgesSizeEveryImplementation() {
+        ConcreteVerticesGraph<String> labels = (ConcreteVerticesGraph<String>)
+                GraphBuilder.forLabels(String.class).expectedVertices(100).expectedEdges(3000).build();
+        IntGraphAdapter ids = (IntGraphAdapter)
+                GraphBuilder.forVertexIds().expectedVertices(100).expectedEdges(3000).build();
+        ConcurrentGraph<String> concurrent = (ConcurrentGraph<String>)
+                GraphBuilder.forLabels(String.class).expectedVertices(100).expectedEdges(3000).concurrent(4).build();
+
+        assertEquals("expected average degree", 30, labels.expectedDegree());
+        assertEquals("expected average degree", 30, ids.intGraph().expectedDegree());
+        assertEquals("expected average degree", 30, concurrent.expectedDegree());
+
+        ConcreteVerticesGraph<String> unsized = (ConcreteVerticesGraph<String>)
+                GraphBuilder.forLabels(String.class).expectedVertices(100).build();
+        assertEquals("expected default size without edges hint", 0, unsized.expectedDegree());
+
+        for (int i = 0; i < 40; i++) {
+            ids.set(7, i, i + 1);
+            concurrent.set("A", "v" + i, i + 1);
+        }
+        concurrent.checkRep();
+        assertEquals("expected edges beyond the expected degree", 40, ids.targets(7).size());
+        assertEquals("expected edges beyond the expected degree", 40, concurrent.targets("A").size());
+    }
+
+    @Test
+    public void testBuildReturnsNewGraphs() {
+        GraphBuilder<String> builder = GraphBuilder.forLabels(String.class).expectedVertices(2);
+        Graph<String> first = builder.build();
+        first.add("A");
+
+        assertTrue("expected a new empty graph", builder.build().vertices().isEmpty());
+    }
+
+    @Test
+    public void testToString() {
+        String description = GraphBuilder.forVertexIds().expectedVertices(5).concurrent(2).toString();
+
+        assertTrue("expected hints in toString", description.contains("vertices=5") && description.contains("threads=2"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNullLabelType() {
+        GraphBuilder.forLabels(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeExpectedVertices() {
+        GraphBuilder.forLabels(String.class).expectedVertices(-1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeExpectedEdges() {
+        GraphBuilder.forLabels(String.class).expectedEdges(-1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNullWorkload() {
+        GraphBuilder.forLabels(String.class).workload(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testZeroThreads() {
+        GraphBuilder.forLabels(String.class).concurrent(0);
+    }
+
+}
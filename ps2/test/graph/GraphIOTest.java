@@ -0,0 +1,254 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for GraphIO and LabelCodec.
+ */
+public class GraphIOTest {
+
+    // Testing strategy for GraphIO
+    //
+    // write(), read(), readFrozen():
+    // - graph empty, vertices only, edges including self-loops, random
+    // - source graph mutable or frozen; read into ConcreteVerticesGraph,
+    //   IntGraphAdapter, or frozen
+    // - read into a graph that already has vertices and edges
+    // - written to a file or to a stream, with the same bytes
+    // - file not a graph file, wrong version, truncated, extra data, edge
+    //   out of range, weight not positive, duplicate labels, duplicate edge,
+    //   vertex count larger than the label section could hold
+    // - read() of an invalid file leaves the graph unmodified
+    //
+    // LabelCodec:
+    // - strings with non-ASCII characters, negative integers, integer with
+    //   wrong length, of() with null functions
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static Path tempFile() throws IOException {
+        Path file = Files.createTempFile("graph", ".bin");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    private static Graph<String> sample() {
+        Graph<String> graph = Graph.empty();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 7);
+        graph.set("c", "a", Integer.MAX_VALUE);
+        graph.set("c", "c", 2);
+        graph.set("naïve", "a", 3);
+        graph.add("lonely");
+        return graph;
+    }
+
+    private static <L> void assertSameGraph(Graph<L> expected, Graph<L> actual) {
+        assertEquals("expected same vertices", expected.vertices(), actual.vertices());
+        for (L vertex : expected.vertices()) {
+            assertEquals("expected same targets of " + vertex, expected.targets(vertex), actual.targets(vertex));
+            assertEquals("expected same sources of " + vertex, expected.sources(vertex), actual.sources(vertex));
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Graph<String> graph = sample();
+        Path file = tempFile();
+        GraphIO.write(graph, file, LabelCodec.strings());
+
+        assertSameGraph(graph, GraphIO.read(file, LabelCodec.strings(), Graph.empty()));
+        assertSameGraph(graph, GraphIO.readFrozen(file, LabelCodec.strings()));
+        assertSameGraph(graph, GraphIO.read(file, LabelCodec.strings(), new ConcreteEdgesGraph<>()));
+    }
+
+    @Test
+    public void testRoundTripEmpty() throws IOException {
+        Path file = tempFile();
+        GraphIO.write(Graph.<String>empty(), file, LabelCodec.strings());
+
+        assertEquals("expected header only", 16, Files.size(file));
+        assertTrue("expected no vertices", GraphIO.readFrozen(file, LabelCodec.strings()).vertices().isEmpty());
+    }
+
+    @Test
+    public void testRoundTripFrozen() throws IOException {
+        Graph<String> graph = Graph.freeze(sample());
+        Path file = tempFile();
+        GraphIO.write(graph, file, LabelCodec.strings());
+
+        assertSameGraph(graph, GraphIO.read(file, LabelCodec.strings(), Graph.empty()));
+    }
+
+    @Test
+    public void testRoundTripRandomIntegers() throws IOException {
+        Random random = new Random(6005);
+        IntGraphAdapter graph = new IntGraphAdapter();
+        for (int v = 0; v < 1000; v++) {
+            graph.add(random.nextInt(1 << 20));
+        }
+        Integer[] vertices = graph.vertices().toArray(new Integer[0]);
+        for (int e = 0; e < 5000; e++) {
+            graph.set(vertices[random.nextInt(vertices.length)], vertices[random.nextInt(vertices.length)],
+                    1 + random.nextInt(100));
+        }
+        Path file = tempFile();
+        GraphIO.write(graph, file, LabelCodec.integers());
+
+        assertSameGraph(graph, GraphIO.read(file, LabelCodec.integers(), new IntGraphAdapter()));
+        assertSameGraph(graph, GraphIO.readFrozen(file, LabelCodec.integers()));
+    }
+
+    @Test
+    public void testReadIntoNonEmpty() throws IOException {
+        Path file = tempFile();
+        GraphIO.write(sample(), file, LabelCodec.strings());
+        Graph<String> graph = Graph.empty();
+        graph.set("a", "b", 100);
+        graph.set("x", "a", 4);
+
+        GraphIO.read(file, LabelCodec.strings(), graph);
+        assertEquals("expected edge replaced", 1, graph.targets("a").get("b").intValue());
+        assertEquals("expected edge kept", 4, graph.targets("x").get("a").intValue());
+    }
+
+    @Test
+    public void testStreamMatchesFile() throws IOException {
+        Graph<String> graph = Graph.freeze(sample());
+        Path file = tempFile();
+        GraphIO.write(graph, file, LabelCodec.strings());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GraphIO.write(graph, bytes, LabelCodec.strings());
+
+        assertTrue("expected same bytes", Arrays.equals(Files.readAllBytes(file), bytes.toByteArray()));
+    }
+
+    /**
+     * Write a file with the given header fields, edge triples, and labels.
+     */
+    private static Path rawFile(int magic, int version, int vertices, int edges, int[] triples, String... labels)
+            throws IOException {
+        Path file = tempFile();
+        try (OutputStream out = Files.newOutputStream(file)) {
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(magic);
+            data.writeInt(version);
+            data.writeInt(vertices);
+            data.writeInt(edges);
+            for (int value : triples) {
+                data.writeInt(value);
+            }
+            for (String label : labels) {
+                byte[] encoded = LabelCodec.strings().encode(label);
+                data.writeInt(encoded.length);
+                data.write(encoded);
+            }
+        }
+        return file;
+    }
+
+    private static void assertInvalid(Path file) {
+        try {
+            GraphIO.read(file, LabelCodec.strings(), Graph.empty());
+            fail("expected IOException from read");
+        } catch (IOException e) {
+            // expected
+        }
+        try {
+            GraphIO.readFrozen(file, LabelCodec.strings());
+            fail("expected IOException from readFrozen");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRawFileValid() throws IOException {
+        Path file = rawFile(GraphIO.MAGIC, GraphIO.VERSION, 2, 1, new int[] {0, 1, 5}, "x", "y");
+
+        assertEquals("expected edge", 5, GraphIO.readFrozen(file, LabelCodec.strings()).targets("x").get("y").intValue());
+    }
+
+    @Test
+    public void testInvalidFiles() throws IOException {
+        assertInvalid(rawFile(0xCAFEBABE, GraphIO.VERSION, 2, 1, new int[] {0, 1, 5}, "x", "y"));
+        assertInvalid(rawFile(GraphIO.MAGIC, GraphIO.VERSION + 1, 2, 1, new int[] {0, 1, 5}, "x", "y"));
+        assertInvalid(rawFile(GraphIO.MAGIC, GraphIO.VERSION, 2, 2, new int[] {0, 1, 5}));
+        assertInvalid(rawFile(GraphIO.MAGIC, GraphIO.VERSION, 3, 1, new int[] {0, 1, 5}, "x", "y"));
+        assertInvalid(rawFile(GraphIO.MAGIC, GraphIO.VERSION, 1, 1, new int[] {0, 1, 5}, "x", "y"));
+        assertInvalid(rawFile(GraphIO.MAGIC, GraphIO.VERSION, 2, 1, new int[] {0, 2, 5}, "x", "y"));
+        assertInvalid(rawFile(GraphIO.MAGIC, GraphIO.VERSION, 2, 1, new int[] {0, 1, 0}, "x", "y"));
+        assertInvalid(rawFile(GraphIO.MAGIC, GraphIO.VERSION, 2, 1, new int[] {0, 1, 5}, "x", "x"));
+
+        Path empty = tempFile();
+        assertInvalid(empty);
+    }
+
+    @Test
+    public void testHugeVertexCount() throws IOException {
+        assertInvalid(rawFile(GraphIO.MAGIC, GraphIO.VERSION, Integer.MAX_VALUE, 0, new int[] {}));
+        assertInvalid(rawFile(GraphIO.MAGIC, GraphIO.VERSION, 3, 0, new int[] {}, "x", "y"));
+    }
+
+    @Test
+    public void testInvalidFileLeavesGraphUnmodified() throws IOException {
+        Path file = rawFile(GraphIO.MAGIC, GraphIO.VERSION, 2, 2, new int[] {0, 1, 5, 1, 2, 5}, "x", "y");
+        Graph<String> graph = Graph.empty();
+        graph.set("a", "b", 1);
+        try {
+            GraphIO.read(file, LabelCodec.strings(), graph);
+            fail("expected IOException for edge out of range");
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals("expected vertices unchanged", Set.of("a", "b"), graph.vertices());
+        assertEquals("expected edges unchanged", Map.of("b", 1), graph.targets("a"));
+    }
+
+    @Test(expected=IOException.class)
+    public void testDuplicateEdgeFrozen() throws IOException {
+        GraphIO.readFrozen(rawFile(GraphIO.MAGIC, GraphIO.VERSION, 2, 2, new int[] {0, 1, 5, 0, 1, 6}, "x", "y"),
+                LabelCodec.strings());
+    }
+
+    @Test
+    public void testLabelCodecs() {
+        LabelCodec<String> strings = LabelCodec.strings();
+        LabelCodec<Integer> integers = LabelCodec.integers();
+
+        assertEquals("expected string round trip", "naïve ☃", strings.decode(strings.encode("naïve ☃")));
+        assertEquals("expected integer round trip", -6005, integers.decode(integers.encode(-6005)).intValue());
+        assertEquals("expected four bytes", 4, integers.encode(Integer.MIN_VALUE).length);
+        assertTrue("expected UTF-8", Arrays.equals(new byte[] {(byte) 0xc3, (byte) 0xaf}, strings.encode("ï")));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testIntegerCodecWrongLength() {
+        LabelCodec.integers().decode(new byte[3]);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testCodecNullFunction() {
+        LabelCodec.of(null, bytes -> "x");
+    }
+
+}
@@ -5,9 +5,12 @@ package graph;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.Test;
@@ -62,6 +65,26 @@ public abstract class GraphInstanceTest {
      * - Edge weights: various positive values, self-loops
      * - Mutation: ensure returned map doesn't allow modification of graph
      *
+     * addAll(vertices):
+     * - Vertices: empty, all new, some already in graph, all already in graph,
+     *             containing null (graph unchanged)
+     *
+     * setAll(batch):
+     * - Batch: empty, new edges, updates and removals of earlier edges in the
+     *          same batch, self-loops
+     * - Result equals calling set() for each edge in order
+     *
+     * increment(source, target, amount):
+     * - Edge: absent (vertices added), existing, self-loop
+     * - Amount: zero or negative (rejected), positive, overflowing the
+     *           weight (graph unchanged)
+     * - Result equals set() with the summed weight
+     *
+     * verticesView(), sourcesView(vertex), targetsView(vertex):
+     * - Vertex: not in graph, in graph with edges
+     * - Contents equal vertices(), sources() and targets()
+     * - Mutation: view is unmodifiable
+     *
      * Cross-method interactions:
      * - Operations maintain graph invariants
      * - Vertex removal properly removes associated edges
@@ -491,4 +514,177 @@ public abstract class GraphInstanceTest {
         assertEquals("new edge should have correct weight",
                 (Integer) 200, graph.targets("X").get("Y"));
     }
+
+    // Tests for bulk mutation
+
+    @Test
+    public void testAddAll() {
+        Graph<String> graph = emptyInstance();
+        graph.add("A");
+
+        assertFalse("adding no vertices should return false", graph.addAll(Set.of()));
+        assertTrue("adding some new vertices should return true", graph.addAll(List.of("A", "B", "C")));
+        assertFalse("adding only existing vertices should return false", graph.addAll(List.of("B", "C")));
+        assertEquals("graph should have all added vertices", Set.of("A", "B", "C"), graph.vertices());
+    }
+
+    @Test
+    public void testAddAllNullUnchanged() {
+        Graph<String> graph = emptyInstance();
+        try {
+            graph.addAll(Arrays.asList("A", null));
+            fail("expected IllegalArgumentException for null vertex");
+        } catch (IllegalArgumentException e) {
+            assertTrue("graph should be unchanged", graph.vertices().isEmpty());
+        }
+    }
+
+    @Test
+    public void testSetAllEmptyBatch() {
+        Graph<String> graph = emptyInstance();
+        graph.setAll(new EdgeBatch<>());
+        assertTrue("graph should be unchanged", graph.vertices().isEmpty());
+    }
+
+    @Test
+    public void testSetAllMatchesSet() {
+        Graph<String> expected = emptyInstance();
+        Graph<String> graph = emptyInstance();
+        expected.set("v0", "v1", 7);
+        graph.set("v0", "v1", 7);
+
+        EdgeBatch<String> batch = new EdgeBatch<>(4);
+        Random random = new Random(6005);
+        for (int i = 0; i < 500; i++) {
+            String source = "v" + random.nextInt(20);
+            String target = "v" + random.nextInt(20);
+            int weight = random.nextInt(3);
+            expected.set(source, target, weight);
+            batch.add(source, target, weight);
+        }
+        graph.setAll(batch);
+
+        assertEquals("vertices should match set() one at a time", expected.vertices(), graph.vertices());
+        for (String vertex : expected.vertices()) {
+            assertEquals("targets should match set() one at a time",
+                    expected.targets(vertex), graph.targets(vertex));
+            assertEquals("sources should match set() one at a time",
+                    expected.sources(vertex), graph.sources(vertex));
+        }
+    }
+
+    // Tests for increment
+
+    @Test
+    public void testIncrementNewEdge() {
+        Graph<String> graph = emptyInstance();
+
+        assertEquals("expected no previous edge", 0, graph.increment("A", "B", 3));
+        assertEquals("vertices should be added", Set.of("A", "B"), graph.vertices());
+        assertEquals("edge should have the amount", Map.of("B", 3), graph.targets("A"));
+        assertEquals("edge should be mirrored", Map.of("A", 3), graph.sources("B"));
+    }
+
+    @Test
+    public void testIncrementExistingEdge() {
+        Graph<String> graph = emptyInstance();
+        graph.set("A", "B", 5);
+        graph.set("B", "B", 1);
+
+        assertEquals("expected previous weight", 5, graph.increment("A", "B", 2));
+        assertEquals("expected previous self-loop weight", 1, graph.increment("B", "B", 1));
+        assertEquals("weight should be summed", Map.of("A", 7, "B", 2), graph.sources("B"));
+        assertEquals("self-loop should be summed", Map.of("B", 2), graph.targets("B"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testIncrementZero() {
+        emptyInstance().increment("A", "B", 0);
+    }
+
+    @Test
+    public void testIncrementOverflowUnchanged() {
+        Graph<String> graph = emptyInstance();
+        graph.set("A", "B", Integer.MAX_VALUE - 1);
+
+        assertEquals("expected previous weight", Integer.MAX_VALUE - 1, graph.increment("A", "B", 1));
+        try {
+            graph.increment("A", "B", 1);
+            fail("expected ArithmeticException");
+        } catch (ArithmeticException e) {
+            // expected
+        }
+        assertEquals("weight should be unchanged", Map.of("B", Integer.MAX_VALUE), graph.targets("A"));
+        assertEquals("mirror should be unchanged", Map.of("A", Integer.MAX_VALUE), graph.sources("B"));
+    }
+
+    @Test
+    public void testIncrementMatchesSet() {
+        Graph<String> expected = emptyInstance();
+        Graph<String> graph = emptyInstance();
+        Random random = new Random(6005);
+        for (int i = 0; i < 500; i++) {
+            String source = "v" + random.nextInt(10);
+            String target = "v" + random.nextInt(10);
+            int amount = 1 + random.nextInt(3);
+            int previous = expected.targets(source).getOrDefault(target, 0);
+            expected.set(source, target, previous + amount);
+            assertEquals("expected previous weight", previous, graph.increment(source, target, amount));
+        }
+
+        assertEquals("vertices should match set()", expected.vertices(), graph.vertices());
+        for (String vertex : expected.vertices()) {
+            assertEquals("targets should match set()", expected.targets(vertex), graph.targets(vertex));
+            assertEquals("sources should match set()", expected.sources(vertex), graph.sources(vertex));
+        }
+    }
+
+    // Tests for views
+
+    @Test
+    public void testViewsMatchCopies() {
+        Graph<String> graph = emptyInstance();
+        graph.set("A", "B", 1);
+        graph.set("C", "B", 2);
+        graph.set("B", "B", 3);
+        graph.add("D");
+
+        assertEquals("vertices view should match vertices()", graph.vertices(), graph.verticesView());
+        for (String vertex : graph.vertices()) {
+            assertEquals("sources view should match sources()",
+                    graph.sources(vertex), graph.sourcesView(vertex));
+            assertEquals("targets view should match targets()",
+                    graph.targets(vertex), graph.targetsView(vertex));
+        }
+    }
+
+    @Test
+    public void testViewsOfAbsentVertexEmpty() {
+        Graph<String> graph = emptyInstance();
+        graph.set("A", "B", 1);
+
+        assertTrue("sources view of absent vertex should be empty", graph.sourcesView("Z").isEmpty());
+        assertTrue("targets view of absent vertex should be empty", graph.targetsView("Z").isEmpty());
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testVerticesViewUnmodifiable() {
+        Graph<String> graph = emptyInstance();
+        graph.add("A");
+        graph.verticesView().add("B");
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testTargetsViewUnmodifiable() {
+        Graph<String> graph = emptyInstance();
+        graph.set("A", "B", 1);
+        graph.targetsView("A").put("C", 2);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testSourcesViewUnmodifiable() {
+        Graph<String> graph = emptyInstance();
+        graph.set("A", "B", 1);
+        graph.sourcesView("B").remove("A");
+    }
 }
@@ -28,6 +28,11 @@ public class GraphStaticTest {
     //     Integer: numeric labels
     //     Character: single character labels
     //     Custom immutable class: verify works with user-defined immutable types
+    //
+    //   freeze(graph)
+    //     graph: mutable, already frozen
+    //     observe with vertices(), sources(), targets(); later changes to graph
+    //     more cases in FrozenGraphTest
 
     @Test(expected=AssertionError.class)
     public void testAssertionsEnabled() {
@@ -179,4 +184,17 @@ public class GraphStaticTest {
         assertEquals("int graph should have correct edge weight", (Integer) 10,
                 intGraph.targets(1).get(2));
     }
+
+    @Test
+    public void testFreezeIsSnapshot() {
+        Graph<String> graph = Graph.empty();
+        graph.set("A", "B", 1);
+        Graph<String> frozen = Graph.freeze(graph);
+        graph.set("B", "C", 2);
+
+        assertEquals("frozen graph should have original vertices", Set.of("A", "B"), frozen.vertices());
+        assertEquals("frozen graph should have original edge", (Integer) 1, frozen.targets("A").get("B"));
+        assertTrue("frozen graph should not see later edges", frozen.targets("B").isEmpty());
+        assertSame("freezing a frozen graph should return it", frozen, Graph.freeze(frozen));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for IndexedMinHeap.
+ */
+public class IndexedMinHeapTest {
+
+    // Testing strategy for IndexedMinHeap
+    //
+    // offer():
+    // - Item: new, present with higher priority, present with lower or equal
+    //   priority
+    //
+    // poll(), peekPriority():
+    // - Heap: empty, one item, many items with ties
+    // - Random offers and polls compared against a brute-force model
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testOfferLowersPriority() {
+        IndexedMinHeap heap = new IndexedMinHeap(3);
+
+        assertTrue("expected new item offered", heap.offer(0, 10));
+        assertTrue("expected new item offered", heap.offer(1, 5));
+        assertFalse("expected higher priority ignored", heap.offer(0, 20));
+        assertTrue("expected lower priority accepted", heap.offer(0, 1));
+        assertEquals("expected lowest priority", 1, heap.peekPriority());
+        assertEquals("expected lowered item first", 0, heap.poll());
+        assertFalse("expected polled item gone", heap.contains(0));
+        assertEquals("expected remaining item", 1, heap.poll());
+        assertTrue("expected empty heap", heap.isEmpty());
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testPollEmpty() {
+        new IndexedMinHeap(0).poll();
+    }
+
+    @Test
+    public void testRandomMatchesModel() {
+        Random random = new Random(6005);
+        final int n = 200;
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        long[] model = new long[n];
+        boolean[] present = new boolean[n];
+
+        for (int step = 0; step < 20000; step++) {
+            if (random.nextInt(3) == 0 && !heap.isEmpty()) {
+                long min = Long.MAX_VALUE;
+                for (int i = 0; i < n; i++) {
+                    if (present[i]) {
+                        min = Math.min(min, model[i]);
+                    }
+                }
+                int item = heap.poll();
+                assertTrue("expected polled item present", present[item]);
+                assertEquals("expected polled item to have least priority", min, model[item]);
+                present[item] = false;
+            } else {
+                int item = random.nextInt(n);
+                long priority = random.nextInt(1000);
+                boolean changes = !present[item] || priority < model[item];
+                assertEquals("expected offer to report change", changes, heap.offer(item, priority));
+                if (changes) {
+                    model[item] = priority;
+                    present[item] = true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for IntGraphAdapter.
+ */
+public class IntGraphAdapterTest {
+
+    // Testing strategy for IntGraphAdapter
+    //
+    // add(), set(), remove():
+    // - Label: null, negative, non-negative
+    //
+    // vertices(), sources(), targets():
+    // - Contents match the backing IntGraph
+    // - Label: null, absent, present
+    //
+    // Sharing:
+    // - Changes to the IntGraph are seen by the adapter and vice versa
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testGraphOperations() {
+        Graph<Integer> graph = new IntGraphAdapter();
+        assertTrue("expected new vertex", graph.add(9));
+        assertEquals("expected no previous edge", 0, graph.set(1, 2, 5));
+        assertEquals("expected no previous edge", 0, graph.set(3, 2, 6));
+        assertEquals("expected no previous edge", 0, graph.set(2, 2, 7));
+        assertEquals("expected previous weight", 7, graph.increment(2, 2, 1));
+        assertEquals("expected no previous edge", 0, graph.increment(9, 1, 1));
+
+        assertEquals("expected vertices", Set.of(1, 2, 3, 9), graph.vertices());
+        assertEquals("expected sources", Map.of(1, 5, 3, 6, 2, 8), graph.sources(2));
+        assertEquals("expected targets", Map.of(2, 8), graph.targets(2));
+        assertEquals("expected targets", Map.of(1, 1), graph.targets(9));
+
+        assertTrue("expected vertex removed", graph.remove(2));
+        assertEquals("expected edges removed", Map.of(), graph.targets(1));
+        assertEquals("expected vertices", Set.of(1, 3, 9), graph.vertices());
+    }
+
+    @Test
+    public void testAbsentLabels() {
+        Graph<Integer> graph = new IntGraphAdapter();
+        graph.set(1, 2, 5);
+
+        assertFalse("expected null not removed", graph.remove(null));
+        assertFalse("expected negative not removed", graph.remove(-1));
+        assertTrue("expected no sources of null", graph.sources(null).isEmpty());
+        assertTrue("expected no targets of absent vertex", graph.targets(7).isEmpty());
+        assertTrue("expected no targets of negative vertex", graph.targets(-7).isEmpty());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSetNegativeLabel() {
+        new IntGraphAdapter().set(-1, 2, 5);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAddNullLabel() {
+        new IntGraphAdapter().add(null);
+    }
+
+    @Test
+    public void testSharesIntGraph() {
+        IntGraph ints = new IntGraph();
+        IntGraphAdapter graph = new IntGraphAdapter(ints);
+
+        ints.set(1, 2, 5);
+        assertEquals("expected adapter to see IntGraph edge", Map.of(2, 5), graph.targets(1));
+        graph.set(2, 3, 6);
+        assertEquals("expected IntGraph to see adapter edge", 6, ints.weight(2, 3));
+        assertSame("expected the same IntGraph", ints, graph.intGraph());
+    }
+}
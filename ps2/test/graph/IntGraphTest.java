@@ -0,0 +1,240 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for IntGraph.
+ */
+public class IntGraphTest {
+
+    // Testing strategy for IntGraph
+    //
+    // IntGraph(expectedVertices, expectedEdges):
+    // - expected edges negative, fewer than actual degree, more
+    //
+    // add(), set(), remove():
+    // - Vertex: negative, zero, beyond current capacity, already present,
+    //   MAX_VERTICES and above
+    // - Edge: new, updated, removed (weight 0), absent, self-loop
+    // - increment(): new edge, existing edge, overflow
+    // - Random sequence of operations compared against a map-of-maps model,
+    //   validated with the full checkRep()
+    //
+    // Cursor:
+    // - Vertex: absent, no neighbors, several neighbors
+    // - Direction: targetsOf, sourcesOf
+    // - Access before next(), after last neighbor
+    //
+    // nextVertex(), vertexCount(), edgeCount(), degrees:
+    // - After additions and removals, including a vertex with a self-loop
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        IntGraph graph = new IntGraph();
+
+        assertEquals("expected no vertices", 0, graph.vertexCount());
+        assertEquals("expected no edges", 0, graph.edgeCount());
+        assertEquals("expected no first vertex", -1, graph.nextVertex(0));
+        assertFalse("expected cursor to have no targets", graph.cursor().targetsOf(3).next());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeExpectedEdges() {
+        new IntGraph(10, -1);
+    }
+
+    @Test
+    public void testExpectedEdges() {
+        for (int edges : new int[] {10, 1000}) {
+            IntGraph graph = new IntGraph(10, edges);
+            for (int t = 0; t < 20; t++) {
+                graph.set(3, t, t + 1);
+            }
+            graph.checkRep();
+            assertEquals("expected all targets", 20, graph.outDegree(3));
+            assertEquals("expected last weight", 20, graph.weight(3, 19));
+        }
+    }
+
+    @Test
+    public void testAddGrowsBeyondCapacity() {
+        IntGraph graph = new IntGraph(2);
+
+        assertTrue("expected new vertex", graph.add(0));
+        assertTrue("expected vertex beyond capacity", graph.add(1000));
+        assertFalse("expected duplicate vertex", graph.add(1000));
+        assertEquals("expected two vertices", 2, graph.vertexCount());
+        assertEquals("expected vertices in order", 1000, graph.nextVertex(1));
+        graph.checkRep();
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAddNegative() {
+        new IntGraph().add(-1);
+    }
+
+    @Test
+    public void testVertexAtOrAboveMax() {
+        IntGraph graph = new IntGraph();
+        for (int vertex : new int[] { IntGraph.MAX_VERTICES, Integer.MAX_VALUE }) {
+            try {
+                graph.add(vertex);
+                fail("expected IllegalArgumentException for " + vertex);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+            try {
+                graph.set(0, vertex, 1);
+                fail("expected IllegalArgumentException for " + vertex);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+            assertFalse("expected vertex absent", graph.remove(vertex));
+        }
+        assertEquals("expected graph unchanged", 0, graph.vertexCount());
+        graph.checkRep();
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSetNegativeWeight() {
+        new IntGraph().set(0, 1, -1);
+    }
+
+    @Test
+    public void testSetUpdateRemove() {
+        IntGraph graph = new IntGraph();
+
+        assertEquals("expected no previous edge", 0, graph.set(1, 2, 5));
+        assertEquals("expected previous weight", 5, graph.set(1, 2, 7));
+        assertEquals("expected one edge", 1, graph.edgeCount());
+        assertEquals("expected updated weight", 7, graph.weight(1, 2));
+        assertEquals("expected removed weight", 7, graph.set(1, 2, 0));
+        assertEquals("expected no edges", 0, graph.edgeCount());
+        assertTrue("expected vertices kept", graph.contains(1) && graph.contains(2));
+        assertEquals("expected absent edge", 0, graph.set(2, 1, 0));
+    }
+
+    @Test
+    public void testIncrement() {
+        IntGraph graph = new IntGraph();
+
+        assertEquals("expected no previous edge", 0, graph.increment(1, 2, 5));
+        assertEquals("expected previous weight", 5, graph.increment(1, 2, 1));
+        assertEquals("expected one edge", 1, graph.edgeCount());
+        assertEquals("expected summed weight", 6, graph.weight(1, 2));
+        assertEquals("expected in-degree", 1, graph.inDegree(2));
+        graph.set(1, 2, Integer.MAX_VALUE);
+        try {
+            graph.increment(1, 2, 1);
+            fail("expected ArithmeticException");
+        } catch (ArithmeticException e) {
+            // expected
+        }
+        assertEquals("expected weight unchanged", Integer.MAX_VALUE, graph.weight(1, 2));
+        graph.checkRep();
+    }
+
+    @Test
+    public void testRemoveVertexWithSelfLoop() {
+        IntGraph graph = new IntGraph();
+        graph.set(0, 0, 1);
+        graph.set(0, 1, 2);
+        graph.set(2, 0, 3);
+
+        assertEquals("expected out-degree", 2, graph.outDegree(0));
+        assertEquals("expected in-degree", 2, graph.inDegree(0));
+        assertTrue("expected vertex removed", graph.remove(0));
+        assertFalse("expected vertex already removed", graph.remove(0));
+        assertEquals("expected all its edges removed", 0, graph.edgeCount());
+        assertEquals("expected no sources of 1", 0, graph.inDegree(1));
+        assertEquals("expected no targets of 2", 0, graph.outDegree(2));
+        graph.checkRep();
+    }
+
+    @Test
+    public void testCursor() {
+        IntGraph graph = new IntGraph();
+        graph.set(1, 2, 5);
+        graph.set(1, 3, 6);
+        graph.set(4, 3, 7);
+        IntGraph.Cursor cursor = graph.cursor();
+
+        Map<Integer, Integer> targets = new HashMap<>();
+        for (cursor.targetsOf(1); cursor.next(); ) {
+            targets.put(cursor.vertex(), cursor.weight());
+        }
+        assertEquals("expected targets of 1", Map.of(2, 5, 3, 6), targets);
+
+        Map<Integer, Integer> sources = new HashMap<>();
+        for (cursor.sourcesOf(3); cursor.next(); ) {
+            sources.put(cursor.vertex(), cursor.weight());
+        }
+        assertEquals("expected sources of 3", Map.of(1, 6, 4, 7), sources);
+        assertFalse("expected cursor to stay past the end", cursor.next());
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testCursorBeforeNext() {
+        IntGraph graph = new IntGraph();
+        graph.set(1, 2, 5);
+        graph.cursor().targetsOf(1).vertex();
+    }
+
+    @Test
+    public void testRandomOperationsMatchModel() {
+        IntGraph graph = new IntGraph(0);
+        Map<Integer, Map<Integer, Integer>> model = new HashMap<>();
+        Random random = new Random(6005);
+        final int labels = 40;
+
+        for (int step = 0; step < 5000; step++) {
+            int source = random.nextInt(labels);
+            int target = random.nextInt(labels);
+            if (random.nextInt(10) == 0) {
+                boolean present = model.remove(source) != null;
+                for (Map<Integer, Integer> targets : model.values()) {
+                    targets.remove(source);
+                }
+                assertEquals("expected remove to match model", present, graph.remove(source));
+            } else {
+                int weight = random.nextInt(4);
+                model.computeIfAbsent(source, v -> new HashMap<>());
+                model.computeIfAbsent(target, v -> new HashMap<>());
+                Integer previous = weight == 0
+                        ? model.get(source).remove(target)
+                        : model.get(source).put(target, weight);
+                assertEquals("expected previous weight to match model",
+                        previous == null ? 0 : (int) previous, graph.set(source, target, weight));
+            }
+        }
+
+        graph.checkRep();
+        assertEquals("expected vertex count to match model", model.size(), graph.vertexCount());
+        int edges = 0;
+        for (int source : model.keySet()) {
+            assertTrue("expected vertex present", graph.contains(source));
+            for (Map.Entry<Integer, Integer> edge : model.get(source).entrySet()) {
+                assertEquals("expected weight to match model",
+                        (int) edge.getValue(), graph.weight(source, edge.getKey()));
+            }
+            assertEquals("expected out-degree to match model",
+                    model.get(source).size(), graph.outDegree(source));
+            edges += model.get(source).size();
+        }
+        assertEquals("expected edge count to match model", edges, graph.edgeCount());
+    }
+}
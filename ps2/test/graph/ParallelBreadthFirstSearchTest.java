@@ -0,0 +1,223 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * Tests for ParallelBreadthFirstSearch.
+ */
+public class ParallelBreadthFirstSearchTest {
+
+    // Testing strategy for ParallelBreadthFirstSearch
+    //
+    // from():
+    // - source alone, chain, cycle, self-loop, unreachable vertices
+    // - edges followed from source to target only
+    // - source not in the graph
+    // - graph small enough for one task, large enough to split into many
+    // - sparse frontiers (top-down only), dense frontiers (switches to
+    //   bottom-up and back)
+    // - long paths with thousands of one-vertex levels, before and after a
+    //   level dense enough to run bottom-up
+    // - hops compared against a sequential BFS; parents checked to be an
+    //   edge from a vertex one hop nearer
+    //
+    // Snapshot:
+    // - Changes to the graph after construction are not seen
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static Graph<String> chain() {
+        Graph<String> graph = Graph.empty();
+        graph.set("A", "B", 3);
+        graph.set("B", "C", 1);
+        graph.set("C", "A", 1);
+        graph.set("C", "C", 2);
+        graph.set("A", "C", 9);
+        graph.set("D", "A", 1);
+        graph.add("E");
+        return graph;
+    }
+
+    @Test
+    public void testFromIgnoresWeights() {
+        ParallelBreadthFirstSearch<String> bfs = new ParallelBreadthFirstSearch<>(chain());
+        ParallelBreadthFirstSearch.Result result = bfs.from("A");
+        VertexIndex<String> index = bfs.vertexIndex();
+
+        assertEquals("expected one entry per vertex", 5, result.hops().length);
+        assertEquals("expected zero hops to source", 0, result.hops()[index.indexOf("A")]);
+        assertEquals("expected direct edge", 1, result.hops()[index.indexOf("B")]);
+        assertEquals("expected heavy direct edge", 1, result.hops()[index.indexOf("C")]);
+        assertEquals("expected parent of C", index.indexOf("A"), result.parents()[index.indexOf("C")]);
+        assertEquals("expected no parent of source",
+                ParallelBreadthFirstSearch.NO_PARENT, result.parents()[index.indexOf("A")]);
+    }
+
+    @Test
+    public void testFromUnreachable() {
+        ParallelBreadthFirstSearch<String> bfs = new ParallelBreadthFirstSearch<>(chain());
+        ParallelBreadthFirstSearch.Result result = bfs.from("B");
+        VertexIndex<String> index = bfs.vertexIndex();
+
+        assertEquals("expected path around the cycle", 2, result.hops()[index.indexOf("A")]);
+        for (String vertex : new String[] {"D", "E"}) {
+            assertEquals("expected unreachable " + vertex,
+                    ParallelBreadthFirstSearch.UNREACHED, result.hops()[index.indexOf(vertex)]);
+            assertEquals("expected no parent of " + vertex,
+                    ParallelBreadthFirstSearch.NO_PARENT, result.parents()[index.indexOf(vertex)]);
+        }
+    }
+
+    @Test
+    public void testFromIsolated() {
+        ParallelBreadthFirstSearch<String> bfs = new ParallelBreadthFirstSearch<>(chain());
+        int[] hops = bfs.from("E").hops();
+
+        int reached = 0;
+        for (int hop : hops) {
+            if (hop != ParallelBreadthFirstSearch.UNREACHED) {
+                reached++;
+            }
+        }
+        assertEquals("expected only the source reached", 1, reached);
+    }
+
+    @Test
+    public void testSnapshot() {
+        Graph<String> graph = chain();
+        ParallelBreadthFirstSearch<String> bfs = new ParallelBreadthFirstSearch<>(graph);
+        graph.set("A", "E", 1);
+
+        assertEquals("expected graph as it was", ParallelBreadthFirstSearch.UNREACHED,
+                bfs.from("A").hops()[bfs.vertexIndex().indexOf("E")]);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAbsentSource() {
+        new ParallelBreadthFirstSearch<>(chain()).from("Z");
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNullPool() {
+        new ParallelBreadthFirstSearch<>(chain(), null);
+    }
+
+    /**
+     * @return a graph on vertices 0..n-1 with about n * degree random edges
+     */
+    private static Graph<Integer> randomGraph(Random random, int n, int degree) {
+        IntGraphAdapter graph = new IntGraphAdapter(new IntGraph(n));
+        for (int v = 0; v < n; v++) {
+            graph.add(v);
+        }
+        for (int e = 0; e < n * degree; e++) {
+            graph.set(random.nextInt(n), random.nextInt(n), 1);
+        }
+        return graph;
+    }
+
+    /**
+     * Check a search result against a sequential breadth-first search.
+     */
+    private static void assertMatchesSequential(ParallelBreadthFirstSearch<Integer> bfs,
+            Graph<Integer> graph, int source) {
+        VertexIndex<Integer> index = bfs.vertexIndex();
+        int[] expected = new int[index.size()];
+        Arrays.fill(expected, ParallelBreadthFirstSearch.UNREACHED);
+        Deque<Integer> queue = new ArrayDeque<>();
+        expected[index.indexOf(source)] = 0;
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int u = queue.remove();
+            for (int v : graph.targetsView(u).keySet()) {
+                if (expected[index.indexOf(v)] == ParallelBreadthFirstSearch.UNREACHED) {
+                    expected[index.indexOf(v)] = expected[index.indexOf(u)] + 1;
+                    queue.add(v);
+                }
+            }
+        }
+
+        ParallelBreadthFirstSearch.Result result = bfs.from(source);
+        assertArrayEquals("expected sequential hop counts", expected, result.hops());
+        for (int v = 0; v < index.size(); v++) {
+            int parent = result.parents()[v];
+            if (expected[v] <= 0) {
+                assertEquals("expected no parent", ParallelBreadthFirstSearch.NO_PARENT, parent);
+            } else {
+                assertEquals("expected parent one hop nearer", expected[v] - 1, expected[parent]);
+                assertTrue("expected edge from parent",
+                        graph.targetsView(index.label(parent)).containsKey(index.label(v)));
+            }
+        }
+    }
+
+    @Test
+    public void testRandomSmallMatchesSequential() {
+        Random random = new Random(6005);
+        for (int trial = 0; trial < 10; trial++) {
+            Graph<Integer> graph = randomGraph(random, 200, 1 + trial);
+            ParallelBreadthFirstSearch<Integer> bfs = new ParallelBreadthFirstSearch<>(graph);
+            for (int source = 0; source < 200; source += 37) {
+                assertMatchesSequential(bfs, graph, source);
+            }
+        }
+    }
+
+    @Test
+    public void testRandomLargeMatchesSequential() {
+        Random random = new Random(6005);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int degree : new int[] {1, 2, 16}) {
+                Graph<Integer> graph = randomGraph(random, 50_000, degree);
+                ParallelBreadthFirstSearch<Integer> bfs = new ParallelBreadthFirstSearch<>(graph, pool);
+                assertMatchesSequential(bfs, graph, 0);
+                assertMatchesSequential(bfs, graph, 49_999);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testLongPathsMatchSequential() {
+        final int path = 3000;
+        final int burst = 20_000;
+        final int n = path + burst + path;
+        IntGraphAdapter graph = new IntGraphAdapter(new IntGraph(n));
+        for (int v = 0; v < n; v++) {
+            graph.add(v);
+        }
+        // a path, then one vertex fanning out to a burst that all leads to
+        // the start of a second path
+        for (int v = 0; v + 1 < path; v++) {
+            graph.set(v, v + 1, 1);
+        }
+        for (int v = path; v < path + burst; v++) {
+            graph.set(path - 1, v, 1);
+            graph.set(v, path + burst, 1);
+        }
+        for (int v = path + burst; v + 1 < n; v++) {
+            graph.set(v, v + 1, 1);
+        }
+
+        ParallelBreadthFirstSearch<Integer> bfs = new ParallelBreadthFirstSearch<>(graph);
+        assertMatchesSequential(bfs, graph, 0);
+        assertMatchesSequential(bfs, graph, path + burst);
+    }
+
+}
@@ -0,0 +1,242 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests for PartitionedGraph and PartitionWorker.
+ * <p>
+ * This class runs the GraphInstanceTest tests against PartitionedGraph, with
+ * workers in threads of the test process, as well as tests for that
+ * particular implementation, some with worker processes.
+ * <p>
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class PartitionedGraphTest extends GraphInstanceTest {
+
+    private final List<PartitionedGraph<String>> instances = new ArrayList<>();
+
+    /*
+     * Provide a PartitionedGraph for tests in GraphInstanceTest, closed
+     * after the test.
+     */
+    @Override public Graph<String> emptyInstance() {
+        try {
+            PartitionedGraph<String> graph = PartitionedGraph.startInThreads(3, LabelCodec.strings());
+            instances.add(graph);
+            return graph;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * Stop the workers of every graph from emptyInstance(), and close their
+     * connections.
+     */
+    @After
+    public void closeInstances() throws IOException {
+        for (PartitionedGraph<String> graph : instances) {
+            graph.close();
+        }
+    }
+
+    /*
+     * Testing PartitionedGraph...
+     */
+
+    // Testing strategy for PartitionedGraph
+    //
+    // start(), startInThreads():
+    // - workers 0, 1, several; in processes or threads; codec null
+    //
+    // edges within one partition and across partitions, including self-loops
+    //
+    // targetsOf(), sourcesOf(): vertices absent, on one worker, on several,
+    //   repeated
+    //
+    // addAll(), setAll(): more requests to one worker than PIPELINE_DEPTH
+    //
+    // increment() that overflows: graph unchanged and still usable
+    //
+    // remove() of a vertex with neighbors on every partition
+    //
+    // random changes checked against ConcreteVerticesGraph, with the full
+    // checkEdges()
+    //
+    // close(): twice; methods after close()
+
+    private static <L> void assertSameGraph(Graph<L> expected, Graph<L> actual) {
+        assertEquals("expected same vertices", expected.vertices(), actual.vertices());
+        for (L vertex : expected.vertices()) {
+            assertEquals("expected same targets of " + vertex, expected.targets(vertex), actual.targets(vertex));
+            assertEquals("expected same sources of " + vertex, expected.sources(vertex), actual.sources(vertex));
+        }
+    }
+
+    @Test
+    public void testWorkerProcesses() throws IOException {
+        try (PartitionedGraph<String> graph = PartitionedGraph.start(2, LabelCodec.strings())) {
+            for (int i = 0; i < 20; i++) {
+                graph.set("v" + i, "v" + ((i + 1) % 20), i + 1);
+            }
+            graph.checkEdges();
+            assertEquals("expected all vertices", 20, graph.vertices().size());
+            assertEquals("expected targets", Map.of("v0", 20), graph.targets("v19"));
+            assertEquals("expected sources", Map.of("v4", 5), graph.sources("v5"));
+        }
+    }
+
+    @Test
+    public void testRandomAgainstMemoryGraph() throws IOException {
+        Random random = new Random(6005);
+        Graph<Integer> expected = Graph.empty();
+        try (PartitionedGraph<Integer> graph = PartitionedGraph.startInThreads(4, LabelCodec.integers())) {
+            for (int i = 0; i < 3000; i++) {
+                int source = random.nextInt(60);
+                int target = random.nextInt(60);
+                int choice = random.nextInt(10);
+                if (choice == 0) {
+                    assertEquals("expected same result of remove", expected.remove(source), graph.remove(source));
+                } else if (choice < 3) {
+                    assertEquals("expected same result of increment",
+                            expected.increment(source, target, 2), graph.increment(source, target, 2));
+                } else {
+                    // the spec leaves the graph unchanged when weight is 0, but
+                    // ConcreteVerticesGraph adds the vertices
+                    boolean bothPresent = expected.vertices().containsAll(List.of(source, target));
+                    int weight = bothPresent ? random.nextInt(4) : 1 + random.nextInt(3);
+                    assertEquals("expected same result of set",
+                            expected.set(source, target, weight), graph.set(source, target, weight));
+                }
+            }
+            graph.checkEdges();
+            assertSameGraph(expected, graph);
+        }
+    }
+
+    @Test
+    public void testTargetsOfAndSourcesOf() throws IOException {
+        try (PartitionedGraph<Integer> graph = PartitionedGraph.startInThreads(3, LabelCodec.integers())) {
+            for (int i = 0; i < 30; i++) {
+                graph.set(i, (i * 7) % 30, i + 1);
+            }
+            graph.set(5, 5, 100);
+
+            Map<Integer, Map<Integer, Integer>> targets = graph.targetsOf(List.of(1, 2, 5, 99, 1));
+            assertEquals("expected one entry per distinct vertex", Set.of(1, 2, 5, 99), targets.keySet());
+            assertEquals("expected targets of 1", Map.of(7, 2), targets.get(1));
+            assertEquals("expected self-loop", Map.of(5, 100), targets.get(5));
+            assertEquals("expected absent vertex to have no targets", Map.of(), targets.get(99));
+            assertEquals("expected sources of 7", Map.of(1, 2), graph.sourcesOf(List.of(7)).get(7));
+            assertTrue("expected empty query", graph.sourcesOf(List.of()).isEmpty());
+        }
+    }
+
+    @Test
+    public void testBulkBeyondPipelineDepth() throws IOException {
+        try (PartitionedGraph<Integer> graph = PartitionedGraph.startInThreads(2, LabelCodec.integers())) {
+            List<Integer> vertices = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                vertices.add(i);
+            }
+            assertTrue("expected vertices added", graph.addAll(vertices));
+            assertFalse("expected no change", graph.addAll(vertices.subList(0, 3000)));
+
+            EdgeBatch<Integer> batch = new EdgeBatch<>(10000);
+            for (int i = 0; i < 5000; i++) {
+                batch.add(i, (i + 1) % 5000, 1 + i % 7);
+                batch.add(i, (i + 2) % 5000, 8);
+            }
+            batch.add(0, 1, 0);
+            graph.setAll(batch);
+
+            graph.checkEdges();
+            assertEquals("expected removed edge", Map.of(2, 8), graph.targets(0));
+            assertEquals("expected sources", Map.of(4998, 8, 4999, 2), graph.sources(0));
+        }
+    }
+
+    @Test
+    public void testIncrementOverflow() throws IOException {
+        try (PartitionedGraph<String> graph = PartitionedGraph.startInThreads(2, LabelCodec.strings())) {
+            graph.set("a", "b", Integer.MAX_VALUE);
+            try {
+                graph.increment("a", "b", 1);
+                fail("expected ArithmeticException");
+            } catch (ArithmeticException e) {
+                // expected
+            }
+            assertEquals("expected edge unchanged", Map.of("b", Integer.MAX_VALUE), graph.targets("a"));
+            assertEquals("expected mirror unchanged", Map.of("a", Integer.MAX_VALUE), graph.sources("b"));
+            assertEquals("expected graph still usable", 0, graph.increment("b", "a", 1));
+        }
+    }
+
+    @Test
+    public void testRemoveHub() throws IOException {
+        try (PartitionedGraph<Integer> graph = PartitionedGraph.startInThreads(4, LabelCodec.integers())) {
+            for (int i = 1; i <= 40; i++) {
+                graph.set(0, i, i);
+                graph.set(i, 0, i);
+                graph.set(i, i % 40 + 1, 1);
+            }
+            graph.set(0, 0, 3);
+
+            assertTrue("expected hub removed", graph.remove(0));
+            assertFalse("expected hub gone", graph.remove(0));
+            graph.checkEdges();
+            for (int i = 1; i <= 40; i++) {
+                assertEquals("expected only ring edge from " + i, Map.of(i % 40 + 1, 1), graph.targets(i));
+            }
+        }
+    }
+
+    @Test
+    public void testOneWorker() throws IOException {
+        try (PartitionedGraph<String> graph = PartitionedGraph.startInThreads(1, LabelCodec.strings())) {
+            graph.set("a", "b", 1);
+            graph.set("b", "a", 2);
+            graph.checkEdges();
+            assertEquals("expected vertices", Set.of("a", "b"), graph.vertices());
+        }
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        PartitionedGraph<String> graph = PartitionedGraph.startInThreads(2, LabelCodec.strings());
+        graph.add("a");
+        graph.close();
+        graph.close();
+        try {
+            graph.vertices();
+            fail("expected IllegalStateException after close");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testZeroWorkers() throws IOException {
+        PartitionedGraph.startInThreads(0, LabelCodec.strings());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNullCodec() throws IOException {
+        PartitionedGraph.start(1, null);
+    }
+
+}
@@ -0,0 +1,169 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for PersistentGraph.
+ */
+public class PersistentGraphTest {
+
+    // Testing strategy for PersistentGraph
+    //
+    // with(), withEdge(), without():
+    // - Vertex: null, absent, present
+    // - Edge: new, updated, removed (weight 0), self-loop; weight negative
+    // - Unchanged result returns the same graph
+    // - Random sequence compared against a map-of-maps model, validated with
+    //   the full checkRep()
+    //
+    // Persistence:
+    // - Earlier versions and their views are unchanged by later updates
+    //
+    // copyOf():
+    // - Mutable graph, persistent graph
+    //
+    // add(), set(), remove(), addAll(), setAll():
+    // - always throw UnsupportedOperationException
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        PersistentGraph<String> graph = PersistentGraph.empty();
+
+        assertTrue("expected no vertices", graph.vertices().isEmpty());
+        assertEquals("expected no edges", 0, graph.edgeCount());
+        assertSame("expected removing absent vertex to return same graph", graph, graph.without("A"));
+    }
+
+    @Test
+    public void testVersionsIndependent() {
+        PersistentGraph<String> v0 = PersistentGraph.<String>empty().withEdge("A", "B", 1);
+        Map<String, Integer> targets = v0.targetsView("A");
+        PersistentGraph<String> v1 = v0.withEdge("A", "C", 2).withEdge("A", "B", 3);
+        PersistentGraph<String> v2 = v1.without("B");
+
+        assertEquals("expected first version unchanged", Map.of("B", 1), v0.targets("A"));
+        assertEquals("expected first version's view unchanged", Map.of("B", 1), targets);
+        assertEquals("expected second version", Map.of("B", 3, "C", 2), v1.targets("A"));
+        assertEquals("expected removed vertex gone", Set.of("A", "C"), v2.vertices());
+        assertEquals("expected edges to removed vertex gone", Map.of("C", 2), v2.targets("A"));
+        assertEquals("expected edge count", 1, v2.edgeCount());
+        v2.checkRep();
+    }
+
+    @Test
+    public void testUnchangedReturnsSame() {
+        PersistentGraph<String> graph = PersistentGraph.<String>empty().withEdge("A", "B", 1);
+
+        assertSame("expected existing vertex to return same graph", graph, graph.with("A"));
+        assertSame("expected same weight to return same graph", graph, graph.withEdge("A", "B", 1));
+        assertSame("expected removing absent edge to return same graph", graph, graph.withEdge("B", "A", 0));
+    }
+
+    @Test
+    public void testSelfLoop() {
+        PersistentGraph<String> graph = PersistentGraph.<String>empty()
+                .withEdge("A", "A", 4).withEdge("B", "A", 1);
+
+        assertEquals("expected self-loop as source", Map.of("A", 4, "B", 1), graph.sources("A"));
+        PersistentGraph<String> removed = graph.without("A");
+        assertEquals("expected all edges removed", 0, removed.edgeCount());
+        assertTrue("expected no targets of B", removed.targets("B").isEmpty());
+        removed.checkRep();
+    }
+
+    @Test
+    public void testRandomOperationsMatchModel() {
+        PersistentGraph<Integer> graph = PersistentGraph.empty();
+        Map<Integer, Map<Integer, Integer>> model = new HashMap<>();
+        Random random = new Random(6005);
+        final int labels = 30;
+
+        for (int step = 0; step < 5000; step++) {
+            int source = random.nextInt(labels);
+            int target = random.nextInt(labels);
+            if (random.nextInt(10) == 0) {
+                model.remove(source);
+                for (Map<Integer, Integer> targets : model.values()) {
+                    targets.remove(source);
+                }
+                graph = graph.without(source);
+            } else {
+                int weight = random.nextInt(4);
+                model.computeIfAbsent(source, v -> new HashMap<>());
+                model.computeIfAbsent(target, v -> new HashMap<>());
+                if (weight == 0) {
+                    model.get(source).remove(target);
+                } else {
+                    model.get(source).put(target, weight);
+                }
+                graph = graph.withEdge(source, target, weight);
+            }
+        }
+
+        graph.checkRep();
+        assertEquals("expected vertices to match model", model.keySet(), graph.vertices());
+        for (int vertex : model.keySet()) {
+            assertEquals("expected targets to match model", model.get(vertex), graph.targets(vertex));
+        }
+    }
+
+    @Test
+    public void testCopyOf() {
+        Graph<String> graph = Graph.empty();
+        graph.set("A", "B", 1);
+        graph.set("B", "C", 2);
+        graph.add("D");
+        PersistentGraph<String> copy = PersistentGraph.copyOf(graph);
+        graph.set("A", "B", 5);
+
+        assertEquals("expected same vertices", Set.of("A", "B", "C", "D"), copy.vertices());
+        assertEquals("expected copy unaffected by later changes", 1, copy.weight("A", "B"));
+        assertEquals("expected sources copied", Map.of("B", 2), copy.sources("C"));
+        assertSame("expected copy of persistent graph to be itself", copy, PersistentGraph.copyOf(copy));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testWithEdgeNegativeWeight() {
+        PersistentGraph.<String>empty().withEdge("A", "B", -1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testWithNull() {
+        PersistentGraph.<String>empty().with(null);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testAddThrows() {
+        PersistentGraph.<String>empty().add("A");
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testSetThrows() {
+        PersistentGraph.<String>empty().set("A", "B", 1);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testIncrementThrows() {
+        PersistentGraph.<String>empty().increment("A", "B", 1);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testRemoveThrows() {
+        PersistentGraph.<String>empty().with("A").remove("A");
+    }
+}
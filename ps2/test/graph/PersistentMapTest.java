@@ -0,0 +1,135 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for PersistentMap.
+ */
+public class PersistentMapTest {
+
+    // Testing strategy for PersistentMap
+    //
+    // put(), remove(), get():
+    // - Map: empty, one key, many keys spanning several trie levels
+    // - Key: absent, present with equal value, present with different value
+    // - Keys with identical hash codes (collision nodes), and keys whose
+    //   hashes differ only in high bits
+    // - Random sequence compared against a HashMap model
+    //
+    // Persistence:
+    // - Earlier versions are unchanged by later put() and remove()
+    // - Unchanged result returns the same map
+    //
+    // asMap():
+    // - Iterates every entry exactly once; unmodifiable
+
+    /** A key whose hash code is chosen by the test. */
+    private record Key(int hash, int id) {
+        @Override public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        PersistentMap<String, Integer> map = PersistentMap.empty();
+
+        assertEquals("expected no keys", 0, map.size());
+        assertNull("expected no value", map.get("a"));
+        assertNull("expected no value for null", map.get(null));
+        assertSame("expected removing absent key to return same map", map, map.remove("a"));
+        assertTrue("expected empty view", map.asMap().isEmpty());
+    }
+
+    @Test
+    public void testPutReturnsNewVersion() {
+        PersistentMap<String, Integer> v0 = PersistentMap.empty();
+        PersistentMap<String, Integer> v1 = v0.put("a", 1);
+        PersistentMap<String, Integer> v2 = v1.put("a", 2);
+        PersistentMap<String, Integer> v3 = v2.remove("a");
+
+        assertNull("expected first version unchanged", v0.get("a"));
+        assertEquals("expected second version", (Integer) 1, v1.get("a"));
+        assertEquals("expected third version", (Integer) 2, v2.get("a"));
+        assertEquals("expected size unchanged by update", 1, v2.size());
+        assertEquals("expected key removed", 0, v3.size());
+        assertSame("expected equal value to return same map", v2, v2.put("a", 2));
+    }
+
+    @Test
+    public void testCollisions() {
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        // same hash; then hashes equal in the low bits but not the high bits
+        Key a = new Key(42, 1);
+        Key b = new Key(42, 2);
+        Key c = new Key(42 | 1 << 30, 3);
+        Key d = new Key(42 | 1 << 31, 4);
+        map = map.put(a, 1).put(b, 2).put(c, 3).put(d, 4);
+
+        assertEquals("expected four keys", 4, map.size());
+        assertEquals("expected colliding key", (Integer) 1, map.get(a));
+        assertEquals("expected colliding key", (Integer) 2, map.get(b));
+        assertEquals("expected high-bit key", (Integer) 3, map.get(c));
+        assertEquals("expected top-bit key", (Integer) 4, map.get(d));
+        assertNull("expected absent colliding key", map.get(new Key(42, 5)));
+
+        PersistentMap<Key, Integer> removed = map.remove(a);
+        assertNull("expected removed key gone", removed.get(a));
+        assertEquals("expected other colliding key kept", (Integer) 2, removed.get(b));
+        assertEquals("expected original kept", (Integer) 1, map.get(a));
+        assertEquals("expected all removed", 0, removed.remove(b).remove(c).remove(d).size());
+    }
+
+    @Test
+    public void testRandomOperationsMatchModel() {
+        Random random = new Random(6005);
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        Map<Key, Integer> model = new HashMap<>();
+        List<PersistentMap<Key, Integer>> versions = new ArrayList<>();
+        List<Map<Key, Integer>> models = new ArrayList<>();
+
+        for (int step = 0; step < 20000; step++) {
+            // few distinct hashes, so collisions and deep tries are common
+            Key key = new Key(random.nextInt(3000) * 0x9E3779B1, random.nextInt(2));
+            if (random.nextInt(3) == 0) {
+                map = map.remove(key);
+                model.remove(key);
+            } else {
+                int value = random.nextInt(5);
+                map = map.put(key, value);
+                model.put(key, value);
+            }
+            if (step % 1000 == 0) {
+                versions.add(map);
+                models.add(new HashMap<>(model));
+            }
+        }
+
+        assertEquals("expected size to match model", model.size(), map.size());
+        assertEquals("expected contents to match model", model, map.asMap());
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals("expected old version unchanged", models.get(i), versions.get(i).asMap());
+        }
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testViewUnmodifiable() {
+        PersistentMap.<String, Integer>empty().put("a", 1).asMap().remove("a");
+    }
+}
@@ -0,0 +1,153 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for ShortestPaths.
+ */
+public class ShortestPathsTest {
+
+    // Testing strategy for ShortestPaths
+    //
+    // distance(), path():
+    // - source == target, adjacent, reachable only through a longer chain
+    //   with lower total weight, unreachable
+    // - source or target not in the graph
+    //
+    // from():
+    // - distances and predecessors for reachable and unreachable vertices,
+    //   agree with distance() and path()
+    // - Random graphs compared against Floyd-Warshall
+    //
+    // Snapshot:
+    // - Changes to the graph after construction are not seen
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static Graph<String> diamond() {
+        Graph<String> graph = Graph.empty();
+        graph.set("A", "B", 1);
+        graph.set("B", "C", 1);
+        graph.set("C", "D", 1);
+        graph.set("A", "D", 5);
+        graph.set("D", "A", 1);
+        graph.add("E");
+        return graph;
+    }
+
+    @Test
+    public void testDistance() {
+        ShortestPaths<String> paths = new ShortestPaths<>(diamond());
+
+        assertEquals("expected zero distance to self", 0, paths.distance("A", "A"));
+        assertEquals("expected direct edge", 1, paths.distance("A", "B"));
+        assertEquals("expected longer but lighter path", 3, paths.distance("A", "D"));
+        assertEquals("expected unreachable", ShortestPaths.UNREACHABLE, paths.distance("A", "E"));
+    }
+
+    @Test
+    public void testPath() {
+        ShortestPaths<String> paths = new ShortestPaths<>(diamond());
+
+        assertEquals("expected lighter path", List.of("A", "B", "C", "D"), paths.path("A", "D"));
+        assertEquals("expected path around the cycle", List.of("C", "D", "A"), paths.path("C", "A"));
+        assertEquals("expected single vertex path", List.of("B"), paths.path("B", "B"));
+        assertTrue("expected no path", paths.path("E", "A").isEmpty());
+    }
+
+    @Test
+    public void testFrom() {
+        ShortestPaths<String> paths = new ShortestPaths<>(diamond());
+        ShortestPaths.SingleSource result = paths.from("B");
+        VertexIndex<String> index = paths.vertexIndex();
+
+        assertEquals("expected one entry per vertex", 5, result.distances().length);
+        assertEquals("expected distance to source", 0, result.distances()[index.indexOf("B")]);
+        assertEquals("expected distance to A", 3, result.distances()[index.indexOf("A")]);
+        assertEquals("expected predecessor of A", index.indexOf("D"), result.predecessors()[index.indexOf("A")]);
+        assertEquals("expected no predecessor of source",
+                ShortestPaths.NO_PREDECESSOR, result.predecessors()[index.indexOf("B")]);
+        assertEquals("expected unreachable vertex",
+                ShortestPaths.UNREACHABLE, result.distances()[index.indexOf("E")]);
+    }
+
+    @Test
+    public void testSnapshot() {
+        Graph<String> graph = diamond();
+        ShortestPaths<String> paths = new ShortestPaths<>(graph);
+        graph.set("A", "E", 1);
+
+        assertEquals("expected graph as it was", ShortestPaths.UNREACHABLE, paths.distance("A", "E"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAbsentSource() {
+        new ShortestPaths<>(diamond()).distance("Z", "A");
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAbsentTarget() {
+        new ShortestPaths<>(diamond()).path("A", "Z");
+    }
+
+    @Test
+    public void testRandomMatchesFloydWarshall() {
+        Random random = new Random(6005);
+        final int n = 40;
+        for (int trial = 0; trial < 5; trial++) {
+            Graph<Integer> graph = Graph.empty();
+            for (int v = 0; v < n; v++) {
+                graph.add(v);
+            }
+            for (int e = 0; e < 150; e++) {
+                graph.set(random.nextInt(n), random.nextInt(n), 1 + random.nextInt(20));
+            }
+
+            long[][] expected = new long[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    Integer weight = graph.targets(i).get(j);
+                    expected[i][j] = i == j ? 0 : weight == null ? ShortestPaths.UNREACHABLE : weight;
+                }
+            }
+            for (int k = 0; k < n; k++) {
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < n; j++) {
+                        if (expected[i][k] != ShortestPaths.UNREACHABLE && expected[k][j] != ShortestPaths.UNREACHABLE) {
+                            expected[i][j] = Math.min(expected[i][j], expected[i][k] + expected[k][j]);
+                        }
+                    }
+                }
+            }
+
+            ShortestPaths<Integer> paths = new ShortestPaths<>(graph);
+            VertexIndex<Integer> index = paths.vertexIndex();
+            for (int i = 0; i < n; i++) {
+                long[] distances = paths.from(i).distances();
+                for (int j = 0; j < n; j++) {
+                    assertEquals("expected single-source distance", expected[i][j], distances[index.indexOf(j)]);
+                    assertEquals("expected single-pair distance", expected[i][j], paths.distance(i, j));
+                    List<Integer> path = paths.path(i, j);
+                    long weight = 0;
+                    for (int k = 1; k < path.size(); k++) {
+                        weight += graph.targets(path.get(k - 1)).get(path.get(k));
+                    }
+                    if (!path.isEmpty()) {
+                        assertEquals("expected path weight to be the distance", expected[i][j], weight);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for StronglyConnectedComponents.
+ */
+public class StronglyConnectedComponentsTest {
+
+    // Testing strategy for StronglyConnectedComponents
+    //
+    // componentCount(), components(), componentOf(), members():
+    // - graph empty, one vertex, self-loop, acyclic, one cycle, several
+    //   cycles joined by edges
+    // - component numbers in topological order
+    // - vertex or component not in the graph
+    // - chain long enough to overflow a recursive search
+    // - random graphs compared against mutual reachability
+    //
+    // condensation():
+    // - no edges, parallel edges between components summed, edges inside a
+    //   component dropped
+    // - result is mutable and independent of this object
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    /**
+     * @return cycle A->B->C->A, which reaches cycle D<->E, which reaches F
+     *         with a self-loop, plus isolated G
+     */
+    private static Graph<String> cycles() {
+        Graph<String> graph = Graph.empty();
+        graph.set("A", "B", 1);
+        graph.set("B", "C", 1);
+        graph.set("C", "A", 1);
+        graph.set("A", "D", 2);
+        graph.set("C", "E", 3);
+        graph.set("D", "E", 1);
+        graph.set("E", "D", 1);
+        graph.set("E", "F", 4);
+        graph.set("F", "F", 5);
+        graph.add("G");
+        return graph;
+    }
+
+    @Test
+    public void testEmpty() {
+        StronglyConnectedComponents<String> scc = new StronglyConnectedComponents<>(Graph.empty());
+
+        assertEquals("expected no components", 0, scc.componentCount());
+        assertEquals("expected no ids", 0, scc.components().length);
+        assertTrue("expected empty condensation", scc.condensation().vertices().isEmpty());
+    }
+
+    @Test
+    public void testCycles() {
+        StronglyConnectedComponents<String> scc = new StronglyConnectedComponents<>(cycles());
+
+        assertEquals("expected four components", 4, scc.componentCount());
+        assertEquals("expected A, B, C together", scc.componentOf("A"), scc.componentOf("B"));
+        assertEquals("expected A, B, C together", scc.componentOf("A"), scc.componentOf("C"));
+        assertEquals("expected D, E together", scc.componentOf("D"), scc.componentOf("E"));
+        assertNotEquals("expected cycles apart", scc.componentOf("A"), scc.componentOf("D"));
+        assertTrue("expected topological order", scc.componentOf("A") < scc.componentOf("D"));
+        assertTrue("expected topological order", scc.componentOf("E") < scc.componentOf("F"));
+        assertEquals("expected members", Set.of("D", "E"), Set.copyOf(scc.members(scc.componentOf("D"))));
+        assertEquals("expected self-loop alone", 1, scc.members(scc.componentOf("F")).size());
+    }
+
+    @Test
+    public void testComponentsIndexedByVertexIndex() {
+        StronglyConnectedComponents<String> scc = new StronglyConnectedComponents<>(cycles());
+        int[] components = scc.components();
+        VertexIndex<String> index = scc.vertexIndex();
+
+        for (String vertex : index.labels()) {
+            assertEquals("expected same component", scc.componentOf(vertex), components[index.indexOf(vertex)]);
+        }
+        components[0] = -5;
+        assertNotEquals("expected copy", -5, scc.components()[0]);
+    }
+
+    @Test
+    public void testCondensation() {
+        StronglyConnectedComponents<String> scc = new StronglyConnectedComponents<>(cycles());
+        Graph<Integer> dag = scc.condensation();
+        int abc = scc.componentOf("A");
+        int de = scc.componentOf("D");
+        int f = scc.componentOf("F");
+        int g = scc.componentOf("G");
+
+        assertEquals("expected vertex per component", Set.of(0, 1, 2, 3), dag.vertices());
+        assertEquals("expected summed edges A->D and C->E", Map.of(de, 5), dag.targets(abc));
+        assertEquals("expected edge E->F", Map.of(f, 4), dag.targets(de));
+        assertTrue("expected self-loop dropped", dag.targets(f).isEmpty());
+        assertTrue("expected isolated component", dag.sources(g).isEmpty());
+
+        dag.set(f, abc, 1);
+        assertTrue("expected new graph each time", scc.condensation().targets(f).isEmpty());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAbsentVertex() {
+        new StronglyConnectedComponents<>(cycles()).componentOf("Z");
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAbsentComponent() {
+        new StronglyConnectedComponents<>(cycles()).members(4);
+    }
+
+    @Test
+    public void testLongCycle() {
+        final int n = 200_000;
+        IntGraphAdapter graph = new IntGraphAdapter(new IntGraph(n));
+        for (int v = 0; v < n; v++) {
+            graph.set(v, (v + 1) % n, 1);
+        }
+        graph.set(n - 1, n, 1);
+        StronglyConnectedComponents<Integer> scc = new StronglyConnectedComponents<>(graph);
+
+        assertEquals("expected cycle and tail", 2, scc.componentCount());
+        assertEquals("expected cycle first", 0, scc.componentOf(0));
+        assertEquals("expected tail last", 1, scc.componentOf(n));
+        assertEquals("expected whole cycle", n, scc.members(0).size());
+    }
+
+    @Test
+    public void testRandomMatchesReachability() {
+        Random random = new Random(6005);
+        final int n = 30;
+        for (int trial = 0; trial < 20; trial++) {
+            Graph<Integer> graph = Graph.empty();
+            for (int v = 0; v < n; v++) {
+                graph.add(v);
+            }
+            for (int e = 0; e < 10 + trial * 3; e++) {
+                graph.set(random.nextInt(n), random.nextInt(n), 1 + random.nextInt(5));
+            }
+
+            boolean[][] reaches = new boolean[n][n];
+            for (int i = 0; i < n; i++) {
+                reaches[i][i] = true;
+                for (int j : graph.targets(i).keySet()) {
+                    reaches[i][j] = true;
+                }
+            }
+            for (int k = 0; k < n; k++) {
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < n; j++) {
+                        reaches[i][j] |= reaches[i][k] && reaches[k][j];
+                    }
+                }
+            }
+
+            StronglyConnectedComponents<Integer> scc = new StronglyConnectedComponents<>(graph);
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    assertEquals("expected same component iff mutually reachable",
+                            reaches[i][j] && reaches[j][i], scc.componentOf(i) == scc.componentOf(j));
+                    if (reaches[i][j]) {
+                        assertTrue("expected topological order", scc.componentOf(i) <= scc.componentOf(j));
+                    }
+                }
+            }
+        }
+    }
+
+}
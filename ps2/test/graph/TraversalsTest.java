@@ -0,0 +1,213 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for Traversals.
+ */
+public class TraversalsTest {
+
+    // Testing strategy for Traversals
+    //
+    // depthFirst(), breadthFirst():
+    // - start alone, with a chain, with branches that rejoin, on a cycle
+    // - unreachable vertices not produced
+    // - filter accepts all, rejects start, rejects a vertex that is the only
+    //   way to others
+    // - iteration stopped early; next() after the end; iterator() twice
+    // - start not in the graph
+    //
+    // topologicalOrder():
+    // - graph empty, acyclic, with a cycle, with a self-loop
+    // - filter that removes the only vertex on a cycle
+    //
+    // Laziness:
+    // - stopping early does not read targets of unproduced vertices
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    /**
+     * @return A->B->D, A->C->D, D->E, with F isolated
+     */
+    private static Graph<String> diamond() {
+        Graph<String> graph = Graph.empty();
+        graph.set("A", "B", 1);
+        graph.set("A", "C", 1);
+        graph.set("B", "D", 1);
+        graph.set("C", "D", 1);
+        graph.set("D", "E", 1);
+        graph.add("F");
+        return graph;
+    }
+
+    private static <L> List<L> list(Iterable<L> iterable) {
+        List<L> list = new ArrayList<>();
+        for (L vertex : iterable) {
+            list.add(vertex);
+        }
+        return list;
+    }
+
+    /**
+     * Assert that every edge between vertices in order goes forward.
+     */
+    private static <L> void assertTopological(Graph<L> graph, List<L> order) {
+        for (int i = 0; i < order.size(); i++) {
+            for (L target : graph.targets(order.get(i)).keySet()) {
+                int j = order.indexOf(target);
+                assertTrue("expected " + order.get(i) + " before " + target, j < 0 || i < j);
+            }
+        }
+    }
+
+    @Test
+    public void testDepthFirst() {
+        List<String> order = list(Traversals.depthFirst(diamond(), "A"));
+
+        assertEquals("expected reachable vertices", Set.of("A", "B", "C", "D", "E"), Set.copyOf(order));
+        assertEquals("expected each once", 5, order.size());
+        assertEquals("expected start first", "A", order.get(0));
+        int d = order.indexOf("D");
+        assertEquals("expected E right after D", "E", order.get(d + 1));
+        assertTrue("expected D below a child of A", order.get(d - 1).equals("B") || order.get(d - 1).equals("C"));
+    }
+
+    @Test
+    public void testBreadthFirst() {
+        List<String> order = list(Traversals.breadthFirst(diamond(), "A"));
+
+        assertEquals("expected each once", 5, order.size());
+        assertEquals("expected start first", "A", order.get(0));
+        assertEquals("expected children next", Set.of("B", "C"), Set.copyOf(order.subList(1, 3)));
+        assertEquals("expected order by hops", List.of("D", "E"), order.subList(3, 5));
+    }
+
+    @Test
+    public void testCycle() {
+        Graph<String> graph = Graph.empty();
+        graph.set("A", "B", 1);
+        graph.set("B", "A", 1);
+        graph.set("B", "B", 1);
+
+        assertEquals("expected each once", List.of("B", "A"), list(Traversals.depthFirst(graph, "B")));
+        assertEquals("expected each once", List.of("A", "B"), list(Traversals.breadthFirst(graph, "A")));
+    }
+
+    @Test
+    public void testFilter() {
+        Graph<String> graph = diamond();
+
+        assertEquals("expected only one branch", List.of("A", "B", "D", "E"),
+                list(Traversals.depthFirst(graph, "A", vertex -> !vertex.equals("C"))));
+        assertEquals("expected cut off at D", Set.of("A", "B", "C"),
+                Set.copyOf(list(Traversals.breadthFirst(graph, "A", vertex -> !vertex.equals("D")))));
+        assertTrue("expected rejected start", list(Traversals.breadthFirst(graph, "A", vertex -> false)).isEmpty());
+        assertFalse("expected rejected start",
+                Traversals.depthFirst(graph, "A", vertex -> false).iterator().hasNext());
+    }
+
+    @Test
+    public void testEndAndRestart() {
+        Iterable<String> traversal = Traversals.breadthFirst(diamond(), "D");
+        Iterator<String> iterator = traversal.iterator();
+
+        assertEquals("expected start", "D", iterator.next());
+        assertEquals("expected target", "E", iterator.next());
+        assertFalse("expected end", iterator.hasNext());
+        try {
+            iterator.next();
+            fail("expected NoSuchElementException");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+        assertEquals("expected new traversal", List.of("D", "E"), list(traversal));
+    }
+
+    @Test
+    public void testLazy() {
+        Map<String, Integer> reads = new HashMap<>();
+        Graph<String> graph = new ConcreteEdgesGraph<>() {
+            @Override public Map<String, Integer> targetsView(String source) {
+                reads.merge(source, 1, Integer::sum);
+                return super.targetsView(source);
+            }
+        };
+        for (int i = 0; i < 100; i++) {
+            graph.set("v" + i, "v" + (i + 1), 1);
+        }
+
+        Iterator<String> iterator = Traversals.depthFirst(graph, "v0").iterator();
+        iterator.next();
+        iterator.next();
+        iterator.hasNext();
+
+        assertEquals("expected only produced vertices read", Set.of("v0", "v1"), reads.keySet());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAbsentStart() {
+        Traversals.depthFirst(diamond(), "Z");
+    }
+
+    @Test
+    public void testTopologicalOrder() {
+        Graph<String> graph = diamond();
+        List<String> order = list(Traversals.topologicalOrder(graph));
+
+        assertEquals("expected every vertex", graph.vertices(), Set.copyOf(order));
+        assertEquals("expected each once", 6, order.size());
+        assertTopological(graph, order);
+        assertTrue("expected empty graph", list(Traversals.topologicalOrder(Graph.empty())).isEmpty());
+    }
+
+    @Test
+    public void testTopologicalOrderCycle() {
+        Graph<String> graph = diamond();
+        graph.set("E", "B", 1);
+        Iterator<String> iterator = Traversals.topologicalOrder(graph).iterator();
+
+        List<String> before = new ArrayList<>();
+        try {
+            while (iterator.hasNext()) {
+                before.add(iterator.next());
+            }
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals("expected vertices before the cycle", Set.of("A", "C", "F"), Set.copyOf(before));
+        }
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testTopologicalOrderSelfLoop() {
+        Graph<String> graph = Graph.empty();
+        graph.set("A", "A", 1);
+        list(Traversals.topologicalOrder(graph));
+    }
+
+    @Test
+    public void testTopologicalOrderFilter() {
+        Graph<String> graph = diamond();
+        graph.set("E", "B", 1);
+        List<String> order = list(Traversals.topologicalOrder(graph, vertex -> !vertex.equals("E")));
+
+        assertEquals("expected cycle broken", Set.of("A", "B", "C", "D", "F"), Set.copyOf(order));
+        assertTopological(graph, order);
+    }
+
+}
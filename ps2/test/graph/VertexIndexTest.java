@@ -0,0 +1,64 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for VertexIndex.
+ */
+public class VertexIndexTest {
+
+    // Testing strategy for VertexIndex
+    //
+    // Constructor:
+    // - Labels: empty, several, containing null, containing duplicates
+    //
+    // indexOf(), label(), labels():
+    // - Label: present, absent, null
+    // - labels() is unmodifiable
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testNumbersInOrder() {
+        VertexIndex<String> index = new VertexIndex<>(List.of("C", "A", "B"));
+
+        assertEquals("expected three labels", 3, index.size());
+        assertEquals("expected first label numbered 0", 0, index.indexOf("C"));
+        assertEquals("expected label of number", "B", index.label(2));
+        assertEquals("expected absent label", -1, index.indexOf("Z"));
+        assertEquals("expected null absent", -1, index.indexOf(null));
+        assertEquals("expected labels", Set.of("A", "B", "C"), index.labels());
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals("expected no labels", 0, new VertexIndex<String>(List.of()).size());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testDuplicateLabel() {
+        new VertexIndex<>(List.of("A", "B", "A"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNullLabel() {
+        new VertexIndex<>(Arrays.asList("A", null));
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testLabelsUnmodifiable() {
+        new VertexIndex<>(List.of("A")).labels().add("B");
+    }
+}